@@ -19,6 +19,8 @@ public class AdvancedStatsPanel extends JPanel {
     private JComboBox<String> periodCombo;
     private Map<String, double[]> monthlySales;
     private List<Object[]> productStats;
+    private final DataAccess.LatestOnly salesLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly productLoads = new DataAccess.LatestOnly();
 
     public AdvancedStatsPanel() {
         dateFormat = new SimpleDateFormat("MM/yyyy");
@@ -83,62 +85,63 @@ public class AdvancedStatsPanel extends JPanel {
         add(tabbedPane);
     }
 
+    /**
+     * Reload both tabs for the selected period. Changing the period again while
+     * the queries run cancels them, so only the latest period reaches the charts.
+     */
     private void loadData() {
-        loadSalesData();
-        loadProductsData();
-        repaint();
+        int months = selectedMonths();
+        salesLoads.apply(DataAccess.read(conn -> querySalesData(conn, months)), this::showSalesData,
+            DataAccess.errorDialog(this, "Error loading sales data"));
+        productLoads.apply(DataAccess.read(conn -> queryProductsData(conn, months)), this::showProductsData,
+            DataAccess.errorDialog(this, "Error loading product data"));
     }
 
-    private void loadSalesData() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
-            int months = switch(periodCombo.getSelectedIndex()) {
-                case 0 -> 6;
-                case 1 -> 12;
-                case 2 -> 24;
-                default -> 12;
-            };
-
-            // Query with proper period filtering
-            String query = "SELECT strftime('%Y-%m', o.order_date) as month, " +
-                          "SUM(o.total) as total, " +
-                          "COUNT(*) as num_orders " +
-                          "FROM orders o " +
-                          "WHERE o.order_date IS NOT NULL " +
-                          "AND o.order_date >= datetime('now', '-" + months + " months') " +
-                          "GROUP BY month " +
-                          "ORDER BY month";
-
-            System.out.println("Loading sales data for last " + months + " months");
-
-            // Thread-safe access to monthlySales
-            Map<String, double[]> newMonthlySales = new HashMap<>();
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-
-                while (rs.next()) {
-                    String month = rs.getString("month");
-                    if (month != null && !month.trim().isEmpty()) {
-                        double total = rs.getDouble("total");
-                        int numOrders = rs.getInt("num_orders");
-                        newMonthlySales.put(month, new double[]{total, numOrders});
-                        System.out.println("Month: " + month + ", Total: €" + total + ", Orders: " + numOrders);
-                    }
-                }
+    private int selectedMonths() {
+        return switch(periodCombo.getSelectedIndex()) {
+            case 0 -> 6;
+            case 1 -> 12;
+            case 2 -> 24;
+            default -> 12;
+        };
+    }
 
-                System.out.println("Loaded " + newMonthlySales.size() + " months of sales data");
+    private Map<String, double[]> querySalesData(Connection conn, int months) throws SQLException {
+        // Query with proper period filtering
+        String query = "SELECT " + DateStorage.monthOf("o.order_date") + " as month, " +
+                      "SUM(o.total) as total, " +
+                      "COUNT(*) as num_orders " +
+                      "FROM orders o " +
+                      "WHERE o.order_date IS NOT NULL " +
+                      "AND o.order_date >= ? " +
+                      "GROUP BY month " +
+                      "ORDER BY month";
+
+        System.out.println("Loading sales data for last " + months + " months");
+
+        Map<String, double[]> newMonthlySales = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setLong(1, DateStorage.monthsAgo(months));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                String month = rs.getString("month");
+                if (month != null && !month.trim().isEmpty()) {
+                    double total = rs.getDouble("total");
+                    int numOrders = rs.getInt("num_orders");
+                    newMonthlySales.put(month, new double[]{total, numOrders});
+                    System.out.println("Month: " + month + ", Total: €" + total + ", Orders: " + numOrders);
+                }
             }
 
-            // Update reference atomically
-            monthlySales = newMonthlySales;
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading sales data: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+            System.out.println("Loaded " + newMonthlySales.size() + " months of sales data");
         }
+        return newMonthlySales;
+    }
+
+    private void showSalesData(Map<String, double[]> newMonthlySales) {
+        monthlySales = newMonthlySales;
+        salesChartPanel.repaint();
     }
 
     private void drawSalesChart(Graphics g) {
@@ -223,74 +226,65 @@ public class AdvancedStatsPanel extends JPanel {
         }
     }
 
-    private void loadProductsData() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
-            int months = switch(periodCombo.getSelectedIndex()) {
-                case 0 -> 6;
-                case 1 -> 12;
-                case 2 -> 24;
-                default -> 12;
-            };
-
-            String query = "SELECT COALESCE(p.name, 'Product N/A') as name, " +
-                          "SUM(d.quantity) as total_quantity, " +
-                          "SUM(d.quantity * d.unit_price) as revenue, " +
-                          "COUNT(DISTINCT o.id) as num_orders " +
-                          "FROM order_details d " +
-                          "LEFT JOIN products p ON d.product_id = p.id " +
-                          "LEFT JOIN orders o ON d.order_id = o.id " +
-                          "WHERE o.order_date IS NOT NULL " +
-                          "AND o.order_date >= datetime('now', '-" + months + " months') " +
-                          "GROUP BY d.product_id, p.name " +
-                          "ORDER BY revenue DESC " +
-                          "LIMIT 10";
-
-            System.out.println("Loading products data for last " + months + " months");
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-
-                double totalRevenue = 0;
-                productStats.clear();
-
-                while (rs.next()) {
-                    String name = rs.getString("name");
-                    int quantity = rs.getInt("total_quantity");
-                    double revenue = rs.getDouble("revenue");
-                    totalRevenue += revenue;
-                    productStats.add(new Object[]{name, quantity, revenue});
-                }
+    private List<Object[]> queryProductsData(Connection conn, int months) throws SQLException {
+        String query = "SELECT COALESCE(p.name, 'Product N/A') as name, " +
+                      "SUM(d.quantity) as total_quantity, " +
+                      "SUM(d.quantity * d.unit_price) as revenue, " +
+                      "COUNT(DISTINCT o.id) as num_orders " +
+                      "FROM order_details d " +
+                      "LEFT JOIN products p ON d.product_id = p.id " +
+                      "LEFT JOIN orders o ON d.order_id = o.id " +
+                      "WHERE o.order_date IS NOT NULL " +
+                      "AND o.order_date >= ? " +
+                      "GROUP BY d.product_id, p.name " +
+                      "ORDER BY revenue DESC " +
+                      "LIMIT 10";
+
+        System.out.println("Loading products data for last " + months + " months");
+
+        List<Object[]> stats = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            pstmt.setLong(1, DateStorage.monthsAgo(months));
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                String name = rs.getString("name");
+                int quantity = rs.getInt("total_quantity");
+                double revenue = rs.getDouble("revenue");
+                stats.add(new Object[]{name, quantity, revenue});
+            }
+        }
+        return stats;
+    }
 
-                System.out.println("Loaded " + productStats.size() + " products, total revenue: €" + totalRevenue);
-
-                // Update table
-                Object[][] data = new Object[productStats.size()][4];
-                for (int i = 0; i < productStats.size(); i++) {
-                    Object[] row = productStats.get(i);
-                    data[i][0] = row[0];
-                    data[i][1] = row[1];
-                    data[i][2] = String.format("€ %.2f", (double)row[2]);
-                    if (totalRevenue > 0) {
-                        data[i][3] = String.format("%.1f%%", ((double)row[2] / totalRevenue) * 100);
-                    } else {
-                        data[i][3] = "0.0%";
-                    }
-                }
+    private void showProductsData(List<Object[]> stats) {
+        productStats = stats;
 
-                topProductsTable.setModel(new javax.swing.table.DefaultTableModel(
-                    data,
-                    new String[]{"Product", "Quantity Sold", "Revenue", "% of Total"}
-                ));
-            }
+        double totalRevenue = 0;
+        for (Object[] row : productStats) {
+            totalRevenue += (double)row[2];
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading product data: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        System.out.println("Loaded " + productStats.size() + " products, total revenue: €" + totalRevenue);
+
+        // Update table
+        Object[][] data = new Object[productStats.size()][4];
+        for (int i = 0; i < productStats.size(); i++) {
+            Object[] row = productStats.get(i);
+            data[i][0] = row[0];
+            data[i][1] = row[1];
+            data[i][2] = String.format("€ %.2f", (double)row[2]);
+            if (totalRevenue > 0) {
+                data[i][3] = String.format("%.1f%%", ((double)row[2] / totalRevenue) * 100);
+            } else {
+                data[i][3] = "0.0%";
+            }
         }
+
+        topProductsTable.setModel(new javax.swing.table.DefaultTableModel(
+            data,
+            new String[]{"Product", "Quantity Sold", "Revenue", "% of Total"}
+        ));
+        productsChartPanel.repaint();
     }
 
     private void drawProductsChart(Graphics g) {
@@ -83,6 +83,11 @@ public class AppConstants {
      */
     public static final String BACKUP_DIR_NAME = "backups";
 
+    /**
+     * The log directory name (relative to app data directory).
+     */
+    public static final String LOG_DIR_NAME = "logs";
+
     /**
      * Gets the application data directory path for the current platform.
      * Creates the directory if it doesn't exist.
@@ -165,6 +170,24 @@ public class AppConstants {
         return backupDir;
     }
 
+    /**
+     * Gets the full path to the log directory.
+     * Creates the directory if it doesn't exist.
+     *
+     * @return The path to the log directory
+     */
+    public static Path getLogDirectory() {
+        Path logDir = getAppDataDirectory().resolve(LOG_DIR_NAME);
+        try {
+            if (!Files.exists(logDir)) {
+                Files.createDirectories(logDir);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not create log directory: " + e.getMessage());
+        }
+        return logDir;
+    }
+
     // Private constructor to prevent instantiation
     private AppConstants() {
         throw new AssertionError("AppConstants class cannot be instantiated");
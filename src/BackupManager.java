@@ -102,11 +102,13 @@ public class BackupManager {
                 throw new FileNotFoundException("Backup file not found: " + backupFile);
             }
 
-            // Close connection safely
+            // Close every connection; nothing may re-open the file or keep its WAL alive during the copy
             try {
                 DatabaseManager.getInstance().closeConnection();
-            } catch (Exception e) {
-                System.err.println("Warning: Could not close database connection: " + e.getMessage());
+            } catch (java.sql.SQLException e) {
+                // A screen still holds a read connection: keep the current database
+                DatabaseManager.getInstance().initDatabase();
+                throw e;
             }
 
             String currentBackup = AppConstants.DATABASE_FILE_NAME.replace(".db", "_pre_restore_" +
@@ -134,6 +136,11 @@ public class BackupManager {
                 throw new RuntimeException("Failed to restore database: " + e.getMessage());
             }
 
+            DataAccess.onEdt(ProductSearchIndex.getInstance().load(), count -> { },
+                DataAccess.logError("Error reloading product search index"));
+            DataAccess.onEdt(StockLedger.getInstance().load(), count -> { },
+                DataAccess.logError("Error reloading stock ledger"));
+
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("Error during restore: " + e.getMessage());
@@ -12,6 +12,7 @@ public class BackupPanel extends JPanel {
     private JTable backupsTable;
     private DefaultTableModel tableModel;
     private BackupManager backupManager;
+    private JTextArea maintenanceArea;
     private SimpleDateFormat dateTimeFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
 
     public BackupPanel() {
@@ -108,10 +109,75 @@ public class BackupPanel extends JPanel {
         buttonPanel.add(deleteButton);
         buttonPanel.add(saveButton);
 
+        // Database maintenance status
+        JPanel maintenancePanel = new JPanel(new BorderLayout(5, 5));
+        maintenancePanel.setBorder(BorderFactory.createTitledBorder("Database Maintenance"));
+        maintenanceArea = new JTextArea(7, 60);
+        maintenanceArea.setEditable(false);
+        maintenanceArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        maintenancePanel.add(new JScrollPane(maintenanceArea), BorderLayout.CENTER);
+
+        JPanel maintenanceButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        JButton runMaintenanceButton = new JButton("Run Maintenance Now");
+        runMaintenanceButton.setToolTipText("Checkpoint the WAL, refresh planner statistics and reclaim free pages");
+        runMaintenanceButton.addActionListener(e -> DatabaseMaintenance.getInstance().runNow());
+        JButton rebuildKpiButton = new JButton("Rebuild Dashboard KPIs");
+        rebuildKpiButton.setToolTipText("Recompute the dashboard KPI snapshot from products, orders and invoices");
+        rebuildKpiButton.addActionListener(e -> rebuildKpiSnapshot(rebuildKpiButton));
+        JButton rebuildSearchButton = new JButton("Rebuild Search Index");
+        rebuildSearchButton.setToolTipText("Re-index products, customers, suppliers, invoices and movements for search");
+        rebuildSearchButton.addActionListener(e -> rebuildSearchIndex(rebuildSearchButton));
+        maintenanceButtons.add(runMaintenanceButton);
+        maintenanceButtons.add(rebuildKpiButton);
+        maintenanceButtons.add(rebuildSearchButton);
+        maintenancePanel.add(maintenanceButtons, BorderLayout.SOUTH);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(buttonPanel, BorderLayout.NORTH);
+        southPanel.add(maintenancePanel, BorderLayout.CENTER);
+
+        DatabaseMaintenance.getInstance().addListener(() -> SwingUtilities.invokeLater(this::updateMaintenanceStatus));
+        updateMaintenanceStatus();
+
         // Main layout
         add(configPanel, BorderLayout.NORTH);
         add(new JScrollPane(backupsTable), BorderLayout.CENTER);
-        add(buttonPanel, BorderLayout.SOUTH);
+        add(southPanel, BorderLayout.SOUTH);
+    }
+
+    private void rebuildKpiSnapshot(JButton button) {
+        button.setEnabled(false);
+        DataAccess.onEdt(KpiSnapshot.rebuild(),
+            done -> {
+                button.setEnabled(true);
+                JOptionPane.showMessageDialog(this,
+                    "Dashboard KPIs rebuilt successfully",
+                    "Rebuild Completed", JOptionPane.INFORMATION_MESSAGE);
+            },
+            error -> {
+                button.setEnabled(true);
+                DataAccess.errorDialog(this, "Error rebuilding dashboard KPIs").accept(error);
+            });
+    }
+
+    private void rebuildSearchIndex(JButton button) {
+        button.setEnabled(false);
+        DataAccess.onEdt(SearchService.rebuild(),
+            done -> {
+                button.setEnabled(true);
+                JOptionPane.showMessageDialog(this,
+                    "Search index rebuilt successfully",
+                    "Rebuild Completed", JOptionPane.INFORMATION_MESSAGE);
+            },
+            error -> {
+                button.setEnabled(true);
+                DataAccess.errorDialog(this, "Error rebuilding the search index").accept(error);
+            });
+    }
+
+    private void updateMaintenanceStatus() {
+        maintenanceArea.setText(DatabaseMaintenance.getInstance().getFormattedStatus());
+        maintenanceArea.setCaretPosition(0);
     }
 
     private void selectBackupDirectory() {
@@ -0,0 +1,268 @@
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only table model that stores each column in a primitive array.
+ *
+ * Integers are kept in int[], dates as epoch milliseconds in long[], amounts
+ * as cents in long[], and short repeated labels (status, category) as int
+ * codes into a per-column dictionary. Nothing is formatted when rows are
+ * added: {@link #getValueAt} returns the raw value (Integer, Date, Double or
+ * String) so the {@link KeyedRowSorter} installed by TableSorterUtil builds
+ * its sort keys from numbers and dates as such, and the renderers from
+ * {@link #installRenderers} format the cell only when it is painted. Exports read the same raw values through {@link #getExportValueAt}.
+ */
+public class ColumnarTableModel extends AbstractTableModel {
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+
+    public enum Type { INT, DATE, MONEY, TEXT, CATEGORY }
+
+    /**
+     * Column definition: header, storage type and, for dates, the display format
+     */
+    public static class Column {
+        private final String name;
+        private final Type type;
+        private final SimpleDateFormat dateFormat;
+
+        private Column(String name, Type type, SimpleDateFormat dateFormat) {
+            this.name = name;
+            this.type = type;
+            this.dateFormat = dateFormat;
+        }
+
+        public static Column integer(String name) {
+            return new Column(name, Type.INT, null);
+        }
+
+        public static Column date(String name, SimpleDateFormat dateFormat) {
+            return new Column(name, Type.DATE, dateFormat);
+        }
+
+        public static Column money(String name) {
+            return new Column(name, Type.MONEY, null);
+        }
+
+        public static Column text(String name) {
+            return new Column(name, Type.TEXT, null);
+        }
+
+        /**
+         * Text column with few distinct values, stored as dictionary codes
+         */
+        public static Column category(String name) {
+            return new Column(name, Type.CATEGORY, null);
+        }
+
+        public String getName() { return name; }
+        public Type getType() { return type; }
+    }
+
+    private final Column[] columns;
+    private final Object[] data;
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final List<Map<String, Integer>> dictionaryCodes = new ArrayList<>();
+    private int rowCount;
+
+    public ColumnarTableModel(Column... columns) {
+        this.columns = columns.clone();
+        this.data = new Object[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            data[c] = switch (columns[c].type) {
+                case INT, CATEGORY -> new int[INITIAL_CAPACITY];
+                case DATE, MONEY -> new long[INITIAL_CAPACITY];
+                case TEXT -> new String[INITIAL_CAPACITY];
+            };
+            dictionaries.add(new ArrayList<>());
+            dictionaryCodes.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Remove every row (call {@link #fireTableDataChanged()} once reloading is done)
+     */
+    public void clear() {
+        rowCount = 0;
+        for (int c = 0; c < columns.length; c++) {
+            dictionaries.get(c).clear();
+            dictionaryCodes.get(c).clear();
+            if (data[c] instanceof String[] values) {
+                Arrays.fill(values, null);
+            }
+        }
+    }
+
+    /**
+     * Append an empty row and return its index; fill it with the setters
+     */
+    public int addRow() {
+        if (rowCount == capacity()) {
+            for (int c = 0; c < columns.length; c++) {
+                int newCapacity = rowCount * 2;
+                data[c] = switch (data[c]) {
+                    case int[] values -> Arrays.copyOf(values, newCapacity);
+                    case long[] values -> Arrays.copyOf(values, newCapacity);
+                    case String[] values -> Arrays.copyOf(values, newCapacity);
+                    default -> throw new IllegalStateException("Unexpected column storage");
+                };
+            }
+        }
+        return rowCount++;
+    }
+
+    public void setInt(int row, int column, int value) {
+        ((int[]) data[column])[row] = value;
+    }
+
+    public void setDate(int row, int column, Date value) {
+        ((long[]) data[column])[row] = value != null ? value.getTime() : NO_DATE;
+    }
+
+    public void setMoney(int row, int column, double value) {
+        ((long[]) data[column])[row] = Math.round(value * 100);
+    }
+
+    public void setText(int row, int column, String value) {
+        if (columns[column].type == Type.CATEGORY) {
+            ((int[]) data[column])[row] = value != null ? encode(column, value) : -1;
+        } else {
+            ((String[]) data[column])[row] = value;
+        }
+    }
+
+    public int getInt(int row, int column) {
+        return ((int[]) data[column])[row];
+    }
+
+    public long getMoneyCents(int row, int column) {
+        return ((long[]) data[column])[row];
+    }
+
+    public String getText(int row, int column) {
+        if (columns[column].type == Type.CATEGORY) {
+            int code = ((int[]) data[column])[row];
+            return code >= 0 ? dictionaries.get(column).get(code) : null;
+        }
+        return ((String[]) data[column])[row];
+    }
+
+    /**
+     * Cell text as the table shows it (for PDF reports)
+     */
+    public String getFormattedValueAt(int row, int column) {
+        return format(columns[column], getValueAt(row, column));
+    }
+
+    /**
+     * Cell text for CSV: amounts with a dot and two decimals regardless of locale
+     */
+    public String getExportValueAt(int row, int column) {
+        if (columns[column].type == Type.MONEY) {
+            return BigDecimal.valueOf(getMoneyCents(row, column), 2).toPlainString();
+        }
+        return getFormattedValueAt(row, column);
+    }
+
+    /**
+     * Render every column from its raw value at paint time
+     */
+    public void installRenderers(JTable table) {
+        for (int c = 0; c < columns.length; c++) {
+            int viewColumn = table.convertColumnIndexToView(c);
+            if (viewColumn >= 0) {
+                table.getColumnModel().getColumn(viewColumn).setCellRenderer(new Renderer(columns[c]));
+            }
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column].name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (columns[column].type) {
+            case INT -> Integer.class;
+            case DATE -> Date.class;
+            case MONEY -> Double.class;
+            case TEXT, CATEGORY -> String.class;
+        };
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return switch (columns[column].type) {
+            case INT -> getInt(row, column);
+            case DATE -> {
+                long millis = ((long[]) data[column])[row];
+                yield millis != NO_DATE ? new Date(millis) : null;
+            }
+            case MONEY -> getMoneyCents(row, column) / 100.0;
+            case TEXT, CATEGORY -> getText(row, column);
+        };
+    }
+
+    private int capacity() {
+        return switch (data[0]) {
+            case int[] values -> values.length;
+            case long[] values -> values.length;
+            case String[] values -> values.length;
+            default -> throw new IllegalStateException("Unexpected column storage");
+        };
+    }
+
+    private int encode(int column, String value) {
+        Integer code = dictionaryCodes.get(column).get(value);
+        if (code == null) {
+            code = dictionaries.get(column).size();
+            dictionaries.get(column).add(value);
+            dictionaryCodes.get(column).put(value, code);
+        }
+        return code;
+    }
+
+    private static String format(Column column, Object value) {
+        if (value == null) {
+            return column.type == Type.DATE ? "N/A" : "";
+        }
+        return switch (column.type) {
+            case DATE -> DateUtils.formatDate((Date) value, column.dateFormat);
+            case MONEY -> String.format("%.2f", (Double) value);
+            default -> value.toString();
+        };
+    }
+
+    private static class Renderer extends DefaultTableCellRenderer {
+        private final Column column;
+
+        Renderer(Column column) {
+            this.column = column;
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(format(column, value));
+        }
+    }
+}
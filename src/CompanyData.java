@@ -27,8 +27,7 @@ public class CompanyData {
     }
     
     private void loadFromDatabase() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM company_data LIMIT 1";
             
             try (Statement stmt = conn.createStatement();
@@ -72,51 +71,52 @@ public class CompanyData {
     
     public boolean saveToDatabase() {
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            
-            // Check if record exists
-            String checkQuery = "SELECT COUNT(*) FROM company_data";
-            boolean exists = false;
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(checkQuery)) {
-                if (rs.next() && rs.getInt(1) > 0) {
-                    exists = true;
+            DatabaseManager.getInstance().runInTransaction(conn -> {
+                // Check if record exists
+                String checkQuery = "SELECT COUNT(*) FROM company_data";
+                boolean exists = false;
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(checkQuery)) {
+                    if (rs.next() && rs.getInt(1) > 0) {
+                        exists = true;
+                    }
                 }
-            }
-            
-            String query;
-            if (exists) {
-                query = """
-                    UPDATE company_data SET
-                        company_name = ?, vat_number = ?, tax_code = ?,
-                        address = ?, city = ?, postal_code = ?, country = ?,
-                        phone = ?, email = ?, website = ?, logo_path = ?
-                """;
-            } else {
-                query = """
-                    INSERT INTO company_data (
-                        company_name, vat_number, tax_code, address,
-                        city, postal_code, country, phone, email, website, logo_path
-                    ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-            }
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, companyName);
-                pstmt.setString(2, vatNumber);
-                pstmt.setString(3, taxCode);
-                pstmt.setString(4, address);
-                pstmt.setString(5, city);
-                pstmt.setString(6, postalCode);
-                pstmt.setString(7, country);
-                pstmt.setString(8, phone);
-                pstmt.setString(9, email);
-                pstmt.setString(10, website);
-                pstmt.setString(11, logoPath);
-                
-                pstmt.executeUpdate();
-                return true;
-            }
+
+                String query;
+                if (exists) {
+                    query = """
+                        UPDATE company_data SET
+                            company_name = ?, vat_number = ?, tax_code = ?,
+                            address = ?, city = ?, postal_code = ?, country = ?,
+                            phone = ?, email = ?, website = ?, logo_path = ?
+                    """;
+                } else {
+                    query = """
+                        INSERT INTO company_data (
+                            company_name, vat_number, tax_code, address,
+                            city, postal_code, country, phone, email, website, logo_path
+                        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """;
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                    pstmt.setString(1, companyName);
+                    pstmt.setString(2, vatNumber);
+                    pstmt.setString(3, taxCode);
+                    pstmt.setString(4, address);
+                    pstmt.setString(5, city);
+                    pstmt.setString(6, postalCode);
+                    pstmt.setString(7, country);
+                    pstmt.setString(8, phone);
+                    pstmt.setString(9, email);
+                    pstmt.setString(10, website);
+                    pstmt.setString(11, logoPath);
+
+                    pstmt.executeUpdate();
+                }
+                return null;
+            });
+            return true;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -0,0 +1,430 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small SQLite connection pool.
+ * Holds one dedicated writer connection plus a bounded set of read-only
+ * connections, so long report queries no longer serialise with data entry
+ * (the database runs in WAL mode, where readers and one writer work in parallel).
+ *
+ * Read connections are borrowed with {@link #borrowReader()} and returned by
+ * calling {@code close()} on the handed-out connection.
+ *
+ * Every connection handed out keeps its own {@link StatementCache}, so
+ * {@code prepareStatement(sql)} reuses already-parsed statements, and every
+ * statement it creates is timed through {@link InstrumentedJdbc}.
+ * Cache, mmap and timeout PRAGMAs come from the pool's {@link StorageProfile}.
+ */
+public class ConnectionPool {
+    private static final long VALIDATION_IDLE_MILLIS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long BORROW_TIMEOUT_MILLIS = 30_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    private final String url;
+    private final int maxReaders;
+    private final StorageProfile profile;
+    private final Semaphore readerPermits;
+    private final BlockingDeque<PooledConnection> idleReaders = new LinkedBlockingDeque<>();
+
+    private Connection writer;
+    private Connection writerPhysical;
+    private StatementCache writerCache;
+    private long writerLastUsed;
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicInteger activeReaders = new AtomicInteger();
+    private final AtomicInteger openReaders = new AtomicInteger();
+    private final AtomicLong totalBorrows = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong writerRequests = new AtomicLong();
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+
+    public ConnectionPool(String url, int maxReaders, StorageProfile profile) {
+        this.url = url;
+        this.maxReaders = maxReaders;
+        this.profile = profile;
+        this.readerPermits = new Semaphore(maxReaders, true);
+    }
+
+    /**
+     * Get the dedicated writer connection, opening it on first use.
+     * The connection is only validated when it has been idle for a while.
+     */
+    public synchronized Connection getWriter() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long now = System.currentTimeMillis();
+        if (writer == null || writerPhysical.isClosed()) {
+            openWriter();
+        } else if (now - writerLastUsed > VALIDATION_IDLE_MILLIS && !writerPhysical.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+            closeWriter();
+            openWriter();
+        }
+
+        writerLastUsed = now;
+        writerRequests.incrementAndGet();
+        return writer;
+    }
+
+    /**
+     * Check whether the writer connection can be handed out without reopening it.
+     */
+    public synchronized boolean isWriterUsable() {
+        try {
+            if (closed || writer == null || writerPhysical.isClosed()) {
+                return false;
+            }
+            if (System.currentTimeMillis() - writerLastUsed > VALIDATION_IDLE_MILLIS) {
+                return writerPhysical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Borrow a read-only connection. Close it to return it to the pool.
+     */
+    public Connection borrowReader() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!readerPermits.tryAcquire(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for a read connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a read connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (closed) {
+            // Closed while this caller was waiting for a permit
+            readerPermits.release();
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            PooledConnection pooled = idleReaders.pollFirst();
+            if (pooled != null && !isReusable(pooled)) {
+                discard(pooled);
+                pooled = null;
+            }
+            if (pooled == null) {
+                pooled = new PooledConnection(openReader());
+                openReaders.incrementAndGet();
+            }
+
+            activeReaders.incrementAndGet();
+            totalBorrows.incrementAndGet();
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            readerPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Close the writer and every idle reader.
+     * Readers still borrowed are closed when they are returned.
+     */
+    public synchronized void close() {
+        closed = true;
+        closeWriter();
+        PooledConnection pooled;
+        while ((pooled = idleReaders.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Wait until every borrowed reader has been returned.
+     * Only meaningful after {@link #close()}, which stops new borrows.
+     *
+     * @return false if readers were still borrowed when the timeout expired
+     */
+    public boolean awaitReadersReturned(long timeoutMillis) throws InterruptedException {
+        if (!readerPermits.tryAcquire(maxReaders, timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        readerPermits.release(maxReaders);
+        return true;
+    }
+
+    public StorageProfile getStorageProfile() {
+        return profile;
+    }
+
+    /**
+     * Snapshot of the pool metrics
+     */
+    public PoolStats getStats() {
+        long borrows = totalBorrows.get();
+        return new PoolStats(
+            maxReaders,
+            openReaders.get(),
+            activeReaders.get(),
+            borrows,
+            borrows > 0 ? totalWaitNanos.get() / borrows / 1_000_000.0 : 0.0,
+            maxWaitNanos.get() / 1_000_000.0,
+            borrowTimeouts.get(),
+            writerRequests.get(),
+            statementCounters.getHits(),
+            statementCounters.getMisses(),
+            statementCounters.getEvictions()
+        );
+    }
+
+    private void openWriter() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            // Only takes effect on a brand-new file, so it must come before the WAL switch writes the header
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+        }
+        profile.applyTo(conn, true);
+
+        StatementCache cache = new StatementCache(conn, STATEMENT_CACHE_SIZE, statementCounters);
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (args.length == 1) {
+                        return InstrumentedJdbc.wrap(cache.prepare((String) args[0]), (String) args[0]);
+                    }
+                    break;
+                case "close":
+                    cache.close();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "WriterConnection[" + conn + "]";
+                default:
+                    break;
+            }
+            try {
+                return InstrumentedJdbc.wrapConnectionResult(method, args, method.invoke(conn, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+
+        writerPhysical = conn;
+        writerCache = cache;
+        writer = (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            writerCache.close();
+            closeQuietly(writerPhysical);
+            writer = null;
+            writerPhysical = null;
+            writerCache = null;
+        }
+    }
+
+    private Connection openReader() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+        }
+        profile.applyTo(conn, false);
+        return conn;
+    }
+
+    private boolean isReusable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Validate only connections that sat idle long enough to have gone stale
+            if (System.currentTimeMillis() - pooled.lastReturned > VALIDATION_IDLE_MILLIS) {
+                return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        activeReaders.decrementAndGet();
+        try {
+            boolean healthy = !pooled.physical.isClosed();
+            if (healthy && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (healthy && !closed) {
+                pooled.lastReturned = System.currentTimeMillis();
+                idleReaders.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            readerPermits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        pooled.cache.close();
+        closeQuietly(pooled.physical);
+        openReaders.decrementAndGet();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not close pooled connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Physical reader connection plus its bookkeeping
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private final StatementCache cache;
+        private long lastReturned = System.currentTimeMillis();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.cache = new StatementCache(physical, STATEMENT_CACHE_SIZE, statementCounters);
+        }
+
+        /**
+         * Wrap the physical connection in a handle whose close() returns it to the pool
+         */
+        Connection lease() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean released = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!released) {
+                                released = true;
+                                giveBack(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released || physical.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "PooledConnection[" + physical + "]";
+                        default:
+                            break;
+                    }
+                    if (released) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if ("prepareStatement".equals(method.getName()) && args.length == 1) {
+                        return InstrumentedJdbc.wrap(cache.prepare((String) args[0]), (String) args[0]);
+                    }
+                    try {
+                        return InstrumentedJdbc.wrapConnectionResult(method, args, method.invoke(physical, args));
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+    }
+
+    public static class PoolStats {
+        private final int maxReaders;
+        private final int openReaders;
+        private final int activeReaders;
+        private final long totalBorrows;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long borrowTimeouts;
+        private final long writerRequests;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+        private final long statementCacheEvictions;
+
+        public PoolStats(int maxReaders, int openReaders, int activeReaders, long totalBorrows,
+                         double averageWaitMillis, double maxWaitMillis,
+                         long borrowTimeouts, long writerRequests,
+                         long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+            this.maxReaders = maxReaders;
+            this.openReaders = openReaders;
+            this.activeReaders = activeReaders;
+            this.totalBorrows = totalBorrows;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.borrowTimeouts = borrowTimeouts;
+            this.writerRequests = writerRequests;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+            this.statementCacheEvictions = statementCacheEvictions;
+        }
+
+        public int getMaxReaders() { return maxReaders; }
+        public int getOpenReaders() { return openReaders; }
+        public int getActiveReaders() { return activeReaders; }
+        public long getTotalBorrows() { return totalBorrows; }
+        public double getAverageWaitMillis() { return averageWaitMillis; }
+        public double getMaxWaitMillis() { return maxWaitMillis; }
+        public long getBorrowTimeouts() { return borrowTimeouts; }
+        public long getWriterRequests() { return writerRequests; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+        public long getStatementCacheEvictions() { return statementCacheEvictions; }
+
+        public String getFormattedMessage() {
+            return String.format(
+                "Readers: %d active / %d open / %d max, Borrows: %d, Avg wait: %.2f ms, Max wait: %.2f ms, Timeouts: %d, Writer requests: %d, " +
+                "Statement cache: %d hits / %d misses / %d evictions",
+                activeReaders, openReaders, maxReaders, totalBorrows,
+                averageWaitMillis, maxWaitMillis, borrowTimeouts, writerRequests,
+                statementCacheHits, statementCacheMisses, statementCacheEvictions
+            );
+        }
+    }
+}
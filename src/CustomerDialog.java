@@ -132,36 +132,38 @@ public class CustomerDialog extends JDialog {
                 return;
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            if (customer == null) { // New customer
-                String query = """
-                    INSERT INTO customers (first_name, last_name, email, phone, address)
-                    VALUES (?, ?, ?, ?, ?)
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setString(1, firstName);
-                    pstmt.setString(2, lastName);
-                    pstmt.setString(3, email);
-                    pstmt.setString(4, phone);
-                    pstmt.setString(5, address);
-                    pstmt.executeUpdate();
+            DatabaseManager.getInstance().runInTransaction(conn -> {
+                if (customer == null) { // New customer
+                    String query = """
+                        INSERT INTO customers (first_name, last_name, email, phone, address)
+                        VALUES (?, ?, ?, ?, ?)
+                    """;
+                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                        pstmt.setString(1, firstName);
+                        pstmt.setString(2, lastName);
+                        pstmt.setString(3, email);
+                        pstmt.setString(4, phone);
+                        pstmt.setString(5, address);
+                        pstmt.executeUpdate();
+                    }
+                } else { // Edit customer
+                    String query = """
+                        UPDATE customers
+                        SET first_name = ?, last_name = ?, email = ?, phone = ?, address = ?
+                        WHERE id = ?
+                    """;
+                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                        pstmt.setString(1, firstName);
+                        pstmt.setString(2, lastName);
+                        pstmt.setString(3, email);
+                        pstmt.setString(4, phone);
+                        pstmt.setString(5, address);
+                        pstmt.setInt(6, customer.getId());
+                        pstmt.executeUpdate();
+                    }
                 }
-            } else { // Edit customer
-                String query = """
-                    UPDATE customers
-                    SET first_name = ?, last_name = ?, email = ?, phone = ?, address = ?
-                    WHERE id = ?
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setString(1, firstName);
-                    pstmt.setString(2, lastName);
-                    pstmt.setString(3, email);
-                    pstmt.setString(4, phone);
-                    pstmt.setString(5, address);
-                    pstmt.setInt(6, customer.getId());
-                    pstmt.executeUpdate();
-                }
-            }
+                return null;
+            });
 
             customerSaved = true;
             dispose();
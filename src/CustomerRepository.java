@@ -0,0 +1,63 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous queries for customers
+ */
+public class CustomerRepository {
+    private static final String FIND_ALL = "SELECT * FROM customers ORDER BY last_name, first_name";
+
+    private static final String SEARCH = """
+        SELECT c.* FROM customers c
+        JOIN %s s ON s.id = c.id
+        ORDER BY s.rank, c.last_name, c.first_name
+    """.formatted(SearchService.ranked(SearchService.Index.CUSTOMERS));
+
+    public static CompletableFuture<List<Customer>> findAll() {
+        return DataAccess.read(conn -> query(conn, FIND_ALL, null));
+    }
+
+    /**
+     * Customers whose name, email, phone or address has words starting with
+     * the words of the search term, best match first
+     */
+    public static CompletableFuture<List<Customer>> search(String searchTerm) {
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            return findAll();
+        }
+        return DataAccess.read(conn -> query(conn, SEARCH, match));
+    }
+
+    private static List<Customer> query(Connection conn, String sql, String match) throws SQLException {
+        List<Customer> customers = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (match != null) {
+                pstmt.setString(1, match);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    customers.add(new Customer(
+                        rs.getInt("id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("email"),
+                        rs.getString("phone"),
+                        rs.getString("address")
+                    ));
+                }
+            }
+        }
+        return customers;
+    }
+
+    // Private constructor to prevent instantiation
+    private CustomerRepository() {
+        throw new AssertionError("CustomerRepository class cannot be instantiated");
+    }
+}
@@ -153,8 +153,7 @@ public class CustomerSelectionDialog extends JDialog {
 
     private void loadAllCustomers() {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT id, first_name, last_name, email, phone, address
                 FROM customers
@@ -184,35 +183,22 @@ public class CustomerSelectionDialog extends JDialog {
 
         tableModel.setRowCount(0);
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT id, first_name, last_name, email, phone, address
-                FROM customers
-                WHERE LOWER(first_name) LIKE LOWER(?)
-                   OR LOWER(last_name) LIKE LOWER(?)
-                   OR LOWER(email) LIKE LOWER(?)
-                   OR phone LIKE ?
-                   OR LOWER(address) LIKE LOWER(?)
-                ORDER BY
-                    CASE
-                        WHEN LOWER(last_name) LIKE LOWER(?) THEN 1
-                        WHEN LOWER(first_name) LIKE LOWER(?) THEN 2
-                        ELSE 3
-                    END,
-                    last_name, first_name
-            """;
+            String match = SearchService.toMatchQuery(searchTerm);
+            if (match == null) {
+                loadAllCustomers();
+                return;
+            }
 
-            String searchPattern = "%" + searchTerm + "%";
-            String exactPattern = searchTerm + "%";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-                pstmt.setString(4, searchPattern);
-                pstmt.setString(5, searchPattern);
-                pstmt.setString(6, exactPattern); // For sorting
-                pstmt.setString(7, exactPattern); // For sorting
+            String query = """
+                SELECT c.id, c.first_name, c.last_name, c.email, c.phone, c.address
+                FROM customers c
+                JOIN %s s ON s.id = c.id
+                ORDER BY s.rank, c.last_name, c.first_name
+            """.formatted(SearchService.ranked(SearchService.Index.CUSTOMERS));
+
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
+                pstmt.setString(1, match);
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
@@ -3,9 +3,30 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.*;
+import java.util.List;
 import java.util.Vector;
 
 public class CustomersPanel extends JPanel {
+    /**
+     * Delete the order details of a customer's orders
+     */
+    static final String DELETE_ORDER_DETAILS = """
+        DELETE FROM order_details
+        WHERE order_id IN (
+            SELECT id FROM orders WHERE customer_id = ?
+        )
+    """;
+
+    /**
+     * Delete the invoice details of a customer's invoices
+     */
+    static final String DELETE_INVOICE_DETAILS = """
+        DELETE FROM invoice_details
+        WHERE invoice_id IN (
+            SELECT id FROM invoices WHERE customer_id = ?
+        )
+    """;
+
     private JTable customersTable;
     private DefaultTableModel tableModel;
     private JTextField searchField;
@@ -13,6 +34,7 @@ public class CustomersPanel extends JPanel {
     private JButton editButton;
     private JButton deleteButton;
     private JButton refreshButton;
+    private final DataAccess.LatestOnly loads = new DataAccess.LatestOnly();
 
     public CustomersPanel() {
         setupPanel();
@@ -110,28 +132,8 @@ public class CustomersPanel extends JPanel {
     }
 
     private void loadCustomers() {
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = "SELECT * FROM customers ORDER BY last_name, first_name";
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("first_name"));
-                    row.add(rs.getString("last_name"));
-                    row.add(rs.getString("email"));
-                    row.add(rs.getString("phone"));
-                    row.add(rs.getString("address"));
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error while loading customers: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        loads.apply(CustomerRepository.findAll(), this::showCustomers,
+            DataAccess.errorDialog(this, "Error while loading customers"));
     }
 
     private void searchCustomers() {
@@ -141,39 +143,21 @@ public class CustomersPanel extends JPanel {
             return;
         }
 
+        loads.apply(CustomerRepository.search(searchTerm), this::showCustomers,
+            DataAccess.errorDialog(this, "Error while searching for customers"));
+    }
+
+    private void showCustomers(List<Customer> customers) {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT * FROM customers
-                WHERE first_name LIKE ? OR last_name LIKE ? OR email LIKE ? OR phone LIKE ?
-                ORDER BY last_name, first_name
-            """;
-            String searchPattern = "%" + searchTerm + "%";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-                pstmt.setString(4, searchPattern);
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        Vector<Object> row = new Vector<>();
-                        row.add(rs.getInt("id"));
-                        row.add(rs.getString("first_name"));
-                        row.add(rs.getString("last_name"));
-                        row.add(rs.getString("email"));
-                        row.add(rs.getString("phone"));
-                        row.add(rs.getString("address"));
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error while searching for customers: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        for (Customer customer : customers) {
+            Vector<Object> row = new Vector<>();
+            row.add(customer.getId());
+            row.add(customer.getFirstName());
+            row.add(customer.getLastName());
+            row.add(customer.getEmail());
+            row.add(customer.getPhone());
+            row.add(customer.getAddress());
+            tableModel.addRow(row);
         }
     }
 
@@ -217,11 +201,13 @@ public class CustomersPanel extends JPanel {
             String fullName = firstName + " " + lastName;
 
             try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
-
                 // Check for existing dependencies
-                boolean hasOrders = hasCustomerOrders(conn, id);
-                boolean hasInvoices = hasCustomerInvoices(conn, id);
+                boolean hasOrders;
+                boolean hasInvoices;
+                try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+                    hasOrders = hasCustomerOrders(conn, id);
+                    hasInvoices = hasCustomerInvoices(conn, id);
+                }
 
                 if (hasOrders || hasInvoices) {
                     StringBuilder message = new StringBuilder();
@@ -243,7 +229,7 @@ public class CustomersPanel extends JPanel {
                         null, options, options[0]);
 
                     if (choice == 1) { // Force Delete
-                        performCascadeDelete(conn, id, fullName);
+                        performCascadeDelete(id, fullName);
                     }
                     return;
                 }
@@ -256,17 +242,20 @@ public class CustomersPanel extends JPanel {
                     JOptionPane.WARNING_MESSAGE);
 
                 if (result == JOptionPane.YES_OPTION) {
-                    String query = "DELETE FROM customers WHERE id = ?";
-                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                        pstmt.setInt(1, id);
-                        pstmt.executeUpdate();
-                        loadCustomers();
-
-                        JOptionPane.showMessageDialog(this,
-                            "Customer deleted successfully",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    }
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
+                        String query = "DELETE FROM customers WHERE id = ?";
+                        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                            pstmt.setInt(1, id);
+                            pstmt.executeUpdate();
+                        }
+                        return null;
+                    });
+                    loadCustomers();
+
+                    JOptionPane.showMessageDialog(this,
+                        "Customer deleted successfully",
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -277,7 +266,7 @@ public class CustomersPanel extends JPanel {
         }
     }
 
-    private void performCascadeDelete(Connection conn, int id, String fullName) {
+    private void performCascadeDelete(int id, String fullName) {
         int confirmResult = JOptionPane.showConfirmDialog(this,
             "WARNING: This will permanently delete customer '" + fullName + "' and ALL related data:\n" +
             "- All orders from this customer\n" +
@@ -294,19 +283,11 @@ public class CustomersPanel extends JPanel {
         }
 
         try {
-            conn.setAutoCommit(false);
-
-            try {
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 // Delete in order to respect foreign key constraints
 
                 // 1. Delete order details for this customer's orders
-                String deleteOrderDetails = """
-                    DELETE FROM order_details
-                    WHERE order_id IN (
-                        SELECT id FROM orders WHERE customer_id = ?
-                    )
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(deleteOrderDetails)) {
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_ORDER_DETAILS)) {
                     pstmt.setInt(1, id);
                     int deleted = pstmt.executeUpdate();
                     System.out.println("Deleted " + deleted + " order details");
@@ -321,13 +302,7 @@ public class CustomersPanel extends JPanel {
                 }
 
                 // 3. Delete invoice details for this customer's invoices
-                String deleteInvoiceDetails = """
-                    DELETE FROM invoice_details
-                    WHERE invoice_id IN (
-                        SELECT id FROM invoices WHERE customer_id = ?
-                    )
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(deleteInvoiceDetails)) {
+                try (PreparedStatement pstmt = conn.prepareStatement(DELETE_INVOICE_DETAILS)) {
                     pstmt.setInt(1, id);
                     int deleted = pstmt.executeUpdate();
                     System.out.println("Deleted " + deleted + " invoice details");
@@ -349,20 +324,15 @@ public class CustomersPanel extends JPanel {
                     System.out.println("Deleted customer");
                 }
 
-                conn.commit();
-                loadCustomers();
+                return null;
+            });
 
-                JOptionPane.showMessageDialog(this,
-                    "Customer '" + fullName + "' and all related records deleted successfully",
-                    "Force Delete Completed",
-                    JOptionPane.INFORMATION_MESSAGE);
+            loadCustomers();
 
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            JOptionPane.showMessageDialog(this,
+                "Customer '" + fullName + "' and all related records deleted successfully",
+                "Force Delete Completed",
+                JOptionPane.INFORMATION_MESSAGE);
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -5,8 +5,10 @@ import java.awt.*;
 import java.sql.*;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
+import java.time.Duration;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 public class DashboardPanel extends JPanel {
     // Color palette - Sober blue-gray theme
@@ -18,6 +20,13 @@ public class DashboardPanel extends JPanel {
     private static final Color DANGER_COLOR = new Color(231, 76, 60);      // Red
     private static final Color LIGHT_COLOR = new Color(236, 240, 241);     // Light gray
     private static final Color BORDER_COLOR = new Color(189, 195, 199);    // Gray
+    private static final Color SKELETON_COLOR = new Color(150, 150, 150);  // Placeholder gray
+
+    // Each section gets its own deadline, so one slow query cannot hold up the rest
+    private static final Duration KPI_DEADLINE = Duration.ofSeconds(5);
+    private static final Duration SECTION_DEADLINE = Duration.ofSeconds(15);
+    private static final String SKELETON_TEXT = "···";
+    private static final int SKELETON_ROWS = 3;
 
     private JLabel warehouseValueLabel;
     private JLabel lowStockCountLabel;
@@ -37,6 +46,12 @@ public class DashboardPanel extends JPanel {
 
     private MainWindow mainWindow;
 
+    private final DataAccess.LatestOnly kpiLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly alertLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly pendingOrderLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly topProductLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly abcLoads = new DataAccess.LatestOnly();
+
     public DashboardPanel(MainWindow mainWindow) {
         this.mainWindow = mainWindow;
 
@@ -343,142 +358,143 @@ public class DashboardPanel extends JPanel {
 
     // Data loading methods
     public void loadData() {
-        SwingUtilities.invokeLater(() -> {
-            loadKPIData();
-            loadAlerts();
-            loadPendingOrders();
-            loadTopProducts();
-            loadABCAnalysis();
-        });
-    }
+        // Every section is queried concurrently on its own read connection and
+        // painted as soon as its data arrives; until then it shows a placeholder
+        for (JLabel label : kpiLabels()) {
+            label.setText(SKELETON_TEXT);
+            label.setToolTipText(null);
+        }
+        kpiLoads.apply(DataAccess.read(KpiSnapshot::read, KPI_DEADLINE), this::showKPIData,
+            error -> {
+                String reason = sectionFailed("KPIs", error);
+                for (JLabel label : kpiLabels()) {
+                    label.setText("n/a");
+                    label.setToolTipText(reason);
+                }
+            });
 
-    private void loadKPIData() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        showListSkeleton(alertsPanel);
+        alertLoads.apply(DataAccess.read(this::queryAlerts, SECTION_DEADLINE), this::showAlerts,
+            error -> showListUnavailable(alertsPanel, sectionFailed("stock alerts", error)));
 
-            // 1. Warehouse Value
-            String warehouseQuery = "SELECT SUM(quantity * acquisition_cost) as total FROM products WHERE active = 1";
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(warehouseQuery)) {
-                if (rs.next()) {
-                    double value = rs.getDouble("total");
-                    warehouseValueLabel.setText(currencyFormat.format(value));
-                }
-            }
+        showListSkeleton(pendingOrdersPanel);
+        pendingOrderLoads.apply(DataAccess.read(this::queryPendingOrders, SECTION_DEADLINE), this::showPendingOrders,
+            error -> showListUnavailable(pendingOrdersPanel, sectionFailed("pending orders", error)));
 
-            // 2. Low Stock Count
-            String lowStockQuery = "SELECT COUNT(*) as count FROM products WHERE active = 1 AND quantity < minimum_quantity AND minimum_quantity > 0";
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(lowStockQuery)) {
-                if (rs.next()) {
-                    int count = rs.getInt("count");
-                    lowStockCountLabel.setText(String.valueOf(count));
-                }
-            }
+        showTableSkeleton(topProductsTable);
+        topProductLoads.apply(DataAccess.read(this::queryTopProducts, SECTION_DEADLINE), this::showTopProducts,
+            error -> showTableUnavailable(topProductsTable, 1, sectionFailed("top products", error)));
 
-            // 3. Pending Orders
-            String pendingQuery = "SELECT COUNT(*) as count FROM orders WHERE status != 'Completed' AND status != 'Cancelled'";
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(pendingQuery)) {
-                if (rs.next()) {
-                    pendingOrdersLabel.setText(String.valueOf(rs.getInt("count")));
-                }
-            }
+        showTableSkeleton(abcAnalysisTable);
+        abcLoads.apply(DataAccess.read(this::queryProductRevenues, SECTION_DEADLINE), this::showABCAnalysis,
+            error -> showTableUnavailable(abcAnalysisTable, 5, sectionFailed("ABC analysis", error)));
+    }
 
-            // 4. Month Revenue
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            cal.set(Calendar.HOUR_OF_DAY, 0);
-            cal.set(Calendar.MINUTE, 0);
-            cal.set(Calendar.SECOND, 0);
-            String monthStart = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(cal.getTime());
-
-            String revenueQuery = "SELECT SUM(total) as revenue FROM invoices WHERE date >= ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(revenueQuery)) {
-                pstmt.setString(1, monthStart);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) {
-                    double revenue = rs.getDouble("revenue");
-                    monthRevenueLabel.setText(currencyFormat.format(revenue));
-                }
-            }
+    private JLabel[] kpiLabels() {
+        return new JLabel[]{warehouseValueLabel, lowStockCountLabel, pendingOrdersLabel,
+            monthRevenueLabel, avgMarginLabel, zeroStockLabel};
+    }
 
-            // 5. Average Margin
-            String marginQuery = """
-                SELECT AVG(CASE
-                    WHEN p.price > 0 AND p.acquisition_cost > 0
-                    THEN ((p.price - p.acquisition_cost) / p.price) * 100
-                    ELSE 0
-                END) as avg_margin
-                FROM products p
-                WHERE p.active = 1 AND p.price > 0
-            """;
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(marginQuery)) {
-                if (rs.next()) {
-                    double margin = rs.getDouble("avg_margin");
-                    avgMarginLabel.setText(String.format("%.1f%%", margin));
-                }
-            }
+    private void showKPIData(KpiSnapshot.Values data) {
+        warehouseValueLabel.setText(currencyFormat.format(data.getWarehouseValue()));
+        lowStockCountLabel.setText(String.valueOf(data.getLowStockCount()));
+        pendingOrdersLabel.setText(String.valueOf(data.getPendingOrders()));
+        monthRevenueLabel.setText(currencyFormat.format(data.getMonthRevenue()));
+        avgMarginLabel.setText(String.format("%.1f%%", data.getAvgMargin()));
+        zeroStockLabel.setText(String.valueOf(data.getZeroStockCount()));
+    }
 
-            // 6. Zero Stock Count
-            String zeroStockQuery = "SELECT COUNT(*) as count FROM products WHERE active = 1 AND quantity = 0";
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(zeroStockQuery)) {
-                if (rs.next()) {
-                    zeroStockLabel.setText(String.valueOf(rs.getInt("count")));
-                }
-            }
+    /**
+     * Log a failed or timed-out section and return a short reason for display
+     */
+    private static String sectionFailed(String section, Throwable error) {
+        String reason = error instanceof TimeoutException ? "timed out" : error.getMessage();
+        System.err.println("Dashboard: " + section + " unavailable (" + reason + ")");
+        return reason;
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading KPI data: " + e.getMessage(),
-                "Error",
-                JOptionPane.ERROR_MESSAGE);
+    private void showListSkeleton(JPanel listPanel) {
+        listPanel.removeAll();
+        for (int i = 0; i < SKELETON_ROWS; i++) {
+            JPanel placeholder = new JPanel();
+            placeholder.setBackground(LIGHT_COLOR);
+            placeholder.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+            placeholder.setPreferredSize(new Dimension(0, 30));
+            listPanel.add(placeholder);
+            listPanel.add(Box.createVerticalStrut(5));
         }
+        listPanel.revalidate();
+        listPanel.repaint();
     }
 
-    private void loadAlerts() {
-        alertsPanel.removeAll();
+    private void showListUnavailable(JPanel listPanel, String reason) {
+        listPanel.removeAll();
+        JLabel label = new JLabel("Not available: " + reason);
+        label.setFont(new Font("Arial", Font.ITALIC, 12));
+        label.setForeground(SKELETON_COLOR);
+        listPanel.add(label);
+        listPanel.revalidate();
+        listPanel.repaint();
+    }
 
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT code, name, quantity, minimum_quantity, (minimum_quantity - quantity) as shortage
-                FROM products
-                WHERE active = 1 AND quantity < minimum_quantity AND minimum_quantity > 0
-                ORDER BY shortage DESC
-                LIMIT 10
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-
-                boolean hasAlerts = false;
-                while (rs.next()) {
-                    hasAlerts = true;
-                    String code = rs.getString("code");
-                    String name = rs.getString("name");
-                    int quantity = rs.getInt("quantity");
-                    int minQuantity = rs.getInt("minimum_quantity");
-                    int shortage = rs.getInt("shortage");
-
-                    JPanel alertItem = createAlertItem(code, name, quantity, minQuantity, shortage);
-                    alertsPanel.add(alertItem);
-                    alertsPanel.add(Box.createVerticalStrut(5));
-                }
+    private void showTableSkeleton(JTable table) {
+        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        model.setRowCount(0);
+        for (int i = 0; i < SKELETON_ROWS; i++) {
+            Object[] row = new Object[model.getColumnCount()];
+            Arrays.fill(row, SKELETON_TEXT);
+            model.addRow(row);
+        }
+    }
 
-                if (!hasAlerts) {
-                    JLabel noAlerts = new JLabel("No products below minimum stock");
-                    noAlerts.setFont(new Font("Arial", Font.BOLD, 13));
-                    noAlerts.setForeground(SUCCESS_COLOR);
-                    alertsPanel.add(noAlerts);
-                }
+    private void showTableUnavailable(JTable table, int textColumn, String reason) {
+        DefaultTableModel model = (DefaultTableModel) table.getModel();
+        model.setRowCount(0);
+        Object[] row = new Object[model.getColumnCount()];
+        Arrays.fill(row, "");
+        row[textColumn] = "Not available: " + reason;
+        model.addRow(row);
+    }
+
+    private List<StockAlert> queryAlerts(Connection conn) throws SQLException {
+        String query = """
+            SELECT code, name, quantity, minimum_quantity, (minimum_quantity - quantity) as shortage
+            FROM products
+            WHERE active = 1 AND quantity < minimum_quantity AND minimum_quantity > 0
+            ORDER BY shortage DESC
+            LIMIT 10
+        """;
+
+        List<StockAlert> alerts = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                alerts.add(new StockAlert(
+                    rs.getString("code"),
+                    rs.getString("name"),
+                    rs.getInt("quantity"),
+                    rs.getInt("minimum_quantity"),
+                    rs.getInt("shortage")
+                ));
             }
+        }
+        return alerts;
+    }
+
+    private void showAlerts(List<StockAlert> alerts) {
+        alertsPanel.removeAll();
+
+        for (StockAlert alert : alerts) {
+            JPanel alertItem = createAlertItem(alert.code, alert.name, alert.quantity, alert.minQuantity, alert.shortage);
+            alertsPanel.add(alertItem);
+            alertsPanel.add(Box.createVerticalStrut(5));
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (alerts.isEmpty()) {
+            JLabel noAlerts = new JLabel("No products below minimum stock");
+            noAlerts.setFont(new Font("Arial", Font.BOLD, 13));
+            noAlerts.setForeground(SUCCESS_COLOR);
+            alertsPanel.add(noAlerts);
         }
 
         alertsPanel.revalidate();
@@ -519,50 +535,54 @@ public class DashboardPanel extends JPanel {
         return panel;
     }
 
-    private void loadPendingOrders() {
-        pendingOrdersPanel.removeAll();
+    private List<PendingOrder> queryPendingOrders(Connection conn) throws SQLException {
+        String query = """
+            SELECT o.id, o.order_date, o.status, o.total,
+                   c.first_name || ' ' || c.last_name as customer_name
+            FROM orders o
+            LEFT JOIN customers c ON o.customer_id = c.id
+            WHERE o.status != 'Completed' AND o.status != 'Cancelled'
+            ORDER BY o.order_date ASC
+            LIMIT 15
+        """;
+
+        List<PendingOrder> orders = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                // The age is computed here rather than in SQL so orders whose date is
+                // still stored as text (not yet normalized) get a real age too
+                java.util.Date orderDate = DateUtils.parseDate(rs, "order_date");
+                int daysOld = orderDate != null ? (int) ((now - orderDate.getTime()) / 86_400_000L) : 0;
+                orders.add(new PendingOrder(
+                    rs.getInt("id"),
+                    DateUtils.formatDate(orderDate, dateFormat),
+                    rs.getString("status"),
+                    rs.getDouble("total"),
+                    rs.getString("customer_name"),
+                    daysOld
+                ));
+            }
+        }
+        return orders;
+    }
 
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT o.id, o.order_date, o.status, o.total,
-                       c.first_name || ' ' || c.last_name as customer_name,
-                       julianday('now') - julianday(o.order_date) as days_old
-                FROM orders o
-                LEFT JOIN customers c ON o.customer_id = c.id
-                WHERE o.status != 'Completed' AND o.status != 'Cancelled'
-                ORDER BY o.order_date ASC
-                LIMIT 15
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-
-                boolean hasOrders = false;
-                while (rs.next()) {
-                    hasOrders = true;
-                    int id = rs.getInt("id");
-                    String date = rs.getString("order_date");
-                    String status = rs.getString("status");
-                    double total = rs.getDouble("total");
-                    String customer = rs.getString("customer_name");
-                    int daysOld = (int) rs.getDouble("days_old");
-
-                    JPanel orderItem = createPendingOrderItem(id, date, status, total, customer, daysOld);
-                    pendingOrdersPanel.add(orderItem);
-                    pendingOrdersPanel.add(Box.createVerticalStrut(5));
-                }
+    private void showPendingOrders(List<PendingOrder> orders) {
+        pendingOrdersPanel.removeAll();
 
-                if (!hasOrders) {
-                    JLabel noOrders = new JLabel("No pending orders");
-                    noOrders.setFont(new Font("Arial", Font.BOLD, 13));
-                    noOrders.setForeground(SUCCESS_COLOR);
-                    pendingOrdersPanel.add(noOrders);
-                }
-            }
+        for (PendingOrder order : orders) {
+            JPanel orderItem = createPendingOrderItem(order.id, order.date, order.status,
+                order.total, order.customer, order.daysOld);
+            pendingOrdersPanel.add(orderItem);
+            pendingOrdersPanel.add(Box.createVerticalStrut(5));
+        }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+        if (orders.isEmpty()) {
+            JLabel noOrders = new JLabel("No pending orders");
+            noOrders.setFont(new Font("Arial", Font.BOLD, 13));
+            noOrders.setForeground(SUCCESS_COLOR);
+            pendingOrdersPanel.add(noOrders);
         }
 
         pendingOrdersPanel.revalidate();
@@ -589,14 +609,8 @@ public class DashboardPanel extends JPanel {
         JLabel idLabel = new JLabel(String.format("Order #%d - %s", id, status));
         idLabel.setFont(new Font("Arial", Font.BOLD, 12));
 
-        String dateStr = date;
-        try {
-            java.util.Date d = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse(date);
-            dateStr = dateFormat.format(d);
-        } catch (Exception ignored) {}
-
         JLabel detailsLabel = new JLabel(String.format("%s - %s - %d days old",
-            customer != null ? customer : "N/A", dateStr, daysOld));
+            customer != null ? customer : "N/A", date, daysOld));
         detailsLabel.setFont(new Font("Arial", Font.PLAIN, 11));
         detailsLabel.setForeground(new Color(100, 100, 100));
 
@@ -628,137 +642,135 @@ public class DashboardPanel extends JPanel {
         return panel;
     }
 
-    private void loadTopProducts() {
+    private List<ProductSales> queryTopProducts(Connection conn) throws SQLException {
+        String query = """
+            SELECT p.name,
+                   SUM(od.quantity) as total_qty,
+                   SUM(od.quantity * od.unit_price) as total_revenue
+            FROM order_details od
+            JOIN products p ON od.product_id = p.id
+            JOIN orders o ON od.order_id = o.id
+            WHERE o.status = 'Completed'
+            GROUP BY p.id, p.name
+            ORDER BY total_qty DESC
+            LIMIT 10
+        """;
+
+        List<ProductSales> products = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                products.add(new ProductSales(
+                    rs.getString("name"),
+                    rs.getInt("total_qty"),
+                    rs.getDouble("total_revenue")
+                ));
+            }
+        }
+        return products;
+    }
+
+    private void showTopProducts(List<ProductSales> products) {
         DefaultTableModel model = (DefaultTableModel) topProductsTable.getModel();
         model.setRowCount(0);
 
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT p.name,
-                       SUM(od.quantity) as total_qty,
-                       SUM(od.quantity * od.unit_price) as total_revenue
-                FROM order_details od
-                JOIN products p ON od.product_id = p.id
-                JOIN orders o ON od.order_id = o.id
-                WHERE o.status = 'Completed'
-                GROUP BY p.id, p.name
-                ORDER BY total_qty DESC
-                LIMIT 10
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-
-                int rank = 1;
-                while (rs.next()) {
-                    String name = rs.getString("name");
-                    int qty = rs.getInt("total_qty");
-                    double revenue = rs.getDouble("total_revenue");
-
-                    model.addRow(new Object[]{
-                        rank++,
-                        name,
-                        qty,
-                        currencyFormat.format(revenue)
-                    });
-                }
-            }
+        int rank = 1;
+        for (ProductSales product : products) {
+            model.addRow(new Object[]{
+                rank++,
+                product.name,
+                product.quantity,
+                currencyFormat.format(product.revenue)
+            });
+        }
+    }
 
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private List<ProductRevenue> queryProductRevenues(Connection conn) throws SQLException {
+        // Get all products with their revenue, sorted by revenue
+        String query = """
+            SELECT p.id, p.name,
+                   COALESCE(SUM(od.quantity * od.unit_price), 0) as revenue
+            FROM products p
+            LEFT JOIN order_details od ON p.id = od.product_id
+            LEFT JOIN orders o ON od.order_id = o.id AND o.status = 'Completed'
+            WHERE p.active = 1
+            GROUP BY p.id, p.name
+            ORDER BY revenue DESC
+        """;
+
+        List<ProductRevenue> products = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                products.add(new ProductRevenue(rs.getString("name"), rs.getDouble("revenue")));
+            }
         }
+        return products;
     }
 
-    private void loadABCAnalysis() {
+    private void showABCAnalysis(List<ProductRevenue> products) {
         DefaultTableModel model = (DefaultTableModel) abcAnalysisTable.getModel();
         model.setRowCount(0);
 
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
-            // Get all products with their revenue, sorted by revenue
-            String query = """
-                SELECT p.id, p.name,
-                       COALESCE(SUM(od.quantity * od.unit_price), 0) as revenue
-                FROM products p
-                LEFT JOIN order_details od ON p.id = od.product_id
-                LEFT JOIN orders o ON od.order_id = o.id AND o.status = 'Completed'
-                WHERE p.active = 1
-                GROUP BY p.id, p.name
-                ORDER BY revenue DESC
-            """;
-
-            List<ProductRevenue> products = new ArrayList<>();
-            double totalRevenue = 0;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    double revenue = rs.getDouble("revenue");
-                    products.add(new ProductRevenue(rs.getString("name"), revenue));
-                    totalRevenue += revenue;
-                }
-            }
+        double totalRevenue = 0;
+        for (ProductRevenue pr : products) {
+            totalRevenue += pr.revenue;
+        }
 
-            if (products.isEmpty() || totalRevenue == 0) {
-                model.addRow(new Object[]{"N/A", "0", "0%", currencyFormat.format(0), "0%", "No data available"});
-                return;
-            }
+        if (products.isEmpty() || totalRevenue == 0) {
+            model.addRow(new Object[]{"N/A", "0", "0%", currencyFormat.format(0), "0%", "No data available"});
+            return;
+        }
 
-            // Calculate ABC classes
-            int totalProducts = products.size();
-            double cumulativeRevenue = 0;
-            int classACount = 0, classBCount = 0, classCCount = 0;
-            double classARevenue = 0, classBRevenue = 0, classCRevenue = 0;
-
-            for (ProductRevenue pr : products) {
-                cumulativeRevenue += pr.revenue;
-                double percentRevenue = (cumulativeRevenue / totalRevenue);
-
-                if (percentRevenue <= 0.80) {
-                    classACount++;
-                    classARevenue += pr.revenue;
-                } else if (percentRevenue <= 0.95) {
-                    classBCount++;
-                    classBRevenue += pr.revenue;
-                } else {
-                    classCCount++;
-                    classCRevenue += pr.revenue;
-                }
+        // Calculate ABC classes
+        int totalProducts = products.size();
+        double cumulativeRevenue = 0;
+        int classACount = 0, classBCount = 0, classCCount = 0;
+        double classARevenue = 0, classBRevenue = 0, classCRevenue = 0;
+
+        for (ProductRevenue pr : products) {
+            cumulativeRevenue += pr.revenue;
+            double percentRevenue = (cumulativeRevenue / totalRevenue);
+
+            if (percentRevenue <= 0.80) {
+                classACount++;
+                classARevenue += pr.revenue;
+            } else if (percentRevenue <= 0.95) {
+                classBCount++;
+                classBRevenue += pr.revenue;
+            } else {
+                classCCount++;
+                classCRevenue += pr.revenue;
             }
+        }
 
-            // Add rows to table
-            model.addRow(new Object[]{
-                "A",
-                classACount,
-                String.format("%.1f%%", (classACount * 100.0 / totalProducts)),
-                currencyFormat.format(classARevenue),
-                String.format("%.1f%%", (classARevenue * 100.0 / totalRevenue)),
-                "High-value products - Priority focus"
-            });
-
-            model.addRow(new Object[]{
-                "B",
-                classBCount,
-                String.format("%.1f%%", (classBCount * 100.0 / totalProducts)),
-                currencyFormat.format(classBRevenue),
-                String.format("%.1f%%", (classBRevenue * 100.0 / totalRevenue)),
-                "Medium-value products - Monitor"
-            });
+        // Add rows to table
+        model.addRow(new Object[]{
+            "A",
+            classACount,
+            String.format("%.1f%%", (classACount * 100.0 / totalProducts)),
+            currencyFormat.format(classARevenue),
+            String.format("%.1f%%", (classARevenue * 100.0 / totalRevenue)),
+            "High-value products - Priority focus"
+        });
 
-            model.addRow(new Object[]{
-                "C",
-                classCCount,
-                String.format("%.1f%%", (classCCount * 100.0 / totalProducts)),
-                currencyFormat.format(classCRevenue),
-                String.format("%.1f%%", (classCRevenue * 100.0 / totalRevenue)),
-                "Low-value products - Consider liquidation"
-            });
+        model.addRow(new Object[]{
+            "B",
+            classBCount,
+            String.format("%.1f%%", (classBCount * 100.0 / totalProducts)),
+            currencyFormat.format(classBRevenue),
+            String.format("%.1f%%", (classBRevenue * 100.0 / totalRevenue)),
+            "Medium-value products - Monitor"
+        });
 
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        model.addRow(new Object[]{
+            "C",
+            classCCount,
+            String.format("%.1f%%", (classCCount * 100.0 / totalProducts)),
+            currencyFormat.format(classCRevenue),
+            String.format("%.1f%%", (classCRevenue * 100.0 / totalRevenue)),
+            "Low-value products - Consider liquidation"
+        });
     }
 
     // Helper class for ABC analysis
@@ -772,6 +784,55 @@ public class DashboardPanel extends JPanel {
         }
     }
 
+    // Product below minimum stock
+    private static class StockAlert {
+        String code;
+        String name;
+        int quantity;
+        int minQuantity;
+        int shortage;
+
+        StockAlert(String code, String name, int quantity, int minQuantity, int shortage) {
+            this.code = code;
+            this.name = name;
+            this.quantity = quantity;
+            this.minQuantity = minQuantity;
+            this.shortage = shortage;
+        }
+    }
+
+    // Order that is neither completed nor cancelled
+    private static class PendingOrder {
+        int id;
+        String date;
+        String status;
+        double total;
+        String customer;
+        int daysOld;
+
+        PendingOrder(int id, String date, String status, double total, String customer, int daysOld) {
+            this.id = id;
+            this.date = date;
+            this.status = status;
+            this.total = total;
+            this.customer = customer;
+            this.daysOld = daysOld;
+        }
+    }
+
+    // Quantity and revenue sold for one product
+    private static class ProductSales {
+        String name;
+        int quantity;
+        double revenue;
+
+        ProductSales(String name, int quantity, double revenue) {
+            this.name = name;
+            this.quantity = quantity;
+            this.revenue = revenue;
+        }
+    }
+
     // Navigation methods
     private void createNewOrder() {
         if (mainWindow != null) {
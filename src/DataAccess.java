@@ -0,0 +1,208 @@
+import javax.swing.*;
+import java.awt.Component;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous data access for the Swing UI.
+ *
+ * Queries run on virtual threads, each with a read-only connection borrowed
+ * from the pool; writes are handed to the {@link WriteQueue}. Both return a
+ * CompletableFuture, and {@link #onEdt} applies the outcome back on the Event
+ * Dispatch Thread, so panels never run JDBC while painting or handling input.
+ * Concurrency is still bounded by the read pool: extra queries simply park
+ * their virtual thread until a connection is returned.
+ *
+ * Cancelling a read future (or letting its deadline pass) interrupts the
+ * statement running on its connection, so an abandoned query stops using the
+ * database instead of running to completion. {@link LatestOnly} does this for
+ * the previous request whenever a screen starts a new one.
+ */
+public class DataAccess {
+    private static final ExecutorService EXECUTOR =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("db-read-", 0).factory());
+
+    /**
+     * A read-only piece of work executed with a pooled connection
+     */
+    @FunctionalInterface
+    public interface Query<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Run a query on a virtual thread with its own read connection
+     */
+    public static <T> CompletableFuture<T> read(Query<T> query) {
+        RunningQuery running = new RunningQuery();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            if (running.isCancelled()) {
+                throw new CancellationException("Query cancelled before it started");
+            }
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+                running.attach(conn);
+                try {
+                    return query.execute(conn);
+                } finally {
+                    running.detach();
+                }
+            } catch (SQLException e) {
+                if (running.isCancelled()) {
+                    throw new CancellationException("Query cancelled");
+                }
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR);
+        future.whenComplete((result, error) -> {
+            if (error instanceof CancellationException || error instanceof TimeoutException) {
+                running.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run a query that must deliver within the deadline (including the wait for a
+     * connection); otherwise the future fails with a TimeoutException and the
+     * statement is interrupted
+     */
+    public static <T> CompletableFuture<T> read(Query<T> query, Duration deadline) {
+        return read(query).orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a mutation on the single writer; the future completes after the commit
+     */
+    public static <T> CompletableFuture<T> write(WriteQueue.UnitOfWork<T> work) {
+        return DatabaseManager.getInstance().getWriteQueue().submit(work);
+    }
+
+    /**
+     * Deliver the outcome of a future on the Event Dispatch Thread
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                 Consumer<? super Throwable> onError) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                onError.accept(unwrap(error));
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+    }
+
+    /**
+     * Standard error handler: log the failure and show it in a dialog
+     */
+    public static Consumer<Throwable> errorDialog(Component parent, String message) {
+        return error -> {
+            error.printStackTrace();
+            JOptionPane.showMessageDialog(parent,
+                message + ": " + error.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        };
+    }
+
+    /**
+     * Error handler for secondary loads that only log the failure
+     */
+    public static Consumer<Throwable> logError(String message) {
+        return error -> System.err.println(message + ": " + error.getMessage());
+    }
+
+    /**
+     * Strip the CompletionException/ExecutionException wrappers added by the futures
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * The connection a read is executing on, so another thread can interrupt it.
+     * The connection is detached before it goes back to the pool, which keeps a
+     * late cancel from hitting the next borrower's query.
+     */
+    private static class RunningQuery {
+        private Connection conn;
+        private boolean cancelled;
+
+        synchronized void attach(Connection conn) {
+            if (cancelled) {
+                throw new CancellationException("Query cancelled before it started");
+            }
+            this.conn = conn;
+        }
+
+        synchronized void detach() {
+            conn = null;
+        }
+
+        synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        // Statement.cancel() calls sqlite3_interrupt(), which stops whatever runs on the connection
+        synchronized void cancel() {
+            cancelled = true;
+            if (conn != null) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.cancel();
+                } catch (SQLException e) {
+                    System.err.println("Could not interrupt query: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies only the outcome of the most recent request. A panel keeps one per
+     * table so a slow load that finishes late cannot overwrite a newer search;
+     * starting a new request cancels the previous one if it is still running.
+     */
+    public static class LatestOnly {
+        private final AtomicLong generation = new AtomicLong();
+        private final AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
+
+        public <T> void apply(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                              Consumer<? super Throwable> onError) {
+            long ticket = generation.incrementAndGet();
+            CompletableFuture<?> previous = current.getAndSet(future);
+            if (previous != null) {
+                previous.cancel(false);
+            }
+            onEdt(future,
+                result -> {
+                    if (ticket == generation.get()) {
+                        onSuccess.accept(result);
+                    }
+                },
+                error -> {
+                    if (ticket == generation.get()) {
+                        onError.accept(error);
+                    }
+                });
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private DataAccess() {
+        throw new AssertionError("DataAccess class cannot be instantiated");
+    }
+}
@@ -0,0 +1,503 @@
+import java.awt.AWTEvent;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Low-priority background maintenance of the SQLite file.
+ *
+ * Once a minute the scheduler checks whether the application is idle (no
+ * keyboard or mouse input for a while, no borrowed read connections and no
+ * queued writes) and then runs whichever steps are due: WAL checkpoints,
+ * PRAGMA optimize, ANALYZE of tables whose statistics have drifted,
+ * incremental vacuum, a check that invoice totals match their details and a
+ * comparison of the in-memory stock ledger with the products table. Writing
+ * steps run on the writer thread between transactions, in small chunks with a
+ * time budget, so data entry is never blocked for long. The outcome of the
+ * last run of each step is kept for display in the Backup panel.
+ */
+public class DatabaseMaintenance {
+    private static final long CHECK_INTERVAL_SECONDS = 60;
+    private static final long IDLE_MILLIS = 2 * 60_000;
+    private static final long WAL_TRUNCATE_BYTES = 64L * 1024 * 1024;
+    private static final int STATEMENT_TIMEOUT_SECONDS = 30;
+    private static final long STEP_BUDGET_MILLIS = 10_000;
+    private static final int ANALYSIS_LIMIT = 1000;
+    private static final int VACUUM_PAGES_PER_CHUNK = 500;
+    private static final double STATS_DRIFT = 0.10;
+    private static final long STATS_DRIFT_MIN_ROWS = 100;
+
+    /**
+     * Maintenance steps in execution order, with how often each may run
+     */
+    public enum Step {
+        PASSIVE_CHECKPOINT("WAL checkpoint (passive)", 5),
+        TRUNCATE_CHECKPOINT("WAL checkpoint (truncate)", 60),
+        OPTIMIZE("PRAGMA optimize", 6 * 60),
+        ANALYZE("ANALYZE changed tables", 60),
+        INCREMENTAL_VACUUM("Incremental vacuum", 60),
+        INVOICE_TOTALS("Invoice total check", 24 * 60),
+        STOCK_LEDGER("Stock ledger check", 60);
+
+        private final String displayName;
+        private final long intervalMillis;
+
+        Step(String displayName, long intervalMinutes) {
+            this.displayName = displayName;
+            this.intervalMillis = intervalMinutes * 60_000;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static DatabaseMaintenance instance;
+
+    private final Map<Step, StepResult> lastResults = new EnumMap<>(Step.class);
+    private final Map<Step, Long> lastRunMillis = new EnumMap<>(Step.class);
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final SimpleDateFormat timestampFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+    private final AWTEventListener activityListener = event -> lastActivityMillis = System.currentTimeMillis();
+
+    private ScheduledExecutorService scheduler;
+    private volatile long lastActivityMillis = System.currentTimeMillis();
+
+    private DatabaseMaintenance() {
+        // Private constructor for the Singleton pattern
+    }
+
+    public static synchronized DatabaseMaintenance getInstance() {
+        if (instance == null) {
+            instance = new DatabaseMaintenance();
+        }
+        return instance;
+    }
+
+    /**
+     * Start the scheduler (called once the main window is up)
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        Toolkit.getDefaultToolkit().addAWTEventListener(activityListener,
+            AWTEvent.KEY_EVENT_MASK | AWTEvent.MOUSE_EVENT_MASK | AWTEvent.MOUSE_WHEEL_EVENT_MASK);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-maintenance");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> runCycle(false),
+            CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        System.out.println("Database maintenance scheduler started");
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            Toolkit.getDefaultToolkit().removeAWTEventListener(activityListener);
+        }
+    }
+
+    /**
+     * Run every step now, regardless of idle state and intervals
+     */
+    public synchronized void runNow() {
+        if (scheduler != null) {
+            scheduler.execute(() -> runCycle(true));
+        }
+    }
+
+    /**
+     * Register a callback invoked (on the maintenance thread) after each run
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Idle means no user input recently, no report running and no pending writes
+     */
+    public boolean isIdle() {
+        if (System.currentTimeMillis() - lastActivityMillis < IDLE_MILLIS) {
+            return false;
+        }
+        DatabaseManager db = DatabaseManager.getInstance();
+        ConnectionPool.PoolStats stats = db.getPoolStats();
+        if (stats != null && stats.getActiveReaders() > 0) {
+            return false;
+        }
+        return db.getWriteQueue().getPendingCount() == 0;
+    }
+
+    private void runCycle(boolean force) {
+        boolean ranAny = false;
+        try {
+            for (Step step : Step.values()) {
+                if (!force && (!isIdle() || !isDue(step))) {
+                    continue;
+                }
+                runStep(step);
+                ranAny = true;
+            }
+        } catch (Exception e) {
+            // Never let an exception cancel the periodic schedule
+            e.printStackTrace();
+        }
+
+        if (ranAny) {
+            for (Runnable listener : listeners) {
+                listener.run();
+            }
+        }
+    }
+
+    private boolean isDue(Step step) {
+        Long lastRun;
+        synchronized (lastRunMillis) {
+            lastRun = lastRunMillis.get(step);
+        }
+        if (step == Step.TRUNCATE_CHECKPOINT && getWalSize() > WAL_TRUNCATE_BYTES) {
+            return true;
+        }
+        return lastRun == null || System.currentTimeMillis() - lastRun >= step.intervalMillis;
+    }
+
+    private void runStep(Step step) {
+        long start = System.currentTimeMillis();
+        boolean success = true;
+        String message;
+        try {
+            switch (step) {
+                case PASSIVE_CHECKPOINT:
+                    message = checkpoint("PASSIVE");
+                    break;
+                case TRUNCATE_CHECKPOINT:
+                    message = checkpoint("TRUNCATE");
+                    break;
+                case OPTIMIZE:
+                    message = optimize();
+                    break;
+                case ANALYZE:
+                    message = analyzeChangedTables();
+                    break;
+                case INCREMENTAL_VACUUM:
+                    message = incrementalVacuum();
+                    break;
+                case INVOICE_TOTALS:
+                    message = checkInvoiceTotals();
+                    break;
+                default:
+                    message = checkStockLedger();
+                    break;
+            }
+        } catch (Exception e) {
+            success = false;
+            message = "Failed: " + e.getMessage();
+        }
+
+        long finished = System.currentTimeMillis();
+        StepResult result = new StepResult(step, new Date(finished), finished - start, success, message);
+        synchronized (lastRunMillis) {
+            lastRunMillis.put(step, finished);
+            lastResults.put(step, result);
+        }
+        System.out.println("Maintenance: " + step.getDisplayName() + " - " + message +
+            " (" + result.getDurationMillis() + " ms)");
+    }
+
+    private String checkpoint(String mode) throws SQLException {
+        long walBefore = getWalSize();
+        long[] row = onWriter(conn -> queryLongs(conn, "PRAGMA wal_checkpoint(" + mode + ")"));
+        // Result columns: busy flag, frames in the WAL, frames checkpointed
+        if (row.length >= 3 && row[0] != 0) {
+            return String.format("Incomplete, readers still active (%d of %d frames checkpointed)", row[2], row[1]);
+        }
+        if ("TRUNCATE".equals(mode)) {
+            return String.format("WAL truncated from %.1f MB", walBefore / (1024.0 * 1024.0));
+        }
+        return String.format("%d of %d frames checkpointed", row.length >= 3 ? row[2] : 0, row.length >= 2 ? row[1] : 0);
+    }
+
+    private String optimize() throws SQLException {
+        onWriter(conn -> {
+            execute(conn, "PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+            execute(conn, "PRAGMA optimize");
+            return null;
+        });
+        return "Done (analysis_limit " + ANALYSIS_LIMIT + ")";
+    }
+
+    /**
+     * Re-analyze tables whose row count has drifted from what sqlite_stat1 recorded.
+     * Row counts are estimated from the rowid range to avoid full scans of large tables.
+     */
+    private String analyzeChangedTables() throws SQLException {
+        List<String> changed = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            Map<String, Long> recorded = new HashMap<>();
+            if (tableExists(conn, "sqlite_stat1")) {
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(
+                         "SELECT tbl, MAX(CAST(stat AS INTEGER)) FROM sqlite_stat1 GROUP BY tbl")) {
+                    while (rs.next()) {
+                        recorded.put(rs.getString(1), rs.getLong(2));
+                    }
+                }
+            }
+
+            for (String table : listTables(conn)) {
+                long[] estimate = queryLongs(conn, "SELECT IFNULL(MAX(rowid) - MIN(rowid) + 1, 0) FROM \"" + table + "\"");
+                long rows = estimate.length > 0 ? estimate[0] : 0;
+                Long stat = recorded.get(table);
+                if (stat == null) {
+                    if (rows > 0) {
+                        changed.add(table);
+                    }
+                } else if (Math.abs(rows - stat) > Math.max(STATS_DRIFT_MIN_ROWS, stat * STATS_DRIFT)) {
+                    changed.add(table);
+                }
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return "Statistics are up to date";
+        }
+
+        long deadline = System.currentTimeMillis() + STEP_BUDGET_MILLIS;
+        List<String> analyzed = new ArrayList<>();
+        for (String table : changed) {
+            if (System.currentTimeMillis() > deadline) {
+                break;
+            }
+            // One table per writer slot, so queued writes can run in between
+            onWriter(conn -> {
+                execute(conn, "PRAGMA analysis_limit = " + ANALYSIS_LIMIT);
+                execute(conn, "ANALYZE \"" + table + "\"");
+                return null;
+            });
+            analyzed.add(table);
+        }
+        return String.format("Analyzed %d of %d changed tables: %s",
+            analyzed.size(), changed.size(), String.join(", ", analyzed));
+    }
+
+    private String incrementalVacuum() throws SQLException {
+        long autoVacuum;
+        long freePages;
+        long pageSize;
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            autoVacuum = queryLongs(conn, "PRAGMA auto_vacuum")[0];
+            freePages = queryLongs(conn, "PRAGMA freelist_count")[0];
+            pageSize = queryLongs(conn, "PRAGMA page_size")[0];
+        }
+
+        if (freePages == 0) {
+            return "No free pages";
+        }
+        if (autoVacuum != 2) {
+            return String.format("%d free pages (%.1f MB); incremental vacuum is not enabled on this file " +
+                "(rebuild it from Settings > Database to enable)", freePages, freePages * pageSize / (1024.0 * 1024.0));
+        }
+
+        long deadline = System.currentTimeMillis() + STEP_BUDGET_MILLIS;
+        long remaining = freePages;
+        while (remaining > 0 && System.currentTimeMillis() < deadline) {
+            remaining = onWriter(conn -> {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setQueryTimeout(STATEMENT_TIMEOUT_SECONDS);
+                    // The pragma frees pages while it is being stepped, so drain every row
+                    try (ResultSet rs = stmt.executeQuery("PRAGMA incremental_vacuum(" + VACUUM_PAGES_PER_CHUNK + ")")) {
+                        while (rs.next()) {
+                            // Nothing to read
+                        }
+                    }
+                }
+                return queryLongs(conn, "PRAGMA freelist_count")[0];
+            });
+        }
+        return String.format("Released %.1f MB, %d free pages left",
+            (freePages - remaining) * pageSize / (1024.0 * 1024.0), remaining);
+    }
+
+    /**
+     * Compare stored invoice totals with one grouped aggregate over the details.
+     * The triggers should keep them equal; any drift is logged and corrected.
+     */
+    private String checkInvoiceTotals() throws SQLException {
+        List<InvoiceRepository.TotalDrift> drift;
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            drift = InvoiceRepository.findTotalDrift(conn);
+        }
+        if (drift.isEmpty()) {
+            return "Invoice totals match their details";
+        }
+
+        for (InvoiceRepository.TotalDrift invoice : drift) {
+            System.err.println("Invoice total drift: " + invoice);
+        }
+        int repaired = onWriter(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.setQueryTimeout(STATEMENT_TIMEOUT_SECONDS);
+                return stmt.executeUpdate(InvoiceRepository.REPAIR_TOTALS);
+            }
+        });
+        return String.format("%d invoices had drifted from their details, %d corrected", drift.size(), repaired);
+    }
+
+    private String checkStockLedger() throws SQLException {
+        StockLedger ledger = StockLedger.getInstance();
+        if (!ledger.isLoaded()) {
+            return "Skipped, ledger not loaded";
+        }
+        int drift = WriteQueue.await(ledger.verify());
+        if (drift == 0) {
+            return "Stock ledger matches the products table";
+        }
+        return String.format("%d products had drifted from the database, ledger reloaded", drift);
+    }
+
+    private static <T> T onWriter(WriteQueue.UnitOfWork<T> work) throws SQLException {
+        return WriteQueue.await(DatabaseManager.getInstance().getWriteQueue().submitStandalone(work));
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setQueryTimeout(STATEMENT_TIMEOUT_SECONDS);
+            stmt.execute(sql);
+        }
+    }
+
+    private static long[] queryLongs(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.setQueryTimeout(STATEMENT_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                if (!rs.next()) {
+                    return new long[0];
+                }
+                long[] values = new long[rs.getMetaData().getColumnCount()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = rs.getLong(i + 1);
+                }
+                return values;
+            }
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+
+    private static List<String> listTables(Connection conn) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' ORDER BY name")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    private static long getWalSize() {
+        Path wal = AppConstants.getDatabasePath().resolveSibling(AppConstants.getDatabasePath().getFileName() + "-wal");
+        try {
+            return Files.exists(wal) ? Files.size(wal) : 0;
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Snapshot of the last result of every step, in execution order
+     */
+    public List<StepResult> getLastResults() {
+        synchronized (lastRunMillis) {
+            return new ArrayList<>(lastResults.values());
+        }
+    }
+
+    public String getFormattedStatus() {
+        StringBuilder sb = new StringBuilder();
+        long dbSize = 0;
+        try {
+            dbSize = Files.size(AppConstants.getDatabasePath());
+        } catch (Exception e) {
+            // File not created yet
+        }
+        sb.append(String.format("Database file: %.1f MB, WAL: %.1f MB%n",
+            dbSize / (1024.0 * 1024.0), getWalSize() / (1024.0 * 1024.0)));
+
+        Map<Step, StepResult> results = new EnumMap<>(Step.class);
+        for (StepResult result : getLastResults()) {
+            results.put(result.getStep(), result);
+        }
+        for (Step step : Step.values()) {
+            StepResult result = results.get(step);
+            if (result == null) {
+                sb.append(String.format("%-28s never run%n", step.getDisplayName()));
+            } else {
+                synchronized (timestampFormat) {
+                    sb.append(String.format("%-28s %s  %s%s (%d ms)%n", step.getDisplayName(),
+                        timestampFormat.format(result.getFinishedAt()),
+                        result.isSuccess() ? "" : "[ERROR] ", result.getMessage(), result.getDurationMillis()));
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Outcome of one maintenance step
+     */
+    public static class StepResult {
+        private final Step step;
+        private final Date finishedAt;
+        private final long durationMillis;
+        private final boolean success;
+        private final String message;
+
+        public StepResult(Step step, Date finishedAt, long durationMillis, boolean success, String message) {
+            this.step = step;
+            this.finishedAt = finishedAt;
+            this.durationMillis = durationMillis;
+            this.success = success;
+            this.message = message;
+        }
+
+        public Step getStep() { return step; }
+        public Date getFinishedAt() { return finishedAt; }
+        public long getDurationMillis() { return durationMillis; }
+        public boolean isSuccess() { return success; }
+        public String getMessage() { return message; }
+    }
+}
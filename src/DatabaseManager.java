@@ -1,11 +1,29 @@
 import java.sql.*;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JOptionPane;
 
 public class DatabaseManager {
     private static DatabaseManager instance;
+    // How long closing waits for borrowed read connections to come back
+    private static final long READER_RETURN_TIMEOUT_MILLIS = 30_000;
+
     private Connection connection;
+    private volatile ConnectionPool pool;
+    // Guards opening, re-opening and closing the pool
+    private final Object poolLock = new Object();
+    // Set by closeConnection; the pool is not re-opened lazily until initDatabase runs again
+    private boolean closed;
+    // Set while changePageSize rebuilds the file; new borrows wait until it is re-opened
+    private boolean rebuilding;
+    private WriteQueue writeQueue;
+    private StorageProfile storageProfile;
     private static final String DB_URL;
 
+    // Number of read-only connections available to reports and list screens
+    private static final int READ_POOL_SIZE =
+        Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
     // Static initializer to set up the database URL
     static {
         DB_URL = "jdbc:sqlite:" + AppConstants.getDatabasePath().toString();
@@ -24,24 +42,42 @@ public class DatabaseManager {
     }
 
     public void initDatabase() {
+        synchronized (poolLock) {
+            closed = false;
+            openDatabase();
+        }
+    }
+
+    private void openDatabase() {
         try {
             // Load the SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
 
-            // Create the connection
-            connection = DriverManager.getConnection(DB_URL);
-
-            // Enable foreign keys and set SQLite optimizations
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute("PRAGMA foreign_keys = ON");
-                stmt.execute("PRAGMA journal_mode = WAL");
-                stmt.execute("PRAGMA synchronous = NORMAL");
+            // Replace any previous pool (e.g. after a restore) with a fresh one
+            if (pool != null) {
+                pool.close();
             }
+            if (storageProfile == null) {
+                storageProfile = StorageProfile.fromSettings();
+            }
+            StorageProfile profile = storageProfile;
+            pool = new ConnectionPool(DB_URL, READ_POOL_SIZE, profile);
+
+            // Open the dedicated writer connection (foreign keys, WAL and sync mode are set by the pool)
+            connection = pool.getWriter();
 
-            // Create tables if they do not exist
-            createTables();
+            // Bring the schema up to date (no-op when user_version is already current)
+            buildMigrations().migrate(connection);
+
+            int pageSize = StorageProfile.getPageSize(connection);
+            if (pageSize != profile.getPageSize()) {
+                System.out.println("Storage profile '" + profile.getDisplayName() + "' uses " +
+                    profile.getPageSize() + " byte pages; database file still uses " + pageSize +
+                    " (rebuild from Settings > Database to change it)");
+            }
 
-            System.out.println("Database initialized successfully");
+            System.out.println("Database initialized successfully (storage profile: " +
+                profile.getDisplayName() + ")");
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -52,6 +88,72 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Indexes created by migration 7. Frozen: later indexes get their own migration
+     * and list, which is added to IndexAdvisor.MANAGED_INDEXES, never to this one.
+     */
+    static final List<IndexAdvisor.IndexDefinition> SECONDARY_INDEXES = List.of(
+        new IndexAdvisor.IndexDefinition("idx_order_details_order", "order_details", "order_id"),
+        new IndexAdvisor.IndexDefinition("idx_order_details_product", "order_details", "product_id"),
+        new IndexAdvisor.IndexDefinition("idx_invoice_details_invoice", "invoice_details", "invoice_id"),
+        new IndexAdvisor.IndexDefinition("idx_invoice_details_product", "invoice_details", "product_id"),
+        new IndexAdvisor.IndexDefinition("idx_orders_customer", "orders", "customer_id"),
+        new IndexAdvisor.IndexDefinition("idx_orders_date", "orders", "order_date"),
+        new IndexAdvisor.IndexDefinition("idx_invoices_customer", "invoices", "customer_id"),
+        new IndexAdvisor.IndexDefinition("idx_invoices_date", "invoices", "date"),
+        new IndexAdvisor.IndexDefinition("idx_products_name", "products", "name"),
+        new IndexAdvisor.IndexDefinition("idx_products_supplier", "products", "supplier_id"),
+        new IndexAdvisor.IndexDefinition("idx_warehouse_movements_product_date", "warehouse_movements", "product_id, date"),
+        new IndexAdvisor.IndexDefinition("idx_warehouse_movements_date", "warehouse_movements", "date"),
+        new IndexAdvisor.IndexDefinition("idx_warehouse_movements_document", "warehouse_movements", "document_type, document_number"),
+        new IndexAdvisor.IndexDefinition("idx_stock_reservations_document", "stock_reservations", "document_type, document_id, status"),
+        new IndexAdvisor.IndexDefinition("idx_stock_reservations_product", "stock_reservations", "product_id, status"),
+        new IndexAdvisor.IndexDefinition("idx_supplier_price_lists_supplier_product", "supplier_price_lists", "supplier_id, product_id"),
+        new IndexAdvisor.IndexDefinition("idx_supplier_orders_supplier", "supplier_orders", "supplier_id"),
+        new IndexAdvisor.IndexDefinition("idx_supplier_order_details_order", "supplier_order_details", "order_id"),
+        new IndexAdvisor.IndexDefinition("idx_warehouse_notifications_product", "warehouse_notifications", "product_id, status")
+    );
+
+    /**
+     * Index created by migration 11
+     */
+    static final List<IndexAdvisor.IndexDefinition> SUPPLIER_ORDER_DATE_INDEX = List.of(
+        new IndexAdvisor.IndexDefinition("idx_supplier_orders_date", "supplier_orders", "order_date")
+    );
+
+    /**
+     * Indexes created by migration 13, so the date normalization pass finds the
+     * text values of these columns with an index range scan as well
+     */
+    static final List<IndexAdvisor.IndexDefinition> DATE_COLUMN_INDEXES = List.of(
+        new IndexAdvisor.IndexDefinition("idx_supplier_orders_expected_delivery", "supplier_orders", "expected_delivery_date"),
+        new IndexAdvisor.IndexDefinition("idx_supplier_price_lists_validity_start", "supplier_price_lists", "validity_start_date"),
+        new IndexAdvisor.IndexDefinition("idx_supplier_price_lists_validity_end", "supplier_price_lists", "validity_end_date")
+    );
+
+    /**
+     * Ordered registry of schema migrations, keyed on PRAGMA user_version.
+     * Append new migrations with the next version number; never renumber a released one.
+     * Steps 2-6 check the existing schema first, so databases created before
+     * versioning (user_version = 0) are upgraded safely.
+     */
+    private SchemaMigrator buildMigrations() {
+        return new SchemaMigrator()
+            .register(1, "Create base tables", conn -> createTables())
+            .register(2, "Convert product supplier to supplier_id", conn -> migrateSupplierData())
+            .register(3, "Add products.reserved_quantity", conn -> migrateStockReservationData())
+            .register(4, "Add products.warehouse_position and vat_rate", conn -> migrateWarehousePositionAndVat())
+            .register(5, "Add order payment tracking", conn -> migratePaymentTracking())
+            .register(6, "Create stock reservation triggers", conn -> createStockReservationTriggers())
+            .register(7, "Create secondary indexes", conn -> IndexAdvisor.createIndexes(conn, SECONDARY_INDEXES))
+            .register(8, "Maintain invoice totals from details", conn -> createInvoiceTotalTriggers())
+            .register(9, "Create trigger-maintained KPI snapshot", KpiSnapshot::install)
+            .register(10, "Create full-text search indexes", SearchService::install)
+            .register(11, "Index supplier order dates", conn -> IndexAdvisor.createIndexes(conn, SUPPLIER_ORDER_DATE_INDEX))
+            .register(12, "Make stock reservations unique per document line", conn -> createReservationKey())
+            .register(13, "Index the remaining date columns", conn -> IndexAdvisor.createIndexes(conn, DATE_COLUMN_INDEXES));
+    }
+
     private void createTables() throws SQLException {
         // Customers Table
         String createCustomersTable = """
@@ -309,21 +411,6 @@ public class DatabaseManager {
             stmt.execute(createStockReservationsTable);
             stmt.execute(createCompanyDataTable);
         }
-
-        // Migrate existing data from supplier TEXT to supplier_id INTEGER
-        migrateSupplierData();
-
-        // Migrate existing databases to add reserved_quantity column
-        migrateStockReservationData();
-
-        // Migrate existing databases to add warehouse_position and vat_rate columns
-        migrateWarehousePositionAndVat();
-
-        // Migrate existing databases to add payment tracking columns to orders
-        migratePaymentTracking();
-
-        // Create triggers for stock reservation synchronization
-        createStockReservationTriggers();
     }
 
     private void migrateSupplierData() throws SQLException {
@@ -489,6 +576,29 @@ public class DatabaseManager {
         }
     }
 
+    private void createReservationKey() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Keep one reservation per product and document, preferring the active one;
+            // the delete trigger releases the stock the duplicates held
+            int removed = stmt.executeUpdate("""
+                DELETE FROM stock_reservations
+                WHERE id NOT IN (
+                    SELECT COALESCE(MAX(CASE WHEN status = 'ACTIVE' THEN id END), MAX(id))
+                    FROM stock_reservations
+                    GROUP BY product_id, document_type, document_id
+                )
+            """);
+            if (removed > 0) {
+                System.out.println("Removed " + removed + " duplicate stock reservations");
+            }
+
+            stmt.execute("""
+                CREATE UNIQUE INDEX IF NOT EXISTS idx_stock_reservations_key
+                ON stock_reservations (product_id, document_type, document_id)
+            """);
+        }
+    }
+
     private void createStockReservationTriggers() throws SQLException {
         try (Statement stmt = connection.createStatement()) {
             // Drop existing triggers if they exist
@@ -542,69 +652,322 @@ public class DatabaseManager {
         }
     }
 
-    public Connection getConnection() throws SQLException {
-        // Check if connection is valid, if not recreate it
-        if (connection == null || connection.isClosed() || !connection.isValid(5)) {
-            initDatabase();
+    /**
+     * Keep invoices.taxable_amount, vat and total equal to the sums over
+     * invoice_details, so the invoice list can read them from the header.
+     * Each trigger recomputes only the invoice whose details changed.
+     */
+    private void createInvoiceTotalTriggers() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TRIGGER IF EXISTS update_invoice_totals_insert");
+            stmt.execute("DROP TRIGGER IF EXISTS update_invoice_totals_update");
+            stmt.execute("DROP TRIGGER IF EXISTS update_invoice_totals_delete");
+
+            String insertTrigger = """
+                CREATE TRIGGER update_invoice_totals_insert
+                AFTER INSERT ON invoice_details
+                BEGIN
+                    %s
+                END
+            """.formatted(invoiceTotalsUpdate("NEW.invoice_id"));
+
+            // A detail moved to another invoice changes both headers
+            String updateTrigger = """
+                CREATE TRIGGER update_invoice_totals_update
+                AFTER UPDATE OF invoice_id, quantity, unit_price, vat_rate ON invoice_details
+                BEGIN
+                    %s
+                    %s
+                END
+            """.formatted(invoiceTotalsUpdate("NEW.invoice_id"), invoiceTotalsUpdate("OLD.invoice_id"));
+
+            String deleteTrigger = """
+                CREATE TRIGGER update_invoice_totals_delete
+                AFTER DELETE ON invoice_details
+                BEGIN
+                    %s
+                END
+            """.formatted(invoiceTotalsUpdate("OLD.invoice_id"));
+
+            stmt.execute(insertTrigger);
+            stmt.execute(updateTrigger);
+            stmt.execute(deleteTrigger);
+
+            // Bring existing headers in line once
+            int repaired = stmt.executeUpdate(InvoiceRepository.REPAIR_TOTALS);
+            System.out.println("Invoice total triggers created, " + repaired + " invoice headers corrected");
+        }
+    }
+
+    private static String invoiceTotalsUpdate(String invoiceId) {
+        return """
+            UPDATE invoices
+            SET taxable_amount = (SELECT COALESCE(SUM(quantity * unit_price), 0)
+                                  FROM invoice_details WHERE invoice_id = %1$s),
+                vat = (SELECT COALESCE(SUM(quantity * unit_price * vat_rate / 100), 0)
+                       FROM invoice_details WHERE invoice_id = %1$s)
+            WHERE id = %1$s;
+            UPDATE invoices SET total = taxable_amount + vat WHERE id = %1$s;""".formatted(invoiceId);
+    }
+
+    /**
+     * Get the shared writer connection for the write queue.
+     * Only the writer thread may use it; everything else goes through
+     * runInTransaction or getReadConnection.
+     */
+    private Connection getWriterConnection() throws SQLException {
+        synchronized (poolLock) {
+            ConnectionPool current = openPool();
+            // Check if connection is usable, if not recreate it
+            if (!current.isWriterUsable()) {
+                openDatabase();
+                current = openPool();
+            }
+            connection = current.getWriter();
+            return connection;
+        }
+    }
+
+    /**
+     * Current pool, re-opened if it was lost (e.g. after a failed initialization).
+     * Fails after an explicit closeConnection instead of re-opening the file.
+     */
+    private ConnectionPool openPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+        synchronized (poolLock) {
+            while (rebuilding) {
+                try {
+                    poolLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while the database was being rebuilt", e);
+                }
+            }
+            if (closed) {
+                throw new SQLException("Database is closed");
+            }
+            if (pool == null || pool.isClosed()) {
+                openDatabase();
+            }
+            if (pool == null) {
+                throw new SQLException("Database could not be opened");
+            }
+            return pool;
+        }
+    }
+
+    /**
+     * Get the single-writer transaction queue, starting its thread on first use
+     */
+    public synchronized WriteQueue getWriteQueue() {
+        if (writeQueue == null) {
+            writeQueue = new WriteQueue(this::getWriterConnection);
+        }
+        return writeQueue;
+    }
+
+    /**
+     * Run a unit of work in a transaction on the writer thread and wait for it to commit.
+     * Every mutation goes through here or DataAccess.write.
+     */
+    public <T> T runInTransaction(WriteQueue.UnitOfWork<T> work) throws SQLException {
+        return getWriteQueue().execute(work);
+    }
+
+    /**
+     * Borrow a read-only connection for queries that do not modify data.
+     * Must be closed (preferably with try-with-resources) to return it to the pool.
+     */
+    public Connection getReadConnection() throws SQLException {
+        while (true) {
+            ConnectionPool current = openPool();
+            try {
+                return current.borrowReader();
+            } catch (SQLException e) {
+                // Retry only if the pool was replaced between lookup and borrow
+                if (!current.isClosed()) {
+                    throw e;
+                }
+            }
         }
-        return connection;
     }
 
-    public void closeConnection() {
+    public static String getDatabaseUrl() {
+        return DB_URL;
+    }
+
+    /**
+     * Storage profile the current connections were opened with
+     */
+    public StorageProfile getStorageProfile() {
+        return pool != null ? pool.getStorageProfile() : StorageProfile.fromSettings();
+    }
+
+    /**
+     * Reopen every connection with a newly selected storage profile
+     */
+    public void applyStorageProfile(StorageProfile profile) {
+        getWriteQueue().flush();
+        storageProfile = profile;
+        initDatabase();
+    }
+
+    /**
+     * Page size of the database file
+     */
+    public int getPageSize() throws SQLException {
+        try (Connection conn = getReadConnection()) {
+            return StorageProfile.getPageSize(conn);
+        }
+    }
+
+    /**
+     * Rebuild the database file with a new page size.
+     * SQLite cannot change the page size of a WAL database, so the pool is closed,
+     * the file is switched to rollback journaling, vacuumed and switched back.
+     * The rebuild also enables incremental auto-vacuum on files created without it.
+     * Takes roughly as long as copying the whole file.
+     *
+     * The rebuild runs as a standalone task on the writer thread, so queued writes
+     * wait behind it. While it runs, read connections are not handed out: callers
+     * block until the pool is re-opened. It starts only once every borrowed reader
+     * has been returned.
+     */
+    public CompletableFuture<Void> changePageSize(int pageSize) {
+        return getWriteQueue().submitStandalone(conn -> {
+            rebuildWithPageSize(pageSize);
+            return null;
+        });
+    }
+
+    private void rebuildWithPageSize(int pageSize) throws SQLException {
+        ConnectionPool closing;
+        synchronized (poolLock) {
+            rebuilding = true;
+            closing = pool;
+            if (closing != null) {
+                closing.close();
+            }
+            connection = null;
+        }
+
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed");
+            if (closing != null && !closing.awaitReadersReturned(READER_RETURN_TIMEOUT_MILLIS)) {
+                throw new SQLException("Read connections are still in use; try again later");
+            }
+
+            long start = System.currentTimeMillis();
+            try (Connection conn = DriverManager.getConnection(DB_URL);
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = DELETE");
+                stmt.execute("PRAGMA page_size = " + pageSize);
+                stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                stmt.execute("VACUUM");
+                stmt.execute("PRAGMA journal_mode = WAL");
+                System.out.println("Database rebuilt with " + pageSize + " byte pages in " +
+                    (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for read connections", e);
+        } finally {
+            synchronized (poolLock) {
+                rebuilding = false;
+                openDatabase();
+                poolLock.notifyAll();
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
     }
 
-    public String getNextInvoiceNumber(int year) throws SQLException {
-        String number;
-        Connection conn = getConnection(); // Use the safe getConnection method
-        conn.setAutoCommit(false);
+    /**
+     * Get a snapshot of the connection pool metrics
+     */
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool != null ? pool.getStats() : null;
+    }
+
+    /**
+     * Close every connection and keep the database closed until initDatabase runs again.
+     * Waits for borrowed read connections to be returned, so that the file and its
+     * WAL are no longer in use when this returns normally.
+     *
+     * @throws SQLException if read connections are still borrowed after the timeout
+     */
+    public void closeConnection() throws SQLException {
+        if (writeQueue != null) {
+            // Let queued writes commit before the writer connection goes away
+            writeQueue.flush();
+        }
+        ConnectionPool closing;
+        synchronized (poolLock) {
+            closed = true;
+            closing = pool;
+            if (closing == null) {
+                return;
+            }
+            closing.close();
+            connection = null;
+        }
         try {
-            // Check if a record for the current year already exists
-            String checkQuery = "SELECT last_number FROM invoice_numbering WHERE year = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(checkQuery)) {
-                pstmt.setInt(1, year);
-                ResultSet rs = pstmt.executeQuery();
+            if (!closing.awaitReadersReturned(READER_RETURN_TIMEOUT_MILLIS)) {
+                throw new SQLException("Read connections are still in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for read connections", e);
+        }
+        System.out.println("Database connection closed");
+    }
 
-                int nextNumber;
+    /**
+     * Reserve the next invoice number for the year in its own committed transaction
+     */
+    public String getNextInvoiceNumber(int year) throws SQLException {
+        return runInTransaction(conn -> getNextInvoiceNumber(conn, year));
+    }
+
+    /**
+     * Reserve the next invoice number as part of the caller's transaction.
+     * Does not commit, so the number is released again if the caller rolls back.
+     */
+    public String getNextInvoiceNumber(Connection conn, int year) throws SQLException {
+        int nextNumber = 1;
+        boolean exists = false;
+
+        // Check if a record for the current year already exists
+        String checkQuery = "SELECT last_number FROM invoice_numbering WHERE year = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(checkQuery)) {
+            pstmt.setInt(1, year);
+            try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    // Increment the last number
+                    exists = true;
                     nextNumber = rs.getInt("last_number") + 1;
-                    String updateQuery = "UPDATE invoice_numbering SET last_number = ? WHERE year = ?";
-                    try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                        updateStmt.setInt(1, nextNumber);
-                        updateStmt.setInt(2, year);
-                        updateStmt.executeUpdate();
-                    }
-                } else {
-                    // Create a new record for the year
-                    nextNumber = 1;
-                    String insertQuery = "INSERT INTO invoice_numbering (year, last_number) VALUES (?, ?)";
-                    try (PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
-                        insertStmt.setInt(1, year);
-                        insertStmt.setInt(2, nextNumber);
-                        insertStmt.executeUpdate();
-                    }
                 }
-
-                // Format the invoice number (e.g., 2024/0001)
-                number = String.format("%d/%04d", year, nextNumber);
             }
+        }
 
-            conn.commit();
-            return number;
-
-        } catch (SQLException e) {
-            conn.rollback();
-            throw e;
-        } finally {
-            conn.setAutoCommit(true);
+        if (exists) {
+            // Increment the last number
+            String updateQuery = "UPDATE invoice_numbering SET last_number = ? WHERE year = ?";
+            try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
+                updateStmt.setInt(1, nextNumber);
+                updateStmt.setInt(2, year);
+                updateStmt.executeUpdate();
+            }
+        } else {
+            // Create a new record for the year
+            String insertQuery = "INSERT INTO invoice_numbering (year, last_number) VALUES (?, ?)";
+            try (PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
+                insertStmt.setInt(1, year);
+                insertStmt.setInt(2, nextNumber);
+                insertStmt.executeUpdate();
+            }
         }
+
+        // Format the invoice number (e.g., 2024/0001)
+        return String.format("%d/%04d", year, nextNumber);
     }
 }
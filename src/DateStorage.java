@@ -0,0 +1,202 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage format of document dates and the SQL that filters on them.
+ *
+ * Dates are stored as INTEGER epoch milliseconds, which is what the JDBC
+ * driver writes for a bound Timestamp. Older rows may still hold
+ * "yyyy-MM-dd HH:mm:ss" text (from CURRENT_TIMESTAMP defaults or earlier
+ * versions); {@link #normalizeInBackground()} rewrites them in small batches
+ * on the writer, reading each value exactly as {@link DateUtils} displays it.
+ *
+ * Filters compare the raw column against millisecond bounds computed here in
+ * local time ({@code col >= ? AND col < ?}), so they are index range scans
+ * instead of a DATE() call on every row.
+ */
+public class DateStorage {
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Date columns kept as epoch milliseconds, as table and column pairs
+     */
+    private static final String[][] DATE_COLUMNS = {
+        {"orders", "order_date"},
+        {"invoices", "date"},
+        {"warehouse_movements", "date"},
+        {"supplier_orders", "order_date"},
+        {"supplier_orders", "expected_delivery_date"},
+        {"supplier_price_lists", "validity_start_date"},
+        {"supplier_price_lists", "validity_end_date"}
+    };
+
+    // In a NUMERIC-affinity column every text value sorts after every number,
+    // so this is a range scan on the column's index (every column listed above
+    // has one, see DatabaseManager) that skips converted rows. Paging follows
+    // the index order (value, id) so unreadable values are passed over.
+    private static final String TEXT_VALUES = """
+        SELECT id, %2$s FROM %1$s
+        WHERE %2$s >= '' AND (%2$s, id) > (?, ?)
+        ORDER BY %2$s, id
+        LIMIT %3$d
+    """;
+
+    private static final String UPDATE_VALUE = "UPDATE %s SET %s = ? WHERE id = ?";
+
+    /**
+     * SQL for the local "yyyy-MM" month of a stored date
+     */
+    public static String monthOf(String column) {
+        return "strftime('%Y-%m', " + column + " / 1000, 'unixepoch', 'localtime')";
+    }
+
+    /**
+     * First millisecond of the local day containing date
+     */
+    public static long startOfDay(Date date) {
+        return toLocalDate(date).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * First millisecond of the local day after the one containing date
+     * (exclusive upper bound of a filter that includes that day)
+     */
+    public static long startOfNextDay(Date date) {
+        return toLocalDate(date).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static long startOfToday() {
+        return startOfDay(new Date());
+    }
+
+    /**
+     * The current local time the given number of months ago
+     */
+    public static long monthsAgo(int months) {
+        return LocalDateTime.now().minusMonths(months).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    /**
+     * Convert every remaining text date to epoch milliseconds. Each batch is its
+     * own write transaction, so user writes queue between batches and the
+     * application stays usable; once nothing is left this costs one index probe
+     * per column.
+     *
+     * @return Number of values converted
+     */
+    public static CompletableFuture<Integer> normalizeInBackground() {
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Thread.ofVirtual().name("date-normalizer").start(() -> {
+            try {
+                result.complete(normalizeAll());
+            } catch (Throwable e) {
+                result.completeExceptionally(DataAccess.unwrap(e));
+            }
+        });
+        return result;
+    }
+
+    private static int normalizeAll() {
+        long start = System.currentTimeMillis();
+        int converted = 0;
+        for (String[] column : DATE_COLUMNS) {
+            String table = column[0];
+            String name = column[1];
+            String lastValue = "";
+            long lastId = 0;
+            int columnConverted = 0;
+            int unreadable = 0;
+            while (true) {
+                String afterValue = lastValue;
+                long afterId = lastId;
+                BatchResult batch = DataAccess.write(conn -> convertBatch(conn, table, name, afterValue, afterId)).join();
+                columnConverted += batch.converted;
+                unreadable += batch.unreadable;
+                if (batch.lastValue == null) {
+                    break;
+                }
+                lastValue = batch.lastValue;
+                lastId = batch.lastId;
+            }
+            if (columnConverted > 0 || unreadable > 0) {
+                System.out.println("Converted " + columnConverted + " dates in " + table + "." + name
+                    + " to epoch milliseconds" + (unreadable > 0 ? " (" + unreadable + " unreadable, left as text)" : ""));
+            }
+            converted += columnConverted;
+        }
+        if (converted > 0) {
+            System.out.println("Date normalization finished in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return converted;
+    }
+
+    private static BatchResult convertBatch(Connection conn, String table, String column,
+                                            String afterValue, long afterId) throws SQLException {
+        List<long[]> updates = new ArrayList<>();
+        String lastValue = null;
+        long lastId = 0;
+        int unreadable = 0;
+        try (PreparedStatement select = conn.prepareStatement(TEXT_VALUES.formatted(table, column, BATCH_SIZE))) {
+            select.setString(1, afterValue);
+            select.setLong(2, afterId);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    lastId = rs.getLong(1);
+                    lastValue = rs.getString(2);
+                    Date date = DateUtils.parseStoredValue(lastValue);
+                    if (date != null) {
+                        updates.add(new long[]{lastId, date.getTime()});
+                    } else {
+                        unreadable++;
+                    }
+                }
+            }
+        }
+        if (!updates.isEmpty()) {
+            try (PreparedStatement update = conn.prepareStatement(UPDATE_VALUE.formatted(table, column))) {
+                for (long[] row : updates) {
+                    update.setLong(1, row[1]);
+                    update.setLong(2, row[0]);
+                    update.addBatch();
+                }
+                update.executeBatch();
+            }
+        }
+        return new BatchResult(updates.size(), unreadable, lastValue, lastId);
+    }
+
+    /**
+     * Outcome of one batch; lastValue is null when no text values were left
+     */
+    private static class BatchResult {
+        final int converted;
+        final int unreadable;
+        final String lastValue;
+        final long lastId;
+
+        BatchResult(int converted, int unreadable, String lastValue, long lastId) {
+            this.converted = converted;
+            this.unreadable = unreadable;
+            this.lastValue = lastValue;
+            this.lastId = lastId;
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private DateStorage() {
+        throw new AssertionError("DateStorage class cannot be instantiated");
+    }
+}
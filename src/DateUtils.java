@@ -2,24 +2,144 @@
 import java.sql.*;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
 import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Date parsing and formatting shared by every list and dialog.
+ *
+ * Everything here is thread-safe without locks. Dates read from SQLite come
+ * back as epoch milliseconds or as "yyyy-MM-dd[ HH:mm:ss[.SSS]]" text; those
+ * forms are decoded by hand straight from the characters. Anything else goes
+ * through the original sequence (JDBC timestamp, then five lenient formats),
+ * so every input parses exactly as it always has. Formatting uses cached
+ * DateTimeFormatters built from the pattern of the caller's SimpleDateFormat.
+ */
 public class DateUtils {
-    private static final SimpleDateFormat[] DATE_FORMATS = {
-        new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"),
-        new SimpleDateFormat("yyyy-MM-dd"),
-        new SimpleDateFormat("dd/MM/yyyy HH:mm:ss"),
-        new SimpleDateFormat("dd/MM/yyyy"),
-        new SimpleDateFormat("MM/yyyy")
+    private static final String[] FALLBACK_PATTERNS = {
+        "yyyy-MM-dd HH:mm:ss",
+        "yyyy-MM-dd",
+        "dd/MM/yyyy HH:mm:ss",
+        "dd/MM/yyyy",
+        "MM/yyyy"
     };
-    
-    public static final SimpleDateFormat DEFAULT_FORMAT = new SimpleDateFormat("dd/MM/yyyy");
-    public static final SimpleDateFormat DATETIME_FORMAT = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
-    
+
+    // Lenient SimpleDateFormats are only used on the rare fallback path, one set per thread
+    private static final ThreadLocal<SimpleDateFormat[]> FALLBACK_FORMATS = ThreadLocal.withInitial(() -> {
+        SimpleDateFormat[] formats = new SimpleDateFormat[FALLBACK_PATTERNS.length];
+        for (int i = 0; i < formats.length; i++) {
+            formats[i] = new SimpleDateFormat(FALLBACK_PATTERNS[i]);
+        }
+        return formats;
+    });
+
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final ZoneRules ZONE_RULES = ZONE.getRules();
+
+    // Before this year the Julian/Gregorian calendars of SimpleDateFormat and java.time can disagree
+    private static final int MIN_FAST_YEAR = 1900;
+    private static final long MIN_FAST_MILLIS = LocalDateTime.of(MIN_FAST_YEAR, 1, 2, 0, 0)
+        .toInstant(ZoneOffset.UTC).toEpochMilli();
+    // Pattern letters that SimpleDateFormat and DateTimeFormatter format identically
+    private static final String PORTABLE_LETTERS = "yMdHmsS";
+
+    private static final Map<String, Optional<DateTimeFormatter>> FORMATTERS = new ConcurrentHashMap<>();
+
+    public static final DateTimeFormatter DEFAULT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    public static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
     /**
      * Parse a date from ResultSet handling various formats
      */
     public static Date parseDate(ResultSet rs, String columnName) throws SQLException {
+        String dateStr;
+        try {
+            dateStr = rs.getString(columnName);
+        } catch (SQLException e) {
+            return parseDateFallback(rs, columnName);
+        }
+        if (dateStr == null) {
+            return null;
+        }
+        long millis = parseStoredDate(dateStr);
+        if (millis != NOT_PARSED) {
+            return new Date(millis);
+        }
+        return parseDateFallback(rs, columnName);
+    }
+
+    /**
+     * Decode the forms SQLite returns: epoch milliseconds, "yyyy-MM-dd",
+     * "yyyy-MM-dd HH:mm:ss" and "yyyy-MM-dd HH:mm:ss.SSS" in local time.
+     * Returns NOT_PARSED for anything else, and for values whose meaning the
+     * lenient legacy parsing could change (out-of-range fields, old years,
+     * local times inside a DST transition), so that the fallback decides.
+     */
+    static long parseStoredDate(String s) {
+        int length = s.length();
+        if (length == 0) {
+            return NOT_PARSED;
+        }
+        if (allDigits(s)) {
+            // Up to 18 digits always fits in a long
+            return length <= 18 ? Long.parseLong(s) : NOT_PARSED;
+        }
+        if (length != 10 && length != 19 && length != 23) {
+            return NOT_PARSED;
+        }
+
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        if (year < MIN_FAST_YEAR || month < 1 || month > 12 || day < 1
+                || s.charAt(4) != '-' || s.charAt(7) != '-') {
+            return NOT_PARSED;
+        }
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        if (length >= 19) {
+            hour = digits(s, 11, 2);
+            minute = digits(s, 14, 2);
+            second = digits(s, 17, 2);
+            if (s.charAt(10) != ' ' || s.charAt(13) != ':' || s.charAt(16) != ':'
+                    || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+                return NOT_PARSED;
+            }
+        }
+        if (length == 23) {
+            millis = digits(s, 20, 3);
+            if (s.charAt(19) != '.' || millis < 0) {
+                return NOT_PARSED;
+            }
+        }
+        if (day > YearMonth.of(year, month).lengthOfMonth()) {
+            return NOT_PARSED;
+        }
+
+        LocalDateTime local = LocalDateTime.of(year, month, day, hour, minute, second);
+        if (ZONE_RULES.getTransition(local) != null) {
+            return NOT_PARSED;
+        }
+        return local.toEpochSecond(ZONE_RULES.getOffset(local)) * 1000 + millis;
+    }
+
+    /**
+     * The original lookup: JDBC timestamp first, then epoch millis, then each
+     * lenient format in turn (prefix match, trailing text ignored)
+     */
+    private static Date parseDateFallback(ResultSet rs, String columnName) {
         try {
             // First try as Timestamp
             Timestamp timestamp = rs.getTimestamp(columnName);
@@ -29,75 +149,149 @@ public class DateUtils {
         } catch (SQLException e) {
             // Ignore and try as string
         }
-        
+
         try {
-            String dateStr = rs.getString(columnName);
-            if (dateStr != null && !dateStr.isEmpty()) {
-                // If it's a number (timestamp millis), convert it
-                if (dateStr.matches("\\d+")) {
-                    try {
-                        long timestampMillis = Long.parseLong(dateStr);
-                        return new Date(timestampMillis);
-                    } catch (NumberFormatException e) {
-                        // Continue with string parsing
-                    }
+            return parseText(rs.getString(columnName));
+        } catch (SQLException e) {
+            // Log the error if needed
+        }
+        return null;
+    }
+
+    /**
+     * Instant of a date value as stored in the database (epoch milliseconds or
+     * text), read the same way {@link #parseDate(ResultSet, String)} reads it
+     * when the driver has no timestamp for it; null if it is not a date
+     */
+    public static Date parseStoredValue(String value) {
+        if (value == null) {
+            return null;
+        }
+        long millis = parseStoredDate(value);
+        return millis != NOT_PARSED ? new Date(millis) : parseText(value);
+    }
+
+    private static Date parseText(String dateStr) {
+        if (dateStr != null && !dateStr.isEmpty()) {
+            // If it's a number (timestamp millis), convert it
+            if (allDigits(dateStr)) {
+                try {
+                    long timestampMillis = Long.parseLong(dateStr);
+                    return new Date(timestampMillis);
+                } catch (NumberFormatException e) {
+                    // Continue with string parsing
                 }
-                
-                // Try all formats
-                for (SimpleDateFormat format : DATE_FORMATS) {
-                    try {
-                        synchronized (format) {
-                            return format.parse(dateStr);
-                        }
-                    } catch (ParseException e) {
-                        // Continue with next format
-                    }
+            }
+
+            // Try all formats
+            for (SimpleDateFormat format : FALLBACK_FORMATS.get()) {
+                try {
+                    return format.parse(dateStr);
+                } catch (ParseException e) {
+                    // Continue with next format
                 }
             }
-        } catch (SQLException e) {
-            // Log the error if needed
         }
         return null;
     }
-    
+
+    private static boolean allDigits(String s) {
+        if (s.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Value of count ASCII digits starting at offset, or -1 if any is not a digit
+    private static int digits(String s, int offset, int count) {
+        int value = 0;
+        for (int i = offset; i < offset + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
     /**
      * Format a date safely
      */
     public static String formatDate(Date date, SimpleDateFormat format) {
         if (date == null) return "";
+        Optional<DateTimeFormatter> formatter = FORMATTERS.computeIfAbsent(format.toPattern(), DateUtils::portableFormatter);
+        if (formatter.isPresent() && date.getTime() >= MIN_FAST_MILLIS) {
+            return formatter.get().format(Instant.ofEpochMilli(date.getTime()).atZone(ZONE));
+        }
         synchronized (format) {
             return format.format(date);
         }
     }
-    
+
     /**
      * Format a date with default format
      */
     public static String formatDate(Date date) {
-        return formatDate(date, DEFAULT_FORMAT);
+        if (date == null) return "";
+        return DEFAULT_FORMAT.format(Instant.ofEpochMilli(date.getTime()).atZone(ZONE));
+    }
+
+    // A DateTimeFormatter that prints exactly like SimpleDateFormat for this pattern, if there is one.
+    // Only numeric fields qualify: month names and 1-2 digit fractions print differently.
+    private static Optional<DateTimeFormatter> portableFormatter(String pattern) {
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+                continue;
+            }
+            if (quoted || !Character.isLetter(c)) {
+                continue;
+            }
+            int run = 1;
+            while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                run++;
+            }
+            if (PORTABLE_LETTERS.indexOf(c) < 0 || (c == 'M' && run > 2) || (c == 'S' && run != 3)) {
+                return Optional.empty();
+            }
+            i += run - 1;
+        }
+        try {
+            return Optional.of(DateTimeFormatter.ofPattern(pattern));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
-    
+
     /**
-     * Parse a date string safely
+     * Parse a date string safely. Keeps the lenient behaviour of the given
+     * format; the format is copied rather than locked.
      */
     public static Date parseDate(String dateStr, SimpleDateFormat format) throws ParseException {
         if (dateStr == null || dateStr.trim().isEmpty()) return null;
-        synchronized (format) {
-            return format.parse(dateStr.trim());
-        }
+        return ((SimpleDateFormat) format.clone()).parse(dateStr.trim());
     }
-    
+
     /**
      * Convert Date to SQL Date
      */
     public static java.sql.Date toSqlDate(Date date) {
         return date != null ? new java.sql.Date(date.getTime()) : null;
     }
-    
+
     /**
      * Convert Date to SQL Timestamp
      */
     public static Timestamp toSqlTimestamp(Date date) {
         return date != null ? new Timestamp(date.getTime()) : null;
     }
-}
\ No newline at end of file
+}
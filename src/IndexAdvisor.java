@@ -0,0 +1,319 @@
+import java.sql.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Managed secondary index set plus an "index advisor".
+ *
+ * The index set is created through schema migrations (see DatabaseManager).
+ * The advisor runs EXPLAIN QUERY PLAN against the SQL used by the panels and
+ * StockManager and reports every query that still scans a large table.
+ */
+public class IndexAdvisor {
+
+    /**
+     * Tables with at least this many rows are considered large
+     */
+    public static final long LARGE_TABLE_ROWS = 10_000;
+
+    private static final Pattern TABLE_ALIAS_PATTERN = Pattern.compile(
+        "\\b(?:FROM|JOIN)\\s+(\\w+)(?:\\s+(?:AS\\s+)?(\\w+))?", Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> SQL_KEYWORDS = Set.of(
+        "WHERE", "LEFT", "RIGHT", "INNER", "OUTER", "CROSS", "JOIN", "ON", "GROUP", "ORDER",
+        "LIMIT", "UNION", "SET", "VALUES", "USING", "NATURAL", "HAVING", "WINDOW");
+
+    /**
+     * Secondary indexes managed by the application: the union of the index
+     * lists the schema migrations create
+     */
+    public static final List<IndexDefinition> MANAGED_INDEXES = concat(
+        DatabaseManager.SECONDARY_INDEXES,
+        DatabaseManager.SUPPLIER_ORDER_DATE_INDEX,
+        DatabaseManager.DATE_COLUMN_INDEXES
+    );
+
+    /**
+     * Application queries, referenced from the classes that run them so the
+     * advisor always explains the SQL that is actually executed
+     */
+    public static final Map<String, String> APPLICATION_QUERIES = new LinkedHashMap<>();
+
+    static {
+        APPLICATION_QUERIES.put("StockManager.reserveOrFail (guarded reservation)", StockManager.GUARDED_RESERVATION);
+        APPLICATION_QUERIES.put("StockManager.reserveOrFail (refused lines)", StockManager.STOCK_FOR_RESERVATIONS);
+        APPLICATION_QUERIES.put("StockManager.cancelRemovedLines", StockManager.CANCEL_REMOVED_LINES);
+        APPLICATION_QUERIES.put("StockManager.cancelReservation", StockManager.CANCEL_RESERVATIONS);
+        APPLICATION_QUERIES.put("StockManager.completeReservationAndDecrementStock (reservations)",
+            StockManager.ACTIVE_RESERVATIONS);
+        APPLICATION_QUERIES.put("StockManager.completeReservationAndDecrementStock (complete)",
+            StockManager.COMPLETE_RESERVATIONS);
+        APPLICATION_QUERIES.put("StockManager.restoreStockFromDocument",
+            String.format(StockManager.DOCUMENT_LINES, "order_details", "order_id"));
+        APPLICATION_QUERIES.put("StockManager.deleteWarehouseMovements", StockManager.DELETE_WAREHOUSE_MOVEMENTS);
+        APPLICATION_QUERIES.put("OrdersPanel orders by date (next page)",
+            PagedTableModel.pageSql(OrderRepository.PAGE_SELECT, "o.id", "o.order_date", true, null, true));
+        APPLICATION_QUERIES.put("OrdersPanel order details", OrdersPanel.ORDER_ITEMS);
+        APPLICATION_QUERIES.put("InvoicesPanel invoices by date (next page)",
+            PagedTableModel.pageSql(InvoiceRepository.PAGE_SELECT, "i.id", "i.date", true, null, true));
+        APPLICATION_QUERIES.put("InvoicesPanel invoice by number", InvoicesPanel.INVOICE_BY_NUMBER);
+        APPLICATION_QUERIES.put("InvoicesPanel invoice details", InvoicesPanel.INVOICE_ITEMS);
+        APPLICATION_QUERIES.put("CustomersPanel cascade delete (orders)", CustomersPanel.DELETE_ORDER_DETAILS);
+        APPLICATION_QUERIES.put("CustomersPanel cascade delete (invoices)", CustomersPanel.DELETE_INVOICE_DETAILS);
+        APPLICATION_QUERIES.put("WarehousePanel movements by date (next page)",
+            PagedTableModel.pageSql(WarehouseRepository.MOVEMENT_PAGE_SELECT, "m.id", "m.date", true, null, true));
+        APPLICATION_QUERIES.put("WarehouseReportPanel movements by date range",
+            PagedTableModel.pageSql(WarehouseRepository.MOVEMENT_REPORT_SELECT, "m.id", "m.date", true,
+                WarehouseRepository.MOVEMENT_DATE_FILTER, false));
+        APPLICATION_QUERIES.put("WarehouseRepository open notifications", WarehouseRepository.OPEN_NOTIFICATIONS);
+        APPLICATION_QUERIES.put("WarehouseRepository products below minimum", WarehouseRepository.PRODUCTS_BELOW_MINIMUM);
+        APPLICATION_QUERIES.put("SupplierPriceListWindow price list", SupplierPriceListWindow.PRICE_LIST);
+        APPLICATION_QUERIES.put("SupplierPriceListDialog overlapping price", SupplierPriceListDialog.OVERLAPPING_PRICE);
+        APPLICATION_QUERIES.put("SupplierOrdersWindow order details", SupplierOrdersWindow.ORDER_ITEMS);
+        APPLICATION_QUERIES.put("SalesReportPanel orders by date", SalesReportPanel.ORDERS_BY_DATE);
+    }
+
+    @SafeVarargs
+    private static List<IndexDefinition> concat(List<IndexDefinition>... lists) {
+        List<IndexDefinition> all = new ArrayList<>();
+        for (List<IndexDefinition> list : lists) {
+            all.addAll(list);
+        }
+        return List.copyOf(all);
+    }
+
+    /**
+     * Create every index of the given list that does not exist yet
+     */
+    public static void createIndexes(Connection conn, List<IndexDefinition> indexes) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (IndexDefinition index : indexes) {
+                stmt.execute(index.getCreateStatement());
+            }
+        }
+    }
+
+    /**
+     * List the managed indexes missing from the database
+     */
+    public static List<IndexDefinition> findMissingIndexes(Connection conn) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index'")) {
+            while (rs.next()) {
+                existing.add(rs.getString("name"));
+            }
+        }
+
+        List<IndexDefinition> missing = new ArrayList<>();
+        for (IndexDefinition index : MANAGED_INDEXES) {
+            if (!existing.contains(index.getName())) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Analyze the built-in application queries
+     */
+    public static List<QueryReport> analyze(Connection conn) throws SQLException {
+        return analyze(conn, APPLICATION_QUERIES);
+    }
+
+    /**
+     * Run EXPLAIN QUERY PLAN for each query and flag full scans of large tables
+     */
+    public static List<QueryReport> analyze(Connection conn, Map<String, String> queries) throws SQLException {
+        Map<String, Long> rowEstimates = new HashMap<>();
+        List<QueryReport> reports = new ArrayList<>();
+
+        for (Map.Entry<String, String> entry : queries.entrySet()) {
+            String sql = entry.getValue();
+            Map<String, String> aliases = resolveAliases(sql);
+            List<String> planLines = new ArrayList<>();
+            List<String> largeScans = new ArrayList<>();
+            String error = null;
+
+            try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                // The plan does not depend on the values, but every parameter must be bound
+                int paramCount = pstmt.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= paramCount; i++) {
+                    pstmt.setNull(i, Types.NULL);
+                }
+
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    String detail = rs.getString("detail");
+                    planLines.add(detail);
+
+                    String table = getScannedTable(detail, aliases);
+                    if (table != null) {
+                        long rows = rowEstimates.computeIfAbsent(table, t -> estimateRowCount(conn, t));
+                        if (rows >= LARGE_TABLE_ROWS) {
+                            largeScans.add(String.format("%s (~%d rows)", table, rows));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                error = e.getMessage();
+            }
+
+            reports.add(new QueryReport(entry.getKey(), sql, planLines, largeScans, error));
+        }
+
+        return reports;
+    }
+
+    /**
+     * Format the analysis as a plain-text report
+     */
+    public static String formatReport(List<QueryReport> reports, List<IndexDefinition> missingIndexes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Index Advisor Report\n");
+        sb.append("====================\n\n");
+
+        if (missingIndexes.isEmpty()) {
+            sb.append("All ").append(MANAGED_INDEXES.size()).append(" managed indexes are present.\n\n");
+        } else {
+            sb.append("Missing managed indexes:\n");
+            for (IndexDefinition index : missingIndexes) {
+                sb.append("  ").append(index.getCreateStatement()).append("\n");
+            }
+            sb.append("\n");
+        }
+
+        int flagged = 0;
+        for (QueryReport report : reports) {
+            if (report.hasProblem()) {
+                flagged++;
+            }
+        }
+        sb.append(String.format("%d of %d queries scan a large table (>= %d rows).%n%n",
+            flagged, reports.size(), LARGE_TABLE_ROWS));
+
+        for (QueryReport report : reports) {
+            sb.append(report.hasProblem() ? "[SCAN] " : "[OK]   ").append(report.getName()).append("\n");
+            if (report.getError() != null) {
+                sb.append("    Error: ").append(report.getError()).append("\n");
+            }
+            for (String scan : report.getLargeTableScans()) {
+                sb.append("    Full scan of ").append(scan).append("\n");
+            }
+            for (String line : report.getPlan()) {
+                sb.append("    ").append(line).append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Map each alias (and table name) used in the query to its table
+     */
+    private static Map<String, String> resolveAliases(String sql) {
+        Map<String, String> aliases = new HashMap<>();
+        Matcher matcher = TABLE_ALIAS_PATTERN.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            String alias = matcher.group(2);
+            aliases.put(table.toLowerCase(), table);
+            if (alias != null && !SQL_KEYWORDS.contains(alias.toUpperCase())) {
+                aliases.put(alias.toLowerCase(), table);
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * Return the table of a full-scan plan step, or null when the step uses an index
+     */
+    private static String getScannedTable(String detail, Map<String, String> aliases) {
+        if (detail == null || !detail.startsWith("SCAN ")) {
+            return null;
+        }
+        // Covering index scans still read every entry, but "SCAN CONSTANT ROW" and subquery scans are fine
+        String[] parts = detail.split("\\s+");
+        if (parts.length < 2 || "CONSTANT".equals(parts[1]) || "SUBQUERY".equals(parts[1])) {
+            return null;
+        }
+        String name = parts[1].toLowerCase();
+        return aliases.getOrDefault(name, parts[1]);
+    }
+
+    /**
+     * Cheap row estimate: MAX(rowid) is an index lookup, COUNT(*) would read the whole table
+     */
+    private static long estimateRowCount(Connection conn, String table) {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(rowid) FROM \"" + table.replace("\"", "\"\"") + "\"")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            return 0;
+        }
+    }
+
+    public static class IndexDefinition {
+        private final String name;
+        private final String table;
+        private final String columns;
+
+        public IndexDefinition(String name, String table, String columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+
+        public String getName() { return name; }
+        public String getTable() { return table; }
+        public String getColumns() { return columns; }
+
+        public String getCreateStatement() {
+            return String.format("CREATE INDEX IF NOT EXISTS %s ON %s (%s)", name, table, columns);
+        }
+    }
+
+    public static class QueryReport {
+        private final String name;
+        private final String sql;
+        private final List<String> plan;
+        private final List<String> largeTableScans;
+        private final String error;
+
+        public QueryReport(String name, String sql, List<String> plan, List<String> largeTableScans, String error) {
+            this.name = name;
+            this.sql = sql;
+            this.plan = plan;
+            this.largeTableScans = largeTableScans;
+            this.error = error;
+        }
+
+        public String getName() { return name; }
+        public String getSql() { return sql; }
+        public List<String> getPlan() { return plan; }
+        public List<String> getLargeTableScans() { return largeTableScans; }
+        public String getError() { return error; }
+
+        public boolean hasProblem() {
+            return !largeTableScans.isEmpty() || error != null;
+        }
+    }
+
+    /**
+     * Command-line entry point: print the report for the application database
+     */
+    public static void main(String[] args) throws SQLException {
+        DatabaseManager.getInstance().initDatabase();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            System.out.println(formatReport(analyze(conn), findMissingIndexes(conn)));
+        } finally {
+            DatabaseManager.getInstance().closeConnection();
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private IndexAdvisor() {
+        throw new AssertionError("IndexAdvisor class cannot be instantiated");
+    }
+}
@@ -0,0 +1,224 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Set;
+
+/**
+ * Timing wrappers for JDBC statements and result sets.
+ *
+ * Execution time is measured around execute*; fetch time is the time spent in
+ * ResultSet.next(). A query is reported to {@link QueryMetrics} once its result
+ * set is exhausted or closed, or when the statement is re-executed or closed.
+ */
+public class InstrumentedJdbc {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+        "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    /**
+     * Wrap a prepared statement. Returns the statement unchanged when metrics are disabled.
+     */
+    public static PreparedStatement wrap(PreparedStatement statement, String sql) {
+        if (statement == null || !QueryMetrics.getInstance().isEnabled()) {
+            return statement;
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+            new StatementHandler(statement, sql));
+    }
+
+    /**
+     * Wrap a plain statement; the SQL is taken from each execute call
+     */
+    public static Statement wrap(Statement statement) {
+        if (statement == null || !QueryMetrics.getInstance().isEnabled()) {
+            return statement;
+        }
+        return (Statement) Proxy.newProxyInstance(
+            Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+            new StatementHandler(statement, null));
+    }
+
+    /**
+     * Wrap the result of a Connection method that creates statements
+     */
+    public static Object wrapConnectionResult(Method method, Object[] args, Object result) {
+        if (result instanceof PreparedStatement && args != null && args.length > 0 && args[0] instanceof String) {
+            return wrap((PreparedStatement) result, (String) args[0]);
+        }
+        if (result instanceof Statement && !(result instanceof PreparedStatement)
+                && "createStatement".equals(method.getName())) {
+            return wrap((Statement) result);
+        }
+        return result;
+    }
+
+    private static Object invokeTarget(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Times execute calls and hands out tracked result sets
+     */
+    private static class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private QueryTracker current;
+        private QueryTracker pendingExecute;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            switch (name) {
+                case "close":
+                    finishCurrent();
+                    return invokeTarget(method, target, args);
+                case "getResultSet": {
+                    Object result = invokeTarget(method, target, args);
+                    if (result instanceof ResultSet && pendingExecute != null) {
+                        current = pendingExecute;
+                        pendingExecute = null;
+                        return wrapResultSet((ResultSet) result, current);
+                    }
+                    return result;
+                }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+
+            if (!EXECUTE_METHODS.contains(name)) {
+                return invokeTarget(method, target, args);
+            }
+
+            finishCurrent();
+            String sql = preparedSql != null ? preparedSql
+                : (args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(method, target, args);
+            } catch (Throwable t) {
+                QueryMetrics.getInstance().record(sql, System.nanoTime() - start, 0, 0);
+                throw t;
+            }
+            long execNanos = System.nanoTime() - start;
+
+            if (result instanceof ResultSet) {
+                current = new QueryTracker(sql, execNanos);
+                return wrapResultSet((ResultSet) result, current);
+            }
+            if ("execute".equals(name) && Boolean.TRUE.equals(result)) {
+                // Result set is fetched later through getResultSet()
+                pendingExecute = new QueryTracker(sql, execNanos);
+                return result;
+            }
+
+            QueryMetrics.getInstance().record(sql, execNanos, 0, countRows(result));
+            return result;
+        }
+
+        private void finishCurrent() {
+            if (current != null) {
+                current.finish();
+                current = null;
+            }
+            if (pendingExecute != null) {
+                pendingExecute.finish();
+                pendingExecute = null;
+            }
+        }
+
+        private static long countRows(Object result) {
+            if (result instanceof Integer) {
+                return Math.max(0, (Integer) result);
+            }
+            if (result instanceof Long) {
+                return Math.max(0, (Long) result);
+            }
+            if (result instanceof int[]) {
+                long total = 0;
+                for (int count : (int[]) result) {
+                    total += Math.max(0, count);
+                }
+                return total;
+            }
+            return 0;
+        }
+    }
+
+    private static ResultSet wrapResultSet(ResultSet rs, QueryTracker tracker) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "next": {
+                    long start = System.nanoTime();
+                    Object result = invokeTarget(method, rs, args);
+                    tracker.fetchNanos += System.nanoTime() - start;
+                    if (Boolean.TRUE.equals(result)) {
+                        tracker.rows++;
+                    } else {
+                        tracker.finish();
+                    }
+                    return result;
+                }
+                case "close":
+                    try {
+                        return invokeTarget(method, rs, args);
+                    } finally {
+                        tracker.finish();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return invokeTarget(method, rs, args);
+            }
+        };
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, handler);
+    }
+
+    /**
+     * Accumulates timings for one execution until it is reported
+     */
+    private static class QueryTracker {
+        private final String sql;
+        private final long execNanos;
+        private long fetchNanos;
+        private long rows;
+        private boolean finished;
+
+        QueryTracker(String sql, long execNanos) {
+            this.sql = sql;
+            this.execNanos = execNanos;
+        }
+
+        void finish() {
+            if (!finished) {
+                finished = true;
+                QueryMetrics.getInstance().record(sql, execNanos, fetchNanos, rows);
+            }
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private InstrumentedJdbc() {
+        throw new AssertionError("InstrumentedJdbc class cannot be instantiated");
+    }
+}
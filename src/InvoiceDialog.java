@@ -432,8 +432,7 @@ public class InvoiceDialog extends JDialog {
     }
 
     private void loadProducts() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM products ORDER BY name";
             try (Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(query)) {
@@ -609,9 +608,8 @@ public class InvoiceDialog extends JDialog {
 
             // Invoices do not affect warehouse stock - stock is managed by orders only
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-            try {
+            // Runs on the writer thread while this dialog waits for the commit
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 int invoiceId;
 
                 if (invoice == null) {
@@ -671,16 +669,11 @@ public class InvoiceDialog extends JDialog {
                     insertInvoiceDetails(conn, invoiceId);
                 }
 
-                conn.commit();
-                invoiceSaved = true;
-                dispose();
+                return invoiceId;
+            });
 
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            invoiceSaved = true;
+            dispose();
 
         } catch (SQLException e) {
             e.printStackTrace();
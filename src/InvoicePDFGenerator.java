@@ -35,8 +35,7 @@ public class InvoicePDFGenerator {
     }
 
     private void loadInvoiceItems() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT id.*, COALESCE(p.code, 'N/A') as product_code,
                        COALESCE(p.name, 'Product N/A') as product_name,
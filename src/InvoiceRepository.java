@@ -0,0 +1,165 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queries for invoice headers.
+ * Header totals are kept in step with invoice_details by triggers (schema
+ * version 8); {@link #findTotalDrift()} verifies that they still agree.
+ */
+public class InvoiceRepository {
+    /**
+     * Invoice rows for a {@link PagedTableModel} (key column i.id)
+     */
+    public static final String PAGE_SELECT = """
+        SELECT i.id, i.number, i.date, i.customer_id, i.status,
+               i.taxable_amount, i.vat, i.total,
+               c.first_name || ' ' || c.last_name as customer_name
+        FROM invoices i
+        LEFT JOIN customers c ON i.customer_id = c.id
+    """;
+
+    /**
+     * Invoices whose number or customer matches a full-text query
+     * (two parameters, both the same match query)
+     */
+    public static final String SEARCH_FILTER = """
+        i.id IN (
+            %s
+            UNION
+            SELECT id FROM invoices WHERE %s
+        )""".formatted(SearchService.matchingIds(SearchService.Index.INVOICES),
+            SearchService.matching(SearchService.Index.CUSTOMERS, "customer_id"));
+
+    // One grouped pass over the details instead of one query per invoice
+    private static final String DETAIL_TOTALS_BY_INVOICE = """
+        SELECT invoice_id,
+               SUM(quantity * unit_price) as taxable_amount,
+               SUM(quantity * unit_price * vat_rate / 100) as vat
+        FROM invoice_details
+        GROUP BY invoice_id
+    """;
+
+    private static final String TOTAL_DRIFT = """
+        SELECT i.id, i.number, i.taxable_amount, i.vat, i.total,
+               COALESCE(t.taxable_amount, 0) as taxable_amount_calc,
+               COALESCE(t.vat, 0) as vat_calc
+        FROM invoices i
+        LEFT JOIN (%s) t ON t.invoice_id = i.id
+        WHERE ABS(i.taxable_amount - COALESCE(t.taxable_amount, 0)) > %2$s
+           OR ABS(i.vat - COALESCE(t.vat, 0)) > %2$s
+           OR ABS(i.total - COALESCE(t.taxable_amount + t.vat, 0)) > %2$s
+        ORDER BY i.id
+    """.formatted(DETAIL_TOTALS_BY_INVOICE, TotalDrift.TOLERANCE);
+
+    /**
+     * Overwrite every drifted header with the totals of its details
+     */
+    static final String REPAIR_TOTALS = """
+        UPDATE invoices
+        SET taxable_amount = d.taxable_amount_calc,
+            vat = d.vat_calc,
+            total = d.taxable_amount_calc + d.vat_calc
+        FROM (%s) d
+        WHERE invoices.id = d.id
+    """.formatted(TOTAL_DRIFT.replace("ORDER BY i.id", ""));
+
+    public static Invoice mapInvoice(ResultSet rs) throws SQLException {
+        return new Invoice(
+            rs.getInt("id"),
+            rs.getString("number"),
+            DateUtils.parseDate(rs, "date"),
+            rs.getInt("customer_id"),
+            rs.getString("customer_name"),
+            rs.getDouble("taxable_amount"),
+            rs.getDouble("vat"),
+            rs.getDouble("total"),
+            rs.getString("status")
+        );
+    }
+
+    /**
+     * Invoices whose stored totals no longer match the sums over their details
+     */
+    public static CompletableFuture<List<TotalDrift>> findTotalDrift() {
+        return DataAccess.read(InvoiceRepository::findTotalDrift);
+    }
+
+    static List<TotalDrift> findTotalDrift(Connection conn) throws SQLException {
+        List<TotalDrift> drift = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(TOTAL_DRIFT);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                drift.add(new TotalDrift(
+                    rs.getInt("id"),
+                    rs.getString("number"),
+                    rs.getDouble("taxable_amount"),
+                    rs.getDouble("vat"),
+                    rs.getDouble("total"),
+                    rs.getDouble("taxable_amount_calc"),
+                    rs.getDouble("vat_calc")
+                ));
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Reset drifted headers to the totals of their details. Runs on the writer.
+     *
+     * @return Number of invoices corrected
+     */
+    public static CompletableFuture<Integer> repairTotals() {
+        return DataAccess.write(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(REPAIR_TOTALS)) {
+                return pstmt.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Stored and recomputed totals of one invoice that disagree
+     */
+    public static class TotalDrift {
+        static final double TOLERANCE = 0.005;
+
+        private final int invoiceId;
+        private final String number;
+        private final double storedTaxableAmount;
+        private final double storedVat;
+        private final double storedTotal;
+        private final double taxableAmount;
+        private final double vat;
+
+        TotalDrift(int invoiceId, String number, double storedTaxableAmount, double storedVat,
+                   double storedTotal, double taxableAmount, double vat) {
+            this.invoiceId = invoiceId;
+            this.number = number;
+            this.storedTaxableAmount = storedTaxableAmount;
+            this.storedVat = storedVat;
+            this.storedTotal = storedTotal;
+            this.taxableAmount = taxableAmount;
+            this.vat = vat;
+        }
+
+        public int getInvoiceId() { return invoiceId; }
+        public String getNumber() { return number; }
+        public double getStoredTotal() { return storedTotal; }
+        public double getTotal() { return taxableAmount + vat; }
+
+        @Override
+        public String toString() {
+            return String.format("Invoice %s: stored %.2f + %.2f = %.2f, details %.2f + %.2f = %.2f",
+                number, storedTaxableAmount, storedVat, storedTotal, taxableAmount, vat, getTotal());
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private InvoiceRepository() {
+        throw new AssertionError("InvoiceRepository class cannot be instantiated");
+    }
+}
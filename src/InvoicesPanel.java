@@ -1,14 +1,33 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.*;
-import java.util.Vector;
+import java.util.List;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class InvoicesPanel extends JPanel {
+    /**
+     * Invoice header by number, with the customer name
+     */
+    static final String INVOICE_BY_NUMBER = """
+        SELECT i.*, c.first_name || ' ' || c.last_name as customer_name
+        FROM invoices i
+        LEFT JOIN customers c ON i.customer_id = c.id
+        WHERE i.number = ?
+    """;
+
+    /**
+     * Items of an invoice with their product names and codes
+     */
+    static final String INVOICE_ITEMS = """
+        SELECT i.*, p.name as product_name, p.code as product_code
+        FROM invoice_details i
+        LEFT JOIN products p ON i.product_id = p.id
+        WHERE i.invoice_id = ?
+    """;
+
     private JTable invoicesTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Invoice> tableModel;
     private JTextField searchField;
     private JButton addButton;
     private JButton editButton;
@@ -43,13 +62,25 @@ public class InvoicesPanel extends JPanel {
         searchPanel.add(searchButton);
 
         // Invoices table
-        String[] columns = {"Number", "Date", "Customer", "Taxable Amount", "VAT", "Total", "Status"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PagedTableModel<>(
+            InvoiceRepository.PAGE_SELECT, "i.id", InvoiceRepository::mapInvoice,
+            List.of(
+                new PagedTableModel.Column<Invoice>("Number", Invoice::getNumber, "i.number"),
+                new PagedTableModel.Column<Invoice>("Date",
+                    inv -> inv.getDate() != null ? DateUtils.formatDate(inv.getDate(), dateFormat) : "",
+                    "i.date"),
+                new PagedTableModel.Column<Invoice>("Customer", Invoice::getCustomerName,
+                    "COALESCE(c.first_name || ' ' || c.last_name, '')"),
+                new PagedTableModel.Column<Invoice>("Taxable Amount",
+                    inv -> String.format("%.2f €", inv.getTaxableAmount()), "i.taxable_amount"),
+                new PagedTableModel.Column<Invoice>("VAT",
+                    inv -> String.format("%.2f €", inv.getVat()), "i.vat"),
+                new PagedTableModel.Column<Invoice>("Total",
+                    inv -> String.format("%.2f €", inv.getTotal()), "i.total"),
+                new PagedTableModel.Column<Invoice>("Status", Invoice::getStatus, "i.status")
+            ),
+            1, true);
+        tableModel.setErrorHandler(DataAccess.errorDialog(this, "Error while loading invoices"));
         invoicesTable = new JTable(tableModel);
         invoicesTable.getSelectionModel().addListSelectionListener(e -> updateButtonStates());
 
@@ -123,74 +154,7 @@ public class InvoicesPanel extends JPanel {
     }
 
     public void loadInvoices() {
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT i.number, i.date, i.customer_id, i.status,
-                       c.first_name || ' ' || c.last_name as customer_name
-                FROM invoices i
-                LEFT JOIN customers c ON i.customer_id = c.id
-                ORDER BY i.date DESC
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    String number = rs.getString("number");
-
-                    // Recalculate totals from details
-                    double[] totals = recalculateInvoiceTotals(number);
-                    double taxableAmount = totals[0];
-                    double vat = totals[1];
-                    double total = totals[2];
-
-                    Vector<Object> row = new Vector<>();
-                    row.add(number);
-
-                    Date date = DateUtils.parseDate(rs, "date");
-                    if (date != null) {
-                        row.add(DateUtils.formatDate(date, dateFormat));
-                    } else {
-                        row.add("");
-                    }
-
-                    row.add(rs.getString("customer_name"));
-                    row.add(String.format("%.2f €", taxableAmount));
-                    row.add(String.format("%.2f €", vat));
-                    row.add(String.format("%.2f €", total));
-                    row.add(rs.getString("status"));
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error while loading invoices: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private double[] recalculateInvoiceTotals(String invoiceNumber) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
-        String query = """
-            SELECT SUM(d.quantity * d.unit_price) as taxable_amount_calc,
-                   SUM(d.quantity * d.unit_price * d.vat_rate / 100) as vat_calc
-            FROM invoice_details d
-            WHERE d.invoice_id = (SELECT id FROM invoices WHERE number = ?)
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setString(1, invoiceNumber);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                double taxableAmount = rs.getDouble("taxable_amount_calc");
-                double vat = rs.getDouble("vat_calc");
-                double total = taxableAmount + vat;
-                return new double[]{taxableAmount, vat, total};
-            }
-        }
-        return new double[]{0.0, 0.0, 0.0};
+        tableModel.setFilter(null);
     }
 
     private void searchInvoices() {
@@ -200,60 +164,12 @@ public class InvoicesPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT i.number, i.date, i.customer_id, i.status,
-                       c.first_name || ' ' || c.last_name as customer_name
-                FROM invoices i
-                LEFT JOIN customers c ON i.customer_id = c.id
-                WHERE i.number LIKE ?
-                   OR c.first_name LIKE ?
-                   OR c.last_name LIKE ?
-                   OR (c.first_name || ' ' || c.last_name) LIKE ?
-                ORDER BY i.date DESC
-            """;
-
-            String searchPattern = "%" + searchTerm + "%";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-                pstmt.setString(4, searchPattern);
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        String number = rs.getString("number");
-
-                        // Recalculate totals
-                        double[] totals = recalculateInvoiceTotals(number);
-
-                        Vector<Object> row = new Vector<>();
-                        row.add(number);
-
-                        Date date = DateUtils.parseDate(rs, "date");
-                        if (date != null) {
-                            row.add(DateUtils.formatDate(date, dateFormat));
-                        } else {
-                            row.add("");
-                        }
-
-                        row.add(rs.getString("customer_name"));
-                        row.add(String.format("%.2f €", totals[0]));
-                        row.add(String.format("%.2f €", totals[1]));
-                        row.add(String.format("%.2f €", totals[2]));
-                        row.add(rs.getString("status"));
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error while searching for invoices: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            loadInvoices();
+            return;
         }
+        tableModel.setFilter(InvoiceRepository.SEARCH_FILTER, match, match);
     }
 
     private void createNewInvoice() {
@@ -351,8 +267,7 @@ public class InvoicesPanel extends JPanel {
     private Customer loadCustomerByInvoice(Invoice invoice) {
         if (invoice == null) return null;
 
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM customers WHERE id = ?";
 
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -377,15 +292,8 @@ public class InvoicesPanel extends JPanel {
     }
 
     private Invoice loadInvoiceByNumber(String number) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
-        String query = """
-            SELECT i.*, c.first_name || ' ' || c.last_name as customer_name
-            FROM invoices i
-            LEFT JOIN customers c ON i.customer_id = c.id
-            WHERE i.number = ?
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INVOICE_BY_NUMBER)) {
             pstmt.setString(1, number);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -394,22 +302,20 @@ public class InvoicesPanel extends JPanel {
                         date = new Date();
                     }
 
-                    // Recalculate totals
-                    double[] totals = recalculateInvoiceTotals(number);
-
+                    // Header totals are kept in step with the details by triggers
                     Invoice invoice = new Invoice(
                         rs.getInt("id"),
                         rs.getString("number"),
                         date,
                         rs.getInt("customer_id"),
                         rs.getString("customer_name"),
-                        totals[0], // taxableAmount
-                        totals[1], // vat
-                        totals[2], // total
+                        rs.getDouble("taxable_amount"),
+                        rs.getDouble("vat"),
+                        rs.getDouble("total"),
                         rs.getString("status")
                     );
 
-                    loadInvoiceItems(invoice);
+                    loadInvoiceItems(conn, invoice);
                     return invoice;
                 }
             }
@@ -417,16 +323,8 @@ public class InvoicesPanel extends JPanel {
         return null;
     }
 
-    private void loadInvoiceItems(Invoice invoice) throws SQLException {
-        String query = """
-            SELECT i.*, p.name as product_name, p.code as product_code
-            FROM invoice_details i
-            LEFT JOIN products p ON i.product_id = p.id
-            WHERE i.invoice_id = ?
-        """;
-
-        Connection conn = DatabaseManager.getInstance().getConnection();
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+    private void loadInvoiceItems(Connection conn, Invoice invoice) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INVOICE_ITEMS)) {
             pstmt.setInt(1, invoice.getId());
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -465,10 +363,7 @@ public class InvoicesPanel extends JPanel {
 
             if (result == JOptionPane.YES_OPTION) {
                 try {
-                    Connection conn = DatabaseManager.getInstance().getConnection();
-                    conn.setAutoCommit(false);
-
-                    try {
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
                         // Get invoice ID
                         int invoiceId = 0;
                         String getIdQuery = "SELECT id FROM invoices WHERE number = ?";
@@ -496,19 +391,14 @@ public class InvoicesPanel extends JPanel {
                             pstmt.executeUpdate();
                         }
 
-                        conn.commit();
-                        loadInvoices();
+                        return null;
+                    });
 
-                        JOptionPane.showMessageDialog(this,
-                            "Invoice deleted successfully!",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    loadInvoices();
 
-                    } catch (SQLException e) {
-                        conn.rollback();
-                        throw e;
-                    } finally {
-                        conn.setAutoCommit(true);
-                    }
+                    JOptionPane.showMessageDialog(this,
+                        "Invoice deleted successfully!",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
 
                 } catch (SQLException e) {
                     e.printStackTrace();
@@ -0,0 +1,367 @@
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.TableModel;
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Row sorter that turns each sorted column into primitive sort keys once and
+ * then sorts row indices by those keys.
+ *
+ * Dates become epoch milliseconds, amounts and other numbers (including text
+ * such as "1234,50 €" or "12.5%") become doubles, and any other text becomes a
+ * CollationKey, so a header click parses every cell once instead of twice per
+ * comparison. Keys are cached per column until the model changes. Up to
+ * {@link #MAX_SORT_KEYS} columns are sorted at once: clicking a new header makes
+ * it the primary key and keeps the previous ones as tie-breakers. As elsewhere in
+ * the application, the first click on a column sorts descending. Empty or
+ * unparsable cells sort after all others in ascending order.
+ */
+public class KeyedRowSorter extends RowSorter<TableModel> {
+    public static final int MAX_SORT_KEYS = 3;
+
+    private static final Pattern NUMBER = Pattern.compile("-?[0-9][0-9.,]*");
+
+    private final TableModel model;
+    private final boolean[] sortable;
+    private final boolean[] dateColumn;
+    private final SimpleDateFormat dateFormat;
+    private final Collator collator = Collator.getInstance();
+    private final Map<Integer, ColumnKeys> keyCache = new HashMap<>();
+
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private int[] viewToModel;
+    private int[] modelToView;
+
+    /**
+     * @param sortableColumns Columns that may be sorted (null for all)
+     * @param dateColumns Columns holding date text in dateFormat (null for none)
+     */
+    public KeyedRowSorter(TableModel model, int[] sortableColumns, int[] dateColumns, SimpleDateFormat dateFormat) {
+        this.model = model;
+        this.sortable = new boolean[model.getColumnCount()];
+        this.dateColumn = new boolean[model.getColumnCount()];
+        this.dateFormat = dateFormat;
+        for (int c = 0; c < sortable.length; c++) {
+            sortable[c] = sortableColumns == null;
+        }
+        if (sortableColumns != null) {
+            for (int c : sortableColumns) {
+                sortable[c] = true;
+            }
+        }
+        if (dateColumns != null && dateFormat != null) {
+            for (int c : dateColumns) {
+                dateColumn[c] = true;
+            }
+        }
+    }
+
+    @Override
+    public TableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        if (column < 0 || column >= sortable.length || !sortable[column]) {
+            return;
+        }
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        SortOrder order = SortOrder.DESCENDING;
+        if (!keys.isEmpty() && keys.get(0).getColumn() == column) {
+            order = keys.get(0).getSortOrder() == SortOrder.DESCENDING ? SortOrder.ASCENDING : SortOrder.DESCENDING;
+        }
+        keys.removeIf(key -> key.getColumn() == column);
+        keys.add(0, new SortKey(column, order));
+        if (keys.size() > MAX_SORT_KEYS) {
+            keys = keys.subList(0, MAX_SORT_KEYS);
+        }
+        setSortKeys(keys);
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        List<SortKey> accepted = new ArrayList<>();
+        if (keys != null) {
+            for (SortKey key : keys) {
+                if (key.getColumn() >= 0 && key.getColumn() < sortable.length && sortable[key.getColumn()]
+                        && key.getSortOrder() != SortOrder.UNSORTED && accepted.size() < MAX_SORT_KEYS) {
+                    accepted.add(key);
+                }
+            }
+        }
+        if (!accepted.equals(sortKeys)) {
+            sortKeys = Collections.unmodifiableList(accepted);
+            fireSortOrderChanged();
+            sort();
+        }
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (modelToView == null) {
+            return index;
+        }
+        return index >= 0 && index < modelToView.length ? modelToView[index] : -1;
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        keyCache.clear();
+        sortKeys = Collections.emptyList();
+        sort();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        modelChanged();
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        modelChanged();
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        modelChanged();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+        modelChanged();
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+        keyCache.remove(column);
+        sort();
+    }
+
+    private void modelChanged() {
+        keyCache.clear();
+        sort();
+    }
+
+    /**
+     * Rebuild the view order from the current sort keys
+     */
+    private void sort() {
+        int[] previous = viewToModel;
+        int rowCount = model.getRowCount();
+        if (sortKeys.isEmpty()) {
+            viewToModel = null;
+            modelToView = null;
+        } else {
+            ColumnKeys[] keys = new ColumnKeys[sortKeys.size()];
+            boolean[] descending = new boolean[keys.length];
+            for (int k = 0; k < keys.length; k++) {
+                int column = sortKeys.get(k).getColumn();
+                keys[k] = keyCache.computeIfAbsent(column, this::extractKeys);
+                descending[k] = sortKeys.get(k).getSortOrder() == SortOrder.DESCENDING;
+            }
+
+            int[] order = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                order[i] = i;
+            }
+            mergeSort(order, new int[rowCount], 0, rowCount, (a, b) -> {
+                for (int k = 0; k < keys.length; k++) {
+                    int result = keys[k].compare(a, b);
+                    if (result != 0) {
+                        return descending[k] ? -result : result;
+                    }
+                }
+                return Integer.compare(a, b);
+            });
+
+            viewToModel = order;
+            modelToView = new int[rowCount];
+            for (int view = 0; view < rowCount; view++) {
+                modelToView[order[view]] = view;
+            }
+        }
+        fireRowSorterChanged(previous);
+    }
+
+    private ColumnKeys extractKeys(int column) {
+        int rowCount = model.getRowCount();
+        boolean[] missing = new boolean[rowCount];
+
+        if (dateColumn[column] || Date.class.isAssignableFrom(model.getColumnClass(column))) {
+            long[] values = new long[rowCount];
+            // Many rows share a date, and parsing is the expensive part
+            Map<Object, Long> parsed = new HashMap<>();
+            for (int row = 0; row < rowCount; row++) {
+                Long millis = parsed.computeIfAbsent(model.getValueAt(row, column), value -> {
+                    Date date = toDate(value);
+                    return date != null ? date.getTime() : null;
+                });
+                if (millis != null) {
+                    values[row] = millis;
+                } else {
+                    missing[row] = true;
+                }
+            }
+            return (a, b) -> missing[a] || missing[b]
+                ? Boolean.compare(missing[a], missing[b])
+                : Long.compare(values[a], values[b]);
+        }
+
+        // Numeric if every non-empty cell is a number
+        double[] numbers = new double[rowCount];
+        boolean numeric = true;
+        for (int row = 0; row < rowCount && numeric; row++) {
+            Object value = model.getValueAt(row, column);
+            if (value instanceof Number number) {
+                numbers[row] = number.doubleValue();
+            } else {
+                String text = value != null ? value.toString().trim() : "";
+                if (text.isEmpty()) {
+                    missing[row] = true;
+                } else {
+                    Double parsed = parseNumber(text);
+                    if (parsed == null) {
+                        numeric = false;
+                    } else {
+                        numbers[row] = parsed;
+                    }
+                }
+            }
+        }
+        if (numeric) {
+            return (a, b) -> missing[a] || missing[b]
+                ? Boolean.compare(missing[a], missing[b])
+                : Double.compare(numbers[a], numbers[b]);
+        }
+
+        CollationKey[] texts = new CollationKey[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            Object value = model.getValueAt(row, column);
+            String text = value != null ? value.toString() : "";
+            missing[row] = text.isEmpty();
+            texts[row] = collator.getCollationKey(text);
+        }
+        return (a, b) -> missing[a] || missing[b]
+            ? Boolean.compare(missing[a], missing[b])
+            : texts[a].compareTo(texts[b]);
+    }
+
+    private Date toDate(Object value) {
+        if (value instanceof Date date) {
+            return date;
+        }
+        if (value == null || dateFormat == null) {
+            return null;
+        }
+        String text = value.toString().trim();
+        if (text.isEmpty() || text.equals("N/A")) {
+            return null;
+        }
+        try {
+            return DateUtils.parseDate(text, dateFormat);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse an amount or count as formatted by the panels ("1234,50 €", "€ 12.00",
+     * "12.5%", "1.234,50"), or null if the text is not a number
+     */
+    static Double parseNumber(String text) {
+        String cleaned = text.replace("€", "").replace("%", "").trim();
+        if (!NUMBER.matcher(cleaned).matches()) {
+            return null;
+        }
+        int lastComma = cleaned.lastIndexOf(',');
+        int lastDot = cleaned.lastIndexOf('.');
+        if (lastComma > lastDot) {
+            // Comma is the decimal separator, dots group thousands
+            cleaned = cleaned.replace(".", "").replace(',', '.');
+        } else {
+            cleaned = cleaned.replace(",", "");
+        }
+        try {
+            return Double.parseDouble(cleaned);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntComparator {
+        int compare(int a, int b);
+    }
+
+    /**
+     * Comparison of two model rows by one column's precomputed keys
+     */
+    @FunctionalInterface
+    private interface ColumnKeys extends IntComparator {
+    }
+
+    // Stable merge sort on primitive row indices, so no Integer boxing per comparison
+    private static void mergeSort(int[] values, int[] buffer, int from, int to, IntComparator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        if (to - from <= 16) {
+            for (int i = from + 1; i < to; i++) {
+                int value = values[i];
+                int j = i - 1;
+                while (j >= from && comparator.compare(values[j], value) > 0) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(values, buffer, from, middle, comparator);
+        mergeSort(values, buffer, middle, to, comparator);
+        if (comparator.compare(values[middle - 1], values[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && comparator.compare(buffer[left], buffer[right]) <= 0)) {
+                values[i] = buffer[left++];
+            } else {
+                values[i] = buffer[right++];
+            }
+        }
+    }
+}
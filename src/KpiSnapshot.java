@@ -0,0 +1,271 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Dashboard KPIs kept up to date by triggers.
+ *
+ * kpi_snapshot holds a single row of running totals over products and orders;
+ * kpi_monthly_revenue holds invoice revenue per calendar month. Triggers on
+ * products, orders and invoices apply the difference between the old and the
+ * new row, so reading the KPIs is one primary-key lookup no matter how large
+ * the catalog or the order history grows. {@link #rebuild()} recomputes both
+ * tables from scratch if they are ever suspected to be wrong.
+ */
+public class KpiSnapshot {
+    private static final String CREATE_SNAPSHOT_TABLE = """
+        CREATE TABLE IF NOT EXISTS kpi_snapshot (
+            id INTEGER PRIMARY KEY CHECK (id = 1),
+            warehouse_value REAL NOT NULL DEFAULT 0,
+            low_stock_count INTEGER NOT NULL DEFAULT 0,
+            zero_stock_count INTEGER NOT NULL DEFAULT 0,
+            margin_sum REAL NOT NULL DEFAULT 0,
+            margin_count INTEGER NOT NULL DEFAULT 0,
+            pending_orders INTEGER NOT NULL DEFAULT 0,
+            rebuilt_at DATETIME
+        )
+    """;
+
+    private static final String CREATE_MONTHLY_REVENUE_TABLE = """
+        CREATE TABLE IF NOT EXISTS kpi_monthly_revenue (
+            month TEXT PRIMARY KEY,
+            revenue REAL NOT NULL DEFAULT 0
+        )
+    """;
+
+    // Invoice dates are stored either as epoch milliseconds or as ISO text
+    private static final String MONTH_OF = """
+        CASE WHEN typeof(%1$s) IN ('integer', 'real')
+             THEN strftime('%%Y-%%m', %1$s / 1000, 'unixepoch', 'localtime')
+             ELSE substr(%1$s, 1, 7) END""";
+
+    // Contribution of one product row (prefix NEW. or OLD.) to each running total
+    private static final String WAREHOUSE_VALUE =
+        "CASE WHEN %1$sactive = 1 THEN COALESCE(%1$squantity * %1$sacquisition_cost, 0) ELSE 0 END";
+    private static final String LOW_STOCK =
+        "COALESCE(%1$sactive = 1 AND %1$squantity < %1$sminimum_quantity AND %1$sminimum_quantity > 0, 0)";
+    private static final String ZERO_STOCK =
+        "COALESCE(%1$sactive = 1 AND %1$squantity = 0, 0)";
+    private static final String MARGIN = """
+        CASE WHEN %1$sactive = 1 AND %1$sprice > 0 AND %1$sacquisition_cost > 0
+             THEN ((%1$sprice - %1$sacquisition_cost) / %1$sprice) * 100
+             ELSE 0 END""";
+    private static final String MARGIN_COUNTED =
+        "COALESCE(%1$sactive = 1 AND %1$sprice > 0, 0)";
+    private static final String PENDING_ORDER =
+        "COALESCE(%1$sstatus != 'Completed' AND %1$sstatus != 'Cancelled', 0)";
+
+    private static final String READ = """
+        SELECT k.warehouse_value, k.low_stock_count, k.zero_stock_count,
+               k.margin_sum, k.margin_count, k.pending_orders,
+               (SELECT revenue FROM kpi_monthly_revenue WHERE month = ?) as month_revenue
+        FROM kpi_snapshot k
+        WHERE k.id = 1
+    """;
+
+    /**
+     * Create the tables and triggers and fill them (schema migration step)
+     */
+    public static void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_SNAPSHOT_TABLE);
+            stmt.execute(CREATE_MONTHLY_REVENUE_TABLE);
+            for (String trigger : new String[]{
+                    "kpi_products_insert", "kpi_products_update", "kpi_products_delete",
+                    "kpi_orders_insert", "kpi_orders_update", "kpi_orders_delete",
+                    "kpi_invoices_insert", "kpi_invoices_update", "kpi_invoices_delete"}) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + trigger);
+            }
+
+            stmt.execute("""
+                CREATE TRIGGER kpi_products_insert AFTER INSERT ON products
+                BEGIN
+                    %s
+                END
+            """.formatted(productDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_products_update
+                AFTER UPDATE OF quantity, acquisition_cost, price, minimum_quantity, active ON products
+                BEGIN
+                    %s
+                    %s
+                END
+            """.formatted(productDelta("OLD.", "-"), productDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_products_delete AFTER DELETE ON products
+                BEGIN
+                    %s
+                END
+            """.formatted(productDelta("OLD.", "-")));
+
+            stmt.execute("""
+                CREATE TRIGGER kpi_orders_insert AFTER INSERT ON orders
+                BEGIN
+                    %s
+                END
+            """.formatted(orderDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_orders_update AFTER UPDATE OF status ON orders
+                BEGIN
+                    %s
+                    %s
+                END
+            """.formatted(orderDelta("OLD.", "-"), orderDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_orders_delete AFTER DELETE ON orders
+                BEGIN
+                    %s
+                END
+            """.formatted(orderDelta("OLD.", "-")));
+
+            stmt.execute("""
+                CREATE TRIGGER kpi_invoices_insert AFTER INSERT ON invoices
+                BEGIN
+                    %s
+                END
+            """.formatted(revenueDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_invoices_update AFTER UPDATE OF date, total ON invoices
+                BEGIN
+                    %s
+                    %s
+                END
+            """.formatted(revenueDelta("OLD.", "-"), revenueDelta("NEW.", "+")));
+            stmt.execute("""
+                CREATE TRIGGER kpi_invoices_delete AFTER DELETE ON invoices
+                BEGIN
+                    %s
+                END
+            """.formatted(revenueDelta("OLD.", "-")));
+        }
+        rebuild(conn);
+        System.out.println("KPI snapshot tables and triggers created");
+    }
+
+    private static String productDelta(String row, String sign) {
+        return """
+            UPDATE kpi_snapshot SET
+                warehouse_value = warehouse_value %2$s (%3$s),
+                low_stock_count = low_stock_count %2$s (%4$s),
+                zero_stock_count = zero_stock_count %2$s (%5$s),
+                margin_sum = margin_sum %2$s (%6$s),
+                margin_count = margin_count %2$s (%7$s)
+            WHERE id = 1;""".formatted(row, sign,
+                WAREHOUSE_VALUE.formatted(row), LOW_STOCK.formatted(row), ZERO_STOCK.formatted(row),
+                MARGIN.formatted(row), MARGIN_COUNTED.formatted(row));
+    }
+
+    private static String orderDelta(String row, String sign) {
+        return "UPDATE kpi_snapshot SET pending_orders = pending_orders %s (%s) WHERE id = 1;"
+            .formatted(sign, PENDING_ORDER.formatted(row));
+    }
+
+    private static String revenueDelta(String row, String sign) {
+        return """
+            INSERT INTO kpi_monthly_revenue (month, revenue)
+            VALUES (%s, %s COALESCE(%stotal, 0))
+            ON CONFLICT(month) DO UPDATE SET revenue = revenue + excluded.revenue;"""
+            .formatted(MONTH_OF.formatted(row + "date"), sign, row);
+    }
+
+    /**
+     * Recompute both tables from products, orders and invoices. Runs on the writer.
+     */
+    public static CompletableFuture<Void> rebuild() {
+        return DataAccess.write(conn -> {
+            rebuild(conn);
+            return null;
+        });
+    }
+
+    private static void rebuild(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("DELETE FROM kpi_snapshot");
+            stmt.execute("""
+                INSERT INTO kpi_snapshot (id, warehouse_value, low_stock_count, zero_stock_count,
+                                          margin_sum, margin_count, pending_orders, rebuilt_at)
+                SELECT 1,
+                       COALESCE(SUM(%s), 0),
+                       COALESCE(SUM(%s), 0),
+                       COALESCE(SUM(%s), 0),
+                       COALESCE(SUM(%s), 0),
+                       COALESCE(SUM(%s), 0),
+                       (SELECT COALESCE(SUM(%s), 0) FROM orders),
+                       CURRENT_TIMESTAMP
+                FROM products
+            """.formatted(WAREHOUSE_VALUE.formatted(""), LOW_STOCK.formatted(""), ZERO_STOCK.formatted(""),
+                MARGIN.formatted(""), MARGIN_COUNTED.formatted(""), PENDING_ORDER.formatted("")));
+
+            stmt.execute("DELETE FROM kpi_monthly_revenue");
+            stmt.execute("""
+                INSERT INTO kpi_monthly_revenue (month, revenue)
+                SELECT %s, SUM(COALESCE(total, 0))
+                FROM invoices
+                GROUP BY 1
+            """.formatted(MONTH_OF.formatted("date")));
+        }
+    }
+
+    /**
+     * Current KPI values: one lookup on the snapshot row and one on this month's revenue
+     */
+    public static Values read(Connection conn) throws SQLException {
+        String month = new SimpleDateFormat("yyyy-MM").format(new Date());
+        try (PreparedStatement pstmt = conn.prepareStatement(READ)) {
+            pstmt.setString(1, month);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("KPI snapshot is missing; rebuild it from the Backup panel");
+                }
+                int marginCount = rs.getInt("margin_count");
+                return new Values(
+                    rs.getDouble("warehouse_value"),
+                    rs.getInt("low_stock_count"),
+                    rs.getInt("pending_orders"),
+                    rs.getDouble("month_revenue"),
+                    marginCount > 0 ? rs.getDouble("margin_sum") / marginCount : 0,
+                    rs.getInt("zero_stock_count")
+                );
+            }
+        }
+    }
+
+    /**
+     * The six dashboard KPI values
+     */
+    public static class Values {
+        private final double warehouseValue;
+        private final int lowStockCount;
+        private final int pendingOrders;
+        private final double monthRevenue;
+        private final double avgMargin;
+        private final int zeroStockCount;
+
+        public Values(double warehouseValue, int lowStockCount, int pendingOrders,
+                      double monthRevenue, double avgMargin, int zeroStockCount) {
+            this.warehouseValue = warehouseValue;
+            this.lowStockCount = lowStockCount;
+            this.pendingOrders = pendingOrders;
+            this.monthRevenue = monthRevenue;
+            this.avgMargin = avgMargin;
+            this.zeroStockCount = zeroStockCount;
+        }
+
+        public double getWarehouseValue() { return warehouseValue; }
+        public int getLowStockCount() { return lowStockCount; }
+        public int getPendingOrders() { return pendingOrders; }
+        public double getMonthRevenue() { return monthRevenue; }
+        public double getAvgMargin() { return avgMargin; }
+        public int getZeroStockCount() { return zeroStockCount; }
+    }
+
+    // Private constructor to prevent instantiation
+    private KpiSnapshot() {
+        throw new AssertionError("KpiSnapshot class cannot be instantiated");
+    }
+}
@@ -58,6 +58,22 @@ public class MainWindow extends JFrame {
         // Apply global settings on startup
         SettingsPanel.loadGlobalSettings();
         SettingsPanel.applyGlobalSettings();
+
+        // Checkpoints, statistics and vacuum run in the background while the app is idle
+        DatabaseMaintenance.getInstance().start();
+
+        // Product lookup at the order counter searches this resident index instead of the database
+        DataAccess.onEdt(ProductSearchIndex.getInstance().load(), count -> { },
+            DataAccess.logError("Error loading product search index"));
+
+        // Availability checks read stock from memory once this ledger is loaded
+        DataAccess.onEdt(StockLedger.getInstance().load(), count -> { },
+            DataAccess.logError("Error loading stock ledger"));
+
+        // Rewrite dates still stored as text to epoch milliseconds, a batch at a time on the writer;
+        // once everything is converted this is one index probe per date column
+        DataAccess.onEdt(DateStorage.normalizeInBackground(), count -> { },
+            DataAccess.logError("Error normalizing stored dates"));
     }
     
     private void setupWindow() {
@@ -70,7 +86,12 @@ public class MainWindow extends JFrame {
         addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowClosing(java.awt.event.WindowEvent windowEvent) {
-                DatabaseManager.getInstance().closeConnection();
+                DatabaseMaintenance.getInstance().stop();
+                try {
+                    DatabaseManager.getInstance().closeConnection();
+                } catch (java.sql.SQLException e) {
+                    System.err.println("Warning: Could not close database connection: " + e.getMessage());
+                }
             }
         });
     }
@@ -197,8 +218,17 @@ public class MainWindow extends JFrame {
         JMenuItem performBackupItem = new JMenuItem("Perform Backup Now");
         performBackupItem.addActionListener(e -> performQuickBackup());
         
+        JMenuItem indexAdvisorItem = new JMenuItem("Index Advisor");
+        indexAdvisorItem.addActionListener(e -> showIndexAdvisor());
+
+        JMenuItem queryStatsItem = new JMenuItem("Query Statistics");
+        queryStatsItem.addActionListener(e -> showQueryStatistics());
+
         toolsMenu.add(backupItem);
         toolsMenu.add(performBackupItem);
+        toolsMenu.addSeparator();
+        toolsMenu.add(indexAdvisorItem);
+        toolsMenu.add(queryStatsItem);
         
         // View Menu
         JMenu viewMenu = new JMenu("View");
@@ -474,6 +504,76 @@ public class MainWindow extends JFrame {
         }
     }
     
+    private void showIndexAdvisor() {
+        String report;
+        try (java.sql.Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            report = IndexAdvisor.formatReport(IndexAdvisor.analyze(conn), IndexAdvisor.findMissingIndexes(conn));
+        } catch (Exception e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                "Error running the index advisor: " + e.getMessage(),
+                AppConstants.SOFTWARE_NAME + " - Error",
+                JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        JTextArea textArea = new JTextArea(report);
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setCaretPosition(0);
+
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(800, 500));
+
+        JOptionPane.showMessageDialog(this,
+            scrollPane,
+            "Index Advisor",
+            JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showQueryStatistics() {
+        QueryMetrics metrics = QueryMetrics.getInstance();
+        java.util.List<QueryMetrics.StatementSnapshot> snapshot = metrics.snapshot();
+
+        StringBuilder sb = new StringBuilder();
+        ConnectionPool.PoolStats poolStats = DatabaseManager.getInstance().getPoolStats();
+        if (poolStats != null) {
+            sb.append(poolStats.getFormattedMessage()).append("\n");
+        }
+        sb.append(DatabaseManager.getInstance().getWriteQueue().getFormattedStats()).append("\n");
+        sb.append(String.format("Slow query threshold: %d ms (log: %s)%n",
+            metrics.getSlowQueryThresholdMillis(), metrics.getSlowQueryLog().getLogFile()));
+        sb.append(String.format("%d distinct statements, ordered by total time%n%n", snapshot.size()));
+
+        int shown = 0;
+        for (QueryMetrics.StatementSnapshot stats : snapshot) {
+            if (shown++ >= 50) {
+                break;
+            }
+            sb.append(stats.getFormattedMessage()).append("\n");
+            sb.append("    ").append(stats.getSql()).append("\n\n");
+        }
+
+        JTextArea textArea = new JTextArea(sb.toString());
+        textArea.setEditable(false);
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        textArea.setCaretPosition(0);
+
+        JScrollPane scrollPane = new JScrollPane(textArea);
+        scrollPane.setPreferredSize(new Dimension(900, 500));
+
+        Object[] options = {"Close", "Reset Statistics"};
+        int choice = JOptionPane.showOptionDialog(this,
+            scrollPane,
+            "Query Statistics",
+            JOptionPane.DEFAULT_OPTION,
+            JOptionPane.INFORMATION_MESSAGE,
+            null, options, options[0]);
+        if (choice == 1) {
+            metrics.reset();
+        }
+    }
+
     private void toggleToolbar(boolean visible) {
         toolBar.setVisible(visible);
         revalidate();
@@ -250,8 +250,7 @@ public class OrderDialog extends JDialog {
     }
     
     private void loadProducts() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM products ORDER BY name";
             try (Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(query)) {
@@ -319,9 +318,9 @@ public class OrderDialog extends JDialog {
     }
     
     private Customer loadCustomerById(int customerId) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
         String query = "SELECT * FROM customers WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, customerId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -540,19 +539,17 @@ public class OrderDialog extends JDialog {
                 stockItems.add(new StockManager.StockItem(productId, productName, quantity));
             }
 
-            // Check stock availability for New, In Progress and Completed states
-            if ("New".equals(newStatus) || "In Progress".equals(newStatus) || "Completed".equals(newStatus)) {
-                Map<String, StockManager.StockAvailability> insufficient =
-                    StockManager.checkStockAvailability(
-                        DatabaseManager.getInstance().getConnection(),
-                        stockItems,
-                        order != null ? order.getId() : null,
-                        "ORDER"
-                    );
-
-                if (!insufficient.isEmpty()) {
+            // Runs on the writer thread while this dialog waits for the commit. Stock is
+            // reserved with a guarded write inside the transaction; if any line is short
+            // the whole save is rolled back and, once the user agrees, repeated unguarded.
+            boolean allowShortage = false;
+            while (true) {
+                try {
+                    saveInTransaction(orderDate, newStatus, paymentStatus, paidAmount, stockItems, allowShortage);
+                    break;
+                } catch (StockManager.InsufficientStockException e) {
                     StringBuilder message = new StringBuilder("Insufficient stock for the following products:\n\n");
-                    for (Map.Entry<String, StockManager.StockAvailability> entry : insufficient.entrySet()) {
+                    for (Map.Entry<String, StockManager.StockAvailability> entry : e.getInsufficient().entrySet()) {
                         message.append(String.format("- %s: %s\n",
                             entry.getKey(), entry.getValue().getFormattedMessage()));
                     }
@@ -567,101 +564,92 @@ public class OrderDialog extends JDialog {
                     if (choice != JOptionPane.YES_OPTION) {
                         return;
                     }
+                    allowShortage = true;
                 }
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-            try {
-                int orderId;
-
-                if (order == null) {
-                    // New order
-                    String orderQuery = """
-                        INSERT INTO orders (customer_id, order_date, status, total, payment_status, paid_amount)
-                        VALUES (?, ?, ?, ?, ?, ?)
-                    """;
-                    try (PreparedStatement pstmt = conn.prepareStatement(orderQuery, Statement.RETURN_GENERATED_KEYS)) {
-                        pstmt.setInt(1, selectedCustomer.getId());
-                        pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(orderDate));
-                        pstmt.setString(3, newStatus);
-                        pstmt.setDouble(4, currentTotal);
-                        pstmt.setString(5, paymentStatus);
-                        pstmt.setDouble(6, paidAmount);
-                        pstmt.executeUpdate();
-
-                        try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                            if (rs.next()) {
-                                orderId = rs.getInt(1);
-                            } else {
-                                throw new SQLException("Failed to get order ID");
-                            }
-                        }
-                    }
+            orderSaved = true;
+            dispose();
 
-                    // Insert order details
-                    insertOrderDetails(conn, orderId);
-
-                    // Handle stock based on status
-                    handleStockForNewStatus(conn, orderId, newStatus, stockItems, orderDate);
-
-                } else {
-                    // Update existing order
-                    orderId = order.getId();
-
-                    String orderQuery = """
-                        UPDATE orders
-                        SET customer_id = ?, order_date = ?, status = ?, total = ?, payment_status = ?, paid_amount = ?
-                        WHERE id = ?
-                    """;
-                    try (PreparedStatement pstmt = conn.prepareStatement(orderQuery)) {
-                        pstmt.setInt(1, selectedCustomer.getId());
-                        pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(orderDate));
-                        pstmt.setString(3, newStatus);
-                        pstmt.setDouble(4, currentTotal);
-                        pstmt.setString(5, paymentStatus);
-                        pstmt.setDouble(6, paidAmount);
-                        pstmt.setInt(7, orderId);
-                        pstmt.executeUpdate();
-                    }
+        } catch (Exception e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                "Error saving the order: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
 
-                    // If order was "New" or "In Progress", cancel old reservations before changing details
-                    // This ensures reservations match the NEW quantities, not old ones
-                    if ("New".equals(previousStatus) || "In Progress".equals(previousStatus)) {
-                        StockManager.cancelReservation(conn, "ORDER", orderId);
+    private void saveInTransaction(Date orderDate, String newStatus, String paymentStatus, double paid,
+                                   List<StockManager.StockItem> stockItems, boolean allowShortage) throws SQLException {
+        DatabaseManager.getInstance().runInTransaction(conn -> {
+            int orderId;
+
+            if (order == null) {
+                // New order
+                String orderQuery = """
+                    INSERT INTO orders (customer_id, order_date, status, total, payment_status, paid_amount)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                """;
+                try (PreparedStatement pstmt = conn.prepareStatement(orderQuery, Statement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, selectedCustomer.getId());
+                    pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(orderDate));
+                    pstmt.setString(3, newStatus);
+                    pstmt.setDouble(4, currentTotal);
+                    pstmt.setString(5, paymentStatus);
+                    pstmt.setDouble(6, paid);
+                    pstmt.executeUpdate();
+
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            orderId = rs.getInt(1);
+                        } else {
+                            throw new SQLException("Failed to get order ID");
+                        }
                     }
+                }
 
-                    // Delete old details
-                    String deleteDetailsQuery = "DELETE FROM order_details WHERE order_id = ?";
-                    try (PreparedStatement pstmt = conn.prepareStatement(deleteDetailsQuery)) {
-                        pstmt.setInt(1, orderId);
-                        pstmt.executeUpdate();
-                    }
+                // Insert order details
+                insertOrderDetails(conn, orderId);
 
-                    // Insert new details
-                    insertOrderDetails(conn, orderId);
+                // Handle stock based on status
+                handleStockForNewStatus(conn, orderId, newStatus, stockItems, orderDate, allowShortage);
 
-                    // Handle status change (now reservations are clean if they existed)
-                    handleStatusChange(conn, orderId, previousStatus, newStatus, stockItems, orderDate);
+            } else {
+                // Update existing order
+                orderId = order.getId();
+
+                String orderQuery = """
+                    UPDATE orders
+                    SET customer_id = ?, order_date = ?, status = ?, total = ?, payment_status = ?, paid_amount = ?
+                    WHERE id = ?
+                """;
+                try (PreparedStatement pstmt = conn.prepareStatement(orderQuery)) {
+                    pstmt.setInt(1, selectedCustomer.getId());
+                    pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(orderDate));
+                    pstmt.setString(3, newStatus);
+                    pstmt.setDouble(4, currentTotal);
+                    pstmt.setString(5, paymentStatus);
+                    pstmt.setDouble(6, paid);
+                    pstmt.setInt(7, orderId);
+                    pstmt.executeUpdate();
+                }
+
+                // Delete old details
+                String deleteDetailsQuery = "DELETE FROM order_details WHERE order_id = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteDetailsQuery)) {
+                    pstmt.setInt(1, orderId);
+                    pstmt.executeUpdate();
                 }
 
-                conn.commit();
-                orderSaved = true;
-                dispose();
+                // Insert new details
+                insertOrderDetails(conn, orderId);
 
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
+                // Handle status change; reservations are brought in line with the new details
+                handleStatusChange(conn, orderId, previousStatus, newStatus, stockItems, orderDate, allowShortage);
             }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error saving the order: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            return orderId;
+        });
     }
 
     private void insertOrderDetails(Connection conn, int orderId) throws SQLException {
@@ -681,23 +669,18 @@ public class OrderDialog extends JDialog {
     }
 
     private void handleStockForNewStatus(Connection conn, int orderId, String status,
-                                         List<StockManager.StockItem> items, Date orderDate) throws SQLException {
+                                         List<StockManager.StockItem> items, Date orderDate,
+                                         boolean allowShortage) throws SQLException {
         switch (status) {
             case "New":
             case "In Progress":
                 // Create reservations for both New and In Progress
-                for (StockManager.StockItem item : items) {
-                    StockManager.createOrUpdateReservation(conn, item.getProductId(),
-                        "ORDER", orderId, item.getQuantity(), "Order #" + orderId);
-                }
+                reserveStock(conn, orderId, items, allowShortage);
                 break;
             case "Completed":
                 // Complete reservation and decrement stock
                 // First create reservation if items exist, then complete it
-                for (StockManager.StockItem item : items) {
-                    StockManager.createOrUpdateReservation(conn, item.getProductId(),
-                        "ORDER", orderId, item.getQuantity(), "Order #" + orderId);
-                }
+                reserveStock(conn, orderId, items, allowShortage);
                 StockManager.completeReservationAndDecrementStock(conn, "ORDER", orderId,
                     orderDate, String.valueOf(orderId));
                 break;
@@ -708,9 +691,10 @@ public class OrderDialog extends JDialog {
     }
 
     private void handleStatusChange(Connection conn, int orderId, String oldStatus, String newStatus,
-                                    List<StockManager.StockItem> items, Date orderDate) throws SQLException {
-        // Note: If oldStatus was "In Progress" or "New", reservations were already cancelled
-        // before updating details, so we don't need to cancel them here
+                                    List<StockManager.StockItem> items, Date orderDate,
+                                    boolean allowShortage) throws SQLException {
+        // Reservations are updated in place: lines whose quantity did not change keep
+        // their reservation, removed lines are cancelled by reserveStock
 
         if ("Completed".equals(oldStatus) && !"Completed".equals(newStatus)) {
             // Restore stock when moving away from Completed
@@ -721,27 +705,42 @@ public class OrderDialog extends JDialog {
         switch (newStatus) {
             case "New":
             case "In Progress":
-                // Create new reservations with current quantities for both New and In Progress
-                for (StockManager.StockItem item : items) {
-                    StockManager.createOrUpdateReservation(conn, item.getProductId(),
-                        "ORDER", orderId, item.getQuantity(), "Order #" + orderId);
-                }
+                // Bring reservations to the current quantities for both New and In Progress
+                reserveStock(conn, orderId, items, allowShortage);
                 break;
             case "Completed":
-                // Create reservations and then complete them (this decrements stock)
-                for (StockManager.StockItem item : items) {
-                    StockManager.createOrUpdateReservation(conn, item.getProductId(),
-                        "ORDER", orderId, item.getQuantity(), "Order #" + orderId);
-                }
+                // Create reservations and then complete them (this decrements stock).
+                // An order that was already Completed has consumed its stock, so its
+                // COMPLETED reservations are not re-checked against what is left.
+                reserveStock(conn, orderId, items, allowShortage || "Completed".equals(oldStatus));
                 StockManager.completeReservationAndDecrementStock(conn, "ORDER", orderId,
                     orderDate, String.valueOf(orderId));
                 break;
             case "Cancelled":
-                // No action needed (reservations already cancelled if they existed)
+                // Release whatever the order still had reserved
+                StockManager.cancelReservation(conn, "ORDER", orderId);
                 break;
         }
     }
 
+    /**
+     * Bring the order's reservations in line with its items. Unless the user has
+     * accepted a shortage, a line the stock cannot cover rolls back the save.
+     */
+    private void reserveStock(Connection conn, int orderId, List<StockManager.StockItem> items,
+                              boolean allowShortage) throws SQLException {
+        String note = "Order #" + orderId;
+        if (allowShortage) {
+            StockManager.createOrUpdateReservations(conn, "ORDER", orderId, items, note);
+            return;
+        }
+        Map<String, StockManager.StockAvailability> insufficient =
+            StockManager.reserveOrFail(conn, "ORDER", orderId, items, note);
+        if (!insufficient.isEmpty()) {
+            throw new StockManager.InsufficientStockException(insufficient);
+        }
+    }
+
     public boolean isOrderSaved() {
         return orderSaved;
     }
@@ -0,0 +1,46 @@
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Queries for customer orders (header rows only, without items)
+ */
+public class OrderRepository {
+    /**
+     * Order rows for a {@link PagedTableModel} (key column o.id)
+     */
+    public static final String PAGE_SELECT = """
+        SELECT o.*, c.first_name || ' ' || c.last_name as customer_name
+        FROM orders o
+        LEFT JOIN customers c ON o.customer_id = c.id
+    """;
+
+    /**
+     * Orders of customers matching a full-text query, or whose status starts
+     * with the search term (parameters: match query, status pattern)
+     */
+    public static final String SEARCH_FILTER = """
+        o.id IN (
+            SELECT id FROM orders WHERE %s
+            UNION
+            SELECT id FROM orders WHERE status LIKE ?
+        )""".formatted(SearchService.matching(SearchService.Index.CUSTOMERS, "customer_id"));
+
+    public static Order mapOrder(ResultSet rs) throws SQLException {
+        Order order = new Order(
+            rs.getInt("id"),
+            rs.getInt("customer_id"),
+            rs.getString("customer_name"),
+            DateUtils.parseDate(rs, "order_date"),
+            rs.getString("status"),
+            rs.getDouble("total")
+        );
+        order.setPaymentStatus(rs.getString("payment_status"));
+        order.setPaidAmount(rs.getDouble("paid_amount"));
+        return order;
+    }
+
+    // Private constructor to prevent instantiation
+    private OrderRepository() {
+        throw new AssertionError("OrderRepository class cannot be instantiated");
+    }
+}
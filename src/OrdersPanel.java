@@ -1,14 +1,23 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.*;
-import java.util.Vector;
+import java.util.List;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class OrdersPanel extends JPanel {
+    /**
+     * Items of an order with their product names
+     */
+    static final String ORDER_ITEMS = """
+        SELECT i.*, p.name as product_name
+        FROM order_details i
+        LEFT JOIN products p ON i.product_id = p.id
+        WHERE i.order_id = ?
+    """;
+
     private JTable ordersTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Order> tableModel;
     private JTextField searchField;
     private JButton addButton;
     private JButton editButton;
@@ -44,13 +53,23 @@ public class OrdersPanel extends JPanel {
         searchPanel.add(searchButton);
 
         // Orders table
-        String[] columns = {"ID", "Customer", "Date", "Status", "Total €", "Payment"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PagedTableModel<>(
+            OrderRepository.PAGE_SELECT, "o.id", OrderRepository::mapOrder,
+            List.of(
+                new PagedTableModel.Column<Order>("ID", Order::getId, "o.id"),
+                new PagedTableModel.Column<Order>("Customer", Order::getCustomerName,
+                    "COALESCE(c.first_name || ' ' || c.last_name, '')"),
+                new PagedTableModel.Column<Order>("Date",
+                    o -> o.getOrderDate() != null ? DateUtils.formatDate(o.getOrderDate(), dateFormat) : "",
+                    "o.order_date"),
+                new PagedTableModel.Column<Order>("Status", Order::getStatus, "o.status"),
+                new PagedTableModel.Column<Order>("Total €", o -> String.format("%.2f", o.getTotal()), "o.total"),
+                new PagedTableModel.Column<Order>("Payment",
+                    o -> formatPaymentStatus(o.getPaymentStatus(), o.getPaidAmount(), o.getTotal()),
+                    "COALESCE(o.payment_status, '')")
+            ),
+            2, true);
+        tableModel.setErrorHandler(DataAccess.errorDialog(this, "Error while loading orders"));
         ordersTable = new JTable(tableModel);
         ordersTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         ordersTable.getSelectionModel().addListSelectionListener(e -> updateButtonStates());
@@ -125,48 +144,7 @@ public class OrdersPanel extends JPanel {
     }
 
     private void loadOrders() {
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT o.*, c.first_name || ' ' || c.last_name as customer_name
-                FROM orders o
-                LEFT JOIN customers c ON o.customer_id = c.id
-                ORDER BY o.order_date DESC
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("customer_name"));
-
-                    Date date = DateUtils.parseDate(rs, "order_date");
-                    if (date != null) {
-                        row.add(DateUtils.formatDate(date, dateFormat));
-                    } else {
-                        row.add("");
-                    }
-
-                    row.add(rs.getString("status"));
-                    row.add(String.format("%.2f", rs.getDouble("total")));
-
-                    // Add payment status
-                    String paymentStatus = rs.getString("payment_status");
-                    double paidAmount = rs.getDouble("paid_amount");
-                    double total = rs.getDouble("total");
-                    row.add(formatPaymentStatus(paymentStatus, paidAmount, total));
-
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error while loading orders: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        tableModel.setFilter(null);
     }
 
     private void searchOrders() {
@@ -176,55 +154,12 @@ public class OrdersPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT o.*, c.first_name || ' ' || c.last_name as customer_name
-                FROM orders o
-                LEFT JOIN customers c ON o.customer_id = c.id
-                WHERE c.first_name LIKE ? OR c.last_name LIKE ? OR o.status LIKE ?
-                ORDER BY o.order_date DESC
-            """;
-
-            String searchPattern = "%" + searchTerm + "%";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        Vector<Object> row = new Vector<>();
-                        row.add(rs.getInt("id"));
-                        row.add(rs.getString("customer_name"));
-
-                        Date date = DateUtils.parseDate(rs, "order_date");
-                        if (date != null) {
-                            row.add(DateUtils.formatDate(date, dateFormat));
-                        } else {
-                            row.add("");
-                        }
-
-                        row.add(rs.getString("status"));
-                        row.add(String.format("%.2f", rs.getDouble("total")));
-
-                        // Add payment status
-                        String paymentStatus = rs.getString("payment_status");
-                        double paidAmount = rs.getDouble("paid_amount");
-                        double total = rs.getDouble("total");
-                        row.add(formatPaymentStatus(paymentStatus, paidAmount, total));
-
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error while searching orders: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            loadOrders();
+            return;
         }
+        tableModel.setFilter(OrderRepository.SEARCH_FILTER, match, searchTerm + "%");
     }
 
     private void showOrderDialog(Order order) {
@@ -252,7 +187,9 @@ public class OrdersPanel extends JPanel {
         if (selectedRow != -1) {
             // Convert view index to model index (important when table is sorted)
             int modelRow = ordersTable.convertRowIndexToModel(selectedRow);
-            int orderId = (int)tableModel.getValueAt(modelRow, 0);
+            Order row = tableModel.getRow(modelRow);
+            if (row == null) return;
+            int orderId = row.getId();
             try {
                 Order order = loadOrderDetails(orderId);
                 if (order != null) {
@@ -268,7 +205,6 @@ public class OrdersPanel extends JPanel {
     }
 
     private Order loadOrderDetails(int orderId) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
         String query = """
             SELECT o.*, c.first_name || ' ' || c.last_name as customer_name
             FROM orders o
@@ -276,7 +212,8 @@ public class OrdersPanel extends JPanel {
             WHERE o.id = ?
         """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, orderId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -300,7 +237,7 @@ public class OrdersPanel extends JPanel {
                     order.setPaymentStatus(paymentStatus != null ? paymentStatus : "NOT_PAID");
                     order.setPaidAmount(paidAmount);
 
-                    loadOrderItems(order);
+                    loadOrderItems(conn, order);
                     return order;
                 }
             }
@@ -308,16 +245,8 @@ public class OrdersPanel extends JPanel {
         return null;
     }
 
-    private void loadOrderItems(Order order) throws SQLException {
-        String query = """
-            SELECT i.*, p.name as product_name
-            FROM order_details i
-            LEFT JOIN products p ON i.product_id = p.id
-            WHERE i.order_id = ?
-        """;
-
-        Connection conn = DatabaseManager.getInstance().getConnection();
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+    private void loadOrderItems(Connection conn, Order order) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ORDER_ITEMS)) {
             pstmt.setInt(1, order.getId());
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -340,9 +269,11 @@ public class OrdersPanel extends JPanel {
         if (selectedRow != -1) {
             // Convert view index to model index (important when table is sorted)
             int modelRow = ordersTable.convertRowIndexToModel(selectedRow);
-            int id = (int)tableModel.getValueAt(modelRow, 0);
-            String customer = (String)tableModel.getValueAt(modelRow, 1);
-            String status = (String)tableModel.getValueAt(modelRow, 3);
+            Order row = tableModel.getRow(modelRow);
+            if (row == null) return;
+            int id = row.getId();
+            String customer = row.getCustomerName();
+            String status = row.getStatus();
 
             int result = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to delete the order from customer '" + customer + "'?\n" +
@@ -356,10 +287,7 @@ public class OrdersPanel extends JPanel {
 
             if (result == JOptionPane.YES_OPTION) {
                 try {
-                    Connection conn = DatabaseManager.getInstance().getConnection();
-                    conn.setAutoCommit(false);
-
-                    try {
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
                         // Restore stock and handle reservations based on order status
                         StockManager.deleteOrder(conn, id, status);
 
@@ -377,27 +305,23 @@ public class OrdersPanel extends JPanel {
                             pstmt.executeUpdate();
                         }
 
-                        conn.commit();
-                        loadOrders();
+                        return null;
+                    });
 
-                        // Refresh ProductsPanel to update stock levels
-                        Window parentWindow = SwingUtilities.getWindowAncestor(this);
-                        if (parentWindow instanceof MainWindow) {
-                            ((MainWindow) parentWindow).refreshProductsPanel();
-                        }
+                    loadOrders();
 
-                        JOptionPane.showMessageDialog(this,
-                            "Order deleted successfully!" +
-                            (status.equals("Completed") ? "\nStock has been restored." :
-                             (status.equals("New") || status.equals("In Progress")) ? "\nReservations have been cancelled." : ""),
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
-
-                    } catch (SQLException e) {
-                        conn.rollback();
-                        throw e;
-                    } finally {
-                        conn.setAutoCommit(true);
+                    // Refresh ProductsPanel to update stock levels
+                    Window parentWindow = SwingUtilities.getWindowAncestor(this);
+                    if (parentWindow instanceof MainWindow) {
+                        ((MainWindow) parentWindow).refreshProductsPanel();
                     }
+
+                    JOptionPane.showMessageDialog(this,
+                        "Order deleted successfully!" +
+                        (status.equals("Completed") ? "\nStock has been restored." :
+                         (status.equals("New") || status.equals("In Progress")) ? "\nReservations have been cancelled." : ""),
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+
                 } catch (SQLException e) {
                     e.printStackTrace();
                     JOptionPane.showMessageDialog(this,
@@ -414,9 +338,11 @@ public class OrdersPanel extends JPanel {
 
         // Convert view index to model index (important when table is sorted)
         int modelRow = ordersTable.convertRowIndexToModel(selectedRow);
-        int orderId = (int)tableModel.getValueAt(modelRow, 0);
-        String customer = (String)tableModel.getValueAt(modelRow, 1);
-        String status = (String)tableModel.getValueAt(modelRow, 3);
+        Order row = tableModel.getRow(modelRow);
+        if (row == null) return;
+        int orderId = row.getId();
+        String customer = row.getCustomerName();
+        String status = row.getStatus();
 
         // Confirm with user
         int result = JOptionPane.showConfirmDialog(this,
@@ -444,20 +370,14 @@ public class OrdersPanel extends JPanel {
                 return;
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-
-            try {
+            // Number reservation and inserts commit together on the writer thread
+            String invoiceNumber = DatabaseManager.getInstance().runInTransaction(conn -> {
                 // Generate invoice number
                 int year = new java.util.Calendar.Builder()
                     .setInstant(order.getOrderDate())
                     .build()
                     .get(java.util.Calendar.YEAR);
-                String invoiceNumber = DatabaseManager.getInstance().getNextInvoiceNumber(year);
-
-                // getNextInvoiceNumber commits its own transaction, resetting auto-commit
-                // Re-disable auto-commit for our transaction
-                conn.setAutoCommit(false);
+                String number = DatabaseManager.getInstance().getNextInvoiceNumber(conn, year);
 
                 // Calculate totals with default VAT rate (22%)
                 final double DEFAULT_VAT_RATE = 22.0;
@@ -479,9 +399,9 @@ public class OrdersPanel extends JPanel {
                     VALUES (?, ?, ?, ?, ?, ?, 'Draft')
                 """;
 
-                int invoiceId = 0;
+                int invoiceId;
                 try (PreparedStatement pstmt = conn.prepareStatement(insertInvoice, Statement.RETURN_GENERATED_KEYS)) {
-                    pstmt.setString(1, invoiceNumber);
+                    pstmt.setString(1, number);
                     pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(order.getOrderDate()));
                     pstmt.setInt(3, order.getCustomerId());
                     pstmt.setDouble(4, taxableAmount);
@@ -489,9 +409,12 @@ public class OrdersPanel extends JPanel {
                     pstmt.setDouble(6, total);
                     pstmt.executeUpdate();
 
-                    ResultSet rs = pstmt.getGeneratedKeys();
-                    if (rs.next()) {
-                        invoiceId = rs.getInt(1);
+                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            invoiceId = rs.getInt(1);
+                        } else {
+                            throw new SQLException("Failed to get invoice ID");
+                        }
                     }
                 }
 
@@ -518,37 +441,18 @@ public class OrdersPanel extends JPanel {
                     pstmt.executeBatch();
                 }
 
-                // Commit transaction (verify we're still in transaction mode)
-                if (!conn.getAutoCommit()) {
-                    conn.commit();
-                }
+                return number;
+            });
 
-                JOptionPane.showMessageDialog(this,
-                    "Invoice " + invoiceNumber + " generated successfully!\n" +
-                    "You can find it in the Invoices panel.",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-
-                // Refresh invoices panel if available
-                parentWindow = SwingUtilities.getWindowAncestor(this);
-                if (parentWindow instanceof MainWindow) {
-                    ((MainWindow) parentWindow).refreshInvoicesPanel();
-                }
+            JOptionPane.showMessageDialog(this,
+                "Invoice " + invoiceNumber + " generated successfully!\n" +
+                "You can find it in the Invoices panel.",
+                "Success", JOptionPane.INFORMATION_MESSAGE);
 
-            } catch (Exception e) {
-                try {
-                    if (!conn.getAutoCommit()) {
-                        conn.rollback();
-                    }
-                } catch (SQLException rollbackEx) {
-                    rollbackEx.printStackTrace();
-                }
-                throw e;
-            } finally {
-                try {
-                    conn.setAutoCommit(true);
-                } catch (SQLException finallyEx) {
-                    finallyEx.printStackTrace();
-                }
+            // Refresh invoices panel if available
+            parentWindow = SwingUtilities.getWindowAncestor(this);
+            if (parentWindow instanceof MainWindow) {
+                ((MainWindow) parentWindow).refreshInvoicesPanel();
             }
 
         } catch (Exception e) {
@@ -578,23 +482,23 @@ public class OrdersPanel extends JPanel {
      * @param orderId The ID of the order to select
      */
     public void selectOrderById(int orderId) {
-        // First ensure the table is loaded
+        // Show the full list, then page through it until the order turns up
         loadOrders();
+        tableModel.whenLoaded(() -> tableModel.locate(order -> order.getId() == orderId,
+            modelRow -> highlightOrder(orderId, modelRow)));
+    }
 
-        // Search for the order ID in the table model
-        for (int modelRow = 0; modelRow < tableModel.getRowCount(); modelRow++) {
-            Object value = tableModel.getValueAt(modelRow, 0); // ID is in column 0
-            if (value != null && value instanceof Integer && (Integer) value == orderId) {
-                // Found the order, convert model index to view index
-                int viewRow = ordersTable.convertRowIndexToView(modelRow);
-                // Select the row in the view
-                ordersTable.setRowSelectionInterval(viewRow, viewRow);
-                // Scroll to make the row visible
-                ordersTable.scrollRectToVisible(ordersTable.getCellRect(viewRow, 0, true));
-                // Update button states
-                updateButtonStates();
-                return;
-            }
+    private void highlightOrder(int orderId, int modelRow) {
+        if (modelRow != -1) {
+            // Found the order, convert model index to view index
+            int viewRow = ordersTable.convertRowIndexToView(modelRow);
+            // Select the row in the view
+            ordersTable.setRowSelectionInterval(viewRow, viewRow);
+            // Scroll to make the row visible
+            ordersTable.scrollRectToVisible(ordersTable.getCellRect(viewRow, 0, true));
+            // Update button states
+            updateButtonStates();
+            return;
         }
 
         // If we get here, the order was not found
@@ -0,0 +1,550 @@
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Table model that loads its rows page by page as the table asks for them.
+ *
+ * Pages are read with keyset pagination: each page continues after the sort key
+ * and row key of the last row of the previous page, so reading page N costs the
+ * same as reading page 1 and never uses OFFSET. Only the first page is loaded
+ * up front; the row count grows as the user scrolls towards the end. Loaded
+ * pages are kept in a small LRU cache, and a page that has been evicted is read
+ * again from its remembered start key when it scrolls back into view.
+ *
+ * Sorting is pushed down into SQL: install the model with
+ * {@link TableSorterUtil#enableSorting} and header clicks change the ORDER BY
+ * instead of sorting in memory. Sort expressions must never be NULL (wrap
+ * nullable columns in COALESCE), and the key column must be unique.
+ *
+ * All state is owned by the EDT; queries run through {@link DataAccess}. A
+ * reload cancels the page queries still running for the previous filter or
+ * sort, and their results are dropped.
+ */
+public class PagedTableModel<T> extends AbstractTableModel {
+    public static final int PAGE_SIZE = 200;
+    private static final int MAX_CACHED_PAGES = 25;
+    private static final int PREFETCH_ROWS = PAGE_SIZE / 4;
+    private static final int MAX_LOCATE_PAGES = 100;
+
+    /**
+     * Builds one row object from the current result set row
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Table column: header, cell value and the SQL expression it sorts by (null if not sortable)
+     */
+    public static class Column<T> {
+        private final String name;
+        private final Function<T, Object> value;
+        private final String sortExpression;
+
+        public Column(String name, Function<T, Object> value, String sortExpression) {
+            this.name = name;
+            this.value = value;
+            this.sortExpression = sortExpression;
+        }
+
+        public String getName() { return name; }
+        public String getSortExpression() { return sortExpression; }
+        public boolean isSortable() { return sortExpression != null; }
+    }
+
+    private final String selectSql;
+    private final String keyColumn;
+    private final RowMapper<T> mapper;
+    private final List<Column<T>> columns;
+
+    private String filterSql;
+    private Object[] filterParams = new Object[0];
+    private int sortColumn;
+    private boolean descending;
+
+    // Paging state, only touched on the EDT
+    private final List<Object[]> pageEndKeys = new ArrayList<>();
+    private final Map<Integer, List<T>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    private final Map<Integer, CompletableFuture<Page<T>>> pendingPages = new HashMap<>();
+    private final List<Runnable> afterFirstPage = new ArrayList<>();
+    private int rowCount;
+    private boolean exhausted;
+    private long generation;
+    private Consumer<Throwable> errorHandler = DataAccess.logError("Error loading table page");
+
+    /**
+     * @param selectSql SELECT ... FROM ... [JOIN ...] without WHERE or ORDER BY
+     * @param keyColumn Unique column used as tie-breaker, e.g. "m.id"
+     * @param mapper Maps a result row to the row object
+     * @param columns Table columns in display order
+     * @param sortColumn Column sorted by initially
+     * @param descending Initial sort direction
+     */
+    public PagedTableModel(String selectSql, String keyColumn, RowMapper<T> mapper,
+                           List<Column<T>> columns, int sortColumn, boolean descending) {
+        this.selectSql = selectSql.strip();
+        this.keyColumn = keyColumn;
+        this.mapper = mapper;
+        this.columns = List.copyOf(columns);
+        this.sortColumn = sortColumn;
+        this.descending = descending;
+        if (!this.selectSql.regionMatches(true, 0, "SELECT", 0, 6)) {
+            throw new IllegalArgumentException("Paged query must start with SELECT");
+        }
+    }
+
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Restrict the rows with a WHERE condition (null for all rows) and reload
+     */
+    public void setFilter(String filterSql, Object... params) {
+        this.filterSql = filterSql;
+        this.filterParams = params != null ? params.clone() : new Object[0];
+        reload();
+    }
+
+    /**
+     * Change the ORDER BY and reload from the first page
+     */
+    public void setSort(int column, boolean descending) {
+        if (!columns.get(column).isSortable()) {
+            return;
+        }
+        this.sortColumn = column;
+        this.descending = descending;
+        reload();
+    }
+
+    public int getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isSortDescending() {
+        return descending;
+    }
+
+    public boolean isSortable(int column) {
+        return columns.get(column).isSortable();
+    }
+
+    /**
+     * Drop every cached page and load the first one again
+     */
+    public void reload() {
+        reload(null);
+    }
+
+    /**
+     * Reload, then run the callback once the first page is shown
+     */
+    public void reload(Runnable afterLoad) {
+        generation++;
+        pageEndKeys.clear();
+        pages.clear();
+        for (CompletableFuture<Page<T>> pending : pendingPages.values()) {
+            pending.cancel(false);
+        }
+        pendingPages.clear();
+        afterFirstPage.clear();
+        exhausted = false;
+        rowCount = 0;
+        fireTableDataChanged();
+        requestPage(0);
+        if (afterLoad != null) {
+            whenLoaded(afterLoad);
+        }
+    }
+
+    /**
+     * Run the callback once the first page is shown (right away if it already is)
+     */
+    public void whenLoaded(Runnable callback) {
+        if (pendingPages.containsKey(0)) {
+            afterFirstPage.add(callback);
+        } else {
+            callback.run();
+        }
+    }
+
+    /**
+     * Row object at a model index, or null if its page is not loaded
+     */
+    public T getRow(int rowIndex) {
+        List<T> page = pages.get(rowIndex / PAGE_SIZE);
+        int offset = rowIndex % PAGE_SIZE;
+        return page != null && offset < page.size() ? page.get(offset) : null;
+    }
+
+    /**
+     * Find the first row matching the predicate, paging forward through the
+     * result if needed. The callback receives the model index, or -1.
+     */
+    public void locate(Predicate<T> match, Consumer<Integer> onResult) {
+        locate(match, onResult, 0);
+    }
+
+    private void locate(Predicate<T> match, Consumer<Integer> onResult, int pagesFetched) {
+        for (Map.Entry<Integer, List<T>> entry : new ArrayList<>(pages.entrySet())) {
+            List<T> rows = entry.getValue();
+            for (int i = 0; i < rows.size(); i++) {
+                if (match.test(rows.get(i))) {
+                    onResult.accept(entry.getKey() * PAGE_SIZE + i);
+                    return;
+                }
+            }
+        }
+        if (exhausted || pagesFetched >= MAX_LOCATE_PAGES) {
+            onResult.accept(-1);
+            return;
+        }
+        long expected = generation;
+        int next = pageEndKeys.size();
+        DataAccess.onEdt(fetchPage(next),
+            page -> {
+                if (expected == generation) {
+                    applyPage(next, page);
+                    locate(match, onResult, pagesFetched + 1);
+                }
+            },
+            error -> {
+                if (expected == generation) {
+                    errorHandler.accept(error);
+                    onResult.accept(-1);
+                }
+            });
+    }
+
+    /**
+     * Load every row for the current filter and sort into a plain table model
+     * (for exports). Rows are read in pages so memory use stays bounded per query.
+     */
+    public CompletableFuture<TableModel> snapshot() {
+        String[] names = new String[columns.size()];
+        for (int c = 0; c < names.length; c++) {
+            names[c] = columns.get(c).getName();
+        }
+        QuerySpec spec = currentSpec();
+        return DataAccess.read(conn -> {
+            DefaultTableModel model = new DefaultTableModel(names, 0);
+            Page<T> page = spec.fetch(conn, null);
+            while (true) {
+                for (T row : page.rows) {
+                    Object[] values = new Object[names.length];
+                    for (int c = 0; c < values.length; c++) {
+                        values[c] = columns.get(c).value.apply(row);
+                    }
+                    model.addRow(values);
+                }
+                if (page.rows.size() < PAGE_SIZE) {
+                    return model;
+                }
+                page = spec.fetch(conn, page.endKey);
+            }
+        });
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).getName();
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int pageIndex = rowIndex / PAGE_SIZE;
+        if (!exhausted && rowIndex >= rowCount - PREFETCH_ROWS) {
+            requestPage(pageEndKeys.size());
+        }
+        List<T> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = rowIndex % PAGE_SIZE;
+        return offset < page.size() ? columns.get(columnIndex).value.apply(page.get(offset)) : null;
+    }
+
+    private void requestPage(int pageIndex) {
+        // Pages are discovered in order: page N needs the end key of page N-1
+        if (pageIndex > pageEndKeys.size() || (pageIndex == pageEndKeys.size() && exhausted)) {
+            return;
+        }
+        if (pendingPages.containsKey(pageIndex)) {
+            return;
+        }
+        long expected = generation;
+        CompletableFuture<Page<T>> fetch = fetchPage(pageIndex);
+        pendingPages.put(pageIndex, fetch);
+        DataAccess.onEdt(fetch,
+            page -> {
+                if (expected == generation) {
+                    pendingPages.remove(pageIndex);
+                    applyPage(pageIndex, page);
+                }
+            },
+            error -> {
+                if (expected == generation) {
+                    pendingPages.remove(pageIndex);
+                    errorHandler.accept(error);
+                }
+            });
+    }
+
+    private CompletableFuture<Page<T>> fetchPage(int pageIndex) {
+        QuerySpec spec = currentSpec();
+        Object[] after = pageIndex == 0 ? null : pageEndKeys.get(pageIndex - 1);
+        return DataAccess.read(conn -> spec.fetch(conn, after));
+    }
+
+    private void applyPage(int pageIndex, Page<T> page) {
+        List<T> rows = page.rows;
+        if (pageIndex == pageEndKeys.size()) {
+            // Next page in sequence: extends the known row count
+            if (rows.size() < PAGE_SIZE) {
+                exhausted = true;
+            }
+            if (!rows.isEmpty()) {
+                pageEndKeys.add(page.endKey);
+                pages.put(pageIndex, rows);
+                int first = rowCount;
+                rowCount += rows.size();
+                fireTableRowsInserted(first, rowCount - 1);
+            }
+        } else if (pageIndex < pageEndKeys.size()) {
+            // Evicted page read again from its start key
+            pages.put(pageIndex, rows);
+            int first = pageIndex * PAGE_SIZE;
+            fireTableRowsUpdated(first, Math.min(rowCount, first + PAGE_SIZE) - 1);
+        }
+        runAfterFirstPage();
+    }
+
+    private void runAfterFirstPage() {
+        if (afterFirstPage.isEmpty()) {
+            return;
+        }
+        List<Runnable> callbacks = new ArrayList<>(afterFirstPage);
+        afterFirstPage.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    private QuerySpec currentSpec() {
+        return new QuerySpec(columns.get(sortColumn).getSortExpression(), descending, filterSql, filterParams);
+    }
+
+    /**
+     * One page of rows plus the sort and row key of its last row
+     */
+    private static class Page<T> {
+        private final List<T> rows;
+        private final Object[] endKey;
+
+        Page(List<T> rows, Object[] endKey) {
+            this.rows = rows;
+            this.endKey = endKey;
+        }
+    }
+
+    /**
+     * SQL of one page as the model runs it (also analyzed by IndexAdvisor).
+     * With afterKey the page continues after the (sort key, row key) of the
+     * previous page's last row, passed as the two last parameters.
+     */
+    static String pageSql(String selectSql, String keyColumn, String sortExpression, boolean descending,
+                          String filter, boolean afterKey) {
+        String direction = descending ? "DESC" : "ASC";
+        String select = "SELECT " + sortExpression + " AS paged_sort_key, " + keyColumn + " AS paged_row_key, "
+            + selectSql.strip().substring(6).strip();
+        String where = filter != null ? " WHERE (" + filter + ")" : " WHERE 1=1";
+        String orderBy = " ORDER BY " + sortExpression + " " + direction + ", " + keyColumn + " " + direction
+            + " LIMIT " + PAGE_SIZE;
+        // Row-value comparison lets SQLite continue the index range scan after the last key
+        String after = afterKey
+            ? " AND (" + sortExpression + ", " + keyColumn + ") " + (descending ? "<" : ">") + " (?, ?)"
+            : "";
+        return select + where + after + orderBy;
+    }
+
+    /**
+     * Immutable copy of the query settings, safe to use off the EDT
+     */
+    private class QuerySpec {
+        private final String firstPageSql;
+        private final String nextPageSql;
+        private final Object[] params;
+
+        QuerySpec(String sortExpression, boolean descending, String filter, Object[] params) {
+            this.firstPageSql = pageSql(selectSql, keyColumn, sortExpression, descending, filter, false);
+            this.nextPageSql = pageSql(selectSql, keyColumn, sortExpression, descending, filter, true);
+            this.params = params.clone();
+        }
+
+        /**
+         * Read the page that follows the given key (null for the first page)
+         */
+        Page<T> fetch(Connection conn, Object[] after) throws SQLException {
+            List<T> rows = new ArrayList<>(PAGE_SIZE);
+            Object[] endKey = after;
+            try (PreparedStatement pstmt = conn.prepareStatement(after == null ? firstPageSql : nextPageSql)) {
+                int index = 1;
+                for (Object param : params) {
+                    pstmt.setObject(index++, param);
+                }
+                if (after != null) {
+                    pstmt.setObject(index++, after[0]);
+                    pstmt.setObject(index, after[1]);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(mapper.map(rs));
+                        endKey = new Object[]{rs.getObject("paged_sort_key"), rs.getObject("paged_row_key")};
+                    }
+                }
+            }
+            return new Page<>(rows, endKey);
+        }
+    }
+
+    /**
+     * Row sorter that maps rows one to one and turns header clicks into a new
+     * ORDER BY on the model. First click sorts descending, second ascending.
+     */
+    public static class Sorter extends RowSorter<TableModel> {
+        private final PagedTableModel<?> model;
+        private final boolean[] sortable;
+        private List<SortKey> sortKeys;
+
+        public Sorter(PagedTableModel<?> model, int[] sortableColumns) {
+            this.model = model;
+            this.sortable = new boolean[model.getColumnCount()];
+            for (int c = 0; c < sortable.length; c++) {
+                sortable[c] = sortableColumns == null && model.isSortable(c);
+            }
+            if (sortableColumns != null) {
+                for (int c : sortableColumns) {
+                    sortable[c] = model.isSortable(c);
+                }
+            }
+            this.sortKeys = List.of(new SortKey(model.getSortColumn(),
+                model.isSortDescending() ? SortOrder.DESCENDING : SortOrder.ASCENDING));
+        }
+
+        @Override
+        public TableModel getModel() {
+            return model;
+        }
+
+        @Override
+        public void toggleSortOrder(int column) {
+            if (!sortable[column]) {
+                return;
+            }
+            SortOrder order = SortOrder.DESCENDING;
+            if (!sortKeys.isEmpty() && sortKeys.get(0).getColumn() == column
+                    && sortKeys.get(0).getSortOrder() == SortOrder.DESCENDING) {
+                order = SortOrder.ASCENDING;
+            }
+            setSortKeys(List.of(new SortKey(column, order)));
+        }
+
+        @Override
+        public void setSortKeys(List<? extends SortKey> keys) {
+            if (keys == null || keys.isEmpty()) {
+                return;
+            }
+            SortKey key = keys.get(0);
+            if (!sortable[key.getColumn()] || key.getSortOrder() == SortOrder.UNSORTED) {
+                return;
+            }
+            sortKeys = List.of(key);
+            fireSortOrderChanged();
+            model.setSort(key.getColumn(), key.getSortOrder() == SortOrder.DESCENDING);
+        }
+
+        @Override
+        public List<? extends SortKey> getSortKeys() {
+            return Collections.unmodifiableList(sortKeys);
+        }
+
+        @Override
+        public int convertRowIndexToModel(int index) {
+            return index;
+        }
+
+        @Override
+        public int convertRowIndexToView(int index) {
+            return index;
+        }
+
+        @Override
+        public int getViewRowCount() {
+            return model.getRowCount();
+        }
+
+        @Override
+        public int getModelRowCount() {
+            return model.getRowCount();
+        }
+
+        // Rows are already in SQL order, so model changes need no re-sorting
+        @Override
+        public void modelStructureChanged() {}
+
+        @Override
+        public void allRowsChanged() {}
+
+        @Override
+        public void rowsInserted(int firstRow, int endRow) {}
+
+        @Override
+        public void rowsDeleted(int firstRow, int endRow) {}
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow) {}
+
+        @Override
+        public void rowsUpdated(int firstRow, int endRow, int column) {}
+    }
+}
@@ -24,6 +24,10 @@ public class Product {
     private Integer supplierId;
     private String supplierName; // For display purposes
 
+    // Stock commitments (for display purposes)
+    private int reservedQuantity;
+    private int onOrderQuantity;
+
     // Warehouse & Tax
     private String warehousePosition;
     private double vatRate;
@@ -89,6 +93,9 @@ public class Product {
     public String getSupplierName() { return supplierName; }
     public String getWarehousePosition() { return warehousePosition; }
     public double getVatRate() { return vatRate; }
+    public int getReservedQuantity() { return reservedQuantity; }
+    public int getOnOrderQuantity() { return onOrderQuantity; }
+    public int getAvailableQuantity() { return quantity - reservedQuantity; }
 
     // Setters
     public void setId(int id) { this.id = id; }
@@ -108,4 +115,6 @@ public class Product {
     public void setSupplierName(String supplierName) { this.supplierName = supplierName; }
     public void setWarehousePosition(String warehousePosition) { this.warehousePosition = warehousePosition; }
     public void setVatRate(double vatRate) { this.vatRate = vatRate; }
+    public void setReservedQuantity(int reservedQuantity) { this.reservedQuantity = reservedQuantity; }
+    public void setOnOrderQuantity(int onOrderQuantity) { this.onOrderQuantity = onOrderQuantity; }
 }
@@ -262,8 +262,7 @@ public class ProductDialog extends JDialog {
     }
 
     private void loadSupplierById(Integer supplierId) {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM suppliers WHERE id = ?";
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
                 pstmt.setInt(1, supplierId);
@@ -352,69 +351,84 @@ public class ProductDialog extends JDialog {
                 return;
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            if (product == null) { // New product
-                String query = """
-                    INSERT INTO products (code, name, description, price, quantity,
-                        category, alternative_sku, weight, unit_of_measure, minimum_quantity,
-                        acquisition_cost, active, supplier_id, warehouse_position, vat_rate)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setString(1, code);
-                    pstmt.setString(2, name);
-                    pstmt.setString(3, description);
-                    pstmt.setDouble(4, price);
-                    pstmt.setInt(5, quantity);
-                    pstmt.setString(6, category);
-                    pstmt.setString(7, alternativeSku);
-                    pstmt.setDouble(8, weight);
-                    pstmt.setString(9, unitOfMeasure);
-                    pstmt.setInt(10, minimumQuantity);
-                    pstmt.setDouble(11, acquisitionCost);
-                    pstmt.setInt(12, active ? 1 : 0);
-                    if (supplierId != null) {
-                        pstmt.setInt(13, supplierId);
-                    } else {
-                        pstmt.setNull(13, java.sql.Types.INTEGER);
+            // The ledger picks up the new quantity when this commits
+            int productId = DatabaseManager.getInstance().runInTransaction(conn -> {
+                int id;
+                if (product == null) { // New product
+                    String query = """
+                        INSERT INTO products (code, name, description, price, quantity,
+                            category, alternative_sku, weight, unit_of_measure, minimum_quantity,
+                            acquisition_cost, active, supplier_id, warehouse_position, vat_rate)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """;
+                    try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                        pstmt.setString(1, code);
+                        pstmt.setString(2, name);
+                        pstmt.setString(3, description);
+                        pstmt.setDouble(4, price);
+                        pstmt.setInt(5, quantity);
+                        pstmt.setString(6, category);
+                        pstmt.setString(7, alternativeSku);
+                        pstmt.setDouble(8, weight);
+                        pstmt.setString(9, unitOfMeasure);
+                        pstmt.setInt(10, minimumQuantity);
+                        pstmt.setDouble(11, acquisitionCost);
+                        pstmt.setInt(12, active ? 1 : 0);
+                        if (supplierId != null) {
+                            pstmt.setInt(13, supplierId);
+                        } else {
+                            pstmt.setNull(13, java.sql.Types.INTEGER);
+                        }
+                        pstmt.setString(14, warehousePosition);
+                        pstmt.setDouble(15, vatRate);
+                        pstmt.executeUpdate();
+
+                        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                            if (!rs.next()) {
+                                throw new SQLException("Failed to get product ID");
+                            }
+                            id = rs.getInt(1);
+                        }
                     }
-                    pstmt.setString(14, warehousePosition);
-                    pstmt.setDouble(15, vatRate);
-                    pstmt.executeUpdate();
-                }
-            } else { // Edit product
-                String query = """
-                    UPDATE products
-                    SET code = ?, name = ?, description = ?, price = ?, quantity = ?,
-                        category = ?, alternative_sku = ?, weight = ?, unit_of_measure = ?,
-                        minimum_quantity = ?, acquisition_cost = ?, active = ?, supplier_id = ?,
-                        warehouse_position = ?, vat_rate = ?
-                    WHERE id = ?
-                """;
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setString(1, code);
-                    pstmt.setString(2, name);
-                    pstmt.setString(3, description);
-                    pstmt.setDouble(4, price);
-                    pstmt.setInt(5, quantity);
-                    pstmt.setString(6, category);
-                    pstmt.setString(7, alternativeSku);
-                    pstmt.setDouble(8, weight);
-                    pstmt.setString(9, unitOfMeasure);
-                    pstmt.setInt(10, minimumQuantity);
-                    pstmt.setDouble(11, acquisitionCost);
-                    pstmt.setInt(12, active ? 1 : 0);
-                    if (supplierId != null) {
-                        pstmt.setInt(13, supplierId);
-                    } else {
-                        pstmt.setNull(13, java.sql.Types.INTEGER);
+                } else { // Edit product
+                    String query = """
+                        UPDATE products
+                        SET code = ?, name = ?, description = ?, price = ?, quantity = ?,
+                            category = ?, alternative_sku = ?, weight = ?, unit_of_measure = ?,
+                            minimum_quantity = ?, acquisition_cost = ?, active = ?, supplier_id = ?,
+                            warehouse_position = ?, vat_rate = ?
+                        WHERE id = ?
+                    """;
+                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                        pstmt.setString(1, code);
+                        pstmt.setString(2, name);
+                        pstmt.setString(3, description);
+                        pstmt.setDouble(4, price);
+                        pstmt.setInt(5, quantity);
+                        pstmt.setString(6, category);
+                        pstmt.setString(7, alternativeSku);
+                        pstmt.setDouble(8, weight);
+                        pstmt.setString(9, unitOfMeasure);
+                        pstmt.setInt(10, minimumQuantity);
+                        pstmt.setDouble(11, acquisitionCost);
+                        pstmt.setInt(12, active ? 1 : 0);
+                        if (supplierId != null) {
+                            pstmt.setInt(13, supplierId);
+                        } else {
+                            pstmt.setNull(13, java.sql.Types.INTEGER);
+                        }
+                        pstmt.setString(14, warehousePosition);
+                        pstmt.setDouble(15, vatRate);
+                        pstmt.setInt(16, product.getId());
+                        pstmt.executeUpdate();
                     }
-                    pstmt.setString(14, warehousePosition);
-                    pstmt.setDouble(15, vatRate);
-                    pstmt.setInt(16, product.getId());
-                    pstmt.executeUpdate();
+                    id = product.getId();
                 }
-            }
+                StockLedger.getInstance().refresh(conn, java.util.List.of(id));
+                return id;
+            });
+            ProductSearchIndex.getInstance().put(productId, code, name, description,
+                alternativeSku, price, quantity);
 
             productSaved = true;
             dispose();
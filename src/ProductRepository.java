@@ -0,0 +1,96 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous queries for products, including reserved and on-order stock
+ */
+public class ProductRepository {
+    private static final String SELECT_WITH_STOCK = """
+        SELECT p.*,
+               f.company_name as supplier_name,
+               COALESCE(SUM(CASE
+                   WHEN so.status IN ('Draft', 'Confirmed', 'In Transit')
+                   THEN sod.quantity
+                   ELSE 0
+               END), 0) as on_order_quantity
+        FROM products p
+        LEFT JOIN suppliers f ON p.supplier_id = f.id
+        LEFT JOIN supplier_order_details sod ON p.id = sod.product_id
+        LEFT JOIN supplier_orders so ON sod.order_id = so.id
+    """;
+
+    private static final String FIND_ALL = SELECT_WITH_STOCK + """
+        GROUP BY p.id
+        ORDER BY p.name
+    """;
+
+    private static final String SEARCH = SELECT_WITH_STOCK + """
+        JOIN %s s ON s.id = p.id
+        GROUP BY p.id
+        ORDER BY MIN(s.rank), p.name
+    """.formatted(SearchService.ranked(SearchService.Index.PRODUCTS));
+
+    public static CompletableFuture<List<Product>> findAll() {
+        return DataAccess.read(conn -> query(conn, FIND_ALL, null));
+    }
+
+    /**
+     * Products whose code, name, description or alternative SKU has words
+     * starting with the words of the search term, best match first
+     */
+    public static CompletableFuture<List<Product>> search(String searchTerm) {
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            return findAll();
+        }
+        return DataAccess.read(conn -> query(conn, SEARCH, match));
+    }
+
+    private static List<Product> query(Connection conn, String sql, String match) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (match != null) {
+                pstmt.setString(1, match);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int supplierId = rs.getInt("supplier_id");
+                    boolean hasSupplier = !rs.wasNull();
+                    Product product = new Product(
+                        rs.getInt("id"),
+                        rs.getString("code"),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getDouble("price"),
+                        rs.getInt("quantity"),
+                        rs.getString("category"),
+                        rs.getString("alternative_sku"),
+                        rs.getDouble("weight"),
+                        rs.getString("unit_of_measure"),
+                        rs.getInt("minimum_quantity"),
+                        rs.getDouble("acquisition_cost"),
+                        rs.getInt("active") == 1,
+                        hasSupplier ? supplierId : null,
+                        rs.getString("supplier_name") != null ? rs.getString("supplier_name") : "",
+                        rs.getString("warehouse_position") != null ? rs.getString("warehouse_position") : "",
+                        rs.getDouble("vat_rate")
+                    );
+                    product.setReservedQuantity(rs.getInt("reserved_quantity"));
+                    product.setOnOrderQuantity(rs.getInt("on_order_quantity"));
+                    products.add(product);
+                }
+            }
+        }
+        return products;
+    }
+
+    // Private constructor to prevent instantiation
+    private ProductRepository() {
+        throw new AssertionError("ProductRepository class cannot be instantiated");
+    }
+}
@@ -0,0 +1,401 @@
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resident trigram index over the product catalog for as-you-type lookup.
+ *
+ * Code, name, description and alternative SKU of every product are kept in
+ * memory, lower-cased, together with an int posting list of product slots for
+ * each three-character sequence. A search takes the shortest posting list among
+ * the trigrams of the typed words and checks only those candidates, so results
+ * come back on every keystroke without a database round trip. Words of one or
+ * two characters carry no trigram and are checked against every product.
+ *
+ * The index is loaded once at startup and kept current by {@link #put} and
+ * {@link #remove} when products are saved or deleted; changes made while a
+ * load is reading the catalog are replayed after it. Stock quantities change
+ * through many paths: results take them from the {@link StockLedger} when it is
+ * loaded, otherwise from the last {@link #refreshStock()}.
+ */
+public class ProductSearchIndex {
+    private static final String LOAD_PRODUCTS = """
+        SELECT id, code, name, description, alternative_sku, price, quantity
+        FROM products
+    """;
+
+    private static final String LOAD_STOCK = "SELECT id, quantity FROM products";
+
+    // Fields are joined with a character that never occurs in a search word
+    private static final char FIELD_SEPARATOR = '\n';
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACT_SLOTS = 256;
+
+    private static ProductSearchIndex instance;
+
+    // Slot arrays: one slot per indexed product version, never reused until compaction
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private String[] codes = new String[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private String[] alternativeSkus = new String[INITIAL_CAPACITY];
+    private double[] prices = new double[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private String[] searchTexts = new String[INITIAL_CAPACITY];
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private int slotCount;
+    private int deadCount;
+
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private volatile boolean loaded;
+
+    // Changes made while a load reads the catalog, replayed once it has replaced
+    // the contents (null value: product removed)
+    private final Map<Integer, Product> changesDuringLoad = new LinkedHashMap<>();
+    private int loadsInProgress;
+
+    private ProductSearchIndex() {
+    }
+
+    public static synchronized ProductSearchIndex getInstance() {
+        if (instance == null) {
+            instance = new ProductSearchIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Whether the catalog has been loaded; until then callers search the database
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Read the whole catalog on a read connection and replace the index contents
+     */
+    public CompletableFuture<Integer> load() {
+        return DataAccess.read(conn -> {
+            long start = System.currentTimeMillis();
+            List<Product> products = new ArrayList<>();
+            // Started before the query, so every put/remove the snapshot may miss is logged
+            beginLoad();
+            try (PreparedStatement pstmt = conn.prepareStatement(LOAD_PRODUCTS);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    products.add(product(rs.getInt("id"), rs.getString("code"), rs.getString("name"),
+                        rs.getString("description"), rs.getString("alternative_sku"),
+                        rs.getDouble("price"), rs.getInt("quantity")));
+                }
+            } catch (SQLException | RuntimeException e) {
+                endLoad();
+                throw e;
+            }
+            int trigrams = replaceAll(products);
+            System.out.println("Product search index loaded: " + products.size() + " products, "
+                + trigrams + " trigrams in " + (System.currentTimeMillis() - start) + " ms");
+            return products.size();
+        });
+    }
+
+    /**
+     * Re-read the stock quantity of every product (one scan, not per keystroke).
+     * Nothing to do while the stock ledger is loaded.
+     */
+    public CompletableFuture<Void> refreshStock() {
+        if (StockLedger.getInstance().isLoaded()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return DataAccess.read(conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(LOAD_STOCK);
+                 ResultSet rs = pstmt.executeQuery()) {
+                synchronized (this) {
+                    while (rs.next()) {
+                        Integer slot = slotById.get(rs.getInt("id"));
+                        if (slot != null) {
+                            quantities[slot] = rs.getInt("quantity");
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Add a new product or replace the indexed values of an existing one
+     */
+    public synchronized void put(int id, String code, String name, String description,
+                                 String alternativeSku, double price, int quantity) {
+        if (loadsInProgress > 0) {
+            changesDuringLoad.put(id, product(id, code, name, description, alternativeSku, price, quantity));
+        }
+        Integer oldSlot = slotById.get(id);
+        if (oldSlot != null) {
+            kill(oldSlot);
+        }
+        addSlot(id, code, name, description, alternativeSku, price, quantity);
+        compactIfSparse();
+    }
+
+    /**
+     * Drop a deleted product from the index
+     */
+    public synchronized void remove(int id) {
+        if (loadsInProgress > 0) {
+            changesDuringLoad.put(id, null);
+        }
+        Integer slot = slotById.get(id);
+        if (slot != null) {
+            kill(slot);
+            compactIfSparse();
+        }
+    }
+
+    /**
+     * Products whose code, name, description or alternative SKU contain every
+     * word of the search term (case-insensitive). Products whose code starts with
+     * the term come first, then those whose name does, then the rest, each group
+     * by name.
+     */
+    public synchronized List<Product> search(String searchTerm, int limit) {
+        String term = normalize(searchTerm.trim());
+        String[] words = term.split("\\s+");
+
+        IntList candidates = null;
+        for (String word : words) {
+            for (int i = 0; i + 3 <= word.length(); i++) {
+                IntList list = postings.get(trigram(word, i));
+                if (list == null) {
+                    return new ArrayList<>();
+                }
+                if (candidates == null || list.size < candidates.size) {
+                    candidates = list;
+                }
+            }
+        }
+
+        List<Integer> matches = new ArrayList<>();
+        int count = candidates != null ? candidates.size : slotCount;
+        for (int i = 0; i < count; i++) {
+            int slot = candidates != null ? candidates.values[i] : i;
+            if (live[slot] && containsAll(searchTexts[slot], words)) {
+                matches.add(slot);
+            }
+        }
+
+        matches.sort(Comparator.<Integer>comparingInt(slot -> rank(slot, term))
+            .thenComparing(slot -> names[slot], Comparator.nullsFirst(Comparator.naturalOrder())));
+        return toProducts(matches, limit);
+    }
+
+    /**
+     * All products by name, as shown before anything is typed
+     */
+    public synchronized List<Product> all(int limit) {
+        List<Integer> slots = new ArrayList<>(slotById.values());
+        slots.sort(Comparator.comparing(slot -> names[slot], Comparator.nullsFirst(Comparator.naturalOrder())));
+        return toProducts(slots, limit);
+    }
+
+    private synchronized void beginLoad() {
+        loadsInProgress++;
+    }
+
+    private synchronized void endLoad() {
+        if (--loadsInProgress == 0) {
+            changesDuringLoad.clear();
+        }
+    }
+
+    private synchronized int replaceAll(List<Product> products) {
+        fill(products);
+        // Re-apply products saved or deleted while the catalog was being read;
+        // replaying a change the snapshot already contains is harmless
+        for (Map.Entry<Integer, Product> change : changesDuringLoad.entrySet()) {
+            Integer slot = slotById.get(change.getKey());
+            if (slot != null) {
+                kill(slot);
+            }
+            Product product = change.getValue();
+            if (product != null) {
+                addSlot(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                    product.getAlternativeSku(), product.getPrice(), product.getQuantity());
+            }
+        }
+        compactIfSparse();
+        endLoad();
+        loaded = true;
+        return postings.size();
+    }
+
+    private void fill(List<Product> products) {
+        clear(Math.max(INITIAL_CAPACITY, products.size() * 2));
+        for (Product product : products) {
+            addSlot(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                product.getAlternativeSku(), product.getPrice(), product.getQuantity());
+        }
+    }
+
+    private static Product product(int id, String code, String name, String description,
+                                   String alternativeSku, double price, int quantity) {
+        Product product = new Product(id, code, name, description, price, quantity);
+        product.setAlternativeSku(alternativeSku);
+        return product;
+    }
+
+    private void clear(int capacity) {
+        ids = new int[capacity];
+        codes = new String[capacity];
+        names = new String[capacity];
+        descriptions = new String[capacity];
+        alternativeSkus = new String[capacity];
+        prices = new double[capacity];
+        quantities = new int[capacity];
+        searchTexts = new String[capacity];
+        live = new boolean[capacity];
+        slotCount = 0;
+        deadCount = 0;
+        slotById.clear();
+        postings.clear();
+    }
+
+    private void addSlot(int id, String code, String name, String description,
+                         String alternativeSku, double price, int quantity) {
+        if (slotCount == ids.length) {
+            grow(ids.length * 2);
+        }
+        int slot = slotCount++;
+        ids[slot] = id;
+        codes[slot] = code;
+        names[slot] = name;
+        descriptions[slot] = description;
+        alternativeSkus[slot] = alternativeSku;
+        prices[slot] = price;
+        quantities[slot] = quantity;
+        live[slot] = true;
+        searchTexts[slot] = normalize(code) + FIELD_SEPARATOR + normalize(name) + FIELD_SEPARATOR
+            + normalize(description) + FIELD_SEPARATOR + normalize(alternativeSku);
+        slotById.put(id, slot);
+
+        // Slots only ever grow, so appending keeps every posting list sorted
+        String text = searchTexts[slot];
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            if (text.charAt(i) == FIELD_SEPARATOR || text.charAt(i + 1) == FIELD_SEPARATOR
+                    || text.charAt(i + 2) == FIELD_SEPARATOR) {
+                continue;
+            }
+            long key = trigram(text, i);
+            if (seen.add(key)) {
+                postings.computeIfAbsent(key, k -> new IntList()).add(slot);
+            }
+        }
+    }
+
+    private void kill(int slot) {
+        live[slot] = false;
+        slotById.remove(ids[slot]);
+        deadCount++;
+    }
+
+    // Edited products leave dead slots in the posting lists; rebuild once they outnumber the live ones
+    private void compactIfSparse() {
+        if (slotCount < MIN_COMPACT_SLOTS || deadCount * 2 < slotCount) {
+            return;
+        }
+        List<Integer> slots = new ArrayList<>(slotById.values());
+        slots.sort(null);
+        List<Product> products = new ArrayList<>();
+        for (int slot : slots) {
+            Product product = toProduct(slot);
+            product.setAlternativeSku(alternativeSkus[slot]);
+            products.add(product);
+        }
+        fill(products);
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        alternativeSkus = Arrays.copyOf(alternativeSkus, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        searchTexts = Arrays.copyOf(searchTexts, capacity);
+        live = Arrays.copyOf(live, capacity);
+    }
+
+    // The search text starts with the lower-cased code, followed by the name
+    private int rank(int slot, String term) {
+        String text = searchTexts[slot];
+        if (text.startsWith(term)) {
+            return 1;
+        }
+        if (text.startsWith(term, text.indexOf(FIELD_SEPARATOR) + 1)) {
+            return 2;
+        }
+        return 3;
+    }
+
+    private List<Product> toProducts(List<Integer> slots, int limit) {
+        List<Product> products = new ArrayList<>(Math.min(slots.size(), limit));
+        for (int i = 0; i < slots.size() && i < limit; i++) {
+            products.add(toProduct(slots.get(i)));
+        }
+        return products;
+    }
+
+    private Product toProduct(int slot) {
+        int quantity = StockLedger.getInstance().getPhysical(ids[slot]);
+        if (quantity == StockLedger.UNKNOWN) {
+            quantity = quantities[slot];
+        }
+        return new Product(ids[slot], codes[slot], names[slot], descriptions[slot], prices[slot], quantity);
+    }
+
+    private static boolean containsAll(String text, String[] words) {
+        for (String word : words) {
+            if (!text.contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * Growable array of primitive ints (one posting list)
+     */
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
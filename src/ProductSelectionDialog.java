@@ -20,6 +20,7 @@ public class ProductSelectionDialog extends JDialog {
     private int selectedQuantity = 1;
     private double selectedVatRate = 22.0;
     private Timer searchTimer;
+    private final ProductSearchIndex searchIndex = ProductSearchIndex.getInstance();
     
     public ProductSelectionDialog(JDialog parent) {
         super(parent, "Select Product", true);
@@ -27,6 +28,7 @@ public class ProductSelectionDialog extends JDialog {
         setupWindow();
         initComponents();
         loadAllProducts();
+        refreshStock();
     }
     
     private void setupWindow() {
@@ -239,6 +241,11 @@ public class ProductSelectionDialog extends JDialog {
     }
     
     private void scheduleSearch() {
+        // The resident index answers immediately; only the database search is debounced
+        if (searchIndex.isLoaded()) {
+            performSearch();
+            return;
+        }
         if (searchTimer != null) {
             searchTimer.stop();
         }
@@ -247,10 +254,26 @@ public class ProductSelectionDialog extends JDialog {
         searchTimer.start();
     }
     
+    /**
+     * Stock in the resident index may be stale; re-read it once when the dialog opens
+     */
+    private void refreshStock() {
+        if (!searchIndex.isLoaded()) {
+            return;
+        }
+        DataAccess.onEdt(searchIndex.refreshStock(), ignored -> performSearch(),
+            DataAccess.logError("Error refreshing product stock"));
+    }
+
     private void loadAllProducts() {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        if (searchIndex.isLoaded()) {
+            for (Product product : searchIndex.all(1000)) {
+                addProductRow(product);
+            }
+            return;
+        }
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT id, code, name, description, price, quantity
                 FROM products
@@ -280,34 +303,31 @@ public class ProductSelectionDialog extends JDialog {
         }
         
         tableModel.setRowCount(0);
+        if (searchIndex.isLoaded()) {
+            for (Product product : searchIndex.search(searchTerm, 500)) {
+                addProductRow(product);
+            }
+            return;
+        }
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+            String match = SearchService.toMatchQuery(searchTerm);
+            if (match == null) {
+                loadAllProducts();
+                return;
+            }
+
             String query = """
-                SELECT id, code, name, description, price, quantity
-                FROM products
-                WHERE LOWER(code) LIKE LOWER(?)
-                   OR LOWER(name) LIKE LOWER(?)
-                   OR LOWER(description) LIKE LOWER(?)
-                ORDER BY
-                    CASE
-                        WHEN LOWER(code) LIKE LOWER(?) THEN 1
-                        WHEN LOWER(name) LIKE LOWER(?) THEN 2
-                        ELSE 3
-                    END,
-                    name
+                SELECT p.id, p.code, p.name, p.description, p.price, p.quantity
+                FROM products p
+                JOIN %s s ON s.id = p.id
+                ORDER BY s.rank, p.name
                 LIMIT 500
-            """;
-            
-            String searchPattern = "%" + searchTerm + "%";
-            String exactPattern = searchTerm + "%";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-                pstmt.setString(4, exactPattern); // For sorting
-                pstmt.setString(5, exactPattern); // For sorting
-                
+            """.formatted(SearchService.ranked(SearchService.Index.PRODUCTS));
+
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
+                pstmt.setString(1, match);
+
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
                         addProductRow(rs);
@@ -324,21 +344,32 @@ public class ProductSelectionDialog extends JDialog {
 
 
     private void addProductRow(ResultSet rs) throws SQLException {
+        addProductRow(new Product(
+            rs.getInt("id"),
+            rs.getString("code"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getDouble("price"),
+            rs.getInt("quantity")
+        ));
+    }
+
+    private void addProductRow(Product product) {
         Vector<Object> row = new Vector<>();
-        row.add(rs.getInt("id")); // Hidden ID
-        row.add(rs.getString("code"));
-        row.add(rs.getString("name"));
+        row.add(product.getId()); // Hidden ID
+        row.add(product.getCode());
+        row.add(product.getName());
 
-        String description = rs.getString("description");
+        String description = product.getDescription();
         // Truncate description if too long
         if (description != null && description.length() > 50) {
             description = description.substring(0, 47) + "...";
         }
         row.add(description);
 
-        row.add(String.format("%.2f", rs.getDouble("price")));
+        row.add(String.format("%.2f", product.getPrice()));
 
-        int stock = rs.getInt("quantity");
+        int stock = product.getQuantity();
         row.add(stock);
 
         // Status based on availability
@@ -367,8 +398,7 @@ public class ProductSelectionDialog extends JDialog {
             String status = (String)tableModel.getValueAt(selectedRow, 6);
 
             // Load product VAT rate from database
-            try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
                 String query = "SELECT vat_rate FROM products WHERE id = ?";
                 try (PreparedStatement pstmt = conn.prepareStatement(query)) {
                     pstmt.setInt(1, productId);
@@ -3,6 +3,7 @@ import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.*;
+import java.util.List;
 import java.util.Vector;
 
 public class ProductsPanel extends JPanel {
@@ -13,6 +14,7 @@ public class ProductsPanel extends JPanel {
     private JButton editButton;
     private JButton deleteButton;
     private JButton refreshButton;
+    private final DataAccess.LatestOnly loads = new DataAccess.LatestOnly();
     
     public ProductsPanel() {
         setupPanel();
@@ -110,61 +112,23 @@ public class ProductsPanel extends JPanel {
     }
     
     public void loadProducts() {
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT p.*,
-                       f.company_name as supplier_name,
-                       COALESCE(SUM(CASE
-                           WHEN so.status IN ('Draft', 'Confirmed', 'In Transit')
-                           THEN sod.quantity
-                           ELSE 0
-                       END), 0) as on_order_quantity
-                FROM products p
-                LEFT JOIN suppliers f ON p.supplier_id = f.id
-                LEFT JOIN supplier_order_details sod ON p.id = sod.product_id
-                LEFT JOIN supplier_orders so ON sod.order_id = so.id
-                GROUP BY p.id
-                ORDER BY p.name
-            """;
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("code"));
-                    row.add(rs.getString("name"));
-                    row.add(rs.getString("description"));
-                    row.add(rs.getDouble("price"));
-
-                    int physicalStock = rs.getInt("quantity");
-                    int reservedStock = rs.getInt("reserved_quantity");
-                    int availableStock = physicalStock - reservedStock;
-                    int onOrderQuantity = rs.getInt("on_order_quantity");
-
-                    row.add(physicalStock);
-                    row.add(reservedStock);
-                    row.add(availableStock);
-                    row.add(onOrderQuantity);
+        loadProducts(null);
+    }
 
-                    row.add(rs.getString("category"));
-                    row.add(rs.getString("unit_of_measure"));
-                    row.add(rs.getInt("minimum_quantity"));
-                    row.add(rs.getInt("active") == 1 ? "Yes" : "No");
-                    row.add(rs.getString("supplier_name") != null ? rs.getString("supplier_name") : "");
-                    row.add(rs.getString("warehouse_position") != null ? rs.getString("warehouse_position") : "");
-                    row.add(rs.getDouble("vat_rate"));
-                    tableModel.addRow(row);
+    /**
+     * Reload the product list in the background, then run the callback on the EDT
+     */
+    private void loadProducts(Runnable afterLoad) {
+        loads.apply(ProductRepository.findAll(),
+            products -> {
+                showProducts(products);
+                if (afterLoad != null) {
+                    afterLoad.run();
                 }
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error loading products: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            },
+            DataAccess.errorDialog(this, "Error loading products"));
     }
-    
+
     private void searchProducts() {
         String searchTerm = searchField.getText().trim();
         if (searchTerm.isEmpty()) {
@@ -172,66 +136,31 @@ public class ProductsPanel extends JPanel {
             return;
         }
 
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT p.*,
-                       f.company_name as supplier_name,
-                       COALESCE(SUM(CASE
-                           WHEN so.status IN ('Draft', 'Confirmed', 'In Transit')
-                           THEN sod.quantity
-                           ELSE 0
-                       END), 0) as on_order_quantity
-                FROM products p
-                LEFT JOIN suppliers f ON p.supplier_id = f.id
-                LEFT JOIN supplier_order_details sod ON p.id = sod.product_id
-                LEFT JOIN supplier_orders so ON sod.order_id = so.id
-                WHERE p.code LIKE ? OR p.name LIKE ? OR p.description LIKE ?
-                GROUP BY p.id
-                ORDER BY p.name
-            """;
-            String searchPattern = "%" + searchTerm + "%";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        Vector<Object> row = new Vector<>();
-                        row.add(rs.getInt("id"));
-                        row.add(rs.getString("code"));
-                        row.add(rs.getString("name"));
-                        row.add(rs.getString("description"));
-                        row.add(rs.getDouble("price"));
-
-                        int physicalStock = rs.getInt("quantity");
-                        int reservedStock = rs.getInt("reserved_quantity");
-                        int availableStock = physicalStock - reservedStock;
-                        int onOrderQuantity = rs.getInt("on_order_quantity");
-
-                        row.add(physicalStock);
-                        row.add(reservedStock);
-                        row.add(availableStock);
-                        row.add(onOrderQuantity);
+        loads.apply(ProductRepository.search(searchTerm), this::showProducts,
+            DataAccess.errorDialog(this, "Error searching for products"));
+    }
 
-                        row.add(rs.getString("category"));
-                        row.add(rs.getString("unit_of_measure"));
-                        row.add(rs.getInt("minimum_quantity"));
-                        row.add(rs.getInt("active") == 1 ? "Yes" : "No");
-                        row.add(rs.getString("supplier_name") != null ? rs.getString("supplier_name") : "");
-                        row.add(rs.getString("warehouse_position") != null ? rs.getString("warehouse_position") : "");
-                        row.add(rs.getDouble("vat_rate"));
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error searching for products: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+    private void showProducts(List<Product> products) {
+        tableModel.setRowCount(0);
+        for (Product product : products) {
+            Vector<Object> row = new Vector<>();
+            row.add(product.getId());
+            row.add(product.getCode());
+            row.add(product.getName());
+            row.add(product.getDescription());
+            row.add(product.getPrice());
+            row.add(product.getQuantity());
+            row.add(product.getReservedQuantity());
+            row.add(product.getAvailableQuantity());
+            row.add(product.getOnOrderQuantity());
+            row.add(product.getCategory());
+            row.add(product.getUnitOfMeasure());
+            row.add(product.getMinimumQuantity());
+            row.add(product.isActive() ? "Yes" : "No");
+            row.add(product.getSupplierName());
+            row.add(product.getWarehousePosition());
+            row.add(product.getVatRate());
+            tableModel.addRow(row);
         }
     }
     
@@ -259,8 +188,9 @@ public class ProductsPanel extends JPanel {
             int modelRow = productsTable.convertRowIndexToModel(selectedRow);
             int productId = (int)tableModel.getValueAt(modelRow, 0);
 
-            try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
+            // Read first, then open the dialog once the connection is back in the pool
+            Product product = null;
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
                 String query = """
                     SELECT p.*, f.company_name as supplier_name
                     FROM products p
@@ -282,7 +212,7 @@ public class ProductsPanel extends JPanel {
                             double weight = getDoubleFromResultSet(rs, "weight", 0.0);
                             double vatRate = getDoubleFromResultSet(rs, "vat_rate", 0.0);
 
-                            Product product = new Product(
+                            product = new Product(
                                 rs.getInt("id"),
                                 rs.getString("code"),
                                 rs.getString("name"),
@@ -301,7 +231,6 @@ public class ProductsPanel extends JPanel {
                                 rs.getString("warehouse_position") != null ? rs.getString("warehouse_position") : "",
                                 vatRate
                             );
-                            showProductDialog(product);
                         }
                     }
                 }
@@ -310,6 +239,9 @@ public class ProductsPanel extends JPanel {
                     "Error loading product: " + e.getMessage(),
                     "Error", JOptionPane.ERROR_MESSAGE);
             }
+            if (product != null) {
+                showProductDialog(product);
+            }
         }
     }
     
@@ -322,15 +254,21 @@ public class ProductsPanel extends JPanel {
             String name = (String)tableModel.getValueAt(modelRow, 2);
             
             try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
-                
                 // Check for existing dependencies
-                boolean hasOrders = hasProductInOrders(conn, id);
-                boolean hasInvoices = hasProductInInvoices(conn, id);
-                boolean hasSupplierOrders = hasProductInSupplierOrders(conn, id);
-                boolean hasPriceLists = hasProductInPriceLists(conn, id);
-                boolean hasWarehouseMovements = hasProductInWarehouseMovements(conn, id);
-                boolean hasMinStock = hasProductInMinStock(conn, id);
+                boolean hasOrders;
+                boolean hasInvoices;
+                boolean hasSupplierOrders;
+                boolean hasPriceLists;
+                boolean hasWarehouseMovements;
+                boolean hasMinStock;
+                try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+                    hasOrders = hasProductInOrders(conn, id);
+                    hasInvoices = hasProductInInvoices(conn, id);
+                    hasSupplierOrders = hasProductInSupplierOrders(conn, id);
+                    hasPriceLists = hasProductInPriceLists(conn, id);
+                    hasWarehouseMovements = hasProductInWarehouseMovements(conn, id);
+                    hasMinStock = hasProductInMinStock(conn, id);
+                }
                 
                 if (hasOrders || hasInvoices || hasSupplierOrders || hasPriceLists || hasWarehouseMovements || hasMinStock) {
                     StringBuilder message = new StringBuilder();
@@ -356,7 +294,7 @@ public class ProductsPanel extends JPanel {
                         null, options, options[0]);
                     
                     if (choice == 1) { // Force Delete
-                        performCascadeDelete(conn, id, name);
+                        performCascadeDelete(id, name);
                     }
                     return;
                 }
@@ -369,17 +307,23 @@ public class ProductsPanel extends JPanel {
                     JOptionPane.WARNING_MESSAGE);
                     
                 if (result == JOptionPane.YES_OPTION) {
-                    String query = "DELETE FROM products WHERE id = ?";
-                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                        pstmt.setInt(1, id);
-                        pstmt.executeUpdate();
-                        loadProducts();
-                        
-                        JOptionPane.showMessageDialog(this,
-                            "Product deleted successfully",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    }
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
+                        String query = "DELETE FROM products WHERE id = ?";
+                        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                            pstmt.setInt(1, id);
+                            pstmt.executeUpdate();
+                        }
+                        // Dropped from the ledger once the delete commits
+                        StockLedger.getInstance().refresh(conn, List.of(id));
+                        return null;
+                    });
+                    ProductSearchIndex.getInstance().remove(id);
+                    loadProducts();
+
+                    JOptionPane.showMessageDialog(this,
+                        "Product deleted successfully",
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -390,7 +334,7 @@ public class ProductsPanel extends JPanel {
         }
     }
     
-    private void performCascadeDelete(Connection conn, int id, String name) {
+    private void performCascadeDelete(int id, String name) {
         int confirmResult = JOptionPane.showConfirmDialog(this,
             "WARNING: This will permanently delete product '" + name + "' and ALL related data:\n" +
             "- All customer orders containing this product\n" +
@@ -410,9 +354,7 @@ public class ProductsPanel extends JPanel {
         }
         
         try {
-            conn.setAutoCommit(false);
-            
-            try {
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 // Delete in order to respect foreign key constraints
                 
                 // 1. Delete order details
@@ -478,21 +420,18 @@ public class ProductsPanel extends JPanel {
                     pstmt.executeUpdate();
                     System.out.println("Deleted product");
                 }
+                StockLedger.getInstance().refresh(conn, List.of(id));
 
-                conn.commit();
-                loadProducts();
+                return null;
+            });
 
-                JOptionPane.showMessageDialog(this,
-                    "Product '" + name + "' and all related records deleted successfully",
-                    "Force Delete Completed",
-                    JOptionPane.INFORMATION_MESSAGE);
-                    
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            ProductSearchIndex.getInstance().remove(id);
+            loadProducts();
+
+            JOptionPane.showMessageDialog(this,
+                "Product '" + name + "' and all related records deleted successfully",
+                "Force Delete Completed",
+                JOptionPane.INFORMATION_MESSAGE);
             
         } catch (SQLException e) {
             e.printStackTrace();
@@ -611,9 +550,11 @@ public class ProductsPanel extends JPanel {
      * @param productCode The code of the product to select
      */
     public void selectProductByCode(String productCode) {
-        // First ensure the table is loaded
-        loadProducts();
+        // First ensure the table is loaded, then look for the product
+        loadProducts(() -> highlightProduct(productCode));
+    }
 
+    private void highlightProduct(String productCode) {
         // Search for the product code in the table model
         for (int modelRow = 0; modelRow < tableModel.getRowCount(); modelRow++) {
             Object value = tableModel.getValueAt(modelRow, 1); // Code is in column 1
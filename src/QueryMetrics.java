@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement SQL timing registry.
+ *
+ * Statements are grouped by normalised SQL text (literals replaced by ?,
+ * IN lists collapsed, whitespace squeezed) so different literal values do not
+ * split the statistics. Each statement keeps a latency histogram plus execution
+ * and fetch totals; statements slower than the configured threshold are written
+ * to the rotating {@link SlowQueryLog}.
+ */
+public class QueryMetrics {
+    public static final String THRESHOLD_SETTING = "slow_query_threshold_ms";
+    public static final int DEFAULT_THRESHOLD_MILLIS = 250;
+
+    private static final int MAX_STATEMENTS = 1000;
+    private static final int MAX_NORMALIZED_CACHE = 4096;
+    private static final String OVERFLOW_KEY = "(other statements)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Frames from these classes are skipped when looking for the code that issued a query
+    private static final Set<String> INFRASTRUCTURE_CLASSES = Set.of(
+        "QueryMetrics", "InstrumentedJdbc", "ConnectionPool", "StatementCache", "SlowQueryLog");
+
+    private static QueryMetrics instance;
+
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, String> normalizedCache = new ConcurrentHashMap<>();
+    private final SlowQueryLog slowQueryLog;
+    private volatile boolean enabled = true;
+    private volatile long slowThresholdNanos;
+
+    private QueryMetrics() {
+        slowQueryLog = new SlowQueryLog(AppConstants.getLogDirectory());
+
+        int thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+        try {
+            thresholdMillis = Integer.parseInt(SettingsPanel.getGlobalSetting(
+                THRESHOLD_SETTING, String.valueOf(DEFAULT_THRESHOLD_MILLIS)));
+        } catch (NumberFormatException e) {
+            // Keep the default threshold
+        }
+        setSlowQueryThresholdMillis(thresholdMillis);
+    }
+
+    public static synchronized QueryMetrics getInstance() {
+        if (instance == null) {
+            instance = new QueryMetrics();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getSlowQueryThresholdMillis() {
+        return (int) (slowThresholdNanos / 1_000_000);
+    }
+
+    public void setSlowQueryThresholdMillis(int millis) {
+        slowThresholdNanos = Math.max(0, millis) * 1_000_000L;
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    /**
+     * Record one completed statement execution
+     *
+     * @param sql Raw SQL text as prepared or executed
+     * @param execNanos Time spent in execute/executeQuery/executeUpdate
+     * @param fetchNanos Time spent iterating the result set (0 for updates)
+     * @param rows Rows fetched, or rows affected for updates
+     */
+    public void record(String sql, long execNanos, long fetchNanos, long rows) {
+        if (!enabled || sql == null) {
+            return;
+        }
+
+        String key = normalize(sql);
+        StatementStats stats = statements.get(key);
+        if (stats == null) {
+            if (statements.size() >= MAX_STATEMENTS) {
+                key = OVERFLOW_KEY;
+            }
+            stats = statements.computeIfAbsent(key, StatementStats::new);
+        }
+        stats.record(execNanos, fetchNanos, rows);
+
+        long totalNanos = execNanos + fetchNanos;
+        if (totalNanos >= slowThresholdNanos) {
+            slowQueryLog.log(key, totalNanos / 1_000_000.0, execNanos / 1_000_000.0,
+                fetchNanos / 1_000_000.0, rows, findCaller());
+        }
+    }
+
+    /**
+     * Snapshot of every statement, ordered by total time spent (highest first)
+     */
+    public List<StatementSnapshot> snapshot() {
+        List<StatementSnapshot> result = new ArrayList<>();
+        for (StatementStats stats : statements.values()) {
+            result.add(stats.snapshot());
+        }
+        result.sort(Comparator.comparingDouble(StatementSnapshot::getTotalMillis).reversed());
+        return result;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    /**
+     * Normalise SQL so that statements differing only in literal values share statistics
+     */
+    public String normalize(String sql) {
+        String cached = normalizedCache.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("IN (?)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+
+        if (normalizedCache.size() >= MAX_NORMALIZED_CACHE) {
+            normalizedCache.clear();
+        }
+        normalizedCache.put(sql, normalized);
+        return normalized;
+    }
+
+    /**
+     * Find the first application frame that issued the query (only used for slow queries)
+     */
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+            .filter(f -> {
+                String cls = f.getClassName();
+                int nested = cls.indexOf('$');
+                String outer = nested >= 0 ? cls.substring(0, nested) : cls;
+                return !INFRASTRUCTURE_CLASSES.contains(outer)
+                    && !cls.startsWith("java.") && !cls.startsWith("jdk.")
+                    && !cls.startsWith("sun.") && !cls.startsWith("com.sun.")
+                    && !cls.startsWith("org.sqlite.");
+            })
+            .findFirst()
+            .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+            .orElse("unknown"));
+    }
+
+    /**
+     * Live counters for one normalised statement
+     */
+    private static class StatementStats {
+        private final String sql;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final LongAdder execNanos = new LongAdder();
+        private final LongAdder fetchNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        StatementStats(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long exec, long fetch, long rowCount) {
+            histogram.record((exec + fetch) / 1_000);
+            execNanos.add(exec);
+            fetchNanos.add(fetch);
+            rows.add(rowCount);
+        }
+
+        StatementSnapshot snapshot() {
+            return new StatementSnapshot(
+                sql,
+                histogram.getCount(),
+                (execNanos.sum() + fetchNanos.sum()) / 1_000_000.0,
+                execNanos.sum() / 1_000_000.0,
+                fetchNanos.sum() / 1_000_000.0,
+                rows.sum(),
+                histogram.getMeanMicros() / 1_000.0,
+                histogram.getPercentileMicros(50) / 1_000.0,
+                histogram.getPercentileMicros(95) / 1_000.0,
+                histogram.getPercentileMicros(99) / 1_000.0,
+                histogram.getMaxMicros() / 1_000.0
+            );
+        }
+    }
+
+    /**
+     * Immutable view of one statement's statistics (times in milliseconds)
+     */
+    public static class StatementSnapshot {
+        private final String sql;
+        private final long count;
+        private final double totalMillis;
+        private final double execMillis;
+        private final double fetchMillis;
+        private final long rows;
+        private final double meanMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        public StatementSnapshot(String sql, long count, double totalMillis, double execMillis,
+                                 double fetchMillis, long rows, double meanMillis, double p50Millis,
+                                 double p95Millis, double p99Millis, double maxMillis) {
+            this.sql = sql;
+            this.count = count;
+            this.totalMillis = totalMillis;
+            this.execMillis = execMillis;
+            this.fetchMillis = fetchMillis;
+            this.rows = rows;
+            this.meanMillis = meanMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getSql() { return sql; }
+        public long getCount() { return count; }
+        public double getTotalMillis() { return totalMillis; }
+        public double getExecMillis() { return execMillis; }
+        public double getFetchMillis() { return fetchMillis; }
+        public long getRows() { return rows; }
+        public double getMeanMillis() { return meanMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+
+        public String getFormattedMessage() {
+            return String.format(
+                "count=%d total=%.1fms (exec %.1f / fetch %.1f) rows=%d mean=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                count, totalMillis, execMillis, fetchMillis, rows, meanMillis, p50Millis, p95Millis, p99Millis, maxMillis
+            );
+        }
+    }
+}
@@ -296,8 +296,13 @@ public class ReportPDFGenerator {
         contentStream.newLineAtOffset(xPosition + 2, yPosition - LINE_HEIGHT + 4);
 
         for (int col = 0; col < tableModel.getColumnCount(); col++) {
-            Object value = tableModel.getValueAt(row, col);
-            String cellText = value != null ? value.toString() : "";
+            String cellText;
+            if (tableModel instanceof ColumnarTableModel columnarModel) {
+                cellText = columnarModel.getFormattedValueAt(row, col);
+            } else {
+                Object value = tableModel.getValueAt(row, col);
+                cellText = value != null ? value.toString() : "";
+            }
 
             // Truncate if too long
             if (cellText.length() * 8f * 0.55f > columnWidths[col] - 4) {
@@ -16,10 +16,22 @@ import java.awt.Desktop;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class SalesReportPanel extends JPanel {
+    /**
+     * Orders in a date range (parameters: start of the first day, start of the day after the last)
+     */
+    static final String ORDERS_BY_DATE = """
+        SELECT o.id, o.order_date, o.status, o.total,
+               COALESCE(c.first_name || ' ' || c.last_name, 'N/A') as customer_name
+        FROM orders o
+        LEFT JOIN customers c ON o.customer_id = c.id
+        WHERE o.order_date >= ? AND o.order_date < ?
+        ORDER BY o.order_date DESC
+    """;
+
     private JTextField startDateField;
     private JTextField endDateField;
     private JTable reportTable;
-    private DefaultTableModel tableModel;
+    private ColumnarTableModel tableModel;
     private JLabel totalSalesLabel;
     private JLabel totalOrdersLabel;
     private JLabel averageOrderLabel;
@@ -78,17 +90,18 @@ public class SalesReportPanel extends JPanel {
         statsPanel.add(averageOrderLabel);
 
         // Report table
-        String[] columns = {"Date", "Order ID", "Customer", "Status", "Total €"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new ColumnarTableModel(
+            ColumnarTableModel.Column.date("Date", dateFormat),
+            ColumnarTableModel.Column.integer("Order ID"),
+            ColumnarTableModel.Column.text("Customer"),
+            ColumnarTableModel.Column.category("Status"),
+            ColumnarTableModel.Column.money("Total €")
+        );
         reportTable = new JTable(tableModel);
+        tableModel.installRenderers(reportTable);
 
-        // Enable column sorting with date support (column 0 is "Date")
-        TableSorterUtil.enableSorting(reportTable, new int[]{0}, dateFormat);
+        // Enable column sorting (dates and amounts are stored raw, so they sort as such)
+        TableSorterUtil.enableSorting(reportTable);
 
         // Add context menu
         TableInteractionUtil.addContextMenu(reportTable,
@@ -127,12 +140,11 @@ public class SalesReportPanel extends JPanel {
     }
 
     private void loadReportData() {
-        tableModel.setRowCount(0);
-        try {
+        tableModel.clear();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String startDateText = startDateField.getText().trim();
             String endDateText = endDateField.getText().trim();
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
             String query;
             PreparedStatement pstmt = null;
 
@@ -176,28 +188,13 @@ public class SalesReportPanel extends JPanel {
                     """;
                     pstmt = conn.prepareStatement(query);
                 } else {
-                    // DATE FILTER WITH SIMPLE STRING APPROACH
-                    query = """
-                        SELECT o.id, o.order_date, o.status, o.total,
-                               COALESCE(c.first_name || ' ' || c.last_name, 'N/A') as customer_name
-                        FROM orders o
-                        LEFT JOIN customers c ON o.customer_id = c.id
-                        WHERE o.order_date >= ? AND o.order_date <= ?
-                        ORDER BY o.order_date DESC
-                    """;
-
-                    pstmt = conn.prepareStatement(query);
+                    pstmt = conn.prepareStatement(ORDERS_BY_DATE);
 
-                    // CONVERT DATES TO ISO STRING FOR COMPARISON
-                    String startDateISO = String.format("%04d-%02d-%02d 00:00:00",
-                        startDate.getYear() + 1900, startDate.getMonth() + 1, startDate.getDate());
-                    String endDateISO = String.format("%04d-%02d-%02d 23:59:59",
-                        endDate.getYear() + 1900, endDate.getMonth() + 1, endDate.getDate());
+                    // Dates are stored as epoch milliseconds: whole local days, end day included
+                    pstmt.setLong(1, DateStorage.startOfDay(startDate));
+                    pstmt.setLong(2, DateStorage.startOfNextDay(endDate));
 
-                    pstmt.setString(1, startDateISO);
-                    pstmt.setString(2, endDateISO);
-
-                    System.out.println("Filtering orders from " + startDateISO + " to " + endDateISO);
+                    System.out.println("Filtering orders from " + startDateText + " to " + endDateText);
                 }
             }
 
@@ -206,23 +203,13 @@ public class SalesReportPanel extends JPanel {
                 int totalOrders = 0;
 
                 while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-
-                    // DATE PARSING
-                    Date orderDate = DateUtils.parseDate(rs, "order_date");
-                    if (orderDate != null) {
-                        row.add(DateUtils.formatDate(orderDate, dateFormat));
-                    } else {
-                        row.add("N/A");
-                    }
-
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("customer_name"));
-                    row.add(rs.getString("status"));
+                    int row = tableModel.addRow();
+                    tableModel.setDate(row, 0, DateUtils.parseDate(rs, "order_date"));
+                    tableModel.setInt(row, 1, rs.getInt("id"));
+                    tableModel.setText(row, 2, rs.getString("customer_name"));
+                    tableModel.setText(row, 3, rs.getString("status"));
                     double total = rs.getDouble("total");
-                    row.add(String.format("%.2f", total));
-
-                    tableModel.addRow(row);
+                    tableModel.setMoney(row, 4, total);
 
                     totalSales += total;
                     totalOrders++;
@@ -248,6 +235,7 @@ public class SalesReportPanel extends JPanel {
                 "Error loading the report: " + e.getMessage(),
                 "Error", JOptionPane.ERROR_MESSAGE);
         }
+        tableModel.fireTableDataChanged();
     }
 
     private void showOrderDetails() {
@@ -255,7 +243,7 @@ public class SalesReportPanel extends JPanel {
         if (selectedRow != -1) {
             // Convert view index to model index (important when table is sorted)
             int modelRow = reportTable.convertRowIndexToModel(selectedRow);
-            int orderId = (int)tableModel.getValueAt(modelRow, 1);
+            int orderId = tableModel.getInt(modelRow, 1);
 
             // Create detail window
             Window parentWindow = SwingUtilities.getWindowAncestor(this);
@@ -276,8 +264,7 @@ public class SalesReportPanel extends JPanel {
             DefaultTableModel detailModel = new DefaultTableModel(columns, 0);
             JTable detailTable = new JTable(detailModel);
 
-            try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
                 String query = """
                     SELECT COALESCE(p.name, 'Product N/A') as product_name,
                            d.quantity, d.unit_price,
@@ -354,7 +341,7 @@ public class SalesReportPanel extends JPanel {
                     StringBuilder line = new StringBuilder();
                     for (int j = 0; j < tableModel.getColumnCount(); j++) {
                         if (j > 0) line.append(",");
-                        String value = tableModel.getValueAt(i, j).toString();
+                        String value = tableModel.getExportValueAt(i, j);
                         if (value.contains(",")) {
                             value = "\"" + value + "\"";
                         }
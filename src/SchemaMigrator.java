@@ -0,0 +1,136 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Versioned schema migration engine keyed on SQLite's PRAGMA user_version.
+ *
+ * Migrations are registered with a strictly increasing version number.
+ * On startup only the migrations newer than the stored user_version run,
+ * each one exactly once and in its own transaction together with the
+ * user_version bump, so an up-to-date database costs a single PRAGMA read.
+ */
+public class SchemaMigrator {
+
+    /**
+     * Body of a single migration step
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private final List<Migration> migrations = new ArrayList<>();
+
+    /**
+     * Register a migration. Versions must be unique and greater than zero.
+     */
+    public SchemaMigrator register(int version, String description, MigrationStep step) {
+        if (version <= 0) {
+            throw new IllegalArgumentException("Migration version must be greater than zero: " + version);
+        }
+        for (Migration m : migrations) {
+            if (m.getVersion() == version) {
+                throw new IllegalArgumentException("Duplicate migration version: " + version);
+            }
+        }
+        migrations.add(new Migration(version, description, step));
+        migrations.sort(Comparator.comparingInt(Migration::getVersion));
+        return this;
+    }
+
+    /**
+     * Latest version known to this build
+     */
+    public int getLatestVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    public List<Migration> getMigrations() {
+        return new ArrayList<>(migrations);
+    }
+
+    /**
+     * Read the schema version stored in the database file
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Apply every pending migration in order
+     *
+     * @return Number of migrations applied
+     */
+    public int migrate(Connection conn) throws SQLException {
+        int currentVersion = getCurrentVersion(conn);
+        int latestVersion = getLatestVersion();
+
+        if (currentVersion == latestVersion) {
+            System.out.println("Database schema is up to date (version " + currentVersion + ")");
+            return 0;
+        }
+        if (currentVersion > latestVersion) {
+            System.err.println("Warning: Database schema version " + currentVersion +
+                " is newer than this application (version " + latestVersion + ")");
+            return 0;
+        }
+
+        long totalStart = System.nanoTime();
+        int applied = 0;
+
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= currentVersion) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                migration.getStep().apply(conn);
+
+                // PRAGMA values cannot be bound as parameters
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA user_version = " + migration.getVersion());
+                }
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Migration " + migration.getVersion() + " (" +
+                    migration.getDescription() + ") failed: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+
+            applied++;
+            System.out.println(String.format("Applied migration %d (%s) in %.1f ms",
+                migration.getVersion(), migration.getDescription(), (System.nanoTime() - start) / 1_000_000.0));
+        }
+
+        System.out.println(String.format("Database schema migrated from version %d to %d in %.1f ms",
+            currentVersion, latestVersion, (System.nanoTime() - totalStart) / 1_000_000.0));
+        return applied;
+    }
+
+    public static class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        public Migration(int version, String description, MigrationStep step) {
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public MigrationStep getStep() { return step; }
+    }
+}
@@ -0,0 +1,191 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Full-text search over the searchable columns of the main tables.
+ *
+ * Each {@link Index} is an FTS5 table whose content lives in the base table
+ * (external content) and that triggers keep in sync on insert, update and
+ * delete. A search term is split into words and every word must match the
+ * start of an indexed token, so "ros mar" finds "Mario Rossi". Results can be
+ * ranked with bm25, weighted per column, or used as an id filter when the
+ * caller keeps its own sort order.
+ */
+public class SearchService {
+    private static final String TOKENIZER = "unicode61 remove_diacritics 2";
+
+    /**
+     * Searchable tables and the columns indexed for each
+     */
+    public enum Index {
+        PRODUCTS("products_fts", "products",
+            new String[]{"code", "name", "description", "alternative_sku"}, new double[]{10, 5, 1, 8}),
+        CUSTOMERS("customers_fts", "customers",
+            new String[]{"first_name", "last_name", "email", "phone", "address"}, new double[]{5, 8, 3, 3, 1}),
+        SUPPLIERS("suppliers_fts", "suppliers",
+            new String[]{"company_name", "vat_number", "email", "phone", "address"}, new double[]{8, 8, 3, 3, 1}),
+        INVOICES("invoices_fts", "invoices",
+            new String[]{"number"}, new double[]{1}),
+        MOVEMENTS("movements_fts", "warehouse_movements",
+            new String[]{"reason", "document_number"}, new double[]{1, 5});
+
+        private final String ftsTable;
+        private final String contentTable;
+        private final String[] columns;
+        private final double[] weights;
+
+        Index(String ftsTable, String contentTable, String[] columns, double[] weights) {
+            this.ftsTable = ftsTable;
+            this.contentTable = contentTable;
+            this.columns = columns;
+            this.weights = weights;
+        }
+
+        public String getFtsTable() {
+            return ftsTable;
+        }
+
+        private String columnList(String prefix) {
+            StringBuilder sb = new StringBuilder();
+            for (String column : columns) {
+                if (sb.length() > 0) {
+                    sb.append(", ");
+                }
+                sb.append(prefix).append(column);
+            }
+            return sb.toString();
+        }
+
+        private String bm25() {
+            StringBuilder sb = new StringBuilder("bm25(").append(ftsTable);
+            for (double weight : weights) {
+                sb.append(", ").append(weight);
+            }
+            return sb.append(")").toString();
+        }
+    }
+
+    /**
+     * Create the FTS tables and their sync triggers, then index the existing rows
+     * (schema migration step)
+     */
+    public static void install(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (Index index : Index.values()) {
+                String table = index.ftsTable;
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_insert");
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_update");
+                stmt.execute("DROP TRIGGER IF EXISTS " + table + "_delete");
+                stmt.execute("DROP TABLE IF EXISTS " + table);
+
+                stmt.execute("""
+                    CREATE VIRTUAL TABLE %s USING fts5(
+                        %s,
+                        content='%s', content_rowid='id',
+                        tokenize='%s', prefix='2 3'
+                    )
+                """.formatted(table, index.columnList(""), index.contentTable, TOKENIZER));
+
+                String insertRow = "INSERT INTO %s(rowid, %s) VALUES (NEW.id, %s);"
+                    .formatted(table, index.columnList(""), index.columnList("NEW."));
+                String deleteRow = "INSERT INTO %1$s(%1$s, rowid, %2$s) VALUES ('delete', OLD.id, %3$s);"
+                    .formatted(table, index.columnList(""), index.columnList("OLD."));
+
+                stmt.execute("""
+                    CREATE TRIGGER %s_insert AFTER INSERT ON %s
+                    BEGIN
+                        %s
+                    END
+                """.formatted(table, index.contentTable, insertRow));
+                stmt.execute("""
+                    CREATE TRIGGER %s_update AFTER UPDATE OF %s ON %s
+                    BEGIN
+                        %s
+                        %s
+                    END
+                """.formatted(table, index.columnList(""), index.contentTable, deleteRow, insertRow));
+                stmt.execute("""
+                    CREATE TRIGGER %s_delete AFTER DELETE ON %s
+                    BEGIN
+                        %s
+                    END
+                """.formatted(table, index.contentTable, deleteRow));
+
+                stmt.execute("INSERT INTO %1$s(%1$s) VALUES ('rebuild')".formatted(table));
+            }
+        }
+        System.out.println("Full-text search indexes created");
+    }
+
+    /**
+     * Re-index every table from its content and merge the index segments. Runs on the writer.
+     */
+    public static CompletableFuture<Void> rebuild() {
+        return DataAccess.write(conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (Index index : Index.values()) {
+                    stmt.execute("INSERT INTO %1$s(%1$s) VALUES ('rebuild')".formatted(index.ftsTable));
+                    stmt.execute("INSERT INTO %1$s(%1$s) VALUES ('optimize')".formatted(index.ftsTable));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Turn what the user typed into an FTS5 query: every word becomes a quoted
+     * prefix term and all of them must match. Restricting to columns is optional.
+     *
+     * @return The MATCH expression, or null if the term contains no searchable word
+     */
+    public static String toMatchQuery(String searchTerm, String... columns) {
+        List<String> terms = new ArrayList<>();
+        for (String word : searchTerm.trim().split("\\s+")) {
+            // Drop characters that are neither letters nor digits at the edges (%, *, quotes...)
+            String cleaned = word.replaceAll("^[^\\p{L}\\p{N}]+|[^\\p{L}\\p{N}]+$", "");
+            if (!cleaned.isEmpty()) {
+                terms.add("\"" + cleaned.replace("\"", "\"\"") + "\"*");
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+        String query = String.join(" AND ", terms);
+        if (columns.length > 0) {
+            query = "{" + String.join(" ", columns) + "} : (" + query + ")";
+        }
+        return query;
+    }
+
+    /**
+     * SQL condition "idColumn IN (matching rows)" with one MATCH parameter
+     */
+    public static String matching(Index index, String idColumn) {
+        return "%s IN (%s)".formatted(idColumn, matchingIds(index));
+    }
+
+    /**
+     * SELECT of the ids of matching rows, with one MATCH parameter
+     */
+    public static String matchingIds(Index index) {
+        return "SELECT rowid FROM %1$s WHERE %1$s MATCH ?".formatted(index.ftsTable);
+    }
+
+    /**
+     * Subquery yielding (id, rank) of matching rows, best match first when ordered
+     * by rank ascending. Join it to the content table; takes one MATCH parameter.
+     */
+    public static String ranked(Index index) {
+        return "(SELECT rowid as id, %s as rank FROM %s WHERE %s MATCH ?)"
+            .formatted(index.bm25(), index.ftsTable, index.ftsTable);
+    }
+
+    // Private constructor to prevent instantiation
+    private SearchService() {
+        throw new AssertionError("SearchService class cannot be instantiated");
+    }
+}
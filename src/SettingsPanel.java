@@ -21,6 +21,11 @@ public class SettingsPanel extends JPanel {
     private JComboBox<String> currencyCombo;
     private JTextField defaultVatField;
 
+    // Database Settings
+    private JSpinner slowQueryThresholdSpinner;
+    private JComboBox<StorageProfile> storageProfileCombo;
+    private JLabel storageProfileDescription;
+
     // Company Data fields
     private JTextField companyNameField;
     private JTextField vatNumberField;
@@ -62,6 +67,10 @@ public class SettingsPanel extends JPanel {
         JPanel companyPanel = createCompanyDataPanel();
         tabbedPane.addTab("Company Data", companyPanel);
 
+        // Database Tab
+        JPanel databasePanel = createDatabasePanel();
+        tabbedPane.addTab("Database", databasePanel);
+
         // Buttons
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         JButton applyButton = new JButton("Apply");
@@ -193,6 +202,188 @@ public class SettingsPanel extends JPanel {
         return panel;
     }
 
+    private JPanel createDatabasePanel() {
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.anchor = GridBagConstraints.WEST;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // Slow Query Threshold
+        gbc.gridx = 0; gbc.gridy = 0;
+        panel.add(new JLabel("Slow Query Threshold (ms):"), gbc);
+
+        gbc.gridx = 1;
+        int threshold;
+        try {
+            threshold = Integer.parseInt(getSetting(QueryMetrics.THRESHOLD_SETTING,
+                String.valueOf(QueryMetrics.DEFAULT_THRESHOLD_MILLIS)));
+        } catch (NumberFormatException e) {
+            threshold = QueryMetrics.DEFAULT_THRESHOLD_MILLIS;
+        }
+        SpinnerNumberModel thresholdModel = new SpinnerNumberModel(threshold, 0, 60000, 50);
+        slowQueryThresholdSpinner = new JSpinner(thresholdModel);
+        slowQueryThresholdSpinner.setToolTipText("Queries slower than this are written to " +
+            AppConstants.LOG_DIR_NAME + "/" + SlowQueryLog.FILE_NAME);
+        panel.add(slowQueryThresholdSpinner, gbc);
+
+        // Storage Profile
+        gbc.gridx = 0; gbc.gridy = 1;
+        panel.add(new JLabel("Storage Profile:"), gbc);
+
+        gbc.gridx = 1;
+        storageProfileCombo = new JComboBox<>(StorageProfile.getPresets().toArray(new StorageProfile[0]));
+        storageProfileCombo.setSelectedItem(StorageProfile.forName(
+            getSetting(StorageProfile.SETTING, StorageProfile.DEFAULT.getName())));
+        storageProfileCombo.addActionListener(e -> updateStorageProfileDescription());
+        panel.add(storageProfileCombo, gbc);
+
+        gbc.gridx = 1; gbc.gridy = 2;
+        storageProfileDescription = new JLabel();
+        panel.add(storageProfileDescription, gbc);
+        updateStorageProfileDescription();
+
+        gbc.gridx = 1; gbc.gridy = 3;
+        gbc.fill = GridBagConstraints.NONE;
+        JButton calibrateButton = new JButton("Run Calibration...");
+        calibrateButton.setToolTipText("Benchmark every profile against this database and suggest the fastest");
+        calibrateButton.addActionListener(e -> runStorageCalibration(calibrateButton));
+        panel.add(calibrateButton, gbc);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        // Add vertical glue to push components to top
+        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2; gbc.weighty = 1.0;
+        gbc.fill = GridBagConstraints.VERTICAL;
+        panel.add(Box.createVerticalGlue(), gbc);
+
+        return panel;
+    }
+
+    private void updateStorageProfileDescription() {
+        StorageProfile profile = (StorageProfile) storageProfileCombo.getSelectedItem();
+        if (profile != null) {
+            storageProfileDescription.setText(profile.getDescription());
+            storageProfileDescription.setToolTipText(profile.getFormattedSummary());
+        }
+    }
+
+    private void runStorageCalibration(JButton calibrateButton) {
+        int choice = JOptionPane.showConfirmDialog(this,
+            "The calibration runs report queries against your database once per profile.\n" +
+            "On a large database this can take a few minutes. Continue?",
+            "Storage Calibration", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        calibrateButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<StorageCalibrator.CalibrationResult, String>() {
+            @Override
+            protected StorageCalibrator.CalibrationResult doInBackground() throws Exception {
+                return StorageCalibrator.calibrate(DatabaseManager.getDatabaseUrl(),
+                    (profile, index, total) -> publish(String.format("Measuring %s (%d/%d)...",
+                        profile.getDisplayName(), index + 1, total)));
+            }
+
+            @Override
+            protected void process(java.util.List<String> chunks) {
+                calibrateButton.setText(chunks.get(chunks.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                calibrateButton.setEnabled(true);
+                calibrateButton.setText("Run Calibration...");
+                setCursor(Cursor.getDefaultCursor());
+
+                try {
+                    StorageCalibrator.CalibrationResult result = get();
+                    JTextArea textArea = new JTextArea(result.getFormattedReport());
+                    textArea.setEditable(false);
+                    textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+                    int use = JOptionPane.showConfirmDialog(SettingsPanel.this,
+                        new JScrollPane(textArea),
+                        "Calibration Results - select '" + result.getSuggested().getDisplayName() + "'?",
+                        JOptionPane.YES_NO_OPTION, JOptionPane.INFORMATION_MESSAGE);
+                    if (use == JOptionPane.YES_OPTION) {
+                        storageProfileCombo.setSelectedItem(result.getSuggested());
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(SettingsPanel.this,
+                        "Error during storage calibration: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void applyStorageProfile() {
+        StorageProfile selected = (StorageProfile) storageProfileCombo.getSelectedItem();
+        DatabaseManager db = DatabaseManager.getInstance();
+        if (selected == null || selected == db.getStorageProfile()) {
+            return;
+        }
+
+        db.applyStorageProfile(selected);
+
+        try {
+            int currentPageSize = db.getPageSize();
+            if (currentPageSize != selected.getPageSize()) {
+                int choice = JOptionPane.showConfirmDialog(this,
+                    "The '" + selected.getDisplayName() + "' profile uses " + selected.getPageSize() +
+                    " byte pages, the database file uses " + currentPageSize + ".\n" +
+                    "Changing it rebuilds the whole file (VACUUM), which can take several minutes\n" +
+                    "on a large database. Rebuild now?",
+                    "Change Page Size", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+                if (choice == JOptionPane.YES_OPTION) {
+                    rebuildDatabase(selected.getPageSize());
+                }
+            }
+        } catch (java.sql.SQLException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                "Error while changing the page size: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Rebuild the database file with a new page size on the writer thread,
+     * keeping a modal progress dialog open until it has finished
+     */
+    private void rebuildDatabase(int pageSize) {
+        JDialog progressDialog = new JDialog(SwingUtilities.getWindowAncestor(this),
+            "Change Page Size", Dialog.ModalityType.APPLICATION_MODAL);
+        progressDialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        content.add(new JLabel("Rebuilding the database with " + pageSize + " byte pages..."), BorderLayout.NORTH);
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        content.add(progressBar, BorderLayout.CENTER);
+        progressDialog.setContentPane(content);
+        progressDialog.pack();
+        progressDialog.setLocationRelativeTo(this);
+
+        // The callbacks run on the EDT inside the dialog's modal loop, after it is shown
+        DataAccess.onEdt(DatabaseManager.getInstance().changePageSize(pageSize),
+            result -> {
+                progressDialog.dispose();
+                JOptionPane.showMessageDialog(this,
+                    "The database now uses " + pageSize + " byte pages.",
+                    "Change Page Size", JOptionPane.INFORMATION_MESSAGE);
+            },
+            error -> {
+                progressDialog.dispose();
+                DataAccess.errorDialog(this, "Error while changing the page size").accept(error);
+            });
+        progressDialog.setVisible(true);
+    }
+
     private void browsePdfDirectory() {
         JFileChooser fileChooser = new JFileChooser();
         fileChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
@@ -430,6 +621,8 @@ public class SettingsPanel extends JPanel {
         settings.setProperty("pdf_default_directory", pdfDirectoryField.getText().trim());
         settings.setProperty("currency", (String)currencyCombo.getSelectedItem());
         settings.setProperty("default_vat", defaultVatField.getText().trim());
+        settings.setProperty(QueryMetrics.THRESHOLD_SETTING, String.valueOf(slowQueryThresholdSpinner.getValue()));
+        settings.setProperty(StorageProfile.SETTING, ((StorageProfile) storageProfileCombo.getSelectedItem()).getName());
 
         try (FileOutputStream fos = new FileOutputStream(AppConstants.getSettingsPath().toFile())) {
             settings.store(fos, "Application Settings");
@@ -454,6 +647,8 @@ public class SettingsPanel extends JPanel {
         settings.setProperty("pdf_default_directory", System.getProperty("user.home"));
         settings.setProperty("currency", "EUR - Euro (€)");
         settings.setProperty("default_vat", "22.0");
+        settings.setProperty(QueryMetrics.THRESHOLD_SETTING, String.valueOf(QueryMetrics.DEFAULT_THRESHOLD_MILLIS));
+        settings.setProperty(StorageProfile.SETTING, StorageProfile.DEFAULT.getName());
     }
 
     private void applyCurrentSettings() {
@@ -466,6 +661,9 @@ public class SettingsPanel extends JPanel {
 
         String theme = getSetting("theme", "System");
         updateLookAndFeel(theme);
+
+        QueryMetrics.getInstance().setSlowQueryThresholdMillis((Integer) slowQueryThresholdSpinner.getValue());
+        applyStorageProfile();
     }
 
     private void updateGlobalFont(int size) {
@@ -0,0 +1,70 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Size-based rotating log of slow SQL statements.
+ * The active file is slow-queries.log; when it exceeds the size limit it is
+ * renamed to slow-queries.log.1 and older files shift up to MAX_FILES.
+ */
+public class SlowQueryLog {
+    public static final String FILE_NAME = "slow-queries.log";
+    private static final long MAX_FILE_BYTES = 1024 * 1024;
+    private static final int MAX_FILES = 5;
+
+    private final Path logFile;
+    private final SimpleDateFormat timestampFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+    public SlowQueryLog(Path directory) {
+        this.logFile = directory.resolve(FILE_NAME);
+    }
+
+    public Path getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Append one slow statement to the log
+     */
+    public synchronized void log(String normalizedSql, double totalMillis, double execMillis,
+                                 double fetchMillis, long rows, String caller) {
+        String line = String.format("%s total=%.1fms exec=%.1fms fetch=%.1fms rows=%d thread=%s caller=%s sql=%s%n",
+            timestampFormat.format(new Date()), totalMillis, execMillis, fetchMillis, rows,
+            Thread.currentThread().getName(), caller, normalizedSql);
+
+        try {
+            rotateIfNeeded();
+            try (BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Could not write slow query log: " + e.getMessage());
+        }
+    }
+
+    private void rotateIfNeeded() throws IOException {
+        if (!Files.exists(logFile) || Files.size(logFile) < MAX_FILE_BYTES) {
+            return;
+        }
+
+        Files.deleteIfExists(rotated(MAX_FILES));
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            Path source = rotated(i);
+            if (Files.exists(source)) {
+                Files.move(source, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(logFile, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rotated(int index) {
+        return logFile.resolveSibling(FILE_NAME + "." + index);
+    }
+}
@@ -0,0 +1,187 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of PreparedStatements for a single physical connection, keyed by SQL text.
+ *
+ * Statements handed out by {@link #prepare(String)} go back to the cache when the
+ * caller closes them, so code written as
+ * {@code try (PreparedStatement ps = conn.prepareStatement(sql))} inside a loop
+ * parses the SQL only once. If the same SQL is requested while its cached statement
+ * is still open (nested use), a plain uncached statement is returned instead.
+ */
+public class StatementCache {
+    private final Connection physical;
+    private final int capacity;
+    private final Counters counters;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean closed = false;
+
+    public StatementCache(Connection physical, int capacity, Counters counters) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.counters = counters;
+    }
+
+    /**
+     * Get a prepared statement for the SQL text, reusing a cached one when possible
+     */
+    public synchronized PreparedStatement prepare(String sql) throws SQLException {
+        if (closed) {
+            throw new SQLException("Statement cache is closed");
+        }
+
+        Entry entry = entries.get(sql);
+        if (entry != null && !entry.inUse) {
+            counters.hits.increment();
+            entry.inUse = true;
+            return entry.lease();
+        }
+
+        counters.misses.increment();
+        if (entry != null) {
+            // Already checked out by an outer caller: hand out an independent statement
+            return physical.prepareStatement(sql);
+        }
+
+        entry = new Entry(physical.prepareStatement(sql));
+        entry.inUse = true;
+        entries.put(sql, entry);
+        evictIfNeeded();
+        return entry.lease();
+    }
+
+    /**
+     * Close every cached statement
+     */
+    public synchronized void close() {
+        closed = true;
+        for (Entry entry : entries.values()) {
+            if (!entry.inUse) {
+                closeQuietly(entry.statement);
+            } else {
+                entry.evicted = true;
+            }
+        }
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            // Statements still open by a caller are skipped and closed when returned
+            if (!eldest.inUse) {
+                it.remove();
+                closeQuietly(eldest.statement);
+                counters.evictions.increment();
+            }
+        }
+    }
+
+    private synchronized void checkIn(Entry entry) {
+        try {
+            ResultSet rs = entry.statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+        } catch (SQLException e) {
+            entry.evicted = true;
+            entries.values().remove(entry);
+        }
+
+        entry.inUse = false;
+        if (entry.evicted || closed) {
+            closeQuietly(entry.statement);
+        }
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not close cached statement: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cached statement plus its checkout state
+     */
+    private class Entry {
+        private final PreparedStatement statement;
+        private boolean inUse = false;
+        private boolean evicted = false;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        /**
+         * Wrap the statement in a handle whose close() returns it to the cache
+         */
+        PreparedStatement lease() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean released = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!released) {
+                                released = true;
+                                checkIn(Entry.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return released || statement.isClosed();
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "toString":
+                            return "CachedStatement[" + statement + "]";
+                        default:
+                            break;
+                    }
+                    if (released) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        return method.invoke(statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+
+            return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, handler);
+        }
+    }
+
+    /**
+     * Hit/miss counters, shared by all caches of a connection pool
+     */
+    public static class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public long getHits() { return hits.sum(); }
+        public long getMisses() { return misses.sum(); }
+        public long getEvictions() { return evictions.sum(); }
+    }
+}
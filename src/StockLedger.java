@@ -0,0 +1,345 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Resident copy of the physical and reserved quantity of every product, so
+ * availability checks at the order counter never touch the database.
+ *
+ * Quantities live in primitive int arrays behind an open-addressing table
+ * keyed by product ID. Readers take a per-product striped lock, so a lookup
+ * always sees a matching physical/reserved pair and costs a hash probe.
+ *
+ * Every unit of work that changes stock calls {@link #refresh} or
+ * {@link #refreshDocument} with the products it touched. The current rows are
+ * read back on the writer connection (so they include what the reservation
+ * triggers did) and applied once the transaction has committed; a rolled back
+ * write never reaches the ledger. Loading and the periodic {@link #verify}
+ * also run on the writer, which keeps them ordered with those updates.
+ */
+public class StockLedger {
+    /**
+     * Returned by the lookups when the product is not in the ledger (or the
+     * ledger is not loaded yet); callers then read the database
+     */
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final String LOAD_ALL = "SELECT id, quantity, reserved_quantity FROM products";
+
+    private static final String LOAD_PRODUCTS = """
+        SELECT id, quantity, reserved_quantity
+        FROM products
+        WHERE id IN (SELECT value FROM json_each(?))
+    """;
+
+    private static final String LOAD_DOCUMENT = """
+        SELECT p.id, p.quantity, p.reserved_quantity
+        FROM products p
+        WHERE p.id IN (
+            SELECT product_id FROM stock_reservations
+            WHERE document_type = ? AND document_id = ?
+        )
+    """;
+
+    private static final int STRIPES = 64;
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static StockLedger instance;
+
+    private final Object[] locks = new Object[STRIPES];
+    private volatile Table table = new Table(INITIAL_CAPACITY);
+    private volatile boolean loaded;
+
+    private StockLedger() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public static synchronized StockLedger getInstance() {
+        if (instance == null) {
+            instance = new StockLedger();
+        }
+        return instance;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Physical minus reserved quantity, or {@link #UNKNOWN}
+     */
+    public int getAvailable(int productId) {
+        if (!loaded) {
+            return UNKNOWN;
+        }
+        Table t = table;
+        synchronized (lockFor(productId)) {
+            int slot = t.find(productId);
+            return slot >= 0 ? t.physical[slot] - t.reserved[slot] : UNKNOWN;
+        }
+    }
+
+    /**
+     * Physical quantity in the warehouse, or {@link #UNKNOWN}
+     */
+    public int getPhysical(int productId) {
+        if (!loaded) {
+            return UNKNOWN;
+        }
+        Table t = table;
+        synchronized (lockFor(productId)) {
+            int slot = t.find(productId);
+            return slot >= 0 ? t.physical[slot] : UNKNOWN;
+        }
+    }
+
+    /**
+     * Read every product on the writer and replace the ledger contents
+     */
+    public CompletableFuture<Integer> load() {
+        return DataAccess.write(conn -> {
+            long start = System.currentTimeMillis();
+            int[][] rows = query(conn, LOAD_ALL, null);
+            DatabaseManager.getInstance().getWriteQueue().afterCommit(() -> {
+                replaceAll(rows);
+                System.out.println("Stock ledger loaded: " + rows[0].length + " products in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            });
+            return rows[0].length;
+        });
+    }
+
+    /**
+     * Re-read the given products inside the caller's unit of work and update
+     * the ledger when it commits. Products that no longer exist are dropped.
+     */
+    public void refresh(Connection conn, Collection<Integer> productIds) throws SQLException {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        StringJoiner ids = new StringJoiner(",", "[", "]");
+        for (int productId : productIds) {
+            ids.add(String.valueOf(productId));
+        }
+        int[][] rows = query(conn, LOAD_PRODUCTS, pstmt -> pstmt.setString(1, ids.toString()));
+        Set<Integer> deleted = new HashSet<>(productIds);
+        for (int productId : rows[0]) {
+            deleted.remove(productId);
+        }
+        DatabaseManager.getInstance().getWriteQueue().afterCommit(() -> {
+            apply(rows);
+            for (int productId : deleted) {
+                remove(productId);
+            }
+        });
+    }
+
+    /**
+     * Re-read every product with a reservation from the given document
+     */
+    public void refreshDocument(Connection conn, String documentType, int documentId) throws SQLException {
+        int[][] rows = query(conn, LOAD_DOCUMENT, pstmt -> {
+            pstmt.setString(1, documentType);
+            pstmt.setInt(2, documentId);
+        });
+        DatabaseManager.getInstance().getWriteQueue().afterCommit(() -> apply(rows));
+    }
+
+    /**
+     * Compare the ledger with the products table and correct any difference (a
+     * write path that does not report its changes). Runs on the writer between
+     * transactions, when every committed change has reached the ledger.
+     *
+     * @return Number of products that differed
+     */
+    public CompletableFuture<Integer> verify() {
+        return DatabaseManager.getInstance().getWriteQueue().submitStandalone(conn -> {
+            if (!loaded) {
+                return 0;
+            }
+            int[][] rows = query(conn, LOAD_ALL, null);
+            int drift = countDrift(rows);
+            if (drift > 0) {
+                replaceAll(rows);
+            }
+            return drift;
+        });
+    }
+
+    private synchronized int countDrift(int[][] rows) {
+        int[] ids = rows[0];
+        int drift = 0;
+        int missing = 0;
+        Table t = table;
+        for (int i = 0; i < ids.length; i++) {
+            int slot = t.find(ids[i]);
+            if (slot < 0) {
+                missing++;
+            }
+            if (slot < 0 || t.physical[slot] != rows[1][i] || t.reserved[slot] != rows[2][i]) {
+                System.err.println("Stock ledger drift for product " + ids[i] + ": ledger "
+                    + (slot < 0 ? "missing" : t.physical[slot] + "/" + t.reserved[slot])
+                    + ", database " + rows[1][i] + "/" + rows[2][i]);
+                drift++;
+            }
+        }
+        // Products deleted without the ledger being told
+        return drift + Math.max(0, t.size - (ids.length - missing));
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    // Rows as three parallel arrays: ids, physical, reserved
+    private static int[][] query(Connection conn, String sql, Binder binder) throws SQLException {
+        int[] ids = new int[64];
+        int[] physical = new int[64];
+        int[] reserved = new int[64];
+        int count = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (binder != null) {
+                binder.bind(pstmt);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        physical = Arrays.copyOf(physical, count * 2);
+                        reserved = Arrays.copyOf(reserved, count * 2);
+                    }
+                    ids[count] = rs.getInt(1);
+                    physical[count] = rs.getInt(2);
+                    reserved[count] = rs.getInt(3);
+                    count++;
+                }
+            }
+        }
+        return new int[][]{
+            Arrays.copyOf(ids, count), Arrays.copyOf(physical, count), Arrays.copyOf(reserved, count)
+        };
+    }
+
+    private synchronized void replaceAll(int[][] rows) {
+        Table fresh = new Table(Math.max(INITIAL_CAPACITY, Integer.highestOneBit(rows[0].length) * 4));
+        for (int i = 0; i < rows[0].length; i++) {
+            fresh.put(rows[0][i], rows[1][i], rows[2][i]);
+        }
+        table = fresh;
+        loaded = true;
+    }
+
+    private synchronized void apply(int[][] rows) {
+        for (int i = 0; i < rows[0].length; i++) {
+            put(rows[0][i], rows[1][i], rows[2][i]);
+        }
+    }
+
+    private synchronized void put(int productId, int physical, int reserved) {
+        Table t = table;
+        if ((t.used + 1) * 2 > t.keys.length) {
+            // Rebuild at twice the size; readers keep using the old table until it is published
+            Table grown = new Table(t.keys.length * 2);
+            for (int slot = 0; slot < t.keys.length; slot++) {
+                if (t.keys[slot] > 0) {
+                    grown.put(t.keys[slot], t.physical[slot], t.reserved[slot]);
+                }
+            }
+            table = grown;
+            t = grown;
+        }
+        synchronized (lockFor(productId)) {
+            t.put(productId, physical, reserved);
+        }
+    }
+
+    private synchronized void remove(int productId) {
+        Table t = table;
+        synchronized (lockFor(productId)) {
+            t.remove(productId);
+        }
+    }
+
+    private Object lockFor(int productId) {
+        return locks[productId & (STRIPES - 1)];
+    }
+
+    /**
+     * Open-addressing hash table of product ID to quantities (linear probing,
+     * power-of-two capacity). Modified only under the ledger's monitor.
+     */
+    private static class Table {
+        final int[] keys;
+        final int[] physical;
+        final int[] reserved;
+        int size;
+        int used;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            physical = new int[capacity];
+            reserved = new int[capacity];
+        }
+
+        int find(int productId) {
+            int mask = keys.length - 1;
+            for (int slot = hash(productId) & mask; ; slot = (slot + 1) & mask) {
+                int key = keys[slot];
+                if (key == productId) {
+                    return slot;
+                }
+                if (key == EMPTY) {
+                    return -1;
+                }
+            }
+        }
+
+        void put(int productId, int physicalQuantity, int reservedQuantity) {
+            int mask = keys.length - 1;
+            int free = -1;
+            int slot = hash(productId) & mask;
+            for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == productId) {
+                    physical[slot] = physicalQuantity;
+                    reserved[slot] = reservedQuantity;
+                    return;
+                }
+                if (keys[slot] == REMOVED && free < 0) {
+                    free = slot;
+                }
+            }
+            if (free < 0) {
+                free = slot;
+                used++;
+            }
+            physical[free] = physicalQuantity;
+            reserved[free] = reservedQuantity;
+            keys[free] = productId;
+            size++;
+        }
+
+        void remove(int productId) {
+            int slot = find(productId);
+            if (slot >= 0) {
+                keys[slot] = REMOVED;
+                size--;
+            }
+        }
+
+        private static int hash(int productId) {
+            return productId * 0x9E3779B9 >>> 7;
+        }
+    }
+}
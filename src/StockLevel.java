@@ -0,0 +1,47 @@
+/**
+ * Stock position of one product against its configured minimum (for display purposes)
+ */
+public class StockLevel {
+    private final int productId;
+    private final String productCode;
+    private final String productName;
+    private final int quantity;
+    private final int reservedQuantity;
+    private final int minimumQuantity;
+    private final String supplierName;
+
+    public StockLevel(int productId, String productCode, String productName, int quantity,
+                      int reservedQuantity, int minimumQuantity, String supplierName) {
+        this.productId = productId;
+        this.productCode = productCode;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.reservedQuantity = reservedQuantity;
+        this.minimumQuantity = minimumQuantity;
+        this.supplierName = supplierName;
+    }
+
+    // Getters
+    public int getProductId() { return productId; }
+    public String getProductCode() { return productCode; }
+    public String getProductName() { return productName; }
+    public int getQuantity() { return quantity; }
+    public int getReservedQuantity() { return reservedQuantity; }
+    public int getAvailableQuantity() { return quantity - reservedQuantity; }
+    public int getMinimumQuantity() { return minimumQuantity; }
+    public String getSupplierName() { return supplierName; }
+
+    /**
+     * Stock status based on available (not physical) stock
+     */
+    public String getStatus() {
+        int available = getAvailableQuantity();
+        if (available <= 0) {
+            return "OUT OF STOCK";
+        }
+        if (minimumQuantity > 0 && available < minimumQuantity) {
+            return "LOW STOCK";
+        }
+        return "OK";
+    }
+}
@@ -9,142 +9,231 @@ import java.util.Date;
 public class StockManager {
 
     /**
-     * Check if there is sufficient stock for products in an order/invoice
-     *
-     * @param items List of items to check (product ID, quantity pairs)
-     * @param existingDocumentId If editing, ID of existing document to exclude from check
-     * @param documentType Type of document ("ORDER" or "INVOICE")
-     * @return Map of product names to insufficient quantities, empty if all OK
+     * Insert a document's reservation of a product, or reactivate and resize the
+     * existing one (unique on product, document type and document ID). Rows that
+     * already match are left untouched, so their trigger does not fire.
      */
-    public static Map<String, StockAvailability> checkStockAvailability(
+    private static final String UPSERT_RESERVATION = """
+        INSERT INTO stock_reservations
+        (product_id, document_type, document_id, reserved_quantity, status, notes)
+        VALUES (?, ?, ?, ?, 'ACTIVE', ?)
+        ON CONFLICT(product_id, document_type, document_id) DO UPDATE
+        SET reserved_quantity = excluded.reserved_quantity, status = 'ACTIVE', notes = excluded.notes
+        WHERE status != 'ACTIVE' OR reserved_quantity != excluded.reserved_quantity
+           OR notes IS NOT excluded.notes
+    """;
+
+    /**
+     * Reserve stock for every item of a document in one batch and cancel the
+     * active reservations of products no longer on it. Items of the same
+     * product are reserved together. No availability check: stock may go
+     * negative (see {@link #reserveOrFail} for the guarded form).
+     */
+    public static void createOrUpdateReservations(
             Connection conn,
+            String documentType,
+            int documentId,
             List<StockItem> items,
-            Integer existingDocumentId,
-            String documentType) throws SQLException {
-
-        Map<String, StockAvailability> insufficientProducts = new HashMap<>();
-
-        for (StockItem item : items) {
-            int productId = item.getProductId();
-            String productName = item.getProductName();
-            int requestedQty = item.getQuantity();
-
-            // Get current stock and reserved quantity from database
-            String query = """
-                SELECT quantity, reserved_quantity
-                FROM products
-                WHERE id = ?
-            """;
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setInt(1, productId);
-                ResultSet rs = pstmt.executeQuery();
+            String note) throws SQLException {
 
-                if (rs.next()) {
-                    int currentStock = rs.getInt("quantity");
-                    int reservedStock = rs.getInt("reserved_quantity");
-                    int availableStock = currentStock - reservedStock;
-
-                    // If editing existing document, add back the old quantity for this product
-                    if (existingDocumentId != null) {
-                        int oldQty = getOldProductQuantity(conn, existingDocumentId, productId, documentType);
-                        availableStock += oldQty;
-                    }
-
-                    if (requestedQty > availableStock) {
-                        insufficientProducts.put(productName, new StockAvailability(
-                            currentStock, reservedStock, availableStock, requestedQty
-                        ));
-                    }
+        Map<Integer, Integer> quantities = quantitiesByProduct(items);
+
+        if (!quantities.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_RESERVATION)) {
+                for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+                    pstmt.setInt(1, entry.getKey());
+                    pstmt.setString(2, documentType);
+                    pstmt.setInt(3, documentId);
+                    pstmt.setInt(4, entry.getValue());
+                    pstmt.setString(5, note);
+                    pstmt.addBatch();
                 }
+                pstmt.executeBatch();
             }
         }
 
-        return insufficientProducts;
+        cancelRemovedLines(conn, documentType, documentId, quantities.keySet());
+        StockLedger.getInstance().refreshDocument(conn, documentType, documentId);
     }
 
     /**
-     * Get the old quantity of a product in an existing document
+     * Reservation upsert that only goes through while the product can cover it:
+     * the increase over what this document already holds must not exceed
+     * quantity - reserved_quantity. The check and the write are one statement,
+     * so no other writer can take the stock in between. Every accepted row is
+     * written (the reservation trigger still ignores unchanged ones), so an
+     * update count of 0 always means the line was refused. Parameters: document
+     * type, document ID, quantity, note, document type, document ID, product
+     * ID, quantity, quantity.
      */
-    private static int getOldProductQuantity(Connection conn, int documentId, int productId, String documentType) throws SQLException {
-        String tableName = documentType.equals("ORDER") ? "order_details" : "invoice_details";
-        String columnName = documentType.equals("ORDER") ? "order_id" : "invoice_id";
-
-        String query = String.format(
-            "SELECT quantity FROM %s WHERE %s = ? AND product_id = ?",
-            tableName, columnName
-        );
+    static final String GUARDED_RESERVATION = """
+        INSERT INTO stock_reservations
+        (product_id, document_type, document_id, reserved_quantity, status, notes)
+        SELECT p.id, ?, ?, ?, 'ACTIVE', ?
+        FROM products p
+        LEFT JOIN stock_reservations r
+            ON r.product_id = p.id AND r.document_type = ? AND r.document_id = ? AND r.status = 'ACTIVE'
+        WHERE p.id = ?
+          AND (? - COALESCE(r.reserved_quantity, 0) <= 0
+               OR p.quantity - p.reserved_quantity >= ? - COALESCE(r.reserved_quantity, 0))
+        ON CONFLICT(product_id, document_type, document_id) DO UPDATE
+        SET reserved_quantity = excluded.reserved_quantity, status = 'ACTIVE', notes = excluded.notes
+    """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-            pstmt.setInt(1, documentId);
-            pstmt.setInt(2, productId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt("quantity");
-            }
-        }
-        return 0;
-    }
+    /**
+     * Stock of the given products and what this document holds of each
+     * (parameters: document type, document ID, JSON array of product IDs)
+     */
+    static final String STOCK_FOR_RESERVATIONS = """
+        SELECT p.id, p.quantity, p.reserved_quantity,
+               COALESCE(r.reserved_quantity, 0) as booked_quantity
+        FROM products p
+        LEFT JOIN stock_reservations r
+            ON r.product_id = p.id AND r.document_type = ? AND r.document_id = ? AND r.status = 'ACTIVE'
+        WHERE p.id IN (SELECT value FROM json_each(?))
+    """;
 
     /**
-     * Create or update a stock reservation
+     * Reserve stock for every item of a document in one batch, refusing each
+     * line the available stock cannot cover, and cancel the reservations of
+     * products no longer on it. Lines that fit are reserved even when others
+     * fail; callers that need all or nothing roll back when the result is
+     * not empty (see {@link InsufficientStockException}).
+     *
+     * @return Refused lines by product name, with the stock they were checked
+     *         against; empty if everything was reserved
      */
-    public static void createOrUpdateReservation(
+    public static Map<String, StockAvailability> reserveOrFail(
             Connection conn,
-            int productId,
             String documentType,
             int documentId,
-            int quantity,
+            List<StockItem> items,
             String note) throws SQLException {
 
-        // Check if reservation already exists
-        String checkQuery = """
-            SELECT id, reserved_quantity, status
-            FROM stock_reservations
-            WHERE product_id = ? AND document_type = ? AND document_id = ?
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(checkQuery)) {
-            pstmt.setInt(1, productId);
-            pstmt.setString(2, documentType);
-            pstmt.setInt(3, documentId);
-            ResultSet rs = pstmt.executeQuery();
-
-            if (rs.next()) {
-                // Update existing reservation
-                int reservationId = rs.getInt("id");
-                String updateQuery = """
-                    UPDATE stock_reservations
-                    SET reserved_quantity = ?, status = 'ACTIVE', notes = ?
-                    WHERE id = ?
-                """;
-
-                try (PreparedStatement updateStmt = conn.prepareStatement(updateQuery)) {
-                    updateStmt.setInt(1, quantity);
-                    updateStmt.setString(2, note);
-                    updateStmt.setInt(3, reservationId);
-                    updateStmt.executeUpdate();
+        long start = System.nanoTime();
+        Map<Integer, Integer> quantities = quantitiesByProduct(items);
+        List<Integer> refused = new ArrayList<>();
+
+        if (!quantities.isEmpty()) {
+            List<Integer> productIds = new ArrayList<>(quantities.keySet());
+            int[] counts;
+            try (PreparedStatement pstmt = conn.prepareStatement(GUARDED_RESERVATION)) {
+                for (int productId : productIds) {
+                    int quantity = quantities.get(productId);
+                    pstmt.setString(1, documentType);
+                    pstmt.setInt(2, documentId);
+                    pstmt.setInt(3, quantity);
+                    pstmt.setString(4, note);
+                    pstmt.setString(5, documentType);
+                    pstmt.setInt(6, documentId);
+                    pstmt.setInt(7, productId);
+                    pstmt.setInt(8, quantity);
+                    pstmt.setInt(9, quantity);
+                    pstmt.addBatch();
+                }
+                counts = pstmt.executeBatch();
+            }
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    refused.add(productIds.get(i));
                 }
-            } else {
-                // Create new reservation
-                String insertQuery = """
-                    INSERT INTO stock_reservations
-                    (product_id, document_type, document_id, reserved_quantity, status, notes)
-                    VALUES (?, ?, ?, ?, 'ACTIVE', ?)
-                """;
-
-                try (PreparedStatement insertStmt = conn.prepareStatement(insertQuery)) {
-                    insertStmt.setInt(1, productId);
-                    insertStmt.setString(2, documentType);
-                    insertStmt.setInt(3, documentId);
-                    insertStmt.setInt(4, quantity);
-                    insertStmt.setString(5, note);
-                    insertStmt.executeUpdate();
+            }
+        }
+
+        cancelRemovedLines(conn, documentType, documentId, quantities.keySet());
+        StockLedger.getInstance().refreshDocument(conn, documentType, documentId);
+
+        Map<String, StockAvailability> insufficient = new LinkedHashMap<>();
+        if (!refused.isEmpty()) {
+            // Only refused lines are read back, for the message shown to the user
+            Map<Integer, int[]> stock = new HashMap<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(STOCK_FOR_RESERVATIONS)) {
+                pstmt.setString(1, documentType);
+                pstmt.setInt(2, documentId);
+                pstmt.setString(3, toJsonArray(refused));
+                ResultSet rs = pstmt.executeQuery();
+                while (rs.next()) {
+                    stock.put(rs.getInt("id"), new int[]{
+                        rs.getInt("quantity"), rs.getInt("reserved_quantity"), rs.getInt("booked_quantity")
+                    });
                 }
             }
+            for (int productId : refused) {
+                int[] levels = stock.getOrDefault(productId, new int[3]);
+                insufficient.put(productName(items, productId), new StockAvailability(
+                    levels[0], levels[1], levels[0] - levels[1] + levels[2], quantities.get(productId)
+                ));
+            }
+        }
+
+        logTiming("Reserved stock for", documentType, String.valueOf(documentId),
+            quantities.size() - refused.size(), start);
+        return insufficient;
+    }
+
+    // Items of the same product added together, in document order
+    private static Map<Integer, Integer> quantitiesByProduct(List<StockItem> items) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (StockItem item : items) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private static String productName(List<StockItem> items, int productId) {
+        for (StockItem item : items) {
+            if (item.getProductId() == productId && item.getProductName() != null) {
+                return item.getProductName();
+            }
         }
+        return "Product #" + productId;
+    }
+
+    private static String toJsonArray(Collection<Integer> productIds) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int productId : productIds) {
+            json.add(String.valueOf(productId));
+        }
+        return json.toString();
     }
 
+    /**
+     * Cancel the active reservations of a document for products not in a JSON
+     * array of product IDs (parameters: document type, document ID, JSON array)
+     */
+    static final String CANCEL_REMOVED_LINES = """
+        UPDATE stock_reservations
+        SET status = 'CANCELLED'
+        WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
+        AND product_id NOT IN (SELECT value FROM json_each(?))
+    """;
+
+    /**
+     * Cancel the active reservations of a document for products not in productIds
+     */
+    private static void cancelRemovedLines(
+            Connection conn,
+            String documentType,
+            int documentId,
+            Collection<Integer> productIds) throws SQLException {
+
+        try (PreparedStatement pstmt = conn.prepareStatement(CANCEL_REMOVED_LINES)) {
+            pstmt.setString(1, documentType);
+            pstmt.setInt(2, documentId);
+            pstmt.setString(3, toJsonArray(productIds));
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Cancel the active reservations of a document (parameters: document type, document ID)
+     */
+    static final String CANCEL_RESERVATIONS = """
+        UPDATE stock_reservations
+        SET status = 'CANCELLED'
+        WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
+    """;
+
     /**
      * Cancel a stock reservation (mark as CANCELLED)
      */
@@ -153,19 +242,34 @@ public class StockManager {
             String documentType,
             int documentId) throws SQLException {
 
-        String updateQuery = """
-            UPDATE stock_reservations
-            SET status = 'CANCELLED'
-            WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(CANCEL_RESERVATIONS)) {
             pstmt.setString(1, documentType);
             pstmt.setInt(2, documentId);
             pstmt.executeUpdate();
         }
+
+        StockLedger.getInstance().refreshDocument(conn, documentType, documentId);
     }
 
+    /**
+     * Active reservations of a document (parameters: document type, document ID)
+     */
+    static final String ACTIVE_RESERVATIONS = """
+        SELECT product_id, reserved_quantity
+        FROM stock_reservations
+        WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
+    """;
+
+    /**
+     * Mark the active reservations of a document as completed
+     * (parameters: document type, document ID)
+     */
+    static final String COMPLETE_RESERVATIONS = """
+        UPDATE stock_reservations
+        SET status = 'COMPLETED'
+        WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
+    """;
+
     /**
      * Complete a stock reservation and decrement actual stock
      * This converts reserved stock into actual stock decrease
@@ -177,44 +281,33 @@ public class StockManager {
             Date documentDate,
             String documentNumber) throws SQLException {
 
-        // Get all active reservations for this document
-        String getReservationsQuery = """
-            SELECT product_id, reserved_quantity
-            FROM stock_reservations
-            WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
-        """;
+        long start = System.nanoTime();
 
-        try (PreparedStatement pstmt = conn.prepareStatement(getReservationsQuery)) {
+        // Get all active reservations for this document
+        List<StockItem> reserved = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(ACTIVE_RESERVATIONS)) {
             pstmt.setString(1, documentType);
             pstmt.setInt(2, documentId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                int productId = rs.getInt("product_id");
-                int quantity = rs.getInt("reserved_quantity");
-
-                // Decrement actual stock
-                decrementStock(conn, productId, quantity);
-
-                // Create warehouse movement
-                createWarehouseMovement(conn, productId, documentDate, quantity,
-                    "SALE", documentNumber, documentType,
-                    documentType + " " + documentNumber);
+                reserved.add(new StockItem(rs.getInt("product_id"), null, rs.getInt("reserved_quantity")));
             }
         }
 
-        // Mark reservations as COMPLETED
-        String updateQuery = """
-            UPDATE stock_reservations
-            SET status = 'COMPLETED'
-            WHERE document_type = ? AND document_id = ? AND status = 'ACTIVE'
-        """;
+        // Decrement actual stock and record the movements
+        applyStockMovements(conn, reserved, documentDate, "SALE", documentNumber, documentType,
+            documentType + " " + documentNumber);
 
-        try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+        // Mark reservations as COMPLETED
+        try (PreparedStatement pstmt = conn.prepareStatement(COMPLETE_RESERVATIONS)) {
             pstmt.setString(1, documentType);
             pstmt.setInt(2, documentId);
             pstmt.executeUpdate();
         }
+
+        StockLedger.getInstance().refreshDocument(conn, documentType, documentId);
+        logTiming("Completed reservations of", documentType, documentNumber, reserved.size(), start);
     }
 
     /**
@@ -227,15 +320,10 @@ public class StockManager {
             String documentNumber,
             String documentType) throws SQLException {
 
-        for (StockItem item : items) {
-            // Decrement stock
-            decrementStock(conn, item.getProductId(), item.getQuantity());
-
-            // Create warehouse movement
-            createWarehouseMovement(conn, item.getProductId(), documentDate,
-                item.getQuantity(), "SALE", documentNumber, documentType,
-                documentType + " " + documentNumber);
-        }
+        long start = System.nanoTime();
+        applyStockMovements(conn, items, documentDate, "SALE", documentNumber, documentType,
+            documentType + " " + documentNumber);
+        logTiming("Decremented stock for", documentType, documentNumber, items.size(), start);
     }
 
     /**
@@ -248,22 +336,17 @@ public class StockManager {
             String documentNumber,
             String documentType) throws SQLException {
 
-        for (StockItem item : items) {
-            // Increment stock
-            String updateQuery = "UPDATE products SET quantity = quantity + ? WHERE id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-                pstmt.setInt(1, item.getQuantity());
-                pstmt.setInt(2, item.getProductId());
-                pstmt.executeUpdate();
-            }
-
-            // Create warehouse movement
-            createWarehouseMovement(conn, item.getProductId(), documentDate,
-                item.getQuantity(), "PURCHASE", documentNumber, documentType,
-                "Supplier order " + documentNumber);
-        }
+        long start = System.nanoTime();
+        applyStockMovements(conn, items, documentDate, "PURCHASE", documentNumber, documentType,
+            "Supplier order " + documentNumber);
+        logTiming("Incremented stock for", documentType, documentNumber, items.size(), start);
     }
 
+    /**
+     * Lines of a document, formatted with the details table and its document column
+     */
+    static final String DOCUMENT_LINES = "SELECT product_id, quantity FROM %s WHERE %s = ?";
+
     /**
      * Restore stock from a previous document (when editing/deleting)
      */
@@ -275,11 +358,9 @@ public class StockManager {
         String tableName = documentType.equals("ORDER") ? "order_details" : "invoice_details";
         String columnName = documentType.equals("ORDER") ? "order_id" : "invoice_id";
 
-        String query = String.format(
-            "SELECT product_id, quantity FROM %s WHERE %s = ?",
-            tableName, columnName
-        );
+        String query = String.format(DOCUMENT_LINES, tableName, columnName);
 
+        Set<Integer> productIds = new HashSet<>();
         try (PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, documentId);
             ResultSet rs = pstmt.executeQuery();
@@ -292,69 +373,89 @@ public class StockManager {
 
                     updatePstmt.setInt(1, quantity);
                     updatePstmt.setInt(2, productId);
-                    updatePstmt.executeUpdate();
+                    updatePstmt.addBatch();
+                    productIds.add(productId);
                 }
+                updatePstmt.executeBatch();
             }
         }
-    }
 
-    /**
-     * Helper: Decrement stock quantity
-     */
-    private static void decrementStock(Connection conn, int productId, int quantity) throws SQLException {
-        String updateQuery = "UPDATE products SET quantity = quantity - ? WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-            pstmt.setInt(1, quantity);
-            pstmt.setInt(2, productId);
-            pstmt.executeUpdate();
-        }
+        StockLedger.getInstance().refresh(conn, productIds);
     }
 
     /**
-     * Helper: Create warehouse movement record
+     * Helper: Change the stock of every item and record one warehouse movement
+     * each, with both statements prepared once and sent as JDBC batches.
+     * PURCHASE adds to stock (INWARD), anything else removes from it (OUTWARD).
      */
-    private static void createWarehouseMovement(
+    private static void applyStockMovements(
             Connection conn,
-            int productId,
+            List<StockItem> items,
             Date documentDate,
-            int quantity,
             String reason,
             String documentNumber,
             String documentType,
             String note) throws SQLException {
 
-        String movementQuery = """
-            INSERT INTO warehouse_movements
-            (product_id, date, type, quantity, reason, document_number, document_type, notes)
-            VALUES (?, ?, 'OUTWARD', ?, ?, ?, ?, ?)
-        """;
+        if (items.isEmpty()) {
+            return;
+        }
 
-        // INWARD for purchases, OUTWARD for sales
-        String movementType = reason.equals("PURCHASE") ? "INWARD" : "OUTWARD";
+        boolean inward = reason.equals("PURCHASE");
+        String stockQuery = inward
+            ? "UPDATE products SET quantity = quantity + ? WHERE id = ?"
+            : "UPDATE products SET quantity = quantity - ? WHERE id = ?";
 
-        movementQuery = """
+        String movementQuery = """
             INSERT INTO warehouse_movements
             (product_id, date, type, quantity, reason, document_number, document_type, notes)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(movementQuery)) {
-            pstmt.setInt(1, productId);
-            pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(documentDate));
-            pstmt.setString(3, movementType);
-            pstmt.setInt(4, quantity);
-            pstmt.setString(5, reason);
-            pstmt.setString(6, documentNumber);
-            pstmt.setString(7, documentType);
-            pstmt.setString(8, note);
-            pstmt.executeUpdate();
+        try (PreparedStatement stockStmt = conn.prepareStatement(stockQuery);
+             PreparedStatement movementStmt = conn.prepareStatement(movementQuery)) {
+            Timestamp date = DateUtils.toSqlTimestamp(documentDate);
+            for (StockItem item : items) {
+                stockStmt.setInt(1, item.getQuantity());
+                stockStmt.setInt(2, item.getProductId());
+                stockStmt.addBatch();
+
+                movementStmt.setInt(1, item.getProductId());
+                movementStmt.setTimestamp(2, date);
+                movementStmt.setString(3, inward ? "INWARD" : "OUTWARD");
+                movementStmt.setInt(4, item.getQuantity());
+                movementStmt.setString(5, reason);
+                movementStmt.setString(6, documentNumber);
+                movementStmt.setString(7, documentType);
+                movementStmt.setString(8, note);
+                movementStmt.addBatch();
+            }
+            stockStmt.executeBatch();
+            movementStmt.executeBatch();
+        }
+
+        Set<Integer> productIds = new HashSet<>();
+        for (StockItem item : items) {
+            productIds.add(item.getProductId());
         }
+        StockLedger.getInstance().refresh(conn, productIds);
+    }
+
+    private static void logTiming(String action, String documentType, String documentNumber, int products, long startNanos) {
+        System.out.println(String.format("%s %s %s: %d products in %.1f ms",
+            action, documentType, documentNumber, products, (System.nanoTime() - startNanos) / 1_000_000.0));
     }
 
     /**
-     * Get available stock for a product (physical - reserved)
+     * Get available stock for a product (physical - reserved), from the
+     * {@link StockLedger} when it holds the product
      */
     public static int getAvailableStock(Connection conn, int productId) throws SQLException {
+        int available = StockLedger.getInstance().getAvailable(productId);
+        if (available != StockLedger.UNKNOWN) {
+            return available;
+        }
+
         String query = """
             SELECT quantity, reserved_quantity
             FROM products
@@ -406,16 +507,19 @@ public class StockManager {
         deleteWarehouseMovements(conn, "INVOICE", invoiceNumber);
     }
 
+    /**
+     * Delete the warehouse movements of a document (parameters: document type, document number)
+     */
+    static final String DELETE_WAREHOUSE_MOVEMENTS = """
+        DELETE FROM warehouse_movements
+        WHERE document_type = ? AND document_number = ?
+    """;
+
     /**
      * Delete warehouse movements for a specific document
      */
     public static void deleteWarehouseMovements(Connection conn, String documentType, String documentNumber) throws SQLException {
-        String deleteQuery = """
-            DELETE FROM warehouse_movements
-            WHERE document_type = ? AND document_number = ?
-        """;
-
-        try (PreparedStatement pstmt = conn.prepareStatement(deleteQuery)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(DELETE_WAREHOUSE_MOVEMENTS)) {
             pstmt.setString(1, documentType);
             pstmt.setString(2, documentNumber);
             pstmt.executeUpdate();
@@ -440,6 +544,21 @@ public class StockManager {
         public int getQuantity() { return quantity; }
     }
 
+    /**
+     * Thrown from a unit of work to roll it back when {@link #reserveOrFail}
+     * refused lines; carries them so the caller can ask the user
+     */
+    public static class InsufficientStockException extends SQLException {
+        private final Map<String, StockAvailability> insufficient;
+
+        public InsufficientStockException(Map<String, StockAvailability> insufficient) {
+            super("Insufficient stock for " + insufficient.size() + " products");
+            this.insufficient = insufficient;
+        }
+
+        public Map<String, StockAvailability> getInsufficient() { return insufficient; }
+    }
+
     public static class StockAvailability {
         private int physicalStock;
         private int reservedStock;
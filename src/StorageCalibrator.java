@@ -0,0 +1,216 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Benchmarks the storage profile presets against the user's own database.
+ *
+ * Every query is run once up front so the operating system file cache starts
+ * equally warm for all profiles. Each profile then gets a fresh read-only
+ * connection with its PRAGMAs applied and runs the query set several times;
+ * the fastest total wins. Page size cannot be measured without rebuilding the
+ * file, so the benchmark compares cache, mmap and temp_store settings only.
+ */
+public class StorageCalibrator {
+    private static final int ROUNDS = 3;
+    private static final long MAX_MILLIS_PER_PROFILE = 60_000;
+
+    // Full-scan report queries that exercise the page cache, joins and temp b-trees
+    private static final Map<String, String> BENCHMARK_QUERIES = new LinkedHashMap<>();
+    static {
+        BENCHMARK_QUERIES.put("Revenue per customer", """
+            SELECT c.id, COUNT(o.id), SUM(o.total)
+            FROM customers c
+            LEFT JOIN orders o ON o.customer_id = c.id
+            GROUP BY c.id
+        """);
+        BENCHMARK_QUERIES.put("Top products", """
+            SELECT p.id, p.name, SUM(od.quantity), SUM(od.quantity * od.unit_price) AS revenue
+            FROM order_details od
+            JOIN products p ON p.id = od.product_id
+            GROUP BY p.id, p.name
+            ORDER BY revenue DESC
+            LIMIT 20
+        """);
+        BENCHMARK_QUERIES.put("Invoice totals", """
+            SELECT i.id, i.number, SUM(d.total)
+            FROM invoices i
+            JOIN invoice_details d ON d.invoice_id = i.id
+            GROUP BY i.id, i.number
+        """);
+        BENCHMARK_QUERIES.put("Movements by product", """
+            SELECT m.product_id, m.type, SUM(m.quantity), COUNT(*)
+            FROM warehouse_movements m
+            GROUP BY m.product_id, m.type
+            ORDER BY m.product_id
+        """);
+        BENCHMARK_QUERIES.put("Stock valuation", """
+            SELECT category, SUM(quantity * price), SUM(quantity * acquisition_cost), COUNT(*)
+            FROM products
+            GROUP BY category
+        """);
+    }
+
+    /**
+     * Progress callback, invoked once per profile before it is measured
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        void onProfile(StorageProfile profile, int index, int total);
+    }
+
+    /**
+     * Run the benchmark for every preset
+     */
+    public static CalibrationResult calibrate(String url, ProgressListener listener) throws SQLException {
+        List<StorageProfile> candidates = new ArrayList<>();
+        long physicalMemory = getPhysicalMemoryBytes();
+        for (StorageProfile profile : StorageProfile.getPresets()) {
+            // Skip presets whose page cache would claim more than a quarter of RAM
+            if (physicalMemory <= 0 || profile.getCacheSizeKib() * 1024L <= physicalMemory / 4) {
+                candidates.add(profile);
+            }
+        }
+
+        // Warm-up pass so the first profile does not pay for cold OS caches
+        try (Connection conn = openReadOnly(url, StorageProfile.LOW_MEMORY)) {
+            for (String sql : BENCHMARK_QUERIES.values()) {
+                runQuery(conn, sql);
+            }
+        }
+
+        List<ProfileTiming> timings = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            StorageProfile profile = candidates.get(i);
+            if (listener != null) {
+                listener.onProfile(profile, i, candidates.size());
+            }
+            timings.add(measure(url, profile));
+        }
+
+        ProfileTiming fastest = null;
+        for (ProfileTiming timing : timings) {
+            if (fastest == null || timing.getTotalMillis() < fastest.getTotalMillis()) {
+                fastest = timing;
+            }
+        }
+        return new CalibrationResult(timings, fastest != null ? fastest.getProfile() : StorageProfile.DEFAULT);
+    }
+
+    private static ProfileTiming measure(String url, StorageProfile profile) throws SQLException {
+        Map<String, Double> perQuery = new LinkedHashMap<>();
+        long deadline = System.currentTimeMillis() + MAX_MILLIS_PER_PROFILE;
+        int rounds = 0;
+
+        try (Connection conn = openReadOnly(url, profile)) {
+            while (rounds < ROUNDS && System.currentTimeMillis() < deadline) {
+                for (Map.Entry<String, String> query : BENCHMARK_QUERIES.entrySet()) {
+                    long start = System.nanoTime();
+                    runQuery(conn, query.getValue());
+                    double millis = (System.nanoTime() - start) / 1_000_000.0;
+                    perQuery.merge(query.getKey(), millis, Double::sum);
+                }
+                rounds++;
+            }
+        }
+
+        double total = 0;
+        for (Map.Entry<String, Double> entry : perQuery.entrySet()) {
+            entry.setValue(entry.getValue() / rounds);
+            total += entry.getValue();
+        }
+        return new ProfileTiming(profile, total, perQuery);
+    }
+
+    private static Connection openReadOnly(String url, StorageProfile profile) throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON");
+        }
+        profile.applyTo(conn, false);
+        return conn;
+    }
+
+    private static void runQuery(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                // Touch every column so the values are actually decoded
+                for (int c = 1; c <= columns; c++) {
+                    rs.getObject(c);
+                }
+            }
+        }
+    }
+
+    private static long getPhysicalMemoryBytes() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getTotalMemorySize();
+        }
+        return -1;
+    }
+
+    /**
+     * Average time per round for one profile
+     */
+    public static class ProfileTiming {
+        private final StorageProfile profile;
+        private final double totalMillis;
+        private final Map<String, Double> queryMillis;
+
+        public ProfileTiming(StorageProfile profile, double totalMillis, Map<String, Double> queryMillis) {
+            this.profile = profile;
+            this.totalMillis = totalMillis;
+            this.queryMillis = queryMillis;
+        }
+
+        public StorageProfile getProfile() { return profile; }
+        public double getTotalMillis() { return totalMillis; }
+        public Map<String, Double> getQueryMillis() { return queryMillis; }
+    }
+
+    /**
+     * Timings of every profile tested plus the suggested one
+     */
+    public static class CalibrationResult {
+        private final List<ProfileTiming> timings;
+        private final StorageProfile suggested;
+
+        public CalibrationResult(List<ProfileTiming> timings, StorageProfile suggested) {
+            this.timings = timings;
+            this.suggested = suggested;
+        }
+
+        public List<ProfileTiming> getTimings() { return timings; }
+        public StorageProfile getSuggested() { return suggested; }
+
+        public String getFormattedReport() {
+            StringBuilder sb = new StringBuilder();
+            for (ProfileTiming timing : timings) {
+                sb.append(String.format("%s: %.1f ms per round%n",
+                    timing.getProfile().getDisplayName(), timing.getTotalMillis()));
+                for (Map.Entry<String, Double> entry : timing.getQueryMillis().entrySet()) {
+                    sb.append(String.format("    %-22s %8.1f ms%n", entry.getKey(), entry.getValue()));
+                }
+            }
+            sb.append(String.format("%nSuggested profile: %s%n", suggested.getDisplayName()));
+            sb.append("(Page size is not benchmarked; it changes only when the database file is rebuilt.)");
+            return sb.toString();
+        }
+    }
+
+    // Private constructor to prevent instantiation
+    private StorageCalibrator() {
+        throw new AssertionError("StorageCalibrator class cannot be instantiated");
+    }
+}
@@ -0,0 +1,132 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQLite storage tuning profile.
+ *
+ * A profile bundles the per-connection PRAGMAs (cache_size, mmap_size,
+ * temp_store, busy_timeout, and wal_autocheckpoint on the writer) plus the
+ * database page size. The connection pool applies the PRAGMAs to every
+ * connection it opens; the page size is a property of the file and is only
+ * changed by an explicit rebuild (see {@link DatabaseManager#changePageSize(int)}).
+ */
+public class StorageProfile {
+    public static final String SETTING = "storage_profile";
+
+    public static final StorageProfile LOW_MEMORY = new StorageProfile(
+        "low_memory", "Low-memory laptop",
+        "Small page cache, no memory mapping, temporary tables on disk",
+        8 * 1024, 0L, "FILE", 4096, 1000, 5_000);
+
+    public static final StorageProfile WORKSTATION = new StorageProfile(
+        "workstation", "Workstation",
+        "64 MB page cache, 256 MB memory-mapped I/O, temporary tables in memory",
+        64 * 1024, 256L * 1024 * 1024, "MEMORY", 4096, 1000, 5_000);
+
+    public static final StorageProfile LARGE_DATABASE = new StorageProfile(
+        "large_database", "Large database",
+        "256 MB page cache, 2 GB memory-mapped I/O, 16 KB pages, fewer WAL checkpoints",
+        256 * 1024, 2048L * 1024 * 1024, "MEMORY", 16384, 4000, 10_000);
+
+    public static final StorageProfile DEFAULT = WORKSTATION;
+
+    private static final List<StorageProfile> PRESETS = List.of(LOW_MEMORY, WORKSTATION, LARGE_DATABASE);
+
+    private final String name;
+    private final String displayName;
+    private final String description;
+    private final int cacheSizeKib;
+    private final long mmapSizeBytes;
+    private final String tempStore;
+    private final int pageSize;
+    private final int walAutocheckpointPages;
+    private final int busyTimeoutMillis;
+
+    public StorageProfile(String name, String displayName, String description, int cacheSizeKib,
+                          long mmapSizeBytes, String tempStore, int pageSize,
+                          int walAutocheckpointPages, int busyTimeoutMillis) {
+        this.name = name;
+        this.displayName = displayName;
+        this.description = description;
+        this.cacheSizeKib = cacheSizeKib;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.tempStore = tempStore;
+        this.pageSize = pageSize;
+        this.walAutocheckpointPages = walAutocheckpointPages;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+    }
+
+    public static List<StorageProfile> getPresets() {
+        return PRESETS;
+    }
+
+    /**
+     * Find a preset by its setting name, falling back to the default profile
+     */
+    public static StorageProfile forName(String name) {
+        for (StorageProfile profile : PRESETS) {
+            if (profile.name.equals(name)) {
+                return profile;
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Profile selected in the application settings
+     */
+    public static StorageProfile fromSettings() {
+        return forName(SettingsPanel.getGlobalSetting(SETTING, DEFAULT.getName()));
+    }
+
+    /**
+     * Apply the connection-level PRAGMAs. The WAL checkpoint interval only
+     * matters on the connection that commits, so it is set on the writer only.
+     */
+    public void applyTo(Connection conn, boolean writer) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            // Negative cache_size is in KiB rather than pages, so it does not depend on page_size
+            stmt.execute("PRAGMA cache_size = -" + cacheSizeKib);
+            stmt.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+            if (writer) {
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutocheckpointPages);
+            }
+        }
+    }
+
+    /**
+     * Current page size of the database file behind the connection
+     */
+    public static int getPageSize(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA page_size")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    public String getName() { return name; }
+    public String getDisplayName() { return displayName; }
+    public String getDescription() { return description; }
+    public int getCacheSizeKib() { return cacheSizeKib; }
+    public long getMmapSizeBytes() { return mmapSizeBytes; }
+    public String getTempStore() { return tempStore; }
+    public int getPageSize() { return pageSize; }
+    public int getWalAutocheckpointPages() { return walAutocheckpointPages; }
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+
+    public String getFormattedSummary() {
+        return String.format("cache %d MB, mmap %d MB, temp_store %s, page %d B, checkpoint every %d pages, busy timeout %d ms",
+            cacheSizeKib / 1024, mmapSizeBytes / (1024 * 1024), tempStore, pageSize,
+            walAutocheckpointPages, busyTimeoutMillis);
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -149,8 +149,7 @@ public class SupplierDialog extends JDialog {
     }
 
     private void loadSupplierData() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM suppliers WHERE id = ?";
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
                 pstmt.setInt(1, supplier.getId());
@@ -188,65 +187,69 @@ public class SupplierDialog extends JDialog {
         }
 
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
-            if (supplier == null) {
-                // New supplier
-                String insertQuery = """
-                    INSERT INTO suppliers (company_name, vat_number, tax_code,
-                                          address, phone, email, certified_email, website, notes)
-                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
-                    pstmt.setString(1, companyName);
-                    pstmt.setString(2, vatNumber);
-                    pstmt.setString(3, taxCodeField.getText().trim());
-                    pstmt.setString(4, addressField.getText().trim());
-                    pstmt.setString(5, phoneField.getText().trim());
-                    pstmt.setString(6, emailField.getText().trim());
-                    pstmt.setString(7, certifiedEmailField.getText().trim());
-                    pstmt.setString(8, websiteField.getText().trim());
-                    pstmt.setString(9, notesArea.getText().trim());
-
-                    pstmt.executeUpdate();
-
-                    // Get the new supplier ID
-                    try (ResultSet rs = pstmt.getGeneratedKeys()) {
-                        if (rs.next()) {
-                            int newId = rs.getInt(1);
-                            supplier = new Supplier(newId, companyName, vatNumber,
-                                taxCodeField.getText().trim(), addressField.getText().trim(),
-                                phoneField.getText().trim(), emailField.getText().trim(),
-                                certifiedEmailField.getText().trim(), websiteField.getText().trim(),
-                                notesArea.getText().trim());
+            Supplier created = DatabaseManager.getInstance().runInTransaction(conn -> {
+                if (supplier == null) {
+                    // New supplier
+                    String insertQuery = """
+                        INSERT INTO suppliers (company_name, vat_number, tax_code,
+                                              address, phone, email, certified_email, website, notes)
+                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """;
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(insertQuery, Statement.RETURN_GENERATED_KEYS)) {
+                        pstmt.setString(1, companyName);
+                        pstmt.setString(2, vatNumber);
+                        pstmt.setString(3, taxCodeField.getText().trim());
+                        pstmt.setString(4, addressField.getText().trim());
+                        pstmt.setString(5, phoneField.getText().trim());
+                        pstmt.setString(6, emailField.getText().trim());
+                        pstmt.setString(7, certifiedEmailField.getText().trim());
+                        pstmt.setString(8, websiteField.getText().trim());
+                        pstmt.setString(9, notesArea.getText().trim());
+
+                        pstmt.executeUpdate();
+
+                        // Get the new supplier ID
+                        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                            if (rs.next()) {
+                                int newId = rs.getInt(1);
+                                return new Supplier(newId, companyName, vatNumber,
+                                    taxCodeField.getText().trim(), addressField.getText().trim(),
+                                    phoneField.getText().trim(), emailField.getText().trim(),
+                                    certifiedEmailField.getText().trim(), websiteField.getText().trim(),
+                                    notesArea.getText().trim());
+                            }
                         }
                     }
+                } else {
+                    // Edit existing supplier
+                    String updateQuery = """
+                        UPDATE suppliers
+                        SET company_name = ?, vat_number = ?, tax_code = ?,
+                            address = ?, phone = ?, email = ?, certified_email = ?,
+                            website = ?, notes = ?
+                        WHERE id = ?
+                    """;
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+                        pstmt.setString(1, companyName);
+                        pstmt.setString(2, vatNumber);
+                        pstmt.setString(3, taxCodeField.getText().trim());
+                        pstmt.setString(4, addressField.getText().trim());
+                        pstmt.setString(5, phoneField.getText().trim());
+                        pstmt.setString(6, emailField.getText().trim());
+                        pstmt.setString(7, certifiedEmailField.getText().trim());
+                        pstmt.setString(8, websiteField.getText().trim());
+                        pstmt.setString(9, notesArea.getText().trim());
+                        pstmt.setInt(10, supplier.getId());
+
+                        pstmt.executeUpdate();
+                    }
                 }
-            } else {
-                // Edit existing supplier
-                String updateQuery = """
-                    UPDATE suppliers
-                    SET company_name = ?, vat_number = ?, tax_code = ?,
-                        address = ?, phone = ?, email = ?, certified_email = ?,
-                        website = ?, notes = ?
-                    WHERE id = ?
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-                    pstmt.setString(1, companyName);
-                    pstmt.setString(2, vatNumber);
-                    pstmt.setString(3, taxCodeField.getText().trim());
-                    pstmt.setString(4, addressField.getText().trim());
-                    pstmt.setString(5, phoneField.getText().trim());
-                    pstmt.setString(6, emailField.getText().trim());
-                    pstmt.setString(7, certifiedEmailField.getText().trim());
-                    pstmt.setString(8, websiteField.getText().trim());
-                    pstmt.setString(9, notesArea.getText().trim());
-                    pstmt.setInt(10, supplier.getId());
-
-                    pstmt.executeUpdate();
-                }
+                return null;
+            });
+            if (created != null) {
+                supplier = created;
             }
 
             supplierSaved = true;
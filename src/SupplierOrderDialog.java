@@ -179,8 +179,7 @@ public class SupplierOrderDialog extends JDialog {
     }
 
     private void generateOrderNumber() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT COALESCE(MAX(CAST(SUBSTR(number, 5) AS INTEGER)), 0) + 1 as next_num
                 FROM supplier_orders
@@ -207,20 +206,20 @@ public class SupplierOrderDialog extends JDialog {
     }
 
     private void loadProducts() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT p.*, COALESCE(l.price, p.price) as supplier_price,
                        l.supplier_product_code
                 FROM products p
                 LEFT JOIN supplier_price_lists l ON p.id = l.product_id
                     AND l.supplier_id = ?
-                    AND (l.validity_end_date IS NULL OR DATE(l.validity_end_date) >= DATE('now'))
+                    AND (l.validity_end_date IS NULL OR l.validity_end_date >= ?)
                 ORDER BY p.name
             """;
 
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
                 pstmt.setInt(1, supplierId);
+                pstmt.setLong(2, DateStorage.startOfToday());
                 ResultSet rs = pstmt.executeQuery();
 
                 while (rs.next()) {
@@ -520,10 +519,8 @@ public class SupplierOrderDialog extends JDialog {
                 }
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-
-            try {
+            final Date expectedDelivery = deliveryDate;
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 int orderId;
 
                 if (order == null) {
@@ -539,7 +536,7 @@ public class SupplierOrderDialog extends JDialog {
                         pstmt.setInt(1, supplierId);
                         pstmt.setString(2, numberField.getText());
                         pstmt.setTimestamp(3, DateUtils.toSqlTimestamp(orderDate));
-                        pstmt.setTimestamp(4, deliveryDate != null ? DateUtils.toSqlTimestamp(deliveryDate) : null);
+                        pstmt.setTimestamp(4, expectedDelivery != null ? DateUtils.toSqlTimestamp(expectedDelivery) : null);
                         pstmt.setString(5, newStatus);
                         pstmt.setDouble(6, total);
                         pstmt.setString(7, notesArea.getText().trim());
@@ -576,7 +573,7 @@ public class SupplierOrderDialog extends JDialog {
 
                     try (PreparedStatement pstmt = conn.prepareStatement(orderQuery)) {
                         pstmt.setTimestamp(1, DateUtils.toSqlTimestamp(orderDate));
-                        pstmt.setTimestamp(2, deliveryDate != null ? DateUtils.toSqlTimestamp(deliveryDate) : null);
+                        pstmt.setTimestamp(2, expectedDelivery != null ? DateUtils.toSqlTimestamp(expectedDelivery) : null);
                         pstmt.setString(3, newStatus);
                         pstmt.setDouble(4, total);
                         pstmt.setString(5, notesArea.getText().trim());
@@ -598,16 +595,11 @@ public class SupplierOrderDialog extends JDialog {
                     handleStatusChange(conn, orderId, previousStatus, newStatus, stockItems, orderDate);
                 }
 
-                conn.commit();
-                orderSaved = true;
-                dispose();
+                return null;
+            });
 
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            orderSaved = true;
+            dispose();
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -659,6 +651,7 @@ public class SupplierOrderDialog extends JDialog {
         // If changing FROM Completed to another status, we need to reverse the stock increment
         if ("Completed".equals(oldStatus) && !"Completed".equals(newStatus)) {
             // Reverse stock increment: decrement it back
+            List<Integer> productIds = new ArrayList<>();
             for (StockManager.StockItem item : items) {
                 String query = "UPDATE products SET quantity = quantity - ? WHERE id = ?";
                 try (PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -666,7 +659,9 @@ public class SupplierOrderDialog extends JDialog {
                     pstmt.setInt(2, item.getProductId());
                     pstmt.executeUpdate();
                 }
+                productIds.add(item.getProductId());
             }
+            StockLedger.getInstance().refresh(conn, productIds);
         }
 
         // If changing TO Completed from another status, increment stock
@@ -8,6 +8,16 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class SupplierOrdersWindow extends JDialog {
+    /**
+     * Items of a supplier order with their product names and codes
+     */
+    static final String ORDER_ITEMS = """
+        SELECT i.*, p.name as product_name, p.code as product_code
+        FROM supplier_order_details i
+        JOIN products p ON i.product_id = p.id
+        WHERE i.order_id = ?
+    """;
+
     private int supplierId;
     private String supplierName;
     private JTable ordersTable;
@@ -92,8 +102,7 @@ public class SupplierOrdersWindow extends JDialog {
 
     private void loadOrders() {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT * FROM supplier_orders
                 WHERE supplier_id = ?
@@ -165,10 +174,10 @@ public class SupplierOrdersWindow extends JDialog {
     }
 
     private SupplierOrder loadOrderByNumber(String number) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
         String query = "SELECT * FROM supplier_orders WHERE number = ? AND supplier_id = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, number);
             pstmt.setInt(2, supplierId);
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -194,7 +203,7 @@ public class SupplierOrdersWindow extends JDialog {
                         rs.getString("notes")
                     );
 
-                    loadOrderItems(order);
+                    loadOrderItems(conn, order);
                     return order;
                 }
             }
@@ -202,16 +211,8 @@ public class SupplierOrdersWindow extends JDialog {
         return null;
     }
 
-    private void loadOrderItems(SupplierOrder order) throws SQLException {
-        String query = """
-            SELECT i.*, p.name as product_name, p.code as product_code
-            FROM supplier_order_details i
-            JOIN products p ON i.product_id = p.id
-            WHERE i.order_id = ?
-        """;
-
-        Connection conn = DatabaseManager.getInstance().getConnection();
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+    private void loadOrderItems(Connection conn, SupplierOrder order) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(ORDER_ITEMS)) {
             pstmt.setInt(1, order.getId());
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -245,10 +246,7 @@ public class SupplierOrdersWindow extends JDialog {
 
             if (result == JOptionPane.YES_OPTION) {
                 try {
-                    Connection conn = DatabaseManager.getInstance().getConnection();
-                    conn.setAutoCommit(false);
-
-                    try {
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
                         // First delete order details
                         String deleteDetailsQuery = """
                             DELETE FROM supplier_order_details
@@ -271,15 +269,10 @@ public class SupplierOrdersWindow extends JDialog {
                             pstmt.executeUpdate();
                         }
 
-                        conn.commit();
-                        loadOrders();
+                        return null;
+                    });
 
-                    } catch (SQLException e) {
-                        conn.rollback();
-                        throw e;
-                    } finally {
-                        conn.setAutoCommit(true);
-                    }
+                    loadOrders();
 
                 } catch (SQLException e) {
                     e.printStackTrace();
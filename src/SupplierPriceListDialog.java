@@ -5,6 +5,17 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class SupplierPriceListDialog extends JDialog {
+    /**
+     * Existing price of the product whose validity overlaps a new one
+     * (parameters: supplier ID, product ID, start of validity, day after its end)
+     */
+    static final String OVERLAPPING_PRICE = """
+        SELECT id FROM supplier_price_lists
+        WHERE supplier_id = ? AND product_id = ?
+        AND (validity_end_date IS NULL OR validity_end_date >= ?)
+        AND validity_start_date < ?
+    """;
+
     private int supplierId;
     private String supplierName;
     private SupplierPriceList priceList;
@@ -181,8 +192,7 @@ public class SupplierPriceListDialog extends JDialog {
     }
 
     private void loadProducts() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM products ORDER BY name";
 
             try (Statement stmt = conn.createStatement();
@@ -224,7 +234,6 @@ public class SupplierPriceListDialog extends JDialog {
 
     private void loadPriceData() {
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
             String query = """
                 SELECT l.*, p.name as product_name
                 FROM supplier_price_lists l
@@ -232,7 +241,8 @@ public class SupplierPriceListDialog extends JDialog {
                 WHERE l.id = ?
             """;
 
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
                 pstmt.setInt(1, priceList.getId());
                 try (ResultSet rs = pstmt.executeQuery()) {
                     if (rs.next()) {
@@ -340,74 +350,74 @@ public class SupplierPriceListDialog extends JDialog {
             ProductDisplay selectedProduct = (ProductDisplay)productCombo.getSelectedItem();
             int productId = selectedProduct.getProduct().getId();
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
-            if (priceList == null) {
-                // Check if a valid price already exists for this product
-                String checkQuery = """
-                    SELECT id FROM supplier_price_lists
-                    WHERE supplier_id = ? AND product_id = ?
-                    AND (validity_end_date IS NULL OR DATE(validity_end_date) >= DATE(?))
-                    AND DATE(validity_start_date) <= DATE(?)
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(checkQuery)) {
-                    pstmt.setInt(1, supplierId);
-                    pstmt.setInt(2, productId);
-                    pstmt.setDate(3, DateUtils.toSqlDate(startDate));
-                    pstmt.setDate(4, endDate != null ? DateUtils.toSqlDate(endDate) : DateUtils.toSqlDate(startDate));
-
-                    ResultSet rs = pstmt.executeQuery();
-                    if (rs.next()) {
-                        JOptionPane.showMessageDialog(this,
-                            "A valid price already exists for this product in the specified period",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                        return;
+            // The overlap check and the insert run in one transaction on the writer
+            Date validFrom = startDate;
+            Date validTo = endDate;
+            boolean saved = DatabaseManager.getInstance().runInTransaction(conn -> {
+                if (priceList == null) {
+                    // Check if a valid price already exists for this product
+                    try (PreparedStatement pstmt = conn.prepareStatement(OVERLAPPING_PRICE)) {
+                        pstmt.setInt(1, supplierId);
+                        pstmt.setInt(2, productId);
+                        pstmt.setLong(3, DateStorage.startOfDay(validFrom));
+                        pstmt.setLong(4, DateStorage.startOfNextDay(validTo != null ? validTo : validFrom));
+
+                        ResultSet rs = pstmt.executeQuery();
+                        if (rs.next()) {
+                            return false;
+                        }
                     }
-                }
 
-                // Insert new price
-                String insertQuery = """
-                    INSERT INTO supplier_price_lists (
-                        supplier_id, product_id, supplier_product_code,
-                        price, minimum_quantity, validity_start_date,
-                        validity_end_date, notes
-                    ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
-                    pstmt.setInt(1, supplierId);
-                    pstmt.setInt(2, productId);
-                    pstmt.setString(3, supplierCodeField.getText().trim());
-                    pstmt.setDouble(4, price);
-                    pstmt.setInt(5, (Integer)minimumQuantitySpinner.getValue());
-                    pstmt.setTimestamp(6, DateUtils.toSqlTimestamp(startDate));
-                    pstmt.setTimestamp(7, endDate != null ? DateUtils.toSqlTimestamp(endDate) : null);
-                    pstmt.setString(8, notesArea.getText().trim());
-                    pstmt.executeUpdate();
-                }
+                    // Insert new price
+                    String insertQuery = """
+                        INSERT INTO supplier_price_lists (
+                            supplier_id, product_id, supplier_product_code,
+                            price, minimum_quantity, validity_start_date,
+                            validity_end_date, notes
+                        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                    """;
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
+                        pstmt.setInt(1, supplierId);
+                        pstmt.setInt(2, productId);
+                        pstmt.setString(3, supplierCodeField.getText().trim());
+                        pstmt.setDouble(4, price);
+                        pstmt.setInt(5, (Integer)minimumQuantitySpinner.getValue());
+                        pstmt.setTimestamp(6, DateUtils.toSqlTimestamp(validFrom));
+                        pstmt.setTimestamp(7, validTo != null ? DateUtils.toSqlTimestamp(validTo) : null);
+                        pstmt.setString(8, notesArea.getText().trim());
+                        pstmt.executeUpdate();
+                    }
 
-            } else {
-                // Update existing price
-                String updateQuery = """
-                    UPDATE supplier_price_lists SET
-                        supplier_product_code = ?,
-                        price = ?, minimum_quantity = ?,
-                        validity_start_date = ?, validity_end_date = ?,
-                        notes = ?
-                    WHERE id = ?
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
-                    pstmt.setString(1, supplierCodeField.getText().trim());
-                    pstmt.setDouble(2, price);
-                    pstmt.setInt(3, (Integer)minimumQuantitySpinner.getValue());
-                    pstmt.setTimestamp(4, DateUtils.toSqlTimestamp(startDate));
-                    pstmt.setTimestamp(5, endDate != null ? DateUtils.toSqlTimestamp(endDate) : null);
-                    pstmt.setString(6, notesArea.getText().trim());
-                    pstmt.setInt(7, priceList.getId());
-                    pstmt.executeUpdate();
+                } else {
+                    // Update existing price
+                    String updateQuery = """
+                        UPDATE supplier_price_lists SET
+                            supplier_product_code = ?,
+                            price = ?, minimum_quantity = ?,
+                            validity_start_date = ?, validity_end_date = ?,
+                            notes = ?
+                        WHERE id = ?
+                    """;
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
+                        pstmt.setString(1, supplierCodeField.getText().trim());
+                        pstmt.setDouble(2, price);
+                        pstmt.setInt(3, (Integer)minimumQuantitySpinner.getValue());
+                        pstmt.setTimestamp(4, DateUtils.toSqlTimestamp(validFrom));
+                        pstmt.setTimestamp(5, validTo != null ? DateUtils.toSqlTimestamp(validTo) : null);
+                        pstmt.setString(6, notesArea.getText().trim());
+                        pstmt.setInt(7, priceList.getId());
+                        pstmt.executeUpdate();
+                    }
                 }
+                return true;
+            });
+            if (!saved) {
+                JOptionPane.showMessageDialog(this,
+                    "A valid price already exists for this product in the specified period",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
 
             priceSaved = true;
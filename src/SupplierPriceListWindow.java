@@ -8,6 +8,17 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class SupplierPriceListWindow extends JDialog {
+    /**
+     * Price list of a supplier, ordered by product name
+     */
+    static final String PRICE_LIST = """
+        SELECT l.*, p.name as product_name
+        FROM supplier_price_lists l
+        JOIN products p ON l.product_id = p.id
+        WHERE l.supplier_id = ?
+        ORDER BY p.name
+    """;
+
     private int supplierId;
     private String supplierName;
     private JTable priceListTable;
@@ -92,17 +103,8 @@ public class SupplierPriceListWindow extends JDialog {
 
     private void loadPriceList() {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT l.*, p.name as product_name
-                FROM supplier_price_lists l
-                JOIN products p ON l.product_id = p.id
-                WHERE l.supplier_id = ?
-                ORDER BY p.name
-            """;
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(PRICE_LIST)) {
                 pstmt.setInt(1, supplierId);
                 ResultSet rs = pstmt.executeQuery();
 
@@ -155,7 +157,6 @@ public class SupplierPriceListWindow extends JDialog {
     }
 
     private SupplierPriceList loadPriceListItem(String productName, String supplierCode) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
         String query = """
             SELECT l.*, p.name as product_name
             FROM supplier_price_lists l
@@ -163,7 +164,8 @@ public class SupplierPriceListWindow extends JDialog {
             WHERE l.supplier_id = ? AND p.name = ? AND l.supplier_product_code = ?
         """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setInt(1, supplierId);
             pstmt.setString(2, productName);
             pstmt.setString(3, supplierCode);
@@ -200,21 +202,23 @@ public class SupplierPriceListWindow extends JDialog {
 
             if (result == JOptionPane.YES_OPTION) {
                 try {
-                    Connection conn = DatabaseManager.getInstance().getConnection();
-                    String query = """
-                        DELETE FROM supplier_price_lists
-                        WHERE supplier_id = ?
-                        AND product_id = (SELECT id FROM products WHERE name = ?)
-                        AND supplier_product_code = ?
-                    """;
-
-                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                        pstmt.setInt(1, supplierId);
-                        pstmt.setString(2, productName);
-                        pstmt.setString(3, supplierCode);
-                        pstmt.executeUpdate();
-                        loadPriceList();
-                    }
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
+                        String query = """
+                            DELETE FROM supplier_price_lists
+                            WHERE supplier_id = ?
+                            AND product_id = (SELECT id FROM products WHERE name = ?)
+                            AND supplier_product_code = ?
+                        """;
+
+                        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                            pstmt.setInt(1, supplierId);
+                            pstmt.setString(2, productName);
+                            pstmt.setString(3, supplierCode);
+                            pstmt.executeUpdate();
+                        }
+                        return null;
+                    });
+                    loadPriceList();
                 } catch (SQLException e) {
                     e.printStackTrace();
                     JOptionPane.showMessageDialog(this,
@@ -0,0 +1,67 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous queries for suppliers
+ */
+public class SupplierRepository {
+    private static final String FIND_ALL = "SELECT * FROM suppliers ORDER BY company_name";
+
+    private static final String SEARCH = """
+        SELECT f.* FROM suppliers f
+        JOIN %s s ON s.id = f.id
+        ORDER BY s.rank, f.company_name
+    """.formatted(SearchService.ranked(SearchService.Index.SUPPLIERS));
+
+    public static CompletableFuture<List<Supplier>> findAll() {
+        return DataAccess.read(conn -> query(conn, FIND_ALL, null));
+    }
+
+    /**
+     * Suppliers whose company name, VAT number, email, phone or address has
+     * words starting with the words of the search term, best match first
+     */
+    public static CompletableFuture<List<Supplier>> search(String searchTerm) {
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            return findAll();
+        }
+        return DataAccess.read(conn -> query(conn, SEARCH, match));
+    }
+
+    private static List<Supplier> query(Connection conn, String sql, String match) throws SQLException {
+        List<Supplier> suppliers = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            if (match != null) {
+                pstmt.setString(1, match);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    suppliers.add(new Supplier(
+                        rs.getInt("id"),
+                        rs.getString("company_name"),
+                        rs.getString("vat_number"),
+                        rs.getString("tax_code"),
+                        rs.getString("address"),
+                        rs.getString("phone"),
+                        rs.getString("email"),
+                        rs.getString("certified_email"),
+                        rs.getString("website"),
+                        rs.getString("notes")
+                    ));
+                }
+            }
+        }
+        return suppliers;
+    }
+
+    // Private constructor to prevent instantiation
+    private SupplierRepository() {
+        throw new AssertionError("SupplierRepository class cannot be instantiated");
+    }
+}
@@ -153,8 +153,7 @@ public class SupplierSelectionDialog extends JDialog {
 
     private void loadAllSuppliers() {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT id, company_name, vat_number, email, phone, address
                 FROM suppliers
@@ -184,33 +183,22 @@ public class SupplierSelectionDialog extends JDialog {
 
         tableModel.setRowCount(0);
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT id, company_name, vat_number, email, phone, address
-                FROM suppliers
-                WHERE LOWER(company_name) LIKE LOWER(?)
-                   OR LOWER(vat_number) LIKE LOWER(?)
-                   OR LOWER(email) LIKE LOWER(?)
-                   OR phone LIKE ?
-                   OR LOWER(address) LIKE LOWER(?)
-                ORDER BY
-                    CASE
-                        WHEN LOWER(company_name) LIKE LOWER(?) THEN 1
-                        ELSE 2
-                    END,
-                    company_name
-            """;
+            String match = SearchService.toMatchQuery(searchTerm);
+            if (match == null) {
+                loadAllSuppliers();
+                return;
+            }
 
-            String searchPattern = "%" + searchTerm + "%";
-            String exactPattern = searchTerm + "%";
+            String query = """
+                SELECT f.id, f.company_name, f.vat_number, f.email, f.phone, f.address
+                FROM suppliers f
+                JOIN %s s ON s.id = f.id
+                ORDER BY s.rank, f.company_name
+            """.formatted(SearchService.ranked(SearchService.Index.SUPPLIERS));
 
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-                pstmt.setString(4, searchPattern);
-                pstmt.setString(5, searchPattern);
-                pstmt.setString(6, exactPattern); // For ordering
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
+                pstmt.setString(1, match);
 
                 try (ResultSet rs = pstmt.executeQuery()) {
                     while (rs.next()) {
@@ -254,8 +242,7 @@ public class SupplierSelectionDialog extends JDialog {
         if (selectedRow != -1) {
             // Get complete supplier data from database
             int supplierId = (int)tableModel.getValueAt(selectedRow, 0);
-            try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
                 String query = "SELECT * FROM suppliers WHERE id = ?";
                 try (PreparedStatement pstmt = conn.prepareStatement(query)) {
                     pstmt.setInt(1, supplierId);
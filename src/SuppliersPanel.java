@@ -2,6 +2,7 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.*;
+import java.util.List;
 import java.util.Vector;
 
 public class SuppliersPanel extends JPanel {
@@ -14,6 +15,7 @@ public class SuppliersPanel extends JPanel {
     private JButton ordersButton;
     private JButton priceListButton;
     private JButton refreshButton;
+    private final DataAccess.LatestOnly loads = new DataAccess.LatestOnly();
 
     public SuppliersPanel() {
         setupPanel();
@@ -122,30 +124,8 @@ public class SuppliersPanel extends JPanel {
     }
 
     private void loadSuppliers() {
-        tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = "SELECT * FROM suppliers ORDER BY company_name";
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getInt("id"));
-                    row.add(rs.getString("company_name"));
-                    row.add(rs.getString("vat_number"));
-                    row.add(rs.getString("email"));
-                    row.add(rs.getString("phone"));
-                    row.add(rs.getString("address"));
-                    tableModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading suppliers: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        loads.apply(SupplierRepository.findAll(), this::showSuppliers,
+            DataAccess.errorDialog(this, "Error loading suppliers"));
     }
 
     private void searchSuppliers() {
@@ -155,41 +135,21 @@ public class SuppliersPanel extends JPanel {
             return;
         }
 
+        loads.apply(SupplierRepository.search(searchTerm), this::showSuppliers,
+            DataAccess.errorDialog(this, "Error searching for suppliers"));
+    }
+
+    private void showSuppliers(List<Supplier> suppliers) {
         tableModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT * FROM suppliers
-                WHERE company_name LIKE ?
-                   OR vat_number LIKE ?
-                   OR email LIKE ?
-                ORDER BY company_name
-            """;
-
-            String searchPattern = "%" + searchTerm + "%";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
-
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        Vector<Object> row = new Vector<>();
-                        row.add(rs.getInt("id"));
-                        row.add(rs.getString("company_name"));
-                        row.add(rs.getString("vat_number"));
-                        row.add(rs.getString("email"));
-                        row.add(rs.getString("phone"));
-                        row.add(rs.getString("address"));
-                        tableModel.addRow(row);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error searching for suppliers: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+        for (Supplier supplier : suppliers) {
+            Vector<Object> row = new Vector<>();
+            row.add(supplier.getId());
+            row.add(supplier.getCompanyName());
+            row.add(supplier.getVatNumber());
+            row.add(supplier.getEmail());
+            row.add(supplier.getPhone());
+            row.add(supplier.getAddress());
+            tableModel.addRow(row);
         }
     }
 
@@ -239,12 +199,15 @@ public class SuppliersPanel extends JPanel {
             String name = (String)tableModel.getValueAt(modelRow, 1);
 
             try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
-
                 // Check for existing dependencies
-                boolean hasOrders = hasSupplierOrders(conn, id);
-                boolean hasPriceList = hasSupplierPriceList(conn, id);
-                boolean hasMinStockReferences = hasMinStockReferences(conn, id);
+                boolean hasOrders;
+                boolean hasPriceList;
+                boolean hasMinStockReferences;
+                try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
+                    hasOrders = hasSupplierOrders(conn, id);
+                    hasPriceList = hasSupplierPriceList(conn, id);
+                    hasMinStockReferences = hasMinStockReferences(conn, id);
+                }
 
                 if (hasOrders || hasPriceList || hasMinStockReferences) {
                     StringBuilder message = new StringBuilder();
@@ -267,7 +230,7 @@ public class SuppliersPanel extends JPanel {
                         null, options, options[0]);
 
                     if (choice == 1) { // Force Delete
-                        performCascadeDelete(conn, id, name);
+                        performCascadeDelete(id, name);
                     }
                     return;
                 }
@@ -280,17 +243,20 @@ public class SuppliersPanel extends JPanel {
                     JOptionPane.WARNING_MESSAGE);
 
                 if (result == JOptionPane.YES_OPTION) {
-                    String query = "DELETE FROM suppliers WHERE id = ?";
-                    try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                        pstmt.setInt(1, id);
-                        pstmt.executeUpdate();
-                        loadSuppliers();
-
-                        JOptionPane.showMessageDialog(this,
-                            "Supplier deleted successfully",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    }
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
+                        String query = "DELETE FROM suppliers WHERE id = ?";
+                        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+                            pstmt.setInt(1, id);
+                            pstmt.executeUpdate();
+                        }
+                        return null;
+                    });
+                    loadSuppliers();
+
+                    JOptionPane.showMessageDialog(this,
+                        "Supplier deleted successfully",
+                        "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
                 }
             } catch (SQLException e) {
                 e.printStackTrace();
@@ -301,7 +267,7 @@ public class SuppliersPanel extends JPanel {
         }
     }
 
-    private void performCascadeDelete(Connection conn, int id, String name) {
+    private void performCascadeDelete(int id, String name) {
         int confirmResult = JOptionPane.showConfirmDialog(this,
             "WARNING: This will permanently delete supplier '" + name + "' and ALL related data:\n" +
             "- All orders from this supplier\n" +
@@ -319,9 +285,7 @@ public class SuppliersPanel extends JPanel {
         }
 
         try {
-            conn.setAutoCommit(false);
-
-            try {
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 // Delete in order to respect foreign key constraints
 
                 // 1. Delete supplier order details
@@ -385,20 +349,15 @@ public class SuppliersPanel extends JPanel {
                     System.out.println("Deleted supplier");
                 }
 
-                conn.commit();
-                loadSuppliers();
+                return null;
+            });
 
-                JOptionPane.showMessageDialog(this,
-                    "Supplier '" + name + "' and all related records deleted successfully",
-                    "Force Delete Completed",
-                    JOptionPane.INFORMATION_MESSAGE);
+            loadSuppliers();
 
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            JOptionPane.showMessageDialog(this,
+                "Supplier '" + name + "' and all related records deleted successfully",
+                "Force Delete Completed",
+                JOptionPane.INFORMATION_MESSAGE);
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -3,6 +3,8 @@ import java.awt.*;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
 
 public class WarehouseMovementDialog extends JDialog {
     private WarehouseMovement movement;
@@ -300,8 +302,11 @@ public class WarehouseMovementDialog extends JDialog {
 
     // Method to get current stock from database
     private int getCurrentStock(int productId) {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        int physical = StockLedger.getInstance().getPhysical(productId);
+        if (physical != StockLedger.UNKNOWN) {
+            return physical;
+        }
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT quantity FROM products WHERE id = ?";
 
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -341,8 +346,7 @@ public class WarehouseMovementDialog extends JDialog {
 
     // Method to load product by ID
     private Product loadProductById(int productId) {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = "SELECT * FROM products WHERE id = ?";
 
             try (PreparedStatement pstmt = conn.prepareStatement(query)) {
@@ -404,33 +408,31 @@ public class WarehouseMovementDialog extends JDialog {
                 }
             }
 
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-
-            try {
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 if (movement == null) {
                     // Insert new movement
                     String insertQuery = """
                         INSERT INTO warehouse_movements (
                             product_id, date, type, quantity, reason,
                             document_number, document_type, notes
-                        ) VALUES (?, CURRENT_TIMESTAMP, ?, ?, ?, ?, ?, ?)
+                        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?)
                     """;
 
                     try (PreparedStatement pstmt = conn.prepareStatement(insertQuery)) {
                         pstmt.setInt(1, selectedProduct.getId());
-                        pstmt.setString(2, type);
-                        pstmt.setInt(3, quantity);
-                        pstmt.setString(4, reason);
+                        pstmt.setTimestamp(2, DateUtils.toSqlTimestamp(new Date()));
+                        pstmt.setString(3, type);
+                        pstmt.setInt(4, quantity);
+                        pstmt.setString(5, reason);
 
                         String docNumber = documentNumberField.getText().trim();
-                        pstmt.setString(5, docNumber.isEmpty() ? null : docNumber);
+                        pstmt.setString(6, docNumber.isEmpty() ? null : docNumber);
 
                         String docType = (String)documentTypeCombo.getSelectedItem();
-                        pstmt.setString(6, (docType == null || docType.trim().isEmpty()) ? null : docType);
+                        pstmt.setString(7, (docType == null || docType.trim().isEmpty()) ? null : docType);
 
                         String notes = notesArea.getText().trim();
-                        pstmt.setString(7, notes.isEmpty() ? null : notes);
+                        pstmt.setString(8, notes.isEmpty() ? null : notes);
 
                         pstmt.executeUpdate();
                     }
@@ -491,21 +493,23 @@ public class WarehouseMovementDialog extends JDialog {
                     pstmt.executeUpdate();
                 }
 
-                conn.commit();
-                movementSaved = true;
+                Set<Integer> touched = new HashSet<>();
+                touched.add(selectedProduct.getId());
+                if (movement != null) {
+                    touched.add(movement.getProductId());
+                }
+                StockLedger.getInstance().refresh(conn, touched);
 
-                JOptionPane.showMessageDialog(this,
-                    "Movement saved successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
+                return null;
+            });
 
-                dispose();
+            movementSaved = true;
 
-            } catch (SQLException e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            JOptionPane.showMessageDialog(this,
+                "Movement saved successfully!",
+                "Success", JOptionPane.INFORMATION_MESSAGE);
+
+            dispose();
 
         } catch (SQLException e) {
             e.printStackTrace();
@@ -0,0 +1,34 @@
+import java.util.Date;
+
+/**
+ * Warehouse notification raised for a product (e.g. stock below minimum)
+ */
+public class WarehouseNotification {
+    private final int id;
+    private final int productId;
+    private final String productName;
+    private final Date date;
+    private final String type;
+    private final String message;
+    private final String status;
+
+    public WarehouseNotification(int id, int productId, String productName, Date date,
+                                 String type, String message, String status) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.date = date;
+        this.type = type;
+        this.message = message;
+        this.status = status;
+    }
+
+    // Getters
+    public int getId() { return id; }
+    public int getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public Date getDate() { return date; }
+    public String getType() { return type; }
+    public String getMessage() { return message; }
+    public String getStatus() { return status; }
+}
@@ -5,6 +5,7 @@ import java.sql.*;
 import java.util.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
 public class WarehousePanel extends JPanel {
     private JTabbedPane tabbedPane;
@@ -12,8 +13,10 @@ public class WarehousePanel extends JPanel {
     private JTable movementsTable;
     private JTable notificationsTable;
     private DefaultTableModel stockModel;
-    private DefaultTableModel movementsModel;
+    private PagedTableModel<WarehouseMovement> movementsModel;
     private DefaultTableModel notificationsModel;
+    private final DataAccess.LatestOnly stockLoads = new DataAccess.LatestOnly();
+    private final DataAccess.LatestOnly notificationLoads = new DataAccess.LatestOnly();
     private SimpleDateFormat dateFormat;
 
     public WarehousePanel() {
@@ -103,14 +106,23 @@ public class WarehousePanel extends JPanel {
         filterPanel.add(searchField);
         filterPanel.add(searchButton);
 
-        // Movements table (ID hidden in column 0)
-        String[] columns = {"ID", "Date", "Product", "Type", "Quantity", "Reason", "Document", "Notes"};
-        movementsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Movements table (ID hidden in column 0), loaded page by page, newest first
+        movementsModel = new PagedTableModel<>(
+            WarehouseRepository.MOVEMENT_PAGE_SELECT, "m.id", WarehouseRepository::mapMovement,
+            List.of(
+                new PagedTableModel.Column<WarehouseMovement>("ID", WarehouseMovement::getId, "m.id"),
+                new PagedTableModel.Column<WarehouseMovement>("Date",
+                    m -> m.getDate() != null ? DateUtils.formatDate(m.getDate(), dateFormat) : "", "m.date"),
+                new PagedTableModel.Column<WarehouseMovement>("Product", WarehouseMovement::getProductName, "p.name"),
+                new PagedTableModel.Column<WarehouseMovement>("Type", WarehouseMovement::getType, "m.type"),
+                new PagedTableModel.Column<WarehouseMovement>("Quantity", WarehouseMovement::getQuantity, "m.quantity"),
+                new PagedTableModel.Column<WarehouseMovement>("Reason", WarehouseMovement::getReason, "m.reason"),
+                new PagedTableModel.Column<WarehouseMovement>("Document", this::formatDocument,
+                    "COALESCE(m.document_type, '') || ' ' || COALESCE(m.document_number, '')"),
+                new PagedTableModel.Column<WarehouseMovement>("Notes", WarehouseMovement::getNotes, "COALESCE(m.notes, '')")
+            ),
+            1, true);
+        movementsModel.setErrorHandler(DataAccess.errorDialog(this, "Error loading movements"));
         movementsTable = new JTable(movementsModel);
 
         // Enable column sorting with date support (column 1 is "Date")
@@ -216,217 +228,38 @@ public class WarehousePanel extends JPanel {
     private void loadData() {
         loadStockData();
         loadMovementsData();
-        loadNotificationsData();
-        checkLowStock();
+        // Raise today's low-stock notifications first so they show up in the list
+        DataAccess.onEdt(WarehouseRepository.createLowStockNotifications(),
+            created -> loadNotificationsData(),
+            error -> {
+                DataAccess.errorDialog(this, "Error checking minimum stock").accept(error);
+                loadNotificationsData();
+            });
     }
 
     private void loadStockData() {
-        stockModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT p.*, sm.minimum_quantity, sm.reorder_quantity,
-                        s.company_name as supplier_name
-                FROM products p
-                LEFT JOIN minimum_stock sm ON p.id = sm.product_id
-                LEFT JOIN suppliers s ON sm.preferred_supplier_id = s.id
-                ORDER BY p.name
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getString("code"));
-                    row.add(rs.getString("name"));
-
-                    int physicalStock = rs.getInt("quantity");
-                    int reservedStock = rs.getInt("reserved_quantity");
-                    int availableStock = physicalStock - reservedStock;
-
-                    row.add(physicalStock);
-                    row.add(reservedStock);
-                    row.add(availableStock);
-
-                    int minQuantity = rs.getInt("minimum_quantity");
-                    row.add(minQuantity > 0 ? minQuantity : "-");
-
-                    // Determine stock status based on available stock
-                    String status;
-                    if (minQuantity > 0) {
-                        if (availableStock <= 0) {
-                            status = "OUT OF STOCK";
-                        } else if (availableStock < minQuantity) {
-                            status = "LOW STOCK";
-                        } else {
-                            status = "OK";
-                        }
-                    } else {
-                        status = availableStock <= 0 ? "OUT OF STOCK" : "OK";
-                    }
-                    row.add(status);
-
-                    row.add(rs.getString("supplier_name"));
-                    stockModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading warehouse data: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        stockLoads.apply(WarehouseRepository.findStockLevels(), this::showStockLevels,
+            DataAccess.errorDialog(this, "Error loading warehouse data"));
     }
 
-    private void loadMovementsData() {
-        movementsModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT m.*, p.name as product_name
-                FROM warehouse_movements m
-                JOIN products p ON m.product_id = p.id
-                ORDER BY m.date DESC
-                LIMIT 100
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-
-                    // ID (hidden column)
-                    row.add(rs.getInt("id"));
-
-                    Date movementDate = DateUtils.parseDate(rs, "date");
-                    if (movementDate != null) {
-                        row.add(DateUtils.formatDate(movementDate, dateFormat));
-                    } else {
-                        row.add("");
-                    }
-
-                    row.add(rs.getString("product_name"));
-                    row.add(rs.getString("type"));
-                    row.add(rs.getInt("quantity"));
-                    row.add(rs.getString("reason"));
-
-                    String document = rs.getString("document_type");
-                    if (document != null && !document.isEmpty()) {
-                        document += " " + rs.getString("document_number");
-                    }
-                    row.add(document);
-
-                    row.add(rs.getString("notes"));
-                    movementsModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading movements: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void loadNotificationsData() {
-        notificationsModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT n.*, p.name as product_name
-                FROM warehouse_notifications n
-                JOIN products p ON n.product_id = p.id
-                WHERE n.status != 'HANDLED'
-                ORDER BY n.date DESC
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-
-                    Date notificationDate = DateUtils.parseDate(rs, "date");
-                    if (notificationDate != null) {
-                        row.add(DateUtils.formatDate(notificationDate, dateFormat));
-                    } else {
-                        row.add("");
-                    }
-
-                    row.add(rs.getString("product_name"));
-                    row.add(rs.getString("type"));
-                    row.add(rs.getString("message"));
-                    row.add(rs.getString("status"));
-                    notificationsModel.addRow(row);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading notifications: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private void checkLowStock() {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT p.id, p.name, p.quantity, sm.minimum_quantity, sm.reorder_quantity
-                FROM products p
-                JOIN minimum_stock sm ON p.id = sm.product_id
-                WHERE p.quantity <= sm.minimum_quantity
-                AND NOT EXISTS (
-                    SELECT 1 FROM warehouse_notifications n
-                    WHERE n.product_id = p.id
-                    AND n.type = 'MIN_STOCK'
-                    AND n.status != 'HANDLED'
-                    AND DATE(n.date) = DATE('now')
-                )
-            """;
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                while (rs.next()) {
-                    int productId = rs.getInt("id");
-                    String productName = rs.getString("name");
-                    int quantity = rs.getInt("quantity");
-                    int minQuantity = rs.getInt("minimum_quantity");
-
-                    // Create notification
-                    String message = String.format(
-                        "Stock is below minimum (%d). Current quantity: %d",
-                        minQuantity, quantity
-                    );
-
-                    createNotification(productId, "MIN_STOCK", message);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error checking minimum stock: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+    private void showStockLevels(List<StockLevel> levels) {
+        stockModel.setRowCount(0);
+        for (StockLevel level : levels) {
+            Vector<Object> row = new Vector<>();
+            row.add(level.getProductCode());
+            row.add(level.getProductName());
+            row.add(level.getQuantity());
+            row.add(level.getReservedQuantity());
+            row.add(level.getAvailableQuantity());
+            row.add(level.getMinimumQuantity() > 0 ? level.getMinimumQuantity() : "-");
+            row.add(level.getStatus());
+            row.add(level.getSupplierName());
+            stockModel.addRow(row);
         }
     }
 
-    private void createNotification(int productId, String type, String message) {
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                INSERT INTO warehouse_notifications
-                (product_id, date, type, message, status)
-                VALUES (?, CURRENT_TIMESTAMP, ?, ?, 'NEW')
-            """;
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setInt(1, productId);
-                pstmt.setString(2, type);
-                pstmt.setString(3, message);
-                pstmt.executeUpdate();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    private void loadMovementsData() {
+        movementsModel.setFilter(null);
     }
 
     private void searchMovements(String searchTerm) {
@@ -435,57 +268,45 @@ public class WarehousePanel extends JPanel {
             return;
         }
 
-        movementsModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT m.*, p.name as product_name
-                FROM warehouse_movements m
-                JOIN products p ON m.product_id = p.id
-                WHERE p.name LIKE ?
-                    OR m.reason LIKE ?
-                    OR m.document_number LIKE ?
-                ORDER BY m.date DESC
-            """;
-
-            String searchPattern = "%" + searchTerm + "%";
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                pstmt.setString(1, searchPattern);
-                pstmt.setString(2, searchPattern);
-                pstmt.setString(3, searchPattern);
+        String match = SearchService.toMatchQuery(searchTerm);
+        if (match == null) {
+            loadMovementsData();
+            return;
+        }
+        movementsModel.setFilter(WarehouseRepository.MOVEMENT_SEARCH_FILTER,
+            match, SearchService.toMatchQuery(searchTerm, "name"));
+    }
 
-                try (ResultSet rs = pstmt.executeQuery()) {
-                    while (rs.next()) {
-                        Vector<Object> row = new Vector<>();
-
-                        Date movementDate = DateUtils.parseDate(rs, "date");
-                        if (movementDate != null) {
-                            row.add(DateUtils.formatDate(movementDate, dateFormat));
-                        } else {
-                            row.add("");
-                        }
+    private String formatDocument(WarehouseMovement movement) {
+        String document = movement.getDocumentType();
+        if (document != null && !document.isEmpty()) {
+            document += " " + movement.getDocumentNumber();
+        }
+        return document;
+    }
 
-                        row.add(rs.getString("product_name"));
-                        row.add(rs.getString("type"));
-                        row.add(rs.getInt("quantity"));
-                        row.add(rs.getString("reason"));
+    private void loadNotificationsData() {
+        notificationLoads.apply(WarehouseRepository.findOpenNotifications(), this::showNotifications,
+            DataAccess.errorDialog(this, "Error loading notifications"));
+    }
 
-                        String document = rs.getString("document_type");
-                        if (document != null && !document.isEmpty()) {
-                            document += " " + rs.getString("document_number");
-                        }
-                        row.add(document);
+    private void showNotifications(List<WarehouseNotification> notifications) {
+        notificationsModel.setRowCount(0);
+        for (WarehouseNotification notification : notifications) {
+            Vector<Object> row = new Vector<>();
 
-                        row.add(rs.getString("notes"));
-                        movementsModel.addRow(row);
-                    }
-                }
+            Date notificationDate = notification.getDate();
+            if (notificationDate != null) {
+                row.add(DateUtils.formatDate(notificationDate, dateFormat));
+            } else {
+                row.add("");
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error searching for movements: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+
+            row.add(notification.getProductName());
+            row.add(notification.getType());
+            row.add(notification.getMessage());
+            row.add(notification.getStatus());
+            notificationsModel.addRow(row);
         }
     }
 
@@ -494,10 +315,7 @@ public class WarehousePanel extends JPanel {
         if (selectedRows.length == 0) return;
 
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            conn.setAutoCommit(false);
-
-            try {
+            DatabaseManager.getInstance().runInTransaction(conn -> {
                 String updateQuery = "UPDATE warehouse_notifications SET status = ? WHERE id = ?";
                 try (PreparedStatement pstmt = conn.prepareStatement(updateQuery)) {
                     for (int row : selectedRows) {
@@ -518,15 +336,10 @@ public class WarehousePanel extends JPanel {
                     }
                 }
 
-                conn.commit();
-                loadNotificationsData();
+                return null;
+            });
 
-            } catch (Exception e) {
-                conn.rollback();
-                throw e;
-            } finally {
-                conn.setAutoCommit(true);
-            }
+            loadNotificationsData();
         } catch (Exception e) {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this,
@@ -537,8 +350,6 @@ public class WarehousePanel extends JPanel {
 
     private int findNotificationId(String dateStr, String productName, String type, String message) {
         try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
-
             // Try to parse the date string to match against database
             SimpleDateFormat displayFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm");
             Date parsedDate = null;
@@ -571,7 +382,8 @@ public class WarehousePanel extends JPanel {
                 """;
             }
 
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+            try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(query)) {
                 pstmt.setString(1, productName);
                 pstmt.setString(2, type);
                 pstmt.setString(3, message);
@@ -647,7 +459,6 @@ public class WarehousePanel extends JPanel {
     }
 
     private MinimumStock loadMinimumStock(String code) throws SQLException {
-        Connection conn = DatabaseManager.getInstance().getConnection();
         String query = """
             SELECT p.id, p.name, sm.minimum_quantity, sm.reorder_quantity,
                     sm.lead_time_days, sm.preferred_supplier_id,
@@ -658,7 +469,8 @@ public class WarehousePanel extends JPanel {
             WHERE p.code = ?
         """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(query)) {
             pstmt.setString(1, code);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -686,43 +498,9 @@ public class WarehousePanel extends JPanel {
         if (selectedRow != -1) {
             // Convert view index to model index (important when table is sorted)
             int modelRow = movementsTable.convertRowIndexToModel(selectedRow);
-            int movementId = (int)movementsModel.getValueAt(modelRow, 0);
-
-            try {
-                Connection conn = DatabaseManager.getInstance().getConnection();
-                String query = """
-                    SELECT m.*, p.name as product_name
-                    FROM warehouse_movements m
-                    JOIN products p ON m.product_id = p.id
-                    WHERE m.id = ?
-                """;
-
-                try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                    pstmt.setInt(1, movementId);
-                    ResultSet rs = pstmt.executeQuery();
-
-                    if (rs.next()) {
-                        WarehouseMovement movement = new WarehouseMovement(
-                            rs.getInt("id"),
-                            rs.getInt("product_id"),
-                            rs.getString("product_name"),
-                            DateUtils.parseDate(rs, "date"),
-                            rs.getString("type"),
-                            rs.getInt("quantity"),
-                            rs.getString("reason"),
-                            rs.getString("document_number"),
-                            rs.getString("document_type"),
-                            rs.getString("notes")
-                        );
-
-                        showMovementDialog(movement);
-                    }
-                }
-            } catch (SQLException e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this,
-                    "Error loading movement: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+            WarehouseMovement movement = movementsModel.getRow(modelRow);
+            if (movement != null) {
+                showMovementDialog(movement);
             }
         }
     }
@@ -732,10 +510,14 @@ public class WarehousePanel extends JPanel {
         if (selectedRow != -1) {
             // Convert view index to model index (important when table is sorted)
             int modelRow = movementsTable.convertRowIndexToModel(selectedRow);
-            int movementId = (int)movementsModel.getValueAt(modelRow, 0);
-            String product = (String)movementsModel.getValueAt(modelRow, 2);
-            String type = (String)movementsModel.getValueAt(modelRow, 3);
-            int quantity = (int)movementsModel.getValueAt(modelRow, 4);
+            WarehouseMovement movement = movementsModel.getRow(modelRow);
+            if (movement == null) {
+                return;
+            }
+            int movementId = movement.getId();
+            String product = movement.getProductName();
+            String type = movement.getType();
+            int quantity = movement.getQuantity();
 
             int result = JOptionPane.showConfirmDialog(this,
                 "Are you sure you want to delete this movement?\n\n" +
@@ -749,10 +531,7 @@ public class WarehousePanel extends JPanel {
 
             if (result == JOptionPane.YES_OPTION) {
                 try {
-                    Connection conn = DatabaseManager.getInstance().getConnection();
-                    conn.setAutoCommit(false);
-
-                    try {
+                    DatabaseManager.getInstance().runInTransaction(conn -> {
                         // Get movement details to restore stock
                         int productId = 0;
                         String movementType = "";
@@ -778,6 +557,7 @@ public class WarehousePanel extends JPanel {
                                 pstmt.setInt(2, productId);
                                 pstmt.executeUpdate();
                             }
+                            StockLedger.getInstance().refresh(conn, List.of(productId));
                         }
 
                         // Delete the movement
@@ -787,20 +567,15 @@ public class WarehousePanel extends JPanel {
                             pstmt.executeUpdate();
                         }
 
-                        conn.commit();
-                        loadMovementsData();
-                        loadStockData();
+                        return null;
+                    });
 
-                        JOptionPane.showMessageDialog(this,
-                            "Movement deleted successfully!\nStock has been adjusted.",
-                            "Success", JOptionPane.INFORMATION_MESSAGE);
+                    loadMovementsData();
+                    loadStockData();
 
-                    } catch (SQLException e) {
-                        conn.rollback();
-                        throw e;
-                    } finally {
-                        conn.setAutoCommit(true);
-                    }
+                    JOptionPane.showMessageDialog(this,
+                        "Movement deleted successfully!\nStock has been adjusted.",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
                 } catch (SQLException e) {
                     e.printStackTrace();
                     JOptionPane.showMessageDialog(this,
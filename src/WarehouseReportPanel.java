@@ -1,19 +1,20 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.sql.*;
 import java.text.MessageFormat;
 import java.text.SimpleDateFormat;
-import java.util.Vector;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.io.*;
 
 public class WarehouseReportPanel extends JPanel {
     private JTabbedPane tabbedPane;
     private JTable productsTable;
     private JTable movementsTable;
-    private DefaultTableModel productsModel;
-    private DefaultTableModel movementsModel;
+    private ColumnarTableModel productsModel;
+    private PagedTableModel<WarehouseMovement> movementsModel;
     private SimpleDateFormat dateFormat;
     private JTextField startDateField;
     private JTextField endDateField;
@@ -64,14 +65,16 @@ public class WarehouseReportPanel extends JPanel {
         statsPanel.add(outOfStockLabel);
 
         // Products Table
-        String[] columns = {"Code", "Product", "Quantity", "Unit Value", "Total Value", "Status"};
-        productsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        productsModel = new ColumnarTableModel(
+            ColumnarTableModel.Column.text("Code"),
+            ColumnarTableModel.Column.text("Product"),
+            ColumnarTableModel.Column.integer("Quantity"),
+            ColumnarTableModel.Column.money("Unit Value"),
+            ColumnarTableModel.Column.money("Total Value"),
+            ColumnarTableModel.Column.category("Status")
+        );
         productsTable = new JTable(productsModel);
+        productsModel.installRenderers(productsTable);
 
         // Enable column sorting
         TableSorterUtil.enableSorting(productsTable);
@@ -132,14 +135,22 @@ public class WarehouseReportPanel extends JPanel {
         applyButton.addActionListener(e -> loadMovementsData());
         filterPanel.add(applyButton);
 
-        // Movements Table
-        String[] columns = {"Date", "Product", "Type", "Quantity", "Reason", "Document"};
-        movementsModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Movements Table, loaded page by page as it scrolls
+        movementsModel = new PagedTableModel<>(
+            WarehouseRepository.MOVEMENT_REPORT_SELECT, "m.id", WarehouseRepository::mapMovement,
+            List.of(
+                new PagedTableModel.Column<WarehouseMovement>("Date",
+                    m -> m.getDate() != null ? DateUtils.formatDate(m.getDate(), dateFormat) : "N/A", "m.date"),
+                new PagedTableModel.Column<WarehouseMovement>("Product",
+                    m -> m.getProductName() != null ? m.getProductName() : "Product N/A", "COALESCE(p.name, '')"),
+                new PagedTableModel.Column<WarehouseMovement>("Type", WarehouseMovement::getType, "m.type"),
+                new PagedTableModel.Column<WarehouseMovement>("Quantity", WarehouseMovement::getQuantity, "m.quantity"),
+                new PagedTableModel.Column<WarehouseMovement>("Reason", WarehouseMovement::getReason, "m.reason"),
+                new PagedTableModel.Column<WarehouseMovement>("Document", this::formatDocument,
+                    "COALESCE(m.document_type, '') || ' ' || COALESCE(m.document_number, '')")
+            ),
+            0, true);
+        movementsModel.setErrorHandler(DataAccess.errorDialog(this, "Error loading movements"));
         movementsTable = new JTable(movementsModel);
 
         // Enable column sorting with date support (column 0 is "Date")
@@ -174,9 +185,8 @@ public class WarehouseReportPanel extends JPanel {
     }
 
     private void loadProductsData() {
-        productsModel.setRowCount(0);
-        try {
-            Connection conn = DatabaseManager.getInstance().getConnection();
+        productsModel.clear();
+        try (Connection conn = DatabaseManager.getInstance().getReadConnection()) {
             String query = """
                 SELECT p.*, COALESCE(sm.minimum_quantity, 0) as minimum_quantity
                 FROM products p
@@ -192,18 +202,18 @@ public class WarehouseReportPanel extends JPanel {
             try (Statement stmt = conn.createStatement();
                  ResultSet rs = stmt.executeQuery(query)) {
                 while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-                    row.add(rs.getString("code"));
-                    row.add(rs.getString("name"));
+                    int row = productsModel.addRow();
+                    productsModel.setText(row, 0, rs.getString("code"));
+                    productsModel.setText(row, 1, rs.getString("name"));
 
                     int quantity = rs.getInt("quantity");
                     double price = rs.getDouble("price");
                     double totalValueProduct = quantity * price;
                     int minQuantity = rs.getInt("minimum_quantity");
 
-                    row.add(quantity);
-                    row.add(String.format("%.2f", price));
-                    row.add(String.format("%.2f", totalValueProduct));
+                    productsModel.setInt(row, 2, quantity);
+                    productsModel.setMoney(row, 3, price);
+                    productsModel.setMoney(row, 4, totalValueProduct);
 
                     // Determine status
                     String status;
@@ -216,9 +226,8 @@ public class WarehouseReportPanel extends JPanel {
                     } else {
                         status = "OK";
                     }
-                    row.add(status);
+                    productsModel.setText(row, 5, status);
 
-                    productsModel.addRow(row);
                     totalProducts++;
                     totalValue += totalValueProduct;
                 }
@@ -233,6 +242,7 @@ public class WarehouseReportPanel extends JPanel {
                 "Error loading data: " + e.getMessage(),
                 "Error", JOptionPane.ERROR_MESSAGE);
         }
+        productsModel.fireTableDataChanged();
     }
 
     private void updateStatistics(int totalProducts, double totalValue, int lowStock, int outOfStock) {
@@ -254,96 +264,46 @@ public class WarehouseReportPanel extends JPanel {
     }
 
     private void loadMovementsData() {
-        movementsModel.setRowCount(0);
-        try {
-            String startDateText = startDateField.getText().trim();
-            String endDateText = endDateField.getText().trim();
-            String selectedType = (String) typeCombo.getSelectedItem();
-
-            Connection conn = DatabaseManager.getInstance().getConnection();
-            String query = """
-                SELECT m.*, p.name as product_name
-                FROM warehouse_movements m
-                LEFT JOIN products p ON m.product_id = p.id
-                WHERE 1=1
-            """;
-
-            // Build query based on filters
-            boolean hasDateFilter = false;
-            boolean hasTypeFilter = false;
-            Date startDate = null;
-            Date endDate = null;
-
-            if (!startDateText.isEmpty() && !endDateText.isEmpty()) {
-                try {
-                    startDate = DateUtils.parseDate(startDateText, dateFormat);
-                    endDate = DateUtils.parseDate(endDateText, dateFormat);
-                    if (startDate != null && endDate != null) {
-                        query += " AND DATE(m.date) >= DATE(?) AND DATE(m.date) <= DATE(?)";
-                        hasDateFilter = true;
-                    }
-                } catch (Exception e) {
-                    // Ignore date parsing errors and load all data
+        String startDateText = startDateField.getText().trim();
+        String endDateText = endDateField.getText().trim();
+        String selectedType = (String) typeCombo.getSelectedItem();
+
+        // Build the filter from the selected period and type
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (!startDateText.isEmpty() && !endDateText.isEmpty()) {
+            try {
+                Date startDate = DateUtils.parseDate(startDateText, dateFormat);
+                Date endDate = DateUtils.parseDate(endDateText, dateFormat);
+                if (startDate != null && endDate != null) {
+                    conditions.add(WarehouseRepository.MOVEMENT_DATE_FILTER);
+                    params.add(DateStorage.startOfDay(startDate));
+                    params.add(DateStorage.startOfNextDay(endDate));
                 }
+            } catch (Exception e) {
+                // Ignore date parsing errors and load all data
             }
+        }
 
-            if (selectedType != null && !"All".equals(selectedType)) {
-                query += " AND m.type = ?";
-                hasTypeFilter = true;
-            }
-
-            query += " ORDER BY m.date DESC";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(query)) {
-                int paramIndex = 1;
-
-                if (hasDateFilter && startDate != null && endDate != null) {
-                    pstmt.setString(paramIndex++, DateUtils.formatDate(startDate, new SimpleDateFormat("yyyy-MM-dd")));
-                    pstmt.setString(paramIndex++, DateUtils.formatDate(endDate, new SimpleDateFormat("yyyy-MM-dd")));
-                }
-
-                if (hasTypeFilter) {
-                    pstmt.setString(paramIndex, selectedType);
-                }
-
-                ResultSet rs = pstmt.executeQuery();
-
-                while (rs.next()) {
-                    Vector<Object> row = new Vector<>();
-
-                    Date movementDate = DateUtils.parseDate(rs, "date");
-                    if (movementDate != null) {
-                        row.add(DateUtils.formatDate(movementDate, dateFormat));
-                    } else {
-                        row.add("N/A");
-                    }
+        if (selectedType != null && !"All".equals(selectedType)) {
+            conditions.add("m.type = ?");
+            params.add(selectedType);
+        }
 
-                    String productName = rs.getString("product_name");
-                    row.add(productName != null ? productName : "Product N/A");
-                    row.add(rs.getString("type"));
-                    row.add(rs.getInt("quantity"));
-                    row.add(rs.getString("reason"));
-
-                    String document = rs.getString("document_type");
-                    if (document != null && !document.isEmpty()) {
-                        String docNumber = rs.getString("document_number");
-                        if (docNumber != null && !docNumber.isEmpty()) {
-                            document += " " + docNumber;
-                        }
-                    } else {
-                        document = "";
-                    }
-                    row.add(document);
+        movementsModel.setFilter(conditions.isEmpty() ? null : String.join(" AND ", conditions), params.toArray());
+    }
 
-                    movementsModel.addRow(row);
-                }
+    private String formatDocument(WarehouseMovement movement) {
+        String document = movement.getDocumentType();
+        if (document != null && !document.isEmpty()) {
+            String docNumber = movement.getDocumentNumber();
+            if (docNumber != null && !docNumber.isEmpty()) {
+                document += " " + docNumber;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                "Error loading movements: " + e.getMessage(),
-                "Error", JOptionPane.ERROR_MESSAGE);
+            return document;
         }
+        return "";
     }
 
     private void exportProductsToPDF() {
@@ -365,14 +325,15 @@ public class WarehouseReportPanel extends JPanel {
             endDateField != null ? endDateField.getText() : "N/A");
         String fileName = String.format("warehouse_movements_%s.pdf", new SimpleDateFormat("yyyyMMdd").format(new Date()));
 
-        ReportPDFGenerator pdfGenerator = new ReportPDFGenerator(
-            movementsModel,
-            "Warehouse Report - Movement Analysis",
-            subtitle,
-            fileName
-        );
-
-        pdfGenerator.generateAndSave(this);
+        // The table only holds the pages seen so far, so export from a full snapshot
+        DataAccess.onEdt(movementsModel.snapshot(),
+            snapshot -> new ReportPDFGenerator(
+                snapshot,
+                "Warehouse Report - Movement Analysis",
+                subtitle,
+                fileName
+            ).generateAndSave(this),
+            DataAccess.errorDialog(this, "Error loading movements"));
     }
 
     private void exportProductsToCSV() {
@@ -391,7 +352,7 @@ public class WarehouseReportPanel extends JPanel {
                 // Data
                 for (int row = 0; row < productsModel.getRowCount(); row++) {
                     for (int col = 0; col < productsModel.getColumnCount(); col++) {
-                        String value = productsModel.getValueAt(row, col).toString();
+                        String value = productsModel.getExportValueAt(row, col);
                         if (value.contains(",")) {
                             value = "\"" + value + "\"";
                         }
@@ -420,41 +381,49 @@ public class WarehouseReportPanel extends JPanel {
         fileChooser.setSelectedFile(new File("warehouse_movements_report.csv"));
 
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (PrintWriter writer = new PrintWriter(new FileWriter(fileChooser.getSelectedFile()))) {
-                // Headers
-                writer.println("Warehouse Movements Report");
-                writer.println("Period: " + startDateField.getText() + " - " + endDateField.getText());
-                writer.println();
-
-                // Column headers
-                for (int i = 0; i < movementsModel.getColumnCount(); i++) {
-                    writer.print(movementsModel.getColumnName(i));
-                    writer.print(i < movementsModel.getColumnCount() - 1 ? "," : "\n");
-                }
+            File file = fileChooser.getSelectedFile();
+            // The table only holds the pages seen so far, so export from a full snapshot
+            DataAccess.onEdt(movementsModel.snapshot(),
+                snapshot -> writeMovementsCSV(file, snapshot),
+                DataAccess.errorDialog(this, "Error loading movements"));
+        }
+    }
 
-                // Data
-                for (int row = 0; row < movementsModel.getRowCount(); row++) {
-                    for (int col = 0; col < movementsModel.getColumnCount(); col++) {
-                        String value = movementsModel.getValueAt(row, col).toString();
-                        if (value.contains(",")) {
-                            value = "\"" + value + "\"";
-                        }
-                        writer.print(value);
-                        writer.print(col < movementsModel.getColumnCount() - 1 ? "," : "\n");
+    private void writeMovementsCSV(File file, TableModel model) {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            // Headers
+            writer.println("Warehouse Movements Report");
+            writer.println("Period: " + startDateField.getText() + " - " + endDateField.getText());
+            writer.println();
+
+            // Column headers
+            for (int i = 0; i < model.getColumnCount(); i++) {
+                writer.print(model.getColumnName(i));
+                writer.print(i < model.getColumnCount() - 1 ? "," : "\n");
+            }
+
+            // Data
+            for (int row = 0; row < model.getRowCount(); row++) {
+                for (int col = 0; col < model.getColumnCount(); col++) {
+                    String value = String.valueOf(model.getValueAt(row, col));
+                    if (value.contains(",")) {
+                        value = "\"" + value + "\"";
                     }
+                    writer.print(value);
+                    writer.print(col < model.getColumnCount() - 1 ? "," : "\n");
                 }
+            }
 
-                JOptionPane.showMessageDialog(this,
-                    "Movements report exported successfully",
-                    "Export Completed",
-                    JOptionPane.INFORMATION_MESSAGE);
+            JOptionPane.showMessageDialog(this,
+                "Movements report exported successfully",
+                "Export Completed",
+                JOptionPane.INFORMATION_MESSAGE);
 
-            } catch (IOException e) {
-                e.printStackTrace();
-                JOptionPane.showMessageDialog(this,
-                    "Error during export: " + e.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            JOptionPane.showMessageDialog(this,
+                "Error during export: " + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 }
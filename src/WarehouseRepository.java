@@ -0,0 +1,177 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous queries for stock levels, warehouse movements and notifications
+ */
+public class WarehouseRepository {
+    private static final String STOCK_LEVELS = """
+        SELECT p.id, p.code, p.name, p.quantity, p.reserved_quantity,
+               sm.minimum_quantity, s.company_name as supplier_name
+        FROM products p
+        LEFT JOIN minimum_stock sm ON p.id = sm.product_id
+        LEFT JOIN suppliers s ON sm.preferred_supplier_id = s.id
+        ORDER BY p.name
+    """;
+
+    /**
+     * Movement rows for a {@link PagedTableModel} (key column m.id)
+     */
+    public static final String MOVEMENT_PAGE_SELECT = """
+        SELECT m.*, p.name as product_name
+        FROM warehouse_movements m
+        JOIN products p ON m.product_id = p.id
+    """;
+
+    /**
+     * Same as MOVEMENT_PAGE_SELECT, but keeps movements of deleted products
+     */
+    public static final String MOVEMENT_REPORT_SELECT = """
+        SELECT m.*, p.name as product_name
+        FROM warehouse_movements m
+        LEFT JOIN products p ON m.product_id = p.id
+    """;
+
+    /**
+     * Movements of whole local days (parameters: start of the first day,
+     * start of the day after the last)
+     */
+    public static final String MOVEMENT_DATE_FILTER = "m.date >= ? AND m.date < ?";
+
+    /**
+     * Movements whose reason or document number matches a full-text query, or
+     * whose product name does (parameters: match query, product name match query)
+     */
+    public static final String MOVEMENT_SEARCH_FILTER = """
+        m.id IN (
+            %s
+            UNION
+            SELECT id FROM warehouse_movements WHERE %s
+        )""".formatted(SearchService.matchingIds(SearchService.Index.MOVEMENTS),
+            SearchService.matching(SearchService.Index.PRODUCTS, "product_id"));
+
+    static final String OPEN_NOTIFICATIONS = """
+        SELECT n.*, p.name as product_name
+        FROM warehouse_notifications n
+        JOIN products p ON n.product_id = p.id
+        WHERE n.status != 'HANDLED'
+        ORDER BY n.date DESC
+    """;
+
+    static final String PRODUCTS_BELOW_MINIMUM = """
+        SELECT p.id, p.name, p.quantity, sm.minimum_quantity, sm.reorder_quantity
+        FROM products p
+        JOIN minimum_stock sm ON p.id = sm.product_id
+        WHERE p.quantity <= sm.minimum_quantity
+        AND NOT EXISTS (
+            SELECT 1 FROM warehouse_notifications n
+            WHERE n.product_id = p.id
+            AND n.type = 'MIN_STOCK'
+            AND n.status != 'HANDLED'
+            AND DATE(n.date) = DATE('now')
+        )
+    """;
+
+    private static final String INSERT_NOTIFICATION = """
+        INSERT INTO warehouse_notifications
+        (product_id, date, type, message, status)
+        VALUES (?, CURRENT_TIMESTAMP, ?, ?, 'NEW')
+    """;
+
+    public static CompletableFuture<List<StockLevel>> findStockLevels() {
+        return DataAccess.read(conn -> {
+            List<StockLevel> levels = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(STOCK_LEVELS);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    levels.add(new StockLevel(
+                        rs.getInt("id"),
+                        rs.getString("code"),
+                        rs.getString("name"),
+                        rs.getInt("quantity"),
+                        rs.getInt("reserved_quantity"),
+                        rs.getInt("minimum_quantity"),
+                        rs.getString("supplier_name")
+                    ));
+                }
+            }
+            return levels;
+        });
+    }
+
+    public static CompletableFuture<List<WarehouseNotification>> findOpenNotifications() {
+        return DataAccess.read(conn -> {
+            List<WarehouseNotification> notifications = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(OPEN_NOTIFICATIONS);
+                 ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    notifications.add(new WarehouseNotification(
+                        rs.getInt("id"),
+                        rs.getInt("product_id"),
+                        rs.getString("product_name"),
+                        DateUtils.parseDate(rs, "date"),
+                        rs.getString("type"),
+                        rs.getString("message"),
+                        rs.getString("status")
+                    ));
+                }
+            }
+            return notifications;
+        });
+    }
+
+    /**
+     * Raise a MIN_STOCK notification for every product at or below its minimum
+     * that has no open notification from today. Runs on the writer.
+     *
+     * @return Number of notifications created
+     */
+    public static CompletableFuture<Integer> createLowStockNotifications() {
+        return DataAccess.write(WarehouseRepository::createLowStockNotifications);
+    }
+
+    private static int createLowStockNotifications(Connection conn) throws SQLException {
+        int created = 0;
+        try (PreparedStatement select = conn.prepareStatement(PRODUCTS_BELOW_MINIMUM);
+             ResultSet rs = select.executeQuery();
+             PreparedStatement insert = conn.prepareStatement(INSERT_NOTIFICATION)) {
+            while (rs.next()) {
+                String message = String.format(
+                    "Stock is below minimum (%d). Current quantity: %d",
+                    rs.getInt("minimum_quantity"), rs.getInt("quantity")
+                );
+                insert.setInt(1, rs.getInt("id"));
+                insert.setString(2, "MIN_STOCK");
+                insert.setString(3, message);
+                insert.executeUpdate();
+                created++;
+            }
+        }
+        return created;
+    }
+
+    public static WarehouseMovement mapMovement(ResultSet rs) throws SQLException {
+        return new WarehouseMovement(
+            rs.getInt("id"),
+            rs.getInt("product_id"),
+            rs.getString("product_name"),
+            DateUtils.parseDate(rs, "date"),
+            rs.getString("type"),
+            rs.getInt("quantity"),
+            rs.getString("reason"),
+            rs.getString("document_number"),
+            rs.getString("document_type"),
+            rs.getString("notes")
+        );
+    }
+
+    // Private constructor to prevent instantiation
+    private WarehouseRepository() {
+        throw new AssertionError("WarehouseRepository class cannot be instantiated");
+    }
+}
@@ -0,0 +1,402 @@
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single-writer transaction queue with group commit.
+ *
+ * Every multi-statement mutation is submitted here as a {@link UnitOfWork} and
+ * runs on one dedicated writer thread. Tasks that arrive close together are
+ * executed in the same SQLite transaction (one commit, one WAL sync); each task
+ * runs inside its own savepoint, so a failing task is rolled back on its own
+ * without affecting the others in the batch. A task's future completes only
+ * after the batch has been committed.
+ *
+ * Units of work must not manage the transaction themselves: the connection they
+ * receive rejects setAutoCommit, commit and rollback. Statements that cannot run
+ * inside a transaction (checkpoints, VACUUM) go through {@link #submitStandalone}.
+ */
+public class WriteQueue {
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final long GROUP_COMMIT_WINDOW_MICROS = 2_000;
+
+    /**
+     * A piece of work executed on the writer connection inside a transaction
+     */
+    @FunctionalInterface
+    public interface UnitOfWork<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Supplies the (possibly reopened) writer connection for each batch
+     */
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection getConnection() throws SQLException;
+    }
+
+    private final ConnectionSource connectionSource;
+    private final BlockingQueue<Task<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    // Connection seen by the task currently running (used for nested submissions)
+    private Connection currentConnection;
+    // Task currently running, which collects the actions registered with afterCommit
+    private Task<?> currentTask;
+
+    // Metrics
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong committedTasks = new AtomicLong();
+    private final AtomicLong failedTasks = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalCommitNanos = new AtomicLong();
+
+    public WriteQueue(ConnectionSource connectionSource) {
+        this.connectionSource = connectionSource;
+        this.writerThread = new Thread(this::runLoop, "db-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a unit of work. The future completes with the task's result once
+     * its batch has been committed, or exceptionally if the task or the commit fails.
+     */
+    public <T> CompletableFuture<T> submit(UnitOfWork<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (Thread.currentThread() == writerThread) {
+            // Nested submission from a running task: join the current transaction
+            try {
+                future.complete(work.execute(currentConnection));
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+            return future;
+        }
+        if (!running) {
+            future.completeExceptionally(new SQLException("Write queue has been shut down"));
+            return future;
+        }
+        queue.add(new Task<>(work, future, false));
+        return future;
+    }
+
+    /**
+     * Queue a unit of work that runs on its own in auto-commit mode, between
+     * batches. Used for maintenance statements that SQLite refuses inside a transaction.
+     */
+    public <T> CompletableFuture<T> submitStandalone(UnitOfWork<T> work) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        if (Thread.currentThread() == writerThread) {
+            future.completeExceptionally(new SQLException("Standalone work cannot be nested in a transaction"));
+            return future;
+        }
+        if (!running) {
+            future.completeExceptionally(new SQLException("Write queue has been shut down"));
+            return future;
+        }
+        queue.add(new Task<>(work, future, true));
+        return future;
+    }
+
+    /**
+     * Run an action once the calling unit of work has been committed, on the
+     * writer thread and before the unit's future completes. The action is
+     * dropped if the unit of work is rolled back. Called outside a unit of
+     * work (auto-commit connection), the action runs immediately.
+     */
+    public void afterCommit(Runnable action) {
+        if (Thread.currentThread() == writerThread && currentTask != null) {
+            currentTask.afterCommit.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Number of tasks waiting for the writer thread
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Run a unit of work and wait for it to be committed.
+     * Blocks the calling thread, so the work may safely read UI state owned by the caller.
+     */
+    public <T> T execute(UnitOfWork<T> work) throws SQLException {
+        return await(submit(work));
+    }
+
+    /**
+     * Wait for a submitted task, unwrapping the failure into an SQLException where possible
+     */
+    public static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the write to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Wait until every task queued so far has been committed
+     */
+    public void flush() {
+        if (Thread.currentThread() == writerThread || !running) {
+            return;
+        }
+        try {
+            execute(conn -> null);
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not flush write queue: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finish the queued work and stop the writer thread
+     */
+    public void shutdown() {
+        flush();
+        running = false;
+        writerThread.interrupt();
+    }
+
+    private void runLoop() {
+        List<Task<?>> batch = new ArrayList<>();
+        Task<?> carry = null;
+        while (running) {
+            try {
+                Task<?> first = carry != null ? carry : queue.take();
+                carry = null;
+                if (first.standalone) {
+                    runStandalone(first);
+                    continue;
+                }
+                batch.add(first);
+
+                // Group commit: keep collecting while tasks keep arriving within the window
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    Task<?> next = queue.poll(GROUP_COMMIT_WINDOW_MICROS, TimeUnit.MICROSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    if (next.standalone) {
+                        // Runs after this batch has committed
+                        carry = next;
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                runBatch(batch);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            } finally {
+                // Tasks still here were interrupted before their batch ran
+                for (Task<?> task : batch) {
+                    task.fail(new SQLException("Write queue has been shut down"));
+                }
+                batch.clear();
+            }
+        }
+
+        if (carry != null) {
+            carry.fail(new SQLException("Write queue has been shut down"));
+        }
+        Task<?> task;
+        while ((task = queue.poll()) != null) {
+            task.fail(new SQLException("Write queue has been shut down"));
+        }
+    }
+
+    private void runStandalone(Task<?> task) {
+        try {
+            Connection conn = connectionSource.getConnection();
+            currentTask = task;
+            try {
+                task.run(guard(conn));
+            } finally {
+                currentTask = null;
+            }
+            task.complete();
+        } catch (Throwable t) {
+            failedTasks.incrementAndGet();
+            task.fail(t);
+        }
+    }
+
+    private void runBatch(List<Task<?>> batch) {
+        long start = System.nanoTime();
+        Connection conn;
+        try {
+            conn = connectionSource.getConnection();
+        } catch (SQLException e) {
+            failAll(batch, e);
+            return;
+        }
+
+        Connection guarded = guard(conn);
+        List<Task<?>> succeeded = new ArrayList<>(batch.size());
+        try {
+            conn.setAutoCommit(false);
+            try {
+                currentConnection = guarded;
+                for (Task<?> task : batch) {
+                    Savepoint savepoint = conn.setSavepoint();
+                    currentTask = task;
+                    try {
+                        task.run(guarded);
+                        conn.releaseSavepoint(savepoint);
+                        succeeded.add(task);
+                    } catch (Throwable t) {
+                        conn.rollback(savepoint);
+                        conn.releaseSavepoint(savepoint);
+                        failedTasks.incrementAndGet();
+                        task.fail(t);
+                    } finally {
+                        currentTask = null;
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackEx) {
+                    rollbackEx.printStackTrace();
+                }
+                failAll(succeeded, e);
+                succeeded.clear();
+            } finally {
+                currentConnection = null;
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Warning: Could not reset auto-commit on writer connection: " + e.getMessage());
+        }
+
+        batches.incrementAndGet();
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        totalCommitNanos.addAndGet(System.nanoTime() - start);
+        for (Task<?> task : succeeded) {
+            committedTasks.incrementAndGet();
+            task.complete();
+        }
+        // Safety net for tasks left pending by an unexpected error (no-op for resolved futures)
+        for (Task<?> task : batch) {
+            task.fail(new SQLException("Write was not completed"));
+        }
+        batch.clear();
+    }
+
+    private void failAll(List<Task<?>> tasks, Throwable cause) {
+        for (Task<?> task : tasks) {
+            failedTasks.incrementAndGet();
+            task.fail(cause);
+        }
+    }
+
+    /**
+     * Wrap the writer connection so units of work cannot end the shared transaction
+     */
+    private static Connection guard(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "setAutoCommit":
+                    case "commit":
+                    case "rollback":
+                    case "setSavepoint":
+                    case "releaseSavepoint":
+                    case "close":
+                        throw new SQLException(method.getName() + " is managed by the write queue");
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+
+    public String getFormattedStats() {
+        long batchCount = batches.get();
+        long committed = committedTasks.get();
+        return String.format(
+            "Write queue: %d tasks committed in %d transactions (avg %.1f, max %d per commit), %d failed, avg transaction %.1f ms, %d pending",
+            committed, batchCount,
+            batchCount > 0 ? (double) committed / batchCount : 0.0,
+            maxBatchSize.get(), failedTasks.get(),
+            batchCount > 0 ? totalCommitNanos.get() / 1_000_000.0 / batchCount : 0.0,
+            queue.size());
+    }
+
+    /**
+     * Queued unit of work together with its pending result
+     */
+    private static class Task<T> {
+        private final UnitOfWork<T> work;
+        private final CompletableFuture<T> future;
+        private final boolean standalone;
+        private final List<Runnable> afterCommit = new ArrayList<>();
+        private T result;
+
+        Task(UnitOfWork<T> work, CompletableFuture<T> future, boolean standalone) {
+            this.work = work;
+            this.future = future;
+            this.standalone = standalone;
+        }
+
+        void run(Connection conn) throws SQLException {
+            result = work.execute(conn);
+        }
+
+        void complete() {
+            for (Runnable action : afterCommit) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            future.complete(result);
+        }
+
+        void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}